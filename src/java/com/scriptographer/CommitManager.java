@@ -93,7 +93,15 @@ public class CommitManager {
 		return commit(null, true);
 	}
 
+	/**
+	 * Returns true if there are changes waiting to be committed.
+	 */
+	public static boolean isDirty() {
+		return committables.size() > 0;
+	}
+
 	public static void markDirty(Object key, Committable committable) {
+		ScriptographerEngine.beginDocumentExecution();
 		committables.put(key, committable);
 	}
 
@@ -18,8 +18,21 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 /**
+ * Collects the output of System.out and System.err in lines and prints them
+ * to the native console. Lines can be written from any thread. They are
+ * queued and printed in batches by the main thread, at most every
+ * {@link #DRAIN_INTERVAL} milliseconds while writing, and at the latest
+ * when the execution of scripts ends. While other threads write, the main
+ * thread also prints their lines from the heartbeat of
+ * {@link ScriptographerEngine}, which it keeps awake until they stopped
+ * writing for {@link #BACKGROUND_TIMEOUT} milliseconds. If more than {@link #MAX_BACKLOG} lines are waiting, further
+ * lines are dropped and counted.
+ *
  * @author lehni
  */
 public class ConsoleOutputStream extends OutputStream {
@@ -31,86 +44,226 @@ public class ConsoleOutputStream extends OutputStream {
 	/**
 	 * some constants
 	 */
-	private static final String lineSeparator = 
+	private static final String lineSeparator =
 			System.getProperty("line.separator");
 	private static final char newLine =
 			lineSeparator.charAt(lineSeparator.length() - 1);
+	private static final Pattern separators =
+			Pattern.compile("\\n|\\r\\n|\\r");
+	private static final Pattern tabs = Pattern.compile("\\t");
+
+	/**
+	 * The minimum time between two batches printed while writing, in
+	 * milliseconds.
+	 */
+	public static final int DRAIN_INTERVAL = 50;
+
+	/**
+	 * How long the heartbeat keeps printing lines after other threads wrote
+	 * the last one, in milliseconds.
+	 */
+	public static final int BACKGROUND_TIMEOUT = 1000;
+
+	/**
+	 * The maximum amount of lines waiting to be printed.
+	 */
+	public static final int MAX_BACKLOG = 4096;
 
-	private boolean enabled;
+	private volatile boolean enabled;
 
 	// Use a ByteArrayOutputStream instead of a StringBuffer,
 	// since we receive print(int) with bytes in the platform
-	// encoding, not chars.
-	private ByteArrayOutputStream buffer;
+	// encoding, not chars. Each thread collects its own lines.
+	private ThreadLocal<ByteArrayOutputStream> buffers =
+			new ThreadLocal<ByteArrayOutputStream>() {
+		protected ByteArrayOutputStream initialValue() {
+			return new ByteArrayOutputStream();
+		}
+	};
+	private ConcurrentLinkedQueue<String> lines =
+			new ConcurrentLinkedQueue<String>();
+	private AtomicInteger queued = new AtomicInteger();
+	private AtomicInteger dropped = new AtomicInteger();
+	private int droppedTotal = 0;
+	private long lastDrain = 0;
+	// The time another thread than the main thread queued the last line
+	private volatile long lastBackgroundLine = 0;
 	private PrintStream stream;
 	private PrintStream stdOut;
 	private PrintStream stdErr;
 	private ScriptographerCallback callback = null;
+	// Prints the lines that other threads queued in the meantime
+	private Runnable heartbeatHandler = new Runnable() {
+		public void run() {
+			drain(false);
+			wakeForBackgroundLines();
+		}
+	};
 
 	private ConsoleOutputStream() {
-		buffer = new ByteArrayOutputStream();
 		stream = new PrintStream(this);
 		stdOut = System.out;
 		stdErr = System.err;
 		enabled = false;
 	}
 
-	private boolean receivedHeadlessError = false;
+	private volatile boolean receivedHeadlessError = false;
+
 	/**
-	 * Adds chars to the internal StringBuffer until a new line char is
-	 * detected, in which case the collected line is written to the native
-	 * console window through writeLine.
-	 * 
+	 * Adds chars to the buffer of the current thread until a new line char is
+	 * detected, in which case the collected line is queued for the native
+	 * console window.
+	 *
 	 * @see java.io.OutputStream#write(int)
 	 */
 	public void write(int b) throws IOException {
-		// Detect the end of a received headless error. The only way to tell is 
+		ByteArrayOutputStream buffer = buffers.get();
+		if (b != 0) // Do not write out 0 chars, since they mess up the client side
+			buffer.write(b);
+		if ((char) b == newLine) {
+			queueLine(buffer);
+			drain(false);
+		}
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		ByteArrayOutputStream buffer = buffers.get();
+		boolean received = false;
+		int start = off, end = off + len;
+		for (int i = off; i < end; i++) {
+			byte c = b[i];
+			if (c == 0) {
+				buffer.write(b, start, i - start);
+				start = i + 1;
+			} else if ((char) c == newLine) {
+				buffer.write(b, start, i + 1 - start);
+				start = i + 1;
+				queueLine(buffer);
+				received = true;
+			}
+		}
+		if (start < end)
+			buffer.write(b, start, end - start);
+		if (received)
+			drain(false);
+	}
+
+	/**
+	 * Prints the queued lines, if called from the main thread.
+	 */
+	public void flush() {
+		drain(true);
+	}
+
+	private void queueLine(ByteArrayOutputStream buffer) {
+		String str = buffer.toString();
+		buffer.reset();
+		boolean mainThread = ScriptographerEngine.isMainThreadActive();
+		// Detect the end of a received headless error. The only way to tell is
 		// once we're receiving a new text from the main thread again.
-		if (receivedHeadlessError && ScriptographerEngine.isMainThreadActive()) {
-			ScriptographerEngine.logError(buffer.toString());
-			buffer.reset();
+		if (receivedHeadlessError) {
+			if (!mainThread) {
+				ScriptographerEngine.logError(str);
+				return;
+			}
 			receivedHeadlessError = false;
+		} else if (!mainThread && ScriptographerEngine.isMacintosh()
+				&& str.indexOf("java.lang.ClassCastException: "
+						+ "sun.java2d.HeadlessGraphicsEnvironment") != -1) {
+			// Filter out weird java.lang.ClassCastException:
+			// sun.java2d.HeadlessGraphicsEnvironment on OSX 10.5
+			receivedHeadlessError = true;
+			ScriptographerEngine.logError(str);
+			return;
 		}
-		char c = (char) b;
-		if (c != 0) // Do not write out 0 chars, since they mess up the client side
-			buffer.write(c);
-		if (c == newLine) {
-			// Only print to the console if we're in the right thread to prevent UI crashes.
-			if (ScriptographerEngine.isMainThreadActive()) {
-				if (enabled) {
-					String str = buffer.toString();
-					buffer.reset();
-					// If there already is a newline at the end of this line,
-					// remove it as callback.println adds it again...
-					int pos = str.lastIndexOf(lineSeparator);
-					if (pos > 0 && pos == str.length() - lineSeparator.length())
-						str = str.substring(0, pos);
-					// Make sure we have the right line separators:
-					str = str.replaceAll("\\n|\\r\\n|\\r", lineSeparator);
-					// And convert tabs to 4 spaces
-					str = str.replaceAll("\\t", "    ");
-					ScriptographerEngine.logConsole(str);
-					callback.println(str);
-				}
-			} else if (ScriptographerEngine.isMacintosh() && !receivedHeadlessError) {
-				// Filter out weird java.lang.ClassCastException: sun.java2d.HeadlessGraphicsEnvironment on OSX 10.5
-				receivedHeadlessError = buffer.toString().indexOf(
-						"java.lang.ClassCastException: sun.java2d.HeadlessGraphicsEnvironment") != -1;
-			}
+		if (!mainThread)
+			lastBackgroundLine = System.currentTimeMillis();
+		if (queued.incrementAndGet() > MAX_BACKLOG) {
+			queued.decrementAndGet();
+			dropped.incrementAndGet();
+			return;
+		}
+		// If there already is a newline at the end of this line,
+		// remove it as callback.println adds it again...
+		int pos = str.lastIndexOf(lineSeparator);
+		if (pos > 0 && pos == str.length() - lineSeparator.length())
+			str = str.substring(0, pos);
+		// Make sure we have the right line separators:
+		if (str.indexOf('\r') != -1 || str.indexOf('\n') != -1)
+			str = separators.matcher(str).replaceAll(lineSeparator);
+		// And convert tabs to 4 spaces
+		if (str.indexOf('\t') != -1)
+			str = tabs.matcher(str).replaceAll("    ");
+		lines.add(str);
+	}
+
+	/**
+	 * Prints the queued lines to the console in one batch. Only the main
+	 * thread prints, and unless forced, only if the last batch was printed
+	 * more than {@link #DRAIN_INTERVAL} milliseconds ago.
+	 */
+	private void drain(boolean force) {
+		if (!enabled || lines.isEmpty() && dropped.get() == 0
+				|| !ScriptographerEngine.isMainThreadActive())
+			return;
+		long now = System.currentTimeMillis();
+		if (!force && now - lastDrain < DRAIN_INTERVAL)
+			return;
+		lastDrain = now;
+		StringBuffer batch = new StringBuffer();
+		boolean first = true;
+		String line;
+		while ((line = lines.poll()) != null) {
+			queued.decrementAndGet();
+			if (!first)
+				batch.append(lineSeparator);
+			batch.append(line);
+			first = false;
+		}
+		// Lines are only dropped once the queue is full, so they were written
+		// after all the queued lines.
+		int count = dropped.getAndSet(0);
+		if (count > 0) {
+			droppedTotal += count;
+			if (!first)
+				batch.append(lineSeparator);
+			batch.append("[").append(count).append(
+					" lines of console output were dropped]");
 		}
+		String str = batch.toString();
+		ScriptographerEngine.logConsole(str);
+		callback.println(str);
+		wakeForBackgroundLines();
+	}
+
+	/**
+	 * Keeps the timer heartbeat going while other threads write lines, so
+	 * they are printed even if the main thread is idle otherwise.
+	 */
+	private void wakeForBackgroundLines() {
+		if (enabled && System.currentTimeMillis() - lastBackgroundLine
+				< BACKGROUND_TIMEOUT)
+			ScriptographerEngine.wakeHeartbeat(DRAIN_INTERVAL);
+	}
+
+	/**
+	 * Prints all queued lines, if called from the main thread.
+	 */
+	public static void flushOutput() {
+		console.drain(true);
+	}
+
+	/**
+	 * Returns the amount of lines that were dropped because too many lines
+	 * were waiting to be printed.
+	 */
+	public static int getDroppedLines() {
+		return console.droppedTotal + console.dropped.get();
 	}
 
 	public static void enableOutput(boolean enabled) {
 		console.enabled = enabled && console.callback != null;
-		if (console.enabled && console.buffer.size() > 0) {
-			try {
-				// write a newline character so the buffer is flushed to the
-				// console
-				console.write(newLine);
-			} catch (IOException e) {
-				// never happens!
-			}
-		}
+		console.drain(true);
 	}
 
 	public static void enableRedirection(boolean enable) {
@@ -125,6 +278,11 @@ public class ConsoleOutputStream extends OutputStream {
 
 	protected static void setCallback(ScriptographerCallback callback) {
 		console.callback = callback;
+		if (callback != null)
+			ScriptographerEngine.addHeartbeatHandler(console.heartbeatHandler);
+		else
+			ScriptographerEngine.removeHeartbeatHandler(
+					console.heartbeatHandler);
 		enableOutput(callback != null);
 	}
-}
\ No newline at end of file
+}
@@ -387,6 +387,9 @@ public class ScriptographerEngine {
 	private static Stack<Script> scriptStack = new Stack<Script>();
 	private static boolean allowScriptCancelation = true;
 	private static Throwable lastError;
+	// Set while a lightweight execution has not accessed the document yet
+	private static boolean executionDeferred = false;
+	private static boolean deferredUpdateCoordinates;
 
 	public static Script getCurrentScript() {
 		// There can be 'holes' in the script stack, so find the first non-null
@@ -403,6 +406,15 @@ public class ScriptographerEngine {
 	 * To be called before AI functions are executed as scripts
 	 */
 	public static void beginExecution(File file, Scope scope) {
+		beginExecution(file, scope, false);
+	}
+
+	/**
+	 * A lightweight execution defers Document.beginExecution until the
+	 * document is first accessed, and does not show the progress bar.
+	 */
+	private static void beginExecution(File file, Scope scope,
+			boolean lightweight) {
 		// Since the interface is done in scripts too and we receive being /
 		// endExecution events for all UI notifications as well, we need to
 		// cheat a bit here.
@@ -421,14 +433,29 @@ public class ScriptographerEngine {
 			topDownCoordinates = CoordinateSystem.TOP_DOWN == (script != null 
 					? script.getCoordinateSystem()
 					: CoordinateSystem.DEFAULT);
-			// Pass topDownCoordinates value to the client side as well
-			Document.beginExecution(topDownCoordinates,
-					// Do not update coordinate systems for tool scripts,
-					// as this has already happened in Tool.onHandleEvent()
-					script == null || !script.isToolScript());
+			// Do not update coordinate systems for tool scripts, as this has
+			// already happened in Tool.onHandleEvent()
+			boolean updateCoordinates = script == null
+					|| !script.isToolScript();
+			if (lightweight) {
+				executionDeferred = true;
+				deferredUpdateCoordinates = updateCoordinates;
+				// Set up the coordinate system right away, as geometry may be
+				// read before the document is accessed. The native side
+				// calls beginDocumentExecution() on first handle access.
+				nativeBeginDeferredExecution(topDownCoordinates,
+						updateCoordinates);
+			} else {
+				// Pass topDownCoordinates value to the client side as well
+				Document.beginExecution(topDownCoordinates, updateCoordinates);
+			}
 			// Disable output to the console while the script is executed as it
 			// won't get updated anyway
 			// ConsoleOutputStream.enableOutput(false);
+		} else if (!lightweight) {
+			// A regular execution nested in a lightweight one needs the
+			// document to be prepared.
+			beginDocumentExecution();
 		}
 		if (file != null) {
 			Dialog.destroyAll(false, false);
@@ -441,7 +468,7 @@ public class ScriptographerEngine {
 				scope.put("script", script, true);
 			}
 		}
-		if (scriptStack.empty() || file != null) {
+		if (!lightweight && (scriptStack.empty() || file != null)) {
 			if (script != null && !script.getShowProgress()) {
 				closeProgress();
 			} else if (file == null || !file.getName().startsWith("__")) {
@@ -458,6 +485,17 @@ public class ScriptographerEngine {
 		beginExecution(null, null);
 	}
 
+	/**
+	 * Begins a lightweight execution as used by {@link #invokeLightweight},
+	 * for native callbacks that call script objects directly rather than
+	 * through a {@link Callable}. To be ended with {@link #endExecution()}.
+	 * 
+	 * @jshide
+	 */
+	public static void beginLightweightExecution() {
+		beginExecution(null, null, true);
+	}
+
 	/**
 	 * To be called after AI functions were executed.
 	 * 
@@ -467,20 +505,59 @@ public class ScriptographerEngine {
 		if (!scriptStack.empty())
 			scriptStack.pop();
 		if (scriptStack.empty()) {
-			try {
-				CommitManager.commit();
-			} catch(Throwable t) {
-				ScriptographerEngine.reportError(t);
+			// Print the output of the scripts that is still queued
+			ConsoleOutputStream.flushOutput();
+			boolean documentExecution = true;
+			if (executionDeferred) {
+				executionDeferred = false;
+				nativeEndDeferredExecution();
+				// If the document was never accessed, there is nothing to
+				// commit and no native execution to end.
+				if (CommitManager.isDirty()) {
+					Document.beginExecution(topDownCoordinates,
+							deferredUpdateCoordinates);
+				} else {
+					documentExecution = false;
+				}
+			}
+			if (documentExecution) {
+				try {
+					CommitManager.commit();
+				} catch(Throwable t) {
+					ScriptographerEngine.reportError(t);
+				}
 			}
 			Dictionary.releaseInvalid();
-			Document.endExecution();
+			if (documentExecution)
+				Document.endExecution();
 			closeProgress();
 		}
 	}
 
+	/**
+	 * Performs the Document.beginExecution deferred by a lightweight
+	 * execution. To be called before the document is accessed. The native
+	 * side calls this on the first access of any item, document or
+	 * dictionary handle.
+	 * 
+	 * @jshide
+	 */
+	public static void beginDocumentExecution() {
+		if (executionDeferred) {
+			executionDeferred = false;
+			Document.beginExecution(topDownCoordinates,
+					deferredUpdateCoordinates);
+		}
+	}
+
 	private native static void nativeSetTopDownCoordinates(
 			boolean topDownCoordinates);
 
+	private native static void nativeBeginDeferredExecution(
+			boolean topDownCoordinates, boolean updateCoordinates);
+
+	private native static void nativeEndDeferredExecution();
+
 	protected static void setTopDownCoordinates(boolean topDown) {
 		if (topDown ^ topDownCoordinates) {
 			topDownCoordinates = topDown;
@@ -511,6 +588,27 @@ public class ScriptographerEngine {
 	 * changes after execution.
 	 */
 	public static Object invoke(Callable callable, Object obj, Object... args) {
+		return invoke(callable, obj, false, args);
+	}
+
+	/**
+	 * Invokes the method like {@link #invoke}, but in a lightweight execution
+	 * for high-frequency callbacks that mostly do not touch the document,
+	 * such as drawing callbacks. The coordinate system is set up right away,
+	 * but Document.beginExecution is deferred until the document is accessed
+	 * through {@link Document#getActiveDocument},
+	 * {@link Document#getWorkingDocument}, the native handle of any item,
+	 * document, view or dictionary, or changes marked in the
+	 * {@link CommitManager}. If none of this happens, nothing is committed
+	 * after execution.
+	 */
+	public static Object invokeLightweight(Callable callable, Object obj,
+			Object... args) {
+		return invoke(callable, obj, true, args);
+	}
+
+	private static Object invoke(Callable callable, Object obj,
+			boolean lightweight, Object... args) {
 		lastError = null;
 		Scope scope;
 		if (obj instanceof Scope) {
@@ -519,7 +617,7 @@ public class ScriptographerEngine {
 		} else {
 			scope = callable.getScope();
 		}
-		beginExecution(null, scope);
+		beginExecution(null, scope, lightweight);
 		// Retrieve wrapper object for the native java object, and
 		// call the function on it.
 		Throwable throwable = null;
@@ -683,6 +781,64 @@ public class ScriptographerEngine {
 		callCallbacks(name, new Object[0]);
 	}
 
+	private static ArrayList<Runnable> heartbeatHandlers =
+			new ArrayList<Runnable>();
+
+	/**
+	 * Registers a handler that is run on the main thread on each heartbeat of
+	 * the timers, see {@link #wakeHeartbeat(int)}.
+	 * 
+	 * @jshide
+	 */
+	public static void addHeartbeatHandler(Runnable handler) {
+		if (!heartbeatHandlers.contains(handler))
+			heartbeatHandlers.add(handler);
+	}
+
+	/**
+	 * @jshide
+	 */
+	public static void removeHeartbeatHandler(Runnable handler) {
+		heartbeatHandlers.remove(handler);
+	}
+
+	/**
+	 * Makes the heartbeat of the timers fire within the given delay even if
+	 * no timer is due, so the heartbeat handlers run while the main thread
+	 * is idle otherwise. To be called from the main thread. Failures are
+	 * logged instead of thrown, as this is also called while printing.
+	 * 
+	 * @return true if the heartbeat was scheduled
+	 * @jshide
+	 */
+	public static boolean wakeHeartbeat(int delay) {
+		try {
+			Timer.wake(delay);
+			return true;
+		} catch (Throwable t) {
+			logError(t);
+			return false;
+		}
+	}
+
+	/**
+	 * Called by {@link Timer} on each heartbeat.
+	 * 
+	 * @jshide
+	 */
+	public static void onHeartbeat() {
+		// Handlers may remove themselves
+		Runnable[] handlers = heartbeatHandlers.toArray(
+				new Runnable[heartbeatHandlers.size()]);
+		for (Runnable handler : handlers) {
+			try {
+				handler.run();
+			} catch (Throwable t) {
+				logError(t);
+			}
+		}
+	}
+
 	public static void stopAll(boolean ignoreKeepAlive, boolean force) {
 		Timer.abortAll(ignoreKeepAlive, force);
 		callCallbacks("onStop");
@@ -774,6 +930,8 @@ public class ScriptographerEngine {
 
 	public static boolean updateProgress() {
 		if (isMainThreadActive()) {
+			// Long running scripts also print output written by other threads
+			ConsoleOutputStream.flushOutput();
 			boolean ret =
 					nativeUpdateProgress(progressCurrent, progressMax,
 							progressVisible);
@@ -18,6 +18,8 @@ import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.Insets;
 import java.awt.LayoutManager;
+import java.awt.LayoutManager2;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -61,15 +63,46 @@ public abstract class Component extends NotificationHandler {
 	}
 
 	public void setFont(DialogFont font) {
-		if (font != null && handle != 0)
+		if (font != null && handle != 0) {
 			nativeSetFont(font.value);
+			invalidateLayout();
+		}
 	}
 
+	// The amount of measured text sizes that are remembered
+	private static final int MAX_TEXT_SIZES = 1024;
+
+	/**
+	 * Text sizes measured in getTextSize(), by font, measuring options and
+	 * text. Measuring requires an image and a drawer, and layouts measure
+	 * the text of each of their items repeatedly.
+	 */
+	@SuppressWarnings("serial")
+	private static LinkedHashMap<String, Size> textSizes =
+			new LinkedHashMap<String, Size>(16, 0.75f, true) {
+		protected boolean removeEldestEntry(Map.Entry<String, Size> eldest) {
+			return size() > MAX_TEXT_SIZES;
+		}
+	};
+
 	public Size getTextSize(String text, int maxWidth, boolean ignoreBreaks) {
+		DialogFont font = getFont();
+		String key = font + " " + maxWidth + " " + ignoreBreaks + " " + text;
+		Size size = textSizes.get(key);
+		if (size == null) {
+			size = measureTextSize(font, text, maxWidth, ignoreBreaks);
+			textSizes.put(key, size);
+		}
+		// Callers modify the returned size
+		return new Size(size);
+	}
+
+	private static Size measureTextSize(DialogFont font, String text,
+			int maxWidth, boolean ignoreBreaks) {
 		// Create an image to get a drawer to calculate text sizes
 		Image image = new Image(1, 1, ImageType.RGB);
 		Drawer drawer = image.getDrawer();
-		drawer.setFont(getFont());
+		drawer.setFont(font);
 		// Split at new lines chars, and measure each line separately
 		String[] lines = ignoreBreaks ? new String[] {
 			text.replaceAll("\r\n|\n|\r", " ")
@@ -197,7 +230,10 @@ public abstract class Component extends NotificationHandler {
 		// e.g. HierarchyListBox
 		Callable onDraw = this.getOnDraw();
 		if (onDraw != null) {
-			Object result = ScriptographerEngine.invoke(onDraw, this, drawer);
+			Object result = ScriptographerEngine.invokeLightweight(onDraw, this,
+					drawer);
+			// Execute commands left in the buffer, before the drawer goes away
+			drawer.flush();
 			if (result != null)
 				return ConversionUtils.toBoolean(result);
 		}
@@ -252,10 +288,35 @@ public abstract class Component extends NotificationHandler {
 				|| parent != null && parent.usesLayout();
 	}
 
+	/**
+	 * Discards the sizes cached by the layouts that contain this component.
+	 * To be called when its content changes in a way that affects its size.
+	 * Walks up the AWT parents directly, as AWT only passes invalidation on
+	 * to valid containers, and the containers are never validated.
+	 */
+	protected void invalidateLayout() {
+		java.awt.Component component = getAWTComponent(false);
+		java.awt.Container parent = component != null
+				? component.getParent() : null;
+		while (parent != null) {
+			LayoutManager layout = parent.getLayout();
+			if (layout instanceof LayoutManager2)
+				((LayoutManager2) layout).invalidateLayout(parent);
+			parent = parent.getParent();
+		}
+	}
+
+	/**
+	 * Recalculates the layout, e.g. after the content of items changed.
+	 * Resizing only recalculates the parts of layouts that depend on the
+	 * size.
+	 */
 	public void doLayout() {
 		AWTContainer container = getAWTContainer(false);
-		if (container != null)
+		if (container != null) {
+			container.invalidateLayouts();
 			container.doLayout();
+		}
 	}
 
 	/**
@@ -464,5 +525,19 @@ public abstract class Component extends NotificationHandler {
 			for (java.awt.Component component : getComponents())
 				component.doLayout();
 		}
+
+		/**
+		 * Discards the sizes cached by the layouts of this container and
+		 * the containers nested in it.
+		 */
+		public void invalidateLayouts() {
+			LayoutManager layout = getLayout();
+			if (layout instanceof LayoutManager2)
+				((LayoutManager2) layout).invalidateLayout(this);
+			for (java.awt.Component component : getComponents()) {
+				if (component instanceof AWTContainer)
+					((AWTContainer) component).invalidateLayouts();
+			}
+		}
 	}
 }
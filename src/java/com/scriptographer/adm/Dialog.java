@@ -1265,8 +1265,10 @@ public abstract class Dialog extends Component {
 	 *
 	 */
 	public void doLayout() {
-		if (container != null)
+		if (container != null) {
+			container.invalidateLayouts();
 			container.doLayout();
+		}
 	}
 
 	/**
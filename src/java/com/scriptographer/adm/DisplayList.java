@@ -0,0 +1,488 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.adm;
+
+import java.awt.Color;
+import java.util.ArrayList;
+
+/**
+ * A display list records the drawing commands of a {@link Drawer} in a
+ * compact buffer on the Java side, so they can be replayed many times
+ * through {@link Drawer#drawList(DisplayList)}, each time in one single call
+ * to the native side. It offers the same drawing methods as {@link Drawer}.
+ *
+ * Sample code:
+ * <code>
+ * var list = new DisplayList();
+ * list.color = new java.awt.Color(1, 0, 0);
+ * list.drawLine(0, 0, 100, 100);
+ * // Later, in a drawing callback:
+ * drawer.drawList(list);
+ * </code>
+ *
+ * @author lehni
+ */
+public class DisplayList {
+	// The commands, each followed by its arguments. Polygons store the
+	// amount of points before their coordinates.
+	protected static final int
+		SET_COLOR = 1,
+		SET_DIALOG_COLOR = 2,
+		SET_DRAW_MODE = 3,
+		SET_FONT = 4,
+		SET_ORIGIN = 5,
+		SET_CLIP_RECT = 6,
+		INTERSECT_CLIP_RECT = 7,
+		UNION_CLIP_RECT = 8,
+		SUBTRACT_CLIP_RECT = 9,
+		SET_CLIP_POLYGON = 10,
+		INTERSECT_CLIP_POLYGON = 11,
+		UNION_CLIP_POLYGON = 12,
+		SUBTRACT_CLIP_POLYGON = 13,
+		DRAW_LINE = 14,
+		DRAW_POLYGON = 15,
+		FILL_POLYGON = 16,
+		DRAW_RECT = 17,
+		FILL_RECT = 18,
+		CLEAR_RECT = 19,
+		DRAW_SUNKEN_RECT = 20,
+		DRAW_RAISED_RECT = 21,
+		INVERT_RECT = 22,
+		DRAW_OVAL = 23,
+		FILL_OVAL = 24,
+		DRAW_IMAGE = 25,
+		DRAW_IMAGE_CENTERED = 26,
+		DRAW_TEXT = 27,
+		DRAW_TEXT_LEFT = 28,
+		DRAW_TEXT_CENTERED = 29,
+		DRAW_TEXT_RIGHT = 30,
+		DRAW_TEXT_IN_A_BOX = 31,
+		DRAW_UP_ARROW = 32,
+		DRAW_DOWN_ARROW = 33,
+		DRAW_LEFT_ARROW = 34,
+		DRAW_RIGHT_ARROW = 35;
+
+	protected int[] commands = new int[256];
+	protected int length = 0;
+	// Strings and images referenced by the commands, by index
+	protected ArrayList<Object> objects = new ArrayList<Object>();
+
+	// The area covered by the drawing commands, in drawer coordinates
+	private int left, top, right, bottom;
+	private boolean bounded = false;
+	private boolean unbounded = false;
+	private int originX = 0, originY = 0;
+
+	/**
+	 * Removes all recorded commands.
+	 */
+	public void clear() {
+		length = 0;
+		objects.clear();
+		bounded = false;
+		unbounded = false;
+		originX = originY = 0;
+	}
+
+	public boolean isEmpty() {
+		return length == 0;
+	}
+
+	/**
+	 * The area covered by the recorded commands, or {@code null} if it is not
+	 * known, as text drawn at a point has no known size.
+	 */
+	public Rectangle getBounds() {
+		if (unbounded || !bounded)
+			return null;
+		return new Rectangle(left, top, right - left, bottom - top);
+	}
+
+	/**
+	 * Returns true if the recorded commands draw into the given rectangle,
+	 * or if this is not known.
+	 */
+	protected boolean intersects(int x, int y, int width, int height) {
+		if (unbounded)
+			return true;
+		return bounded && x < right && x + width > left && y < bottom
+				&& y + height > top;
+	}
+
+	private void ensureCapacity(int count) {
+		if (length + count > commands.length) {
+			int[] newCommands = new int[Math.max(length + count,
+					commands.length * 2)];
+			System.arraycopy(commands, 0, newCommands, 0, length);
+			commands = newCommands;
+		}
+	}
+
+	private void add(int command, int... values) {
+		ensureCapacity(values.length + 1);
+		commands[length++] = command;
+		System.arraycopy(values, 0, commands, length, values.length);
+		length += values.length;
+	}
+
+	private int addObject(Object object) {
+		objects.add(object);
+		return objects.size() - 1;
+	}
+
+	private void include(int x, int y, int width, int height) {
+		x += originX;
+		y += originY;
+		if (!bounded) {
+			left = x;
+			top = y;
+			right = x + width;
+			bottom = y + height;
+			bounded = true;
+		} else {
+			left = Math.min(left, x);
+			top = Math.min(top, y);
+			right = Math.max(right, x + width);
+			bottom = Math.max(bottom, y + height);
+		}
+	}
+
+	private void addRect(int command, int x, int y, int width, int height,
+			boolean draws) {
+		add(command, x, y, width, height);
+		if (draws)
+			include(x, y, width + 1, height + 1);
+	}
+
+	private void addPolygon(int command, Point[] points, boolean draws) {
+		ensureCapacity(points.length * 2 + 2);
+		commands[length++] = command;
+		commands[length++] = points.length;
+		for (Point point : points) {
+			commands[length++] = point.x;
+			commands[length++] = point.y;
+			if (draws)
+				include(point.x, point.y, 1, 1);
+		}
+	}
+
+	/*
+	 * clip rect and polygon
+	 */
+
+	public void setClipRect(int x, int y, int width, int height) {
+		addRect(SET_CLIP_RECT, x, y, width, height, false);
+	}
+
+	public void setClipRect(Rectangle rect) {
+		setClipRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void intersectClipRect(int x, int y, int width, int height) {
+		addRect(INTERSECT_CLIP_RECT, x, y, width, height, false);
+	}
+
+	public void intersectClipRect(Rectangle rect) {
+		intersectClipRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void unionClipRect(int x, int y, int width, int height) {
+		addRect(UNION_CLIP_RECT, x, y, width, height, false);
+	}
+
+	public void unionClipRect(Rectangle rect) {
+		unionClipRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void subtractClipRect(int x, int y, int width, int height) {
+		addRect(SUBTRACT_CLIP_RECT, x, y, width, height, false);
+	}
+
+	public void subtractClipRect(Rectangle rect) {
+		subtractClipRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void setClipPolygon(Point[] points) {
+		addPolygon(SET_CLIP_POLYGON, points, false);
+	}
+
+	public void intersectClipPolygon(Point[] points) {
+		addPolygon(INTERSECT_CLIP_POLYGON, points, false);
+	}
+
+	public void unionClipPolygon(Point[] points) {
+		addPolygon(UNION_CLIP_POLYGON, points, false);
+	}
+
+	public void subtractClipPolygon(Point[] points) {
+		addPolygon(SUBTRACT_CLIP_POLYGON, points, false);
+	}
+
+	/*
+	 * port origin
+	 */
+
+	public void setOrigin(int x, int y) {
+		add(SET_ORIGIN, x, y);
+		originX = x;
+		originY = y;
+	}
+
+	public void setOrigin(Point point) {
+		setOrigin(point.x, point.y);
+	}
+
+	/*
+	 * drawing state accessors
+	 */
+
+	public void setColor(Color color) {
+		add(SET_COLOR, color.getRGB());
+	}
+
+	public void setColor(DialogColor color) {
+		if (color != null)
+			add(SET_DIALOG_COLOR, color.value);
+	}
+
+	public void setDrawMode(DrawMode mode) {
+		if (mode != null)
+			add(SET_DRAW_MODE, mode.value);
+	}
+
+	public void setFont(DialogFont font) {
+		if (font != null)
+			add(SET_FONT, font.value);
+	}
+
+	/*
+	 * simple shape drawers
+	 */
+
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		add(DRAW_LINE, x1, y1, x2, y2);
+		include(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1) + 1,
+				Math.abs(y2 - y1) + 1);
+	}
+
+	public void drawLine(Point p1, Point p2) {
+		drawLine(p1.x, p1.y, p2.x, p2.y);
+	}
+
+	public void drawPolygon(Point[] points) {
+		addPolygon(DRAW_POLYGON, points, true);
+	}
+
+	public void fillPolygon(Point[] points) {
+		addPolygon(FILL_POLYGON, points, true);
+	}
+
+	public void drawRect(int x, int y, int width, int height) {
+		addRect(DRAW_RECT, x, y, width, height, true);
+	}
+
+	public void drawRect(Rectangle rect) {
+		drawRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void fillRect(int x, int y, int width, int height) {
+		addRect(FILL_RECT, x, y, width, height, true);
+	}
+
+	public void fillRect(Rectangle rect) {
+		fillRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void clearRect(int x, int y, int width, int height) {
+		addRect(CLEAR_RECT, x, y, width, height, true);
+	}
+
+	public void clearRect(Rectangle rect) {
+		clearRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawSunkenRect(int x, int y, int width, int height) {
+		addRect(DRAW_SUNKEN_RECT, x, y, width, height, true);
+	}
+
+	public void drawSunkenRect(Rectangle rect) {
+		drawSunkenRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawRaisedRect(int x, int y, int width, int height) {
+		addRect(DRAW_RAISED_RECT, x, y, width, height, true);
+	}
+
+	public void drawRaisedRect(Rectangle rect) {
+		drawRaisedRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void invertRect(int x, int y, int width, int height) {
+		addRect(INVERT_RECT, x, y, width, height, true);
+	}
+
+	public void invertRect(Rectangle rect) {
+		invertRect(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawOval(int x, int y, int width, int height) {
+		addRect(DRAW_OVAL, x, y, width, height, true);
+	}
+
+	public void drawOval(Rectangle rect) {
+		drawOval(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void fillOval(int x, int y, int width, int height) {
+		addRect(FILL_OVAL, x, y, width, height, true);
+	}
+
+	public void fillOval(Rectangle rect) {
+		fillOval(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	/*
+	 * image and icon drawing
+	 */
+
+	public void drawImage(Image image, int x, int y, RecolorStyle style) {
+		add(DRAW_IMAGE, addObject(image), x, y,
+				style != null ? style.value : -1);
+		include(x, y, image.getWidth(), image.getHeight());
+	}
+
+	public void drawImage(Image image, Point point, RecolorStyle style) {
+		drawImage(image, point.x, point.y, style);
+	}
+
+	public void drawImage(Image image, int x, int y) {
+		drawImage(image, x, y, null);
+	}
+
+	public void drawImage(Image image, Point point) {
+		drawImage(image, point.x, point.y);
+	}
+
+	public void drawImage(Image image, int x, int y, int width, int height,
+			RecolorStyle style) {
+		add(DRAW_IMAGE_CENTERED, addObject(image), x, y, width, height,
+				style != null ? style.value : -1);
+		include(x, y, width, height);
+	}
+
+	public void drawImage(Image image, Rectangle rect, RecolorStyle style) {
+		drawImage(image, rect.x, rect.y, rect.width, rect.height, style);
+	}
+
+	public void drawImage(Image image, int x, int y, int width, int height) {
+		drawImage(image, x, y, width, height, null);
+	}
+
+	public void drawImage(Image image, Rectangle rect) {
+		drawImage(image, rect.x, rect.y, rect.width, rect.height);
+	}
+
+	/*
+	 * text drawing
+	 */
+
+	public void drawText(String text, int x, int y) {
+		add(DRAW_TEXT, addObject(text), x, y);
+		// The extent of the text is not known without measuring it
+		unbounded = true;
+	}
+
+	public void drawText(String text, Point point) {
+		drawText(text, point.x, point.y);
+	}
+
+	private void addText(int command, String text, int x, int y, int width,
+			int height) {
+		add(command, addObject(text), x, y, width, height);
+		include(x, y, width, height);
+	}
+
+	public void drawTextLeft(String text, int x, int y, int width,
+			int height) {
+		addText(DRAW_TEXT_LEFT, text, x, y, width, height);
+	}
+
+	public void drawTextLeft(String text, Rectangle rect) {
+		drawTextLeft(text, rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawTextCentered(String text, int x, int y, int width,
+			int height) {
+		addText(DRAW_TEXT_CENTERED, text, x, y, width, height);
+	}
+
+	public void drawTextCentered(String text, Rectangle rect) {
+		drawTextCentered(text, rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawTextRight(String text, int x, int y, int width,
+			int height) {
+		addText(DRAW_TEXT_RIGHT, text, x, y, width, height);
+	}
+
+	public void drawTextRight(String text, Rectangle rect) {
+		drawTextRight(text, rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawTextInABox(String text, int x, int y, int width,
+			int height) {
+		addText(DRAW_TEXT_IN_A_BOX, text, x, y, width, height);
+	}
+
+	public void drawTextInABox(String text, Rectangle rect) {
+		drawTextInABox(text, rect.x, rect.y, rect.width, rect.height);
+	}
+
+	/*
+	 * standard arrows
+	 */
+
+	public void drawUpArrow(int x, int y, int width, int height) {
+		addRect(DRAW_UP_ARROW, x, y, width, height, true);
+	}
+
+	public void drawUpArrow(Rectangle rect) {
+		drawUpArrow(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawDownArrow(int x, int y, int width, int height) {
+		addRect(DRAW_DOWN_ARROW, x, y, width, height, true);
+	}
+
+	public void drawDownArrow(Rectangle rect) {
+		drawDownArrow(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawLeftArrow(int x, int y, int width, int height) {
+		addRect(DRAW_LEFT_ARROW, x, y, width, height, true);
+	}
+
+	public void drawLeftArrow(Rectangle rect) {
+		drawLeftArrow(rect.x, rect.y, rect.width, rect.height);
+	}
+
+	public void drawRightArrow(int x, int y, int width, int height) {
+		addRect(DRAW_RIGHT_ARROW, x, y, width, height, true);
+	}
+
+	public void drawRightArrow(Rectangle rect) {
+		drawRightArrow(rect.x, rect.y, rect.width, rect.height);
+	}
+}
@@ -46,6 +46,7 @@ public class Drawer extends NativeObject {
 	}
 	
 	public void dispose() {
+		flush();
 		if (image != null) {
 			image.endDrawer();
 			image = null;
@@ -66,7 +67,12 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 
-	public native void clear();
+	private native void nativeClear();
+
+	public void clear() {
+		flush();
+		nativeClear();
+	}
 
 	/* 
 	 * bounds accessor
@@ -80,44 +86,133 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 	
-	public native Rectangle getClipRect();
-	public native void setClipRect(int x, int y, int width, int height);
+	private native Rectangle nativeGetClipRect();
+
+	public Rectangle getClipRect() {
+		flush();
+		return nativeGetClipRect();
+	}
+
+	private native void nativeSetClipRect(int x, int y, int width, int height);
+
+	public void setClipRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.setClipRect(x, y, width, height);
+		else
+			nativeSetClipRect(x, y, width, height);
+	}
 
 	public void setClipRect(Rectangle rect) {
 		setClipRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void intersectClipRect(int x, int y, int width, int height);
+	private native void nativeIntersectClipRect(int x, int y,
+			int width, int height);
+
+	public void intersectClipRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.intersectClipRect(x, y, width, height);
+		else
+			nativeIntersectClipRect(x, y, width, height);
+	}
 
 	public void intersectClipRect(Rectangle rect) {
 		intersectClipRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void unionClipRect(int x, int y, int width, int height);
+	private native void nativeUnionClipRect(int x, int y,
+			int width, int height);
+
+	public void unionClipRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.unionClipRect(x, y, width, height);
+		else
+			nativeUnionClipRect(x, y, width, height);
+	}
 
 	public void unionClipRect(Rectangle rect) {
 		unionClipRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void subtractClipRect(int x, int y, int width, int height);
+	private native void nativeSubtractClipRect(int x, int y,
+			int width, int height);
+
+	public void subtractClipRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.subtractClipRect(x, y, width, height);
+		else
+			nativeSubtractClipRect(x, y, width, height);
+	}
 
 	public void subtractClipRect(Rectangle rect) {
 		subtractClipRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void setClipPolygon(Point[] points);
-	public native void intersectClipPolygon(Point[] points);
-	public native void unionClipPolygon(Point[] points);
-	public native void subtractClipPolygon(Point[] points);
+	private native void nativeSetClipPolygon(Point[] points);
+
+	public void setClipPolygon(Point[] points) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.setClipPolygon(points);
+		else
+			nativeSetClipPolygon(points);
+	}
+
+	private native void nativeIntersectClipPolygon(Point[] points);
+
+	public void intersectClipPolygon(Point[] points) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.intersectClipPolygon(points);
+		else
+			nativeIntersectClipPolygon(points);
+	}
+
+	private native void nativeUnionClipPolygon(Point[] points);
+
+	public void unionClipPolygon(Point[] points) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.unionClipPolygon(points);
+		else
+			nativeUnionClipPolygon(points);
+	}
+
+	private native void nativeSubtractClipPolygon(Point[] points);
+
+	public void subtractClipPolygon(Point[] points) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.subtractClipPolygon(points);
+		else
+			nativeSubtractClipPolygon(points);
+	}
 	
 	/* 
 	 * port origin
 	 * 
 	 */
 	
-	public native Point getOrigin();
-	
-	public native void setOrigin(int x, int y);
+	private native Point nativeGetOrigin();
+
+	public Point getOrigin() {
+		flush();
+		return nativeGetOrigin();
+	}
+
+	private native void nativeSetOrigin(int x, int y);
+
+	public void setOrigin(int x, int y) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.setOrigin(x, y);
+		else
+			nativeSetOrigin(x, y);
+	}
 	
 	public void setOrigin(Point point) {
 		setOrigin(point.x, point.y);
@@ -128,25 +223,51 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 	
-	public native Color getColor();
-	public native void setColor(Color color);
+	private native Color nativeGetColor();
+
+	public Color getColor() {
+		flush();
+		return nativeGetColor();
+	}
+
+	private native void nativeSetRGBColor(Color color);
+
+	public void setColor(Color color) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.setColor(color);
+		else
+			nativeSetRGBColor(color);
+	}
 
 	private native void nativeSetColor(int color);
+
 	public void setColor(DialogColor color) {
-		if (color != null)
-			nativeSetColor(color.value);
+		if (color != null) {
+			DisplayList buffer = getBuffer();
+			if (buffer != null)
+				buffer.setColor(color);
+			else
+				nativeSetColor(color.value);
+		}
 	}
 	
 	private native int nativeGetDrawMode(); // Drawer.MODE_ segmentValues
 	private native void nativeSetDrawMode(int mode);
 
 	public DrawMode getDrawMode() {
+		flush();
 		return IntegerEnumUtils.get(DrawMode.class, nativeGetDrawMode());
 	}
 
 	public void setDrawMode(DrawMode mode) {
-		if (mode != null)
-			nativeSetDrawMode(mode.value);
+		if (mode != null) {
+			DisplayList buffer = getBuffer();
+			if (buffer != null)
+				buffer.setDrawMode(mode);
+			else
+				nativeSetDrawMode(mode.value);
+		}
 	}
 
 	private native int nativeGetFont();
@@ -154,12 +275,18 @@ public class Drawer extends NativeObject {
 	private native void nativeSetFont(int font);
 
 	public DialogFont getFont() {
+		flush();
 		return IntegerEnumUtils.get(DialogFont.class, nativeGetFont());
 	}
 
 	public void setFont(DialogFont font) {
-		if (font != null)
-			nativeSetFont(font.value);
+		if (font != null) {
+			DisplayList buffer = getBuffer();
+			if (buffer != null)
+				buffer.setFont(font);
+			else
+				nativeSetFont(font.value);
+		}
 	}
 
 	/* 
@@ -167,59 +294,150 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 
-	public native void drawLine(int x1, int y1, int x2, int y2);
+	private native void nativeDrawLine(int x1, int y1, int x2, int y2);
+
+	public void drawLine(int x1, int y1, int x2, int y2) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawLine(x1, y1, x2, y2);
+		else
+			nativeDrawLine(x1, y1, x2, y2);
+	}
 	
 	public void drawLine(Point p1, Point p2) {
 		drawLine(p1.x, p1.y, p2.x, p2.y);
 	}
 
-	public native void drawPolygon(Point[] points);
-	public native void fillPolygon(Point[] points);
+	private native void nativeDrawPolygon(Point[] points);
+
+	public void drawPolygon(Point[] points) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawPolygon(points);
+		else
+			nativeDrawPolygon(points);
+	}
+
+	private native void nativeFillPolygon(Point[] points);
+
+	public void fillPolygon(Point[] points) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.fillPolygon(points);
+		else
+			nativeFillPolygon(points);
+	}
 	
-	public native void drawRect(int x, int y, int width, int height);
+	private native void nativeDrawRect(int x, int y, int width, int height);
+
+	public void drawRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawRect(x, y, width, height);
+		else
+			nativeDrawRect(x, y, width, height);
+	}
 
 	public void drawRect(Rectangle rect) {
 		drawRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void fillRect(int x, int y, int width, int height);
+	private native void nativeFillRect(int x, int y, int width, int height);
+
+	public void fillRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.fillRect(x, y, width, height);
+		else
+			nativeFillRect(x, y, width, height);
+	}
 
 	public void fillRect(Rectangle rect) {
 		fillRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void clearRect(int x, int y, int width, int height);
+	private native void nativeClearRect(int x, int y, int width, int height);
+
+	public void clearRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.clearRect(x, y, width, height);
+		else
+			nativeClearRect(x, y, width, height);
+	}
 
 	public void clearRect(Rectangle rect) {
 		clearRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void drawSunkenRect(int x, int y, int width, int height);
+	private native void nativeDrawSunkenRect(int x, int y,
+			int width, int height);
+
+	public void drawSunkenRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawSunkenRect(x, y, width, height);
+		else
+			nativeDrawSunkenRect(x, y, width, height);
+	}
 
 	public void drawSunkenRect(Rectangle rect) {
 		drawSunkenRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void drawRaisedRect(int x, int y, int width, int height);
+	private native void nativeDrawRaisedRect(int x, int y,
+			int width, int height);
+
+	public void drawRaisedRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawRaisedRect(x, y, width, height);
+		else
+			nativeDrawRaisedRect(x, y, width, height);
+	}
 
 	public void drawRaisedRect(Rectangle rect) {
 		drawRaisedRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void invertRect(int x, int y, int width, int height);
+	private native void nativeInvertRect(int x, int y, int width, int height);
+
+	public void invertRect(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.invertRect(x, y, width, height);
+		else
+			nativeInvertRect(x, y, width, height);
+	}
 
 	public void invertRect(Rectangle rect) {
 		invertRect(rect.x, rect.y, rect.width, rect.height);
 	}
 
 	
-	public native void drawOval(int x, int y, int width, int height);
+	private native void nativeDrawOval(int x, int y, int width, int height);
+
+	public void drawOval(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawOval(x, y, width, height);
+		else
+			nativeDrawOval(x, y, width, height);
+	}
 
 	public void drawOval(Rectangle rect) {
 		drawOval(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void fillOval(int x, int y, int width, int height);
+	private native void nativeFillOval(int x, int y, int width, int height);
+
+	public void fillOval(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.fillOval(x, y, width, height);
+		else
+			nativeFillOval(x, y, width, height);
+	}
 
 	public void fillOval(Rectangle rect) {
 		fillOval(rect.x, rect.y, rect.width, rect.height);
@@ -241,7 +459,13 @@ public class Drawer extends NativeObject {
 	 * @param style
 	 */
 	public void drawImage(Image image, int x, int y, RecolorStyle style) {
-		nativeDrawImage(image, x, y, (style != null ? style : RecolorStyle.NO).value);
+		if (style == null)
+			style = RecolorStyle.NO;
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawImage(image, x, y, style);
+		else
+			nativeDrawImage(image, x, y, style.value);
 	}
 
 	/**
@@ -254,7 +478,15 @@ public class Drawer extends NativeObject {
 		drawImage(image, point.x, point.y, style);
 	}
 
-	public native void drawImage(Image image, int x, int y);
+	private native void nativeDrawImage(Image image, int x, int y);
+
+	public void drawImage(Image image, int x, int y) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawImage(image, x, y);
+		else
+			nativeDrawImage(image, x, y);
+	}
 
 	public void drawImage(Image image, Point point) {
 		drawImage(image, point.x, point.y);
@@ -274,8 +506,13 @@ public class Drawer extends NativeObject {
 	 */
 	public void drawImage(Image image, int x, int y,
 			int width, int height, RecolorStyle style) {
-		nativeDrawImage(image, x, y, width, height,
-				(style != null ? style : RecolorStyle.NO).value);
+		if (style == null)
+			style = RecolorStyle.NO;
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawImage(image, x, y, width, height, style);
+		else
+			nativeDrawImage(image, x, y, width, height, style.value);
 	}
 
 	/**
@@ -289,8 +526,17 @@ public class Drawer extends NativeObject {
 		drawImage(image, rt.x, rt.y, rt.width, rt.height, style);
 	}
 
-	public native void drawImage(Image image, int x, int y,
-			int width, int height);	
+	private native void nativeDrawImage(Image image, int x, int y,
+			int width, int height);
+
+	public void drawImage(Image image, int x, int y,
+			int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawImage(image, x, y, width, height);
+		else
+			nativeDrawImage(image, x, y, width, height);
+	}
 
 	public void drawImage(Image image, Rectangle rt) {
 		drawImage(image, rt.x, rt.y, rt.width, rt.height);
@@ -312,45 +558,99 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 
-	public native int getTextWidth(String text);
-	
-	public native int getTextHeight(String text, int width);
+	private native int nativeGetTextWidth(String text);
+
+	public int getTextWidth(String text) {
+		flush();
+		return nativeGetTextWidth(text);
+	}
+
+	private native int nativeGetTextHeight(String text, int width);
+
+	public int getTextHeight(String text, int width) {
+		flush();
+		return nativeGetTextHeight(text, width);
+	}
 
 	/* 
 	 * text drawing
 	 * 
 	 */
 	
-	public native void drawText(String text, int x, int y);
+	private native void nativeDrawText(String text, int x, int y);
+
+	public void drawText(String text, int x, int y) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawText(text, x, y);
+		else
+			nativeDrawText(text, x, y);
+	}
 
 	public void drawText(String text, Point point) {
 		drawText(text, point.x, point.y);
 	}
 	
-	public native void drawTextLeft(String text, int x, int y,
+	private native void nativeDrawTextLeft(String text, int x, int y,
 			int width, int height);
 
+	public void drawTextLeft(String text, int x, int y,
+			int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawTextLeft(text, x, y, width, height);
+		else
+			nativeDrawTextLeft(text, x, y, width, height);
+	}
+
 	public void drawTextLeft(String text, Rectangle rect) {
 		drawTextLeft(text, rect.x, rect.y, rect.width, rect.height);
 	}
 	
-	public native void drawTextCentered(String text, int x, int y,
+	private native void nativeDrawTextCentered(String text, int x, int y,
 			int width, int height);
 
+	public void drawTextCentered(String text, int x, int y,
+			int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawTextCentered(text, x, y, width, height);
+		else
+			nativeDrawTextCentered(text, x, y, width, height);
+	}
+
 	public void drawTextCentered(String text, Rectangle rect) {
 		drawTextCentered(text, rect.x, rect.y, rect.width, rect.height);
 	}
 	
-	public native void drawTextRight(String text, int x, int y,
+	private native void nativeDrawTextRight(String text, int x, int y,
 			int width, int height);
 
+	public void drawTextRight(String text, int x, int y,
+			int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawTextRight(text, x, y, width, height);
+		else
+			nativeDrawTextRight(text, x, y, width, height);
+	}
+
 	public void drawTextRight(String text, Rectangle rect) {
 		drawTextRight(text, rect.x, rect.y, rect.width, rect.height);
 	}
 	
-	public native void drawTextInABox(String text, int x, int y,
+	private native void nativeDrawTextInABox(String text, int x, int y,
 			int width, int height);
 
+	public void drawTextInABox(String text, int x, int y,
+			int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawTextInABox(text, x, y, width, height);
+		else
+			nativeDrawTextInABox(text, x, y, width, height);
+	}
+
 	public void drawTextInABox(String text, Rectangle rect) {
 		drawTextRight(text, rect.x, rect.y, rect.width, rect.height);
 	}
@@ -360,31 +660,139 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 
-	public native void drawUpArrow(int x, int y, int width, int height);
+	private native void nativeDrawUpArrow(int x, int y, int width, int height);
+
+	public void drawUpArrow(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawUpArrow(x, y, width, height);
+		else
+			nativeDrawUpArrow(x, y, width, height);
+	}
 
 	public void drawUpArrow(Rectangle rect) {
 		drawUpArrow(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void drawDownArrow(int x, int y, int width, int height);
+	private native void nativeDrawDownArrow(int x, int y,
+			int width, int height);
+
+	public void drawDownArrow(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawDownArrow(x, y, width, height);
+		else
+			nativeDrawDownArrow(x, y, width, height);
+	}
 
 	public void drawDownArrow(Rectangle rect) {
 		drawDownArrow(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void drawLeftArrow(int x, int y, int width, int height);
+	private native void nativeDrawLeftArrow(int x, int y,
+			int width, int height);
+
+	public void drawLeftArrow(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawLeftArrow(x, y, width, height);
+		else
+			nativeDrawLeftArrow(x, y, width, height);
+	}
 
 	public void drawLeftArrow(Rectangle rect) {
 		drawLeftArrow(rect.x, rect.y, rect.width, rect.height);
 	}
 
-	public native void drawRightArrow(int x, int y, int width, int height);
+	private native void nativeDrawRightArrow(int x, int y,
+			int width, int height);
+
+	public void drawRightArrow(int x, int y, int width, int height) {
+		DisplayList buffer = getBuffer();
+		if (buffer != null)
+			buffer.drawRightArrow(x, y, width, height);
+		else
+			nativeDrawRightArrow(x, y, width, height);
+	}
 
 	public void drawRightArrow(Rectangle rect) {
 		drawRightArrow(rect.x, rect.y, rect.width, rect.height);
 	}
 
 
+	/*
+	 * display lists
+	 * 
+	 */
+
+	private native void nativeDrawList(int[] commands, int length,
+			Object[] objects);
+
+	/**
+	 * Draws the commands recorded in the display list, in one call to the
+	 * native side.
+	 * 
+	 * @param list
+	 */
+	public void drawList(DisplayList list) {
+		flush();
+		if (list.length > 0)
+			nativeDrawList(list.commands, list.length, list.objects.toArray());
+	}
+
+	/*
+	 * command buffering
+	 * 
+	 */
+
+	// The amount of command values after which the buffer is flushed anyway
+	private static final int BUFFER_SIZE = 16 * 1024;
+
+	private DisplayList buffer;
+
+	/**
+	 * In buffered mode, drawing commands are recorded instead of executed
+	 * immediately, and sent to the native side in one call when the buffer is
+	 * flushed, which happens automatically at the end of an onDraw handler,
+	 * in {@link #dispose()} and before any state is read from the drawer.
+	 * This reduces the overhead of drawing many small shapes considerably.
+	 * 
+	 * The default is immediate mode.
+	 */
+	public boolean isBuffered() {
+		return buffer != null;
+	}
+
+	public void setBuffered(boolean buffered) {
+		if (buffered) {
+			if (buffer == null)
+				buffer = new DisplayList();
+		} else if (buffer != null) {
+			flush();
+			buffer = null;
+		}
+	}
+
+	/**
+	 * Executes the buffered drawing commands, if there are any.
+	 */
+	public void flush() {
+		if (buffer != null && buffer.length > 0) {
+			nativeDrawList(buffer.commands, buffer.length,
+					buffer.objects.toArray());
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Returns the buffer to record into, or null in immediate mode.
+	 */
+	private DisplayList getBuffer() {
+		if (buffer != null && buffer.length >= BUFFER_SIZE)
+			flush();
+		return buffer;
+	}
+
 	/* 
 	 * drawer creation/destruction
 	 * 
@@ -409,7 +817,13 @@ public class Drawer extends NativeObject {
 	 * 
 	 */
 
-	public native FontInfo getFontInfo();
+	private native FontInfo nativeGetFontInfo();
+
+	public FontInfo getFontInfo() {
+		flush();
+		return nativeGetFontInfo();
+	}
+
 	public native FontInfo getFontInfo(int font);
 
 	/* 
@@ -75,6 +75,20 @@ public class HierarchyListBox extends ListItem<HierarchyListEntry> {
 		return false;
 	}
 	
+	public void reload() {
+		reload(parentEntry == null || parentEntry.isExpanded());
+	}
+
+	/**
+	 * Child lists of collapsed entries in virtual lists only hold one empty
+	 * entry, which is enough for the parent entry to show the expand arrow.
+	 */
+	protected void reload(boolean expanded) {
+		ListDataSource source = getSource();
+		if (source != null)
+			load(expanded ? source.getCount(sourceParent) : 1);
+	}
+
 	protected int getUniqueId() {
 		// walk the hierarchy up and use the root's uniqueId function only:
 		if (parentEntry != null) {
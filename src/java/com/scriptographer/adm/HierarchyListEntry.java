@@ -14,6 +14,7 @@
 
 package com.scriptographer.adm;
 
+import com.scriptographer.ScriptographerEngine;
 import com.scriptographer.ai.Rectangle;
 
 /**
@@ -71,6 +72,38 @@ public class HierarchyListEntry extends ListEntry {
 		return childList;
 	}
 
+	protected void populate(ListDataSource source, Object row) {
+		super.populate(source, row);
+		if (source.getCount(row) > 0) {
+			HierarchyListBox list = createChildList();
+			list.sourceParent = row;
+			if (list.getSource() != source)
+				list.setSource(source);
+			else
+				list.reload();
+		} else if (childList != null) {
+			childList.remove();
+		}
+	}
+
+	protected void onNotify(Notifier notifier) {
+		super.onNotify(notifier);
+		// Virtual lists fetch the children when they are shown and release
+		// them again when they are hidden.
+		if (childList != null && childList.getSource() != null
+				&& (notifier == Notifier.EXPAND
+						|| notifier == Notifier.COLLAPSE)) {
+			ScriptographerEngine.beginLightweightExecution();
+			try {
+				childList.reload(notifier == Notifier.EXPAND);
+			} catch (Throwable t) {
+				ScriptographerEngine.reportError(t);
+			} finally {
+				ScriptographerEngine.endExecution();
+			}
+		}
+	}
+
 	public native void setExpanded(boolean expanded);
 	public native boolean isExpanded();
 
@@ -72,70 +72,67 @@ public class Image extends NativeObject {
 	}
 	
 	public Image(java.awt.Image image) {
+		this(getPixels(image));
+	}
+
+	private static ImageLoader.Pixels getPixels(java.awt.Image image) {
 		BufferedImage buf;
 		if (image instanceof BufferedImage) {
+			// Integer images are used directly, others are converted to ARGB
+			// in one pass, without drawing them into a copy first.
 			buf = (BufferedImage) image;
-			width = buf.getWidth();
-			height = buf.getHeight();
-			int imgType = buf.getType();
-			switch(imgType) {
-				// direct types:
-				case BufferedImage.TYPE_INT_RGB:
-					type = ImageType.RGB;
-					break;
-				case BufferedImage.TYPE_INT_ARGB:
-				case BufferedImage.TYPE_INT_ARGB_PRE:
-					type = ImageType.ARGB;
-					break;
-
-				// indirect types, copying is needed:
-				case BufferedImage.TYPE_4BYTE_ABGR:
-				case BufferedImage.TYPE_4BYTE_ABGR_PRE:
-				case BufferedImage.TYPE_BYTE_INDEXED: {
-					BufferedImage tmp = new BufferedImage(width, height,
-							BufferedImage.TYPE_INT_ARGB);
-					tmp.createGraphics().drawImage(buf, null, 0, 0);
-					image = tmp;
-					type = ImageType.ARGB;
-				}
-				break;
-				default: {
-					BufferedImage tmp = new BufferedImage(width, height,
-							BufferedImage.TYPE_INT_ARGB);
-					tmp.createGraphics().drawImage(buf, null, 0, 0);
-					buf = tmp;
-					type = ImageType.ARGB;
-				}
-			}
 		} else {
-			width = image.getWidth(null);
-			height = image.getHeight(null);
-			buf = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			buf = new BufferedImage(image.getWidth(null),
+					image.getHeight(null), BufferedImage.TYPE_INT_ARGB);
 			buf.getGraphics().drawImage(image, 0, 0, null);
-			type = ImageType.ARGB;
 		}
-		handle = nativeCreate(width, height, type.value);
-		DataBufferInt buffer = (DataBufferInt) buf.getRaster().getDataBuffer();
-		int data[] = buffer.getData();
-		nativeSetPixels(data, width, height, byteWidth);
+		return ImageLoader.getPixels(buf);
 	}
 	
 	public Image(Raster raster) {
-		// TODO: handle this case directly, without converting back and from
-		// a java BufferedImage, through native code in Raster (the oposite
-		// of the Raster(ui.Image image);
-		this(raster.getImage());
+		this(raster, 0, 0);
+	}
+
+	/**
+	 * Creates an image from the raster's pixels, scaled down to fit into the
+	 * given maximum size, for thumbnails. A maximum of 0 means no limit.
+	 */
+	public Image(Raster raster, int maxWidth, int maxHeight) {
+		this(getPixels(raster, maxWidth, maxHeight));
+	}
+
+	private static ImageLoader.Pixels getPixels(Raster raster, int maxWidth,
+			int maxHeight) {
+		int width = raster.getWidth(), height = raster.getHeight();
+		double scale = 1;
+		if (maxWidth > 0)
+			scale = Math.min(scale, (double) maxWidth / width);
+		if (maxHeight > 0)
+			scale = Math.min(scale, (double) maxHeight / height);
+		if (scale < 1) {
+			width = Math.max(1, (int) (width * scale));
+			height = Math.max(1, (int) (height * scale));
+		}
+		return new ImageLoader.Pixels(raster.getImagePixels(width, height),
+				width, height, raster.getColorModel().hasAlpha());
+	}
+
+	private Image(ImageLoader.Pixels pixels) {
+		this(pixels.width, pixels.height,
+				pixels.alpha ? ImageType.ARGB : ImageType.RGB);
+		nativeSetPixels(pixels.data, width, height, byteWidth);
 	}
 
-	// TODO: ImageIO (or sun graphics) on OS X have a bug with the headless mode.
-	// some images cannot be used and throw a HeadlessException when used, others
-	// work just fine. The workaround is to rely on the toolkit function.
-	// The resolution is to use helma's image object and generator mechanism here
-	// too:
 	public Image(File file) throws IOException {
-//		this(checkImage(ImageIO.read(file), file));
-		this(checkImage(waitForImage(Toolkit.getDefaultToolkit().createImage(
-				file.getPath())), file));
+		this(file, 0, 0);
+	}
+
+	/**
+	 * Loads the image and subsamples it while decoding, so that it fits into
+	 * the given maximum size. A maximum of 0 means no limit.
+	 */
+	public Image(File file, int maxWidth, int maxHeight) throws IOException {
+		this(checkImage(ImageLoader.load(file, maxWidth, maxHeight), file));
 	}
 
 	public Image(ImageProducer producer) throws IOException {
@@ -144,19 +141,28 @@ public class Image extends NativeObject {
 	}
 
 	public Image(URL url) throws IOException {
-//		this(checkImage(ImageIO.read(url), url));
-		this(checkImage(waitForImage(Toolkit.getDefaultToolkit().createImage(
-				url)), url));
+		this(url, 0, 0);
+	}
+
+	public Image(URL url, int maxWidth, int maxHeight) throws IOException {
+		this(checkImage(ImageLoader.load(url, maxWidth, maxHeight), url));
 	}
 
 	public Image(String str) throws IOException {
 		this(getURL(str));
 	}
+
+	public Image(String str, int maxWidth, int maxHeight) throws IOException {
+		this(getURL(str), maxWidth, maxHeight);
+	}
 	
 	public Image(InputStream in) throws IOException {
-//		this(checkImage(ImageIO.read(in), in));
-		this(checkImage(waitForImage(Toolkit.getDefaultToolkit().createImage(
-				getBytes(in))), in));
+		this(in, 0, 0);
+	}
+
+	public Image(InputStream in, int maxWidth, int maxHeight)
+			throws IOException {
+		this(checkImage(ImageLoader.load(in, maxWidth, maxHeight), in));
 	}
 
 	private static java.awt.Image checkImage(java.awt.Image image, Object srcObj)
@@ -167,6 +173,14 @@ public class Image extends NativeObject {
 		return image;
 	}
 
+	private static ImageLoader.Pixels checkImage(ImageLoader.Pixels pixels,
+			Object srcObj) throws IOException {
+		if (pixels == null)
+			throw new IOException("The specified image could not be read: "
+					+ srcObj);
+		return pixels;
+	}
+
 	public static java.awt.Image waitForImage(java.awt.Image image) {
 		MediaTracker mediaTracker = new MediaTracker(new Container());
 		mediaTracker.addImage(image, 0);
@@ -179,14 +193,6 @@ public class Image extends NativeObject {
 		}
 		return image;
 	}
-	
-	private static byte[] getBytes(InputStream in) throws IOException {
-		if (in == null)
-			throw new IOException("InputStream is null");
-		byte bytes[] = new byte[in.available()];
-		in.read(bytes);
-		return bytes;
-	}
 
 	private static URL getURL(String str) throws IOException {
 		// the string could either be an url or a local filename, let's try
@@ -223,7 +229,23 @@ public class Image extends NativeObject {
 		nativeGetPixels(data, width, height, byteWidth);
 		return img;
 	}
-	
+
+	/**
+	 * Returns the pixels of the image as ARGB integers, or RGB integers for
+	 * images without alpha.
+	 * 
+	 * @jshide
+	 */
+	public int[] getPixels() {
+		int[] data = new int[width * height];
+		nativeGetPixels(data, width, height, byteWidth);
+		return data;
+	}
+
+	public boolean hasAlpha() {
+		return getCompatibleType() == BufferedImage.TYPE_INT_ARGB;
+	}
+
 	public void setImage(BufferedImage image) {
 		int imgType = getCompatibleType();
 		if (image.getType() != imgType || image.getWidth() != width ||
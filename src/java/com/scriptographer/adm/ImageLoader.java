@@ -0,0 +1,283 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.adm;
+
+import java.awt.HeadlessException;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decodes images for {@link Image} through ImageIO, straight into ARGB
+ * integer pixels, optionally subsampling them on read to fit a maximum size.
+ * Images loaded from files or URLs with a known modification date are kept
+ * in a small cache, so icons used by several items are only decoded once.
+ *
+ * ImageIO on OS X fails to read some images in headless mode, so the AWT
+ * toolkit is used as a fallback whenever ImageIO cannot read an image.
+ *
+ * @author lehni
+ */
+class ImageLoader {
+	private static final long CACHE_SIZE = 8 * 1024 * 1024;
+
+	private static LinkedHashMap<String, Pixels> cache =
+			new LinkedHashMap<String, Pixels>(16, 0.75f, true);
+	private static long cacheSize = 0;
+
+	private ImageLoader() {
+		// Don't let anyone instantiate this class.
+	}
+
+	/**
+	 * Decoded ARGB pixels, in rows of width pixels. These are shared through
+	 * the cache and must not be modified.
+	 */
+	protected static class Pixels {
+		int[] data;
+		int width;
+		int height;
+		boolean alpha;
+
+		Pixels(int[] data, int width, int height, boolean alpha) {
+			this.data = data;
+			this.width = width;
+			this.height = height;
+			this.alpha = alpha;
+		}
+	}
+
+	protected static Pixels load(File file, int maxWidth, int maxHeight)
+			throws IOException {
+		if (!file.exists())
+			return null;
+		String key = getKey(file.getAbsolutePath(), file.lastModified(),
+				maxWidth, maxHeight);
+		Pixels pixels = get(key);
+		if (pixels == null) {
+			ImageInputStream in = ImageIO.createImageInputStream(file);
+			pixels = decode(in, maxWidth, maxHeight);
+			if (pixels == null) {
+				pixels = decode(Toolkit.getDefaultToolkit().createImage(
+						file.getPath()), maxWidth, maxHeight);
+			}
+			put(key, pixels);
+		}
+		return pixels;
+	}
+
+	protected static Pixels load(URL url, int maxWidth, int maxHeight)
+			throws IOException {
+		if ("file".equals(url.getProtocol())) {
+			try {
+				return load(new File(url.toURI()), maxWidth, maxHeight);
+			} catch (URISyntaxException e) {
+				// Read it as any other URL
+			} catch (IllegalArgumentException e) {
+			}
+		}
+		URLConnection connection = url.openConnection();
+		long modified = connection.getLastModified();
+		String key = modified != 0 ? getKey(url.toExternalForm(), modified,
+				maxWidth, maxHeight) : null;
+		Pixels pixels = get(key);
+		if (pixels == null) {
+			InputStream in = connection.getInputStream();
+			try {
+				pixels = load(in, maxWidth, maxHeight);
+			} finally {
+				in.close();
+			}
+			put(key, pixels);
+		}
+		return pixels;
+	}
+
+	/**
+	 * Loads an image from a stream, without using the cache. The stream is
+	 * read till its end but not closed.
+	 */
+	protected static Pixels load(InputStream in, int maxWidth, int maxHeight)
+			throws IOException {
+		if (in == null)
+			throw new IOException("InputStream is null");
+		// Buffer the stream, so the toolkit can try again if ImageIO fails
+		byte[] bytes = readBytes(in);
+		Pixels pixels = decode(ImageIO.createImageInputStream(
+				new ByteArrayInputStream(bytes)), maxWidth, maxHeight);
+		if (pixels == null) {
+			pixels = decode(Toolkit.getDefaultToolkit().createImage(bytes),
+					maxWidth, maxHeight);
+		}
+		return pixels;
+	}
+
+	protected static byte[] readBytes(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int count;
+		while ((count = in.read(buffer)) != -1)
+			out.write(buffer, 0, count);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Returns the step by which the image needs to be subsampled in order to
+	 * fit into the maximum size. A maximum of 0 means no limit.
+	 */
+	private static int getSubsampling(int width, int height, int maxWidth,
+			int maxHeight) {
+		int step = 1;
+		if (maxWidth > 0)
+			step = Math.max(step, (width + maxWidth - 1) / maxWidth);
+		if (maxHeight > 0)
+			step = Math.max(step, (height + maxHeight - 1) / maxHeight);
+		return step;
+	}
+
+	/**
+	 * Decodes the first image in the stream, or returns null if ImageIO
+	 * cannot read it. The stream is closed in any case.
+	 */
+	private static Pixels decode(ImageInputStream in, int maxWidth,
+			int maxHeight) throws IOException {
+		if (in == null)
+			return null;
+		try {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext())
+				return null;
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				int step = getSubsampling(reader.getWidth(0),
+						reader.getHeight(0), maxWidth, maxHeight);
+				ImageReadParam param = reader.getDefaultReadParam();
+				if (step > 1)
+					param.setSourceSubsampling(step, step, 0, 0);
+				// Decode straight into integer pixels where the reader
+				// supports it, to avoid converting them afterwards.
+				ImageTypeSpecifier type = getIntType(reader.getImageTypes(0));
+				if (type != null)
+					param.setDestinationType(type);
+				return getPixels(reader.read(0, param));
+			} finally {
+				reader.dispose();
+			}
+		} catch (HeadlessException e) {
+			return null;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static ImageTypeSpecifier getIntType(
+			Iterator<ImageTypeSpecifier> types) {
+		ImageTypeSpecifier rgb = null;
+		while (types.hasNext()) {
+			ImageTypeSpecifier type = types.next();
+			switch (type.getBufferedImageType()) {
+			case BufferedImage.TYPE_INT_ARGB:
+				return type;
+			case BufferedImage.TYPE_INT_RGB:
+				rgb = type;
+				break;
+			}
+		}
+		return rgb;
+	}
+
+	/**
+	 * Decodes an image through the AWT toolkit, scaling it down to the
+	 * maximum size.
+	 */
+	private static Pixels decode(java.awt.Image image, int maxWidth,
+			int maxHeight) {
+		image = Image.waitForImage(image);
+		if (image == null)
+			return null;
+		int width = image.getWidth(null), height = image.getHeight(null);
+		int step = getSubsampling(width, height, maxWidth, maxHeight);
+		width = (width + step - 1) / step;
+		height = (height + step - 1) / step;
+		BufferedImage buf = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		buf.getGraphics().drawImage(image, 0, 0, width, height, null);
+		return getPixels(buf);
+	}
+
+	/**
+	 * Returns the pixels of an image, using its own pixel buffer if it
+	 * already stores plain ARGB or RGB integers.
+	 */
+	protected static Pixels getPixels(BufferedImage image) {
+		if (image == null)
+			return null;
+		int width = image.getWidth(), height = image.getHeight();
+		boolean alpha = image.getColorModel().hasAlpha();
+		int type = image.getType();
+		if ((type == BufferedImage.TYPE_INT_ARGB
+				|| type == BufferedImage.TYPE_INT_RGB)
+				&& image.getRaster().getDataBuffer().getSize()
+						== width * height) {
+			return new Pixels(((DataBufferInt) image.getRaster()
+					.getDataBuffer()).getData(), width, height, alpha);
+		}
+		return new Pixels(image.getRGB(0, 0, width, height, null, 0, width),
+				width, height, alpha);
+	}
+
+	private static String getKey(String location, long modified,
+			int maxWidth, int maxHeight) {
+		return location + "|" + modified + "|" + maxWidth + "x" + maxHeight;
+	}
+
+	private static synchronized Pixels get(String key) {
+		return key != null ? cache.get(key) : null;
+	}
+
+	private static synchronized void put(String key, Pixels pixels) {
+		if (key == null || pixels == null)
+			return;
+		long size = pixels.data.length * 4L;
+		if (size > CACHE_SIZE / 4)
+			return;
+		Pixels previous = cache.put(key, pixels);
+		if (previous != null)
+			cacheSize -= previous.data.length * 4L;
+		cacheSize += size;
+		for (Iterator<Pixels> it = cache.values().iterator();
+				cacheSize > CACHE_SIZE && it.hasNext();) {
+			cacheSize -= it.next().data.length * 4L;
+			it.remove();
+		}
+	}
+}
@@ -288,6 +288,7 @@ public abstract class Item extends Component {
 	 */
 	public void setBounds(int x, int y, int width, int height) {
 		updateBounds(x, y, width, height, true);
+		invalidateLayout();
 	}
 
 	public final void setBounds(Rectangle bounds) {
@@ -296,6 +297,13 @@ public abstract class Item extends Component {
 
 	protected void updateBounds(int x, int y, int width, int height,
 			boolean sizeChanged) {
+		// Layouts set the bounds of all items on each relayout, so there is
+		// nothing to do for items that keep their bounds.
+		if (bounds.x == x && bounds.y == y && bounds.width == width
+				&& bounds.height == height && (!sizeChanged || sizeSet
+						&& prefSize != null && prefSize.width == width
+						&& prefSize.height == height))
+			return;
 		if (sizeChanged) {
 			// Set prefSize so getPreferredSize does not return results from
 			// getBestSize()
@@ -390,6 +398,7 @@ public abstract class Item extends Component {
 	 */
 	public void setSize(int width, int height) {
 		updateBounds(bounds.x, bounds.y, width, height, true);
+		invalidateLayout();
 	}
 
 	public final void setSize(Size size) {
@@ -532,6 +541,7 @@ public abstract class Item extends Component {
 	 */
 	public void setPreferredSize(int width, int height) {
 		prefSize = new Size(width, height);
+		invalidateLayout();
 	}
 
 	public void setPreferredSize(Size size) {
@@ -547,6 +557,7 @@ public abstract class Item extends Component {
 	 */
 	public void setMinimumSize(int width, int height) {
 		minSize = new Size(width, height);
+		invalidateLayout();
 	}
 
 	public void setMinimumSize(Size size) {
@@ -562,6 +573,7 @@ public abstract class Item extends Component {
 	 */
 	public void setMaximumSize(int width, int height) {
 		maxSize = new Size(width, height);
+		invalidateLayout();
 	}
 
 	public void setMaximumSize(Size size) {
@@ -795,7 +807,10 @@ public abstract class Item extends Component {
 		public void setBounds(int x, int y, int width, int height) {
 			super.setBounds(x, y, width, height);
 			Point origin = Item.this.getOrigin(this);
-			Item.this.setBounds(x + origin.x, y + origin.y, width, height);
+			// Bounds set by the layout do not invalidate it, as opposed to
+			// Item#setBounds()
+			Item.this.updateBounds(x + origin.x, y + origin.y, width, height,
+					true);
 		}
 
 		public void setBounds(java.awt.Rectangle r) {
@@ -804,7 +819,8 @@ public abstract class Item extends Component {
 
 		public void setSize(int width, int height) {
 			super.setSize(width, height);
-			Item.this.setSize(width, height);
+			Item.this.updateBounds(Item.this.bounds.x, Item.this.bounds.y,
+					width, height, true);
 		}
 
 		public void setSize(Dimension d) {
@@ -877,7 +893,8 @@ public abstract class Item extends Component {
 		public void setBounds(int x, int y, int width, int height) {
 			super.setBounds(x, y, width, height);
 			Point origin = Item.this.getOrigin(this);
-			Item.this.setBounds(x + origin.x, y + origin.y, width, height);
+			Item.this.updateBounds(x + origin.x, y + origin.y, width, height,
+					true);
 		}
 
 		public void setBounds(java.awt.Rectangle r) {
@@ -886,7 +903,8 @@ public abstract class Item extends Component {
 
 		public void setSize(int width, int height) {
 			super.setSize(width, height);
-			Item.this.setSize(width, height);
+			Item.this.updateBounds(Item.this.bounds.x, Item.this.bounds.y,
+					width, height, true);
 		}
 
 		public void setSize(Dimension d) {
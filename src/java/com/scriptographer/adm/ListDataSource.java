@@ -0,0 +1,45 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.adm;
+
+/**
+ * Provides the rows of a {@link ListItem} in virtual mode, see
+ * {@link ListItem#setSource(ListDataSource)}. Rows can be any objects. They
+ * are retrieved by index from their parent row, with {@code null} as the
+ * parent of the top level rows.
+ *
+ * @author lehni
+ */
+public interface ListDataSource {
+	/**
+	 * Returns the amount of children of the row, or the amount of top level
+	 * rows if row is {@code null}.
+	 */
+	public int getCount(Object row);
+
+	/**
+	 * Returns the child of parent at the given index.
+	 */
+	public Object getRow(Object parent, int index);
+
+	public String getText(Object row);
+
+	/**
+	 * Returns the icon of the row, either as an {@link Image} or anything
+	 * else that can be loaded as an image, e.g. a file or url. Returns
+	 * {@code null} for rows without icons.
+	 */
+	public Object getImage(Object row);
+}
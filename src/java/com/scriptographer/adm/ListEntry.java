@@ -65,10 +65,29 @@ public class ListEntry extends NotificationHandler {
 	public native boolean defaultTrack(Tracker tracker);
 	public native void defaultDraw(Drawer drawer);
 
+	// The source version of the list that the content was fetched for
+	private int sourceVersion = -1;
+
 	protected boolean onDraw(Drawer drawer) {
+		ListDataSource source = list.getSource();
+		if (source != null && sourceVersion != list.sourceVersion) {
+			sourceVersion = list.sourceVersion;
+			// The source is a script object, so call it in an execution and
+			// report its errors like the ones of the callbacks.
+			ScriptographerEngine.beginLightweightExecution();
+			try {
+				populate(source, source.getRow(list.sourceParent, getIndex()));
+			} catch (Throwable t) {
+				ScriptographerEngine.reportError(t);
+			} finally {
+				ScriptographerEngine.endExecution();
+			}
+		}
 		Callable onDrawEntry = list.getOnDrawEntry();
 		if (onDrawEntry != null) {
-			Object result = ScriptographerEngine.invoke(onDrawEntry, list, drawer, this);
+			Object result = ScriptographerEngine.invokeLightweight(onDrawEntry,
+					list, drawer, this);
+			drawer.flush();
 			if (result != null)
 				return ConversionUtils.toBoolean(result);
 		}
@@ -154,6 +173,19 @@ public class ListEntry extends NotificationHandler {
 		}
 	}
 
+	/**
+	 * Fills in the content of the entry from the row of the data source of a
+	 * virtual list.
+	 */
+	protected void populate(ListDataSource source, Object row) {
+		setText(source.getText(row));
+		try {
+			setImage(source.getImage(row));
+		} catch (IOException e) {
+			throw new ScriptographerException(e);
+		}
+	}
+
 	/*
 	 * entry creation/destruction
 	 * 
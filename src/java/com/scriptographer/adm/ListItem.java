@@ -139,7 +139,8 @@ public abstract class ListItem<E extends ListEntry> extends Item implements
 	}
 
 	public void setDrawEntryCallback(boolean enabled) {
-		nativeSetDrawEntryCallback(enabled);
+		// Virtual lists need the callback to fill in the visible entries
+		nativeSetDrawEntryCallback(enabled || source != null);
 		drawEntryCallback = enabled;
 	}
 
@@ -210,6 +211,65 @@ public abstract class ListItem<E extends ListEntry> extends Item implements
 	protected native void nativeSetTrackEntryCallback(boolean enabled);
 	protected native void nativeSetDrawEntryCallback(boolean enabled);
 
+	/*
+	 * virtual mode
+	 *
+	 */
+
+	private ListDataSource source = null;
+	// The row whose children are shown, for child lists of virtual lists
+	protected Object sourceParent = null;
+	// Entries fetch their content again when this does not match theirs
+	protected int sourceVersion = 0;
+
+	public ListDataSource getSource() {
+		return source;
+	}
+
+	/**
+	 * Switches the list to virtual mode, in which its entries are provided by
+	 * the data source. Text and icon are only fetched from the source once an
+	 * entry is drawn for the first time. In {@link HierarchyListBox} lists,
+	 * children are only fetched when their parent entry is expanded, and
+	 * released again when it is collapsed.
+	 * 
+	 * The rows themselves are not virtual: ADM does not let plugins read the
+	 * scroll position, so one empty native entry is still created for each
+	 * row, and building and holding these grows with the amount of rows.
+	 * What is saved is fetching and setting the content of rows that are
+	 * never shown.
+	 * 
+	 * Setting the source to {@code null} ends virtual mode, but leaves the
+	 * entries in the list.
+	 * 
+	 * @param source
+	 */
+	public void setSource(ListDataSource source) {
+		this.source = source;
+		nativeSetDrawEntryCallback(drawEntryCallback || source != null);
+		reload();
+	}
+
+	/**
+	 * Updates the entries of a virtual list after the content of its data
+	 * source has changed. Existing entries are reused for the new rows, and
+	 * their content is fetched again when they are drawn next.
+	 */
+	public void reload() {
+		if (source != null)
+			load(source.getCount(sourceParent));
+	}
+
+	protected void load(int count) {
+		sourceVersion++;
+		int size = size();
+		for (int i = size - 1; i >= count; i--)
+			remove(i);
+		for (int i = size; i < count; i++)
+			createEntry(-1);
+		invalidate();
+	}
+
 	/*
 	 * menu IDs
 	 *
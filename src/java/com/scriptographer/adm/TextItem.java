@@ -45,6 +45,7 @@ public abstract class TextItem extends Item {
 		// trim the space here, but store it in the text field,
 		// so getBestSize takes it into account.
 		nativeSetText(text != null ? text.trim() : text);
+		invalidateLayout();
 	}
 
 	public String getText() {
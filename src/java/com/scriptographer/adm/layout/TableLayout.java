@@ -14,12 +14,30 @@
 
 package com.scriptographer.adm.layout;
 
+import java.awt.Container;
+import java.awt.Dimension;
+
 import com.scratchdisk.util.ConversionUtils;
 
 /**
+ * Adds caching to the layout: The sizes of preferred and minimum rows and
+ * columns do not depend on the size of the container, so they are reused
+ * when the container is resized and only relative and fill rows and columns
+ * are calculated again. Cached sizes are discarded whenever the layout is
+ * invalidated, e.g. through {@link com.scriptographer.adm.Dialog#doLayout()}
+ * or by adding and removing components.
+ * 
  * @author lehni
  */
 public class TableLayout extends info.clearthought.layout.TableLayout {
+	// Sizes of preferred and minimum rows and columns, as calculated for the
+	// container, by type of size and then by row / column.
+	private int[][][] prefMinSizes = new int[2][2][];
+	// Preferred and minimum layout sizes
+	private Dimension[] layoutSizes = new Dimension[2];
+	private boolean calculating = false;
+	// Set when calculateLayoutSize() replaced the sizes of rows and columns
+	private boolean replaced = false;
 
 	public TableLayout(double[][] sizes, int hgap, int vgap) {
 		super(sizes[0], sizes[1]);
@@ -79,16 +97,93 @@ public class TableLayout extends info.clearthought.layout.TableLayout {
 	 */
 	public void setHgap(int hgap) {
 		this.hGap = hgap;
+		dirty = true;
 	}
 	/* overrides setVGap to allow negative gaps
 	 * @see info.clearthought.layout.TableLayout#setVGap(int)
 	 */
 	public void setVgap(int vgap) {
 		this.vGap = vgap;
+		dirty = true;
 	}
 	
 	public void setGaps(int hgap, int vgap) {
 		this.hGap = hgap;
 		this.vGap = vgap;
+		dirty = true;
+	}
+
+	private static int getIndex(double typeOfSize) {
+		return typeOfSize == PREFERRED ? 0 : 1;
+	}
+
+	private void validateCache() {
+		// All changes to the layout and its components set dirty, and it is
+		// only cleared again in calculateSize()
+		if (dirty) {
+			prefMinSizes = new int[2][2][];
+			layoutSizes = new Dimension[2];
+		}
+	}
+
+	protected void calculateSize(Container container) {
+		validateCache();
+		calculating = true;
+		try {
+			super.calculateSize(container);
+		} finally {
+			calculating = false;
+		}
+	}
+
+	protected int assignPrefMinSize(int z, int availableSize,
+			double typeOfSize) {
+		// Only reuse the sizes assigned for the container, as
+		// calculateLayoutSize() assigns them without the minimum sizes.
+		if (!calculating)
+			return super.assignPrefMinSize(z, availableSize, typeOfSize);
+		int index = getIndex(typeOfSize);
+		int[] sizes = prefMinSizes[index][z];
+		if (sizes == null) {
+			availableSize = super.assignPrefMinSize(z, availableSize,
+					typeOfSize);
+			prefMinSizes[index][z] = crSize[z].clone();
+		} else {
+			for (int i = 0; i < sizes.length; i++) {
+				if (crSpec[z][i] == typeOfSize) {
+					crSize[z][i] = sizes[i];
+					availableSize -= sizes[i];
+				}
+			}
+		}
+		return availableSize;
+	}
+
+	public void layoutContainer(Container container) {
+		if (replaced) {
+			calculateSize(container);
+			replaced = false;
+		}
+		super.layoutContainer(container);
+	}
+
+	public Dimension preferredLayoutSize(Container container) {
+		return getLayoutSize(container, PREFERRED);
+	}
+
+	public Dimension minimumLayoutSize(Container container) {
+		return getLayoutSize(container, MINIMUM);
+	}
+
+	private Dimension getLayoutSize(Container container, double typeOfSize) {
+		validateCache();
+		int index = getIndex(typeOfSize);
+		if (layoutSizes[index] == null) {
+			// calculateLayoutSize() replaces the sizes of the rows and
+			// columns, so they need to be calculated again for layouting.
+			layoutSizes[index] = calculateLayoutSize(container, typeOfSize);
+			replaced = true;
+		}
+		return new Dimension(layoutSizes[index]);
 	}
 }
@@ -21,6 +21,7 @@ import com.scriptographer.ScriptographerException;
 import com.scratchdisk.script.Callable;
 import com.scratchdisk.util.IntMap;
 import com.scratchdisk.util.SoftIntMap;
+import com.scriptographer.adm.DisplayList;
 import com.scriptographer.adm.Drawer;
 
 /**
@@ -30,6 +31,9 @@ import com.scriptographer.adm.Drawer;
  */
 public class Annotator extends NativeObject {
 	private boolean active;
+	private boolean retained = false;
+	// The views this annotator has drawn into, by view handle
+	private IntMap<ViewState> views = new IntMap<ViewState>();
 
 	private static IntMap<Annotator> annotators = new IntMap<Annotator>();
 	private static ArrayList<Annotator> unusedAnnotators = null;
@@ -87,20 +91,84 @@ public class Annotator extends NativeObject {
 	private native boolean nativeSetActive(int handle, boolean active);
 
 	/**
+	 * Specifies whether the drawing is retained. A retained annotator calls
+	 * {@link #getOnDraw()} with a {@link DisplayList} instead of a drawer,
+	 * once for each view, and keeps redrawing the recorded commands until
+	 * the annotator is invalidated or the view is scrolled or zoomed.
+	 * 
+	 * @return {@true if the drawing is retained}
+	 */
+	public boolean isRetained() {
+		return retained;
+	}
+
+	public void setRetained(boolean retained) {
+		this.retained = retained;
+		for (ViewState state : views.values())
+			state.list = null;
+	}
+
+	/**
+	 * Invalidates the given area in all views the annotator has drawn into.
+	 * If it has not drawn into any open view yet, the area is invalidated in
+	 * the current view, which the native side uses for the view handle 0.
+	 * 
 	 * @jshide
 	 */
 	public void invalidate(int x, int y, int width, int height) {
-		nativeInvalidate(handle, x, y, width, height);
+		removeClosedViews();
+		if (views.isEmpty()) {
+			// Not drawn yet, invalidate the current view
+			nativeInvalidate(0, x, y, width, height);
+		} else {
+			for (ViewState state : views.values()) {
+				state.valid = false;
+				state.invalidate(x, y, width, height);
+			}
+		}
 	}
 	
 	public void invalidate(Rectangle rect) {
-		// TODO: implement DocumentView and pass handle to it!
-		nativeInvalidate(handle, (int) rect.x, (int) rect.y,
-				(int) rect.width, (int) rect.height);
+		invalidate((int) rect.x, (int) rect.y, (int) rect.width,
+				(int) rect.height);
+	}
+
+	/**
+	 * Invalidates the area drawn by the annotator in all views. For retained
+	 * annotators, the drawing is recorded again on the next redraw.
+	 */
+	public void invalidate() {
+		removeClosedViews();
+		for (ViewState state : views.values()) {
+			state.valid = false;
+			Rectangle bounds = state.getBounds();
+			if (bounds != null) {
+				state.invalidate((int) bounds.x, (int) bounds.y,
+						(int) bounds.width, (int) bounds.height);
+			} else {
+				state.invalidate(0, 0, MAX_SIZE, MAX_SIZE);
+			}
+		}
 	}
 	
 	private native void nativeInvalidate(int viewHandle, int x, int y,
 			int width, int height);
+
+	/**
+	 * Removes the states of the views that were closed since the annotator
+	 * drew into them, as their handles are not valid anymore.
+	 */
+	private void removeClosedViews() {
+		// As remove() modifies the map, using an iterator is not possible here:
+		Object[] states = views.values().toArray();
+		for (int i = 0; i < states.length; i++) {
+			DocumentView view = ((ViewState) states[i]).view;
+			Document document = view.getDocument();
+			if (document == null || !document.isValid()
+					|| !document.getViews().containsHandle(view.handle))
+				views.remove(view.handle);
+		}
+	}
 	
 	public void dispose() {
 		// see whether we're still linked:
@@ -147,8 +215,48 @@ public class Annotator extends NativeObject {
 	}
 
 	protected void onDraw(Drawer drawer, DocumentView view) {
-		if (onDraw != null)
-			ScriptographerEngine.invoke(onDraw, this, drawer, view);
+		if (onDraw != null) {
+			ViewState state = views.get(view.handle);
+			if (state == null) {
+				state = new ViewState();
+				views.put(view.handle, state);
+			}
+			state.view = view;
+			if (retained) {
+				Rectangle bounds = view.getBounds();
+				boolean moved = state.bounds != null
+						&& !bounds.equals(state.bounds);
+				if (state.list == null || !state.valid || moved) {
+					if (state.list == null)
+						state.list = new DisplayList();
+					state.list.clear();
+					ScriptographerEngine.invokeLightweight(onDraw, this,
+							state.list, view);
+					state.bounds = bounds;
+					state.valid = true;
+					// If the new drawing extends beyond the invalidated area,
+					// it needs another redraw to appear completely. Scrolling
+					// and zooming redraw the whole view anyway.
+					Rectangle drawn = state.getBounds();
+					if (!moved) {
+						if (drawn == null) {
+							state.invalidate(0, 0, MAX_SIZE, MAX_SIZE);
+						} else if (!state.isDirty((int) drawn.x,
+								(int) drawn.y, (int) drawn.width,
+								(int) drawn.height)) {
+							state.invalidate((int) drawn.x, (int) drawn.y,
+									(int) drawn.width, (int) drawn.height);
+						}
+					}
+				}
+				state.clearDirty();
+				drawer.drawList(state.list);
+			} else {
+				ScriptographerEngine.invokeLightweight(onDraw, this, drawer,
+						view);
+				drawer.flush();
+			}
+		}
 	}
 
 	private Callable onInvalidate = null;
@@ -212,4 +320,56 @@ public class Annotator extends NativeObject {
 	protected void finalize() {
 		dispose();
 	}
+
+	/**
+	 * The size used to invalidate the whole view, big enough for any
+	 * screen.
+	 */
+	private static final int MAX_SIZE = 10000;
+
+	/**
+	 * The display list recorded for a view, and the area of the view that
+	 * was invalidated since it was last drawn.
+	 */
+	private class ViewState {
+		DocumentView view;
+		DisplayList list;
+		// The view bounds the list was recorded for
+		Rectangle bounds;
+		boolean valid = false;
+		int left, top, right, bottom;
+		boolean dirty = false;
+
+		Rectangle getBounds() {
+			com.scriptographer.adm.Rectangle bounds = list != null
+					? list.getBounds() : null;
+			return bounds != null ? new Rectangle(bounds.x, bounds.y,
+					bounds.width, bounds.height) : null;
+		}
+
+		void invalidate(int x, int y, int width, int height) {
+			if (!dirty) {
+				left = x;
+				top = y;
+				right = x + width;
+				bottom = y + height;
+				dirty = true;
+			} else {
+				left = Math.min(left, x);
+				top = Math.min(top, y);
+				right = Math.max(right, x + width);
+				bottom = Math.max(bottom, y + height);
+			}
+			nativeInvalidate(view.handle, x, y, width, height);
+		}
+
+		boolean isDirty(int x, int y, int width, int height) {
+			return dirty && x >= left && y >= top && x + width <= right
+					&& y + height <= bottom;
+		}
+
+		void clearDirty() {
+			dirty = false;
+		}
+	}
 }
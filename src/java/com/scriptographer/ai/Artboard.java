@@ -89,9 +89,6 @@ public class Artboard extends AbstractStructList.Entry<Document> implements Chan
 		super(document, index);
 	}
 
-	/**
-	 * Called from the native side
-	 */
 	protected void set(Rectangle bounds, boolean showCenter,
 			boolean showCrossHairs, boolean showSafeAreas,
 			double pixelAspectRatio) {
@@ -102,17 +99,30 @@ public class Artboard extends AbstractStructList.Entry<Document> implements Chan
 		this.pixelAspectRatio = pixelAspectRatio;
 	}
 
-	protected boolean nativeGet() {
-		return ArtboardList.nativeGet(reference.handle, index, this);
+	protected ArtboardList getList() {
+		return reference.getArtboards();
 	}
 
-	protected boolean nativeInsert() {
-		return ArtboardList.nativeInsert(reference.handle, index, bounds, showCenter,
-				showCrossHairs, showSafeAreas, pixelAspectRatio);
+	protected void setValues(double[] values, int offset) {
+		set(new Rectangle(values[offset], values[offset + 1],
+				values[offset + 2], values[offset + 3]),
+				values[offset + 4] != 0, values[offset + 5] != 0,
+				values[offset + 6] != 0, values[offset + 7]);
 	}
 
-	protected boolean nativeSet() {
-		return ArtboardList.nativeSet(reference.handle, index, bounds, showCenter,
+	protected void getValues(double[] values, int offset) {
+		values[offset] = bounds.x;
+		values[offset + 1] = bounds.y;
+		values[offset + 2] = bounds.width;
+		values[offset + 3] = bounds.height;
+		values[offset + 4] = showCenter ? 1 : 0;
+		values[offset + 5] = showCrossHairs ? 1 : 0;
+		values[offset + 6] = showSafeAreas ? 1 : 0;
+		values[offset + 7] = pixelAspectRatio;
+	}
+
+	protected boolean nativeInsert() {
+		return ArtboardList.nativeInsert(reference.handle, index, bounds, showCenter,
 				showCrossHairs, showSafeAreas, pixelAspectRatio);
 	}
 
@@ -23,8 +23,12 @@ import com.scriptographer.list.AbstractStructList;
  */
 public class ArtboardList extends AbstractStructList<Document, Artboard> {
 	
+	// How many values are stored per artboard: x, y, width, height,
+	// showCenter, showCrossHairs, showSafeAreas, pixelAspectRatio
+	protected static final int VALUES_PER_ARTBOARD = 8;
+
 	protected ArtboardList(Document document) {
-		super(document);
+		super(document, VALUES_PER_ARTBOARD);
 	}
 
 	public Class<Artboard> getComponentType() {
@@ -43,17 +47,25 @@ public class ArtboardList extends AbstractStructList<Document, Artboard> {
 		return nativeRemove(reference.handle, fromIndex, toIndex);
 	}
 
+	protected boolean nativeGet(int index, int count, double[] values) {
+		return nativeGet(reference.handle, index, count, values);
+	}
+
+	protected boolean nativeSet(int index, int count, double[] values) {
+		return nativeSet(reference.handle, index, count, values);
+	}
+
 	private static native int nativeGetSize(int handle);
 
 	private static native int nativeRemove(int handle, int fromIndex, int toIndex);
 
-	protected static native boolean nativeGet(int handle, int index, Artboard artboard);
+	private static native boolean nativeGet(int handle, int index, int count,
+			double[] values);
 
 	protected static native boolean nativeInsert(int handle, int index,
 			Rectangle bounds, boolean showCenter, boolean showCrossHairs,
 			boolean showSafeAreas, double pixelAspectRatio);
 
-	protected static native boolean nativeSet(int handle, int index,
-			Rectangle bounds, boolean showCenter, boolean showCrossHairs,
-			boolean showSafeAreas, double pixelAspectRatio);
+	private static native boolean nativeSet(int handle, int index, int count,
+			double[] values);
 }
@@ -84,7 +84,7 @@ public abstract class Color implements ChangeEmitter {
 		else this.alpha = alpha;
 	}
 
-	private native Color nativeConvert(int type);
+	protected native Color nativeConvert(int type);
 
 	/**
 	 * Converts the color into another color space.
@@ -93,7 +93,36 @@ public abstract class Color implements ChangeEmitter {
 	 * @return the converted color.
 	 */
 	public Color convert(ColorType type) {
-		return type == getType() ? this : nativeConvert(type.value);
+		if (type == getType())
+			return this;
+		Color color = ColorConverter.convert(this, type);
+		return color != null ? color : nativeConvert(type.value);
+	}
+
+	/**
+	 * Converts a series of colors from one color type into another. The
+	 * components of the colors are stored one after the other, including the
+	 * alpha value for types with an alpha channel. Converting many colors
+	 * this way is much faster than converting them one by one, but may differ
+	 * slightly from {@link #convert(ColorType)}, as the results are
+	 * interpolated from a lookup table.
+	 *
+	 * @param src the components of the colors to convert
+	 * @param from the color type of the source components
+	 * @param to the color type to convert to
+	 * @param dst the array receiving the converted components
+	 */
+	public static void convert(float[] src, ColorType from, ColorType to,
+			float[] dst) {
+		int srcSize = ColorConverter.getSize(ColorConverter.getModel(from))
+				+ (from.alpha ? 1 : 0);
+		int dstSize = ColorConverter.getSize(ColorConverter.getModel(to))
+				+ (to.alpha ? 1 : 0);
+		int count = src.length / srcSize;
+		if (dst.length < count * dstSize)
+			throw new IllegalArgumentException("dst needs to hold at least "
+					+ (count * dstSize) + " values.");
+		ColorConverter.convert(src, 0, from, dst, 0, to, count);
 	}
 
 	/**
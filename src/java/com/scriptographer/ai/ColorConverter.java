@@ -0,0 +1,334 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Converts colors between the gray, RGB and CMYK models on the Java side, to
+ * avoid native calls for repeated conversions.
+ *
+ * Single conversions are exact: They are performed by Illustrator's color
+ * management, and the results are kept in a bounded cache of recent
+ * conversions. Bulk conversions use lookup tables that are sampled from
+ * Illustrator's conversions of a regular grid of colors once per session,
+ * and interpolate between them. Where Illustrator cannot convert a color, the
+ * simple device formulas in {@link #convertFormula} are used instead.
+ *
+ * Alpha is never converted, it is copied over if the target type has an
+ * alpha channel, just like in native conversions, and set to 1 if the color
+ * has none.
+ *
+ * @author lehni
+ */
+class ColorConverter {
+	private static final int CACHE_SIZE = 1024;
+
+	/**
+	 * The amount of grid points per component in the lookup tables, for
+	 * gray, RGB and CMYK input.
+	 */
+	private static final int[] GRID_SIZES = { 256, 17, 11 };
+
+	@SuppressWarnings("serial")
+	private static LinkedHashMap<Key, float[]> cache =
+			new LinkedHashMap<Key, float[]>(CACHE_SIZE, 0.75f, true) {
+				protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+					return size() > CACHE_SIZE;
+				}
+			};
+
+	private static LookupTable[][] tables =
+			new LookupTable[ColorModel.values().length][ColorModel.values().length];
+
+	private ColorConverter() {
+		// Don't let anyone instantiate this class.
+	}
+
+	protected static ColorModel getModel(ColorType type) {
+		if (type == null)
+			throw new IllegalArgumentException("Unsupported color type.");
+		switch (type) {
+		case GRAY:
+		case AGRAY:
+			return ColorModel.GRAY;
+		case RGB:
+		case ARGB:
+			return ColorModel.RGB;
+		case CMYK:
+		case ACMYK:
+			return ColorModel.CMYK;
+		}
+		return null;
+	}
+
+	protected static int getSize(ColorModel model) {
+		if (model == null)
+			throw new IllegalArgumentException("Unsupported color type.");
+		switch (model) {
+		case GRAY:
+			return 1;
+		case RGB:
+			return 3;
+		default:
+			return 4;
+		}
+	}
+
+	private static Color createColor(ColorModel model, float[] values,
+			int offset, float alpha) {
+		switch (model) {
+		case GRAY:
+			return new GrayColor(values[offset], alpha);
+		case RGB:
+			return new RGBColor(values[offset], values[offset + 1],
+					values[offset + 2], alpha);
+		default:
+			return new CMYKColor(values[offset], values[offset + 1],
+					values[offset + 2], values[offset + 3], alpha);
+		}
+	}
+
+	/**
+	 * Converts a color, or returns null if the conversion is not supported.
+	 */
+	protected static Color convert(Color color, ColorType type) {
+		ColorType fromType = color.getType();
+		if (fromType == null || type == null)
+			return null;
+		ColorModel from = getModel(fromType), to = getModel(type);
+		if (from == null || to == null)
+			return null;
+		float[] components = color.getComponents();
+		int size = getSize(from);
+		// Colors without alpha are opaque, like the default of the Color
+		// constructors
+		float alpha = -1;
+		if (type.alpha)
+			alpha = color.hasAlpha() ? components[size] : 1;
+		float[] values;
+		if (from == to) {
+			// Only the alpha channel differs
+			values = components;
+		} else {
+			values = convert(components, 0, from, to);
+		}
+		return createColor(to, values, 0, alpha);
+	}
+
+	/**
+	 * Converts the color values at offset exactly, through the cache.
+	 */
+	private static float[] convert(float[] values, int offset, ColorModel from,
+			ColorModel to) {
+		float[] key = new float[getSize(from)];
+		System.arraycopy(values, offset, key, 0, key.length);
+		Key cacheKey = new Key(from, to, key);
+		float[] result = cache.get(cacheKey);
+		if (result == null) {
+			result = convertNative(key, from, to);
+			cache.put(cacheKey, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Converts the color values through Illustrator, bypassing the cache, or
+	 * through {@link #convertFormula} if Illustrator cannot convert them.
+	 */
+	private static float[] convertNative(float[] values, ColorModel from,
+			ColorModel to) {
+		Color color = createColor(from, values, 0, -1)
+				.nativeConvert(Color.getType(to, false).value);
+		if (color == null)
+			return convertFormula(values, from, to);
+		float[] components = color.getComponents();
+		float[] result = new float[getSize(to)];
+		System.arraycopy(components, 0, result, 0, result.length);
+		return result;
+	}
+
+	/**
+	 * Converts color values through simple device formulas, ignoring color
+	 * profiles. Gray values describe the amount of black ink, as in
+	 * {@link GrayColor}.
+	 */
+	protected static float[] convertFormula(float[] values, ColorModel from,
+			ColorModel to) {
+		// Convert to RGB first
+		float r, g, b;
+		switch (from) {
+		case GRAY:
+			r = g = b = 1 - values[0];
+			break;
+		case CMYK:
+			float k = 1 - values[3];
+			r = (1 - values[0]) * k;
+			g = (1 - values[1]) * k;
+			b = (1 - values[2]) * k;
+			break;
+		default:
+			r = values[0];
+			g = values[1];
+			b = values[2];
+		}
+		switch (to) {
+		case GRAY:
+			return new float[] { 1 - (0.299f * r + 0.587f * g + 0.114f * b) };
+		case CMYK:
+			float k = 1 - Math.max(r, Math.max(g, b));
+			if (k >= 1)
+				return new float[] { 0, 0, 0, 1 };
+			return new float[] {
+				(1 - r - k) / (1 - k),
+				(1 - g - k) / (1 - k),
+				(1 - b - k) / (1 - k),
+				k
+			};
+		default:
+			return new float[] { r, g, b };
+		}
+	}
+
+	/**
+	 * Converts count colors from src to dst through the lookup tables.
+	 */
+	protected static void convert(float[] src, int srcOffset, ColorType from,
+			float[] dst, int dstOffset, ColorType to, int count) {
+		ColorModel fromModel = getModel(from), toModel = getModel(to);
+		int srcSize = getSize(fromModel), dstSize = getSize(toModel);
+		int srcStride = srcSize + (from.alpha ? 1 : 0);
+		int dstStride = dstSize + (to.alpha ? 1 : 0);
+		LookupTable table = fromModel != toModel
+				? getTable(fromModel, toModel) : null;
+		for (int i = 0; i < count; i++) {
+			int s = srcOffset + i * srcStride, d = dstOffset + i * dstStride;
+			if (table != null) {
+				table.lookup(src, s, dst, d);
+			} else {
+				System.arraycopy(src, s, dst, d, dstSize);
+			}
+			if (to.alpha)
+				dst[d + dstSize] = from.alpha ? src[s + srcSize] : 1;
+		}
+	}
+
+	private static LookupTable getTable(ColorModel from, ColorModel to) {
+		LookupTable table = tables[from.ordinal()][to.ordinal()];
+		if (table == null) {
+			table = new LookupTable(from, to);
+			tables[from.ordinal()][to.ordinal()] = table;
+		}
+		return table;
+	}
+
+	/**
+	 * A regular grid of converted colors, interpolated multi-linearly.
+	 */
+	private static class LookupTable {
+		private int inputs;
+		private int outputs;
+		private int gridSize;
+		private float[] values;
+
+		LookupTable(ColorModel from, ColorModel to) {
+			inputs = getSize(from);
+			outputs = getSize(to);
+			gridSize = GRID_SIZES[inputs == 1 ? 0 : inputs == 3 ? 1 : 2];
+			int points = 1;
+			for (int i = 0; i < inputs; i++)
+				points *= gridSize;
+			values = new float[points * outputs];
+			float[] input = new float[inputs];
+			for (int i = 0; i < points; i++) {
+				// The first component varies slowest
+				for (int j = inputs - 1, index = i; j >= 0; j--) {
+					input[j] = (float) (index % gridSize) / (gridSize - 1);
+					index /= gridSize;
+				}
+				// Sampling the grid would only flush the cache of single
+				// conversions, so convert directly.
+				float[] output = convertNative(input, from, to);
+				System.arraycopy(output, 0, values, i * outputs, outputs);
+			}
+		}
+
+		void lookup(float[] src, int srcOffset, float[] dst, int dstOffset) {
+			int max = gridSize - 1;
+			int base = 0;
+			int[] strides = new int[inputs];
+			float[] fractions = new float[inputs];
+			for (int j = inputs - 1, stride = outputs; j >= 0; j--) {
+				float value = Math.min(Math.max(src[srcOffset + j], 0), 1)
+						* max;
+				int index = Math.min((int) value, max - 1);
+				fractions[j] = value - index;
+				base += index * stride;
+				strides[j] = stride;
+				stride *= gridSize;
+			}
+			for (int k = 0; k < outputs; k++)
+				dst[dstOffset + k] = 0;
+			// Walk through all corners of the surrounding cell
+			for (int corner = 0, corners = 1 << inputs; corner < corners;
+					corner++) {
+				float weight = 1;
+				int offset = base;
+				for (int j = 0; j < inputs; j++) {
+					if ((corner & (1 << j)) != 0) {
+						weight *= fractions[j];
+						offset += strides[j];
+					} else {
+						weight *= 1 - fractions[j];
+					}
+				}
+				if (weight != 0) {
+					for (int k = 0; k < outputs; k++)
+						dst[dstOffset + k] += weight * values[offset + k];
+				}
+			}
+		}
+	}
+
+	private static class Key {
+		private ColorModel from;
+		private ColorModel to;
+		private float[] values;
+		private int hash;
+
+		Key(ColorModel from, ColorModel to, float[] values) {
+			this.from = from;
+			this.to = to;
+			this.values = values;
+			hash = (Arrays.hashCode(values) * 31 + from.ordinal()) * 31
+					+ to.ordinal();
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key key = (Key) obj;
+				return from == key.from && to == key.to
+						&& Arrays.equals(values, key.values);
+			}
+			return false;
+		}
+	}
+}
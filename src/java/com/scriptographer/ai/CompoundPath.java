@@ -191,6 +191,21 @@ public class CompoundPath extends PathItem {
 		return shape;
 	}
 
+	/**
+	 * Converts to a flattened Java2D shape.
+	 * 
+	 * @jshide
+	 */
+	@Override
+	public GeneralPath toShape(double tolerance) {
+		Path path = (Path) getFirstChild();
+		GeneralPath shape = path.toShape(tolerance);
+		while ((path = (Path) path.getNextSibling()) != null) {
+			path.getPolyline(tolerance).appendTo(shape);
+		}
+		return shape;
+	}
+
 	/**
 	 * If this is a compound path with only one path inside,
 	 * the path is moved outside and the compound path is erased.
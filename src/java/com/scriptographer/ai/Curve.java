@@ -344,6 +344,67 @@ public class Curve implements ChangeReceiver {
 		return getControlBounds(getCurveValues());
 	}
 
+	/**
+	 * The tight bounding rectangle of the curve, calculated through the
+	 * extrema of the curve, as opposed to {@link #getControlBounds()}.
+	 */
+	public Rectangle getBounds() {
+		updateSegments();
+		Point point1 = segment1.point;
+		Point handle1 = segment1.handleOut;
+		Point handle2 = segment2.handleIn;
+		Point point2 = segment2.point;
+		double[] minMax = { point1.x, point1.y, point1.x, point1.y };
+		addBounds(point1.x, point1.y,
+				point1.x + handle1.x, point1.y + handle1.y,
+				point2.x + handle2.x, point2.y + handle2.y,
+				point2.x, point2.y, minMax, new double[2]);
+		return new Rectangle(minMax[0], minMax[1],
+				minMax[2] - minMax[0], minMax[3] - minMax[1]);
+	}
+
+	/**
+	 * Extends the bounds stored in minMax as { minX, minY, maxX, maxY } by
+	 * the given curve. roots needs to be of length 2 and can be reused
+	 * between calls.
+	 */
+	protected static void addBounds(double p1x, double p1y,
+			double c1x, double c1y, double c2x, double c2y,
+			double p2x, double p2y, double[] minMax, double[] roots) {
+		addBounds(p1x, c1x, c2x, p2x, 0, minMax, roots);
+		addBounds(p1y, c1y, c2y, p2y, 1, minMax, roots);
+	}
+
+	private static void addBounds(double v0, double v1, double v2, double v3,
+			int coord, double[] minMax, double[] roots) {
+		// The end points are always part of the bounds:
+		addBounds(v0, coord, minMax);
+		addBounds(v3, coord, minMax);
+		// The extrema lie at the roots of the derivative, which is a quadratic
+		// polynomial. Divided by 3, its coefficients are:
+		double a = 3 * (v1 - v2) - v0 + v3;
+		double b = 2 * (v0 + v2) - 4 * v1;
+		double c = v1 - v0;
+		int count = solveQuadraticRoots(a, b, c, roots, EPSILON);
+		for (int i = 0; i < count; i++) {
+			double t = roots[i];
+			// Only the roots within the curve matter, the end points are
+			// already added.
+			if (t > 0 && t < 1) {
+				double u = 1 - t;
+				addBounds(u * u * u * v0 + 3 * u * u * t * v1
+						+ 3 * u * t * t * v2 + t * t * t * v3, coord, minMax);
+			}
+		}
+	}
+
+	private static void addBounds(double value, int coord, double[] minMax) {
+		if (value < minMax[coord])
+			minMax[coord] = value;
+		if (value > minMax[coord + 2])
+			minMax[coord + 2] = value;
+	}
+
 	// Ported back from Paper.js in 2014
 	private Point evaluate(double t, int type) {
 		updateSegments();
@@ -483,6 +544,28 @@ public class Curve implements ChangeReceiver {
 		return intersections.toArray(new CurveLocation[intersections.size()]);
 	}
 
+	/**
+	 * Flattens the curve into a polyline that does not deviate from the curve
+	 * by more than the given tolerance.
+	 * 
+	 * @param tolerance the maximum allowed distance between the curve and the
+	 *        polyline
+	 */
+	public Polyline getPolyline(double tolerance) {
+		updateSegments();
+		Point point1 = segment1.point;
+		Point handle1 = segment1.handleOut;
+		Point handle2 = segment2.handleIn;
+		Point point2 = segment2.point;
+		Polyline polyline = new Polyline();
+		polyline.add(point1.x, point1.y);
+		flatten(point1.x, point1.y,
+				point1.x + handle1.x, point1.y + handle1.y,
+				point2.x + handle2.x, point2.y + handle2.y,
+				point2.x, point2.y, tolerance, polyline, 0);
+		return polyline;
+	}
+
 	/**
 	 * Checks if this curve is linear, meaning it does not define any curve
 	 * handle.
@@ -517,6 +600,8 @@ public class Curve implements ChangeReceiver {
 			path.checkValid();
 			SegmentList.nativeSet(path.handle, path.document.handle,
 					index1, 2, values);
+			segments.updateValues(segment1);
+			segments.updateValues(segment2);
 		}
 	}
 
@@ -771,21 +856,59 @@ public class Curve implements ChangeReceiver {
 	}
 
 	private static boolean isFlatEnough(double[][] curve) {
+		return isFlatEnough(
+				curve[0][0], curve[0][1],
+				curve[1][0], curve[1][1],
+				curve[2][0], curve[2][1],
+				curve[3][0], curve[3][1],
+				0.25);
+	}
+
+	/**
+	 * Checks if the curve does not deviate by more than the given tolerance
+	 * from the straight line between its end points.
+	 */
+	private static boolean isFlatEnough(double p1x, double p1y,
+			double c1x, double c1y, double c2x, double c2y,
+			double p2x, double p2y, double tolerance) {
 		// Thanks to Kaspar Fischer for the following:
 		// http://www.inf.ethz.ch/personal/fischerk/pubs/bez.pdf
-		double p1x = curve[0][0];
-		double p1y = curve[0][1];
-		double c1x = curve[1][0];
-		double c1y = curve[1][1];
-		double c2x = curve[2][0];
-		double c2y = curve[2][1];
-		double p2x = curve[3][0];
-		double p2y = curve[3][1];
 		double ux = 3 * c1x - 2 * p1x - p2x;
 		double uy = 3 * c1y - 2 * p1y - p2y;
 		double vx = 3 * c2x - 2 * p2x - p1x;
 		double vy = 3 * c2y - 2 * p2y - p1y;
-		return Math.max(ux * ux, vx * vx) + Math.max(uy * uy, vy * vy) < 1;
+		return Math.max(ux * ux, vx * vx) + Math.max(uy * uy, vy * vy)
+				< 16 * tolerance * tolerance;
+	}
+
+	private static final int MAX_FLATTEN_DEPTH = 16;
+
+	/**
+	 * Adaptive flattening of the curve through recursive subdivision, until
+	 * all parts are flat enough for the given tolerance. All points except the
+	 * first one are added to the polyline, so curves of a path can be
+	 * flattened one after the other.
+	 */
+	protected static void flatten(double p1x, double p1y,
+			double c1x, double c1y, double c2x, double c2y,
+			double p2x, double p2y, double tolerance, Polyline polyline,
+			int depth) {
+		if (depth >= MAX_FLATTEN_DEPTH || isFlatEnough(p1x, p1y, c1x, c1y,
+				c2x, c2y, p2x, p2y, tolerance)) {
+			polyline.add(p2x, p2y);
+		} else {
+			// Subdivide at t = 0.5, see #subdivide()
+			double p3x = (p1x + c1x) / 2, p3y = (p1y + c1y) / 2,
+				p4x = (c1x + c2x) / 2, p4y = (c1y + c2y) / 2,
+				p5x = (c2x + p2x) / 2, p5y = (c2y + p2y) / 2,
+				p6x = (p3x + p4x) / 2, p6y = (p3y + p4y) / 2,
+				p7x = (p4x + p5x) / 2, p7y = (p4y + p5y) / 2,
+				p8x = (p6x + p7x) / 2, p8y = (p6y + p7y) / 2;
+			flatten(p1x, p1y, p3x, p3y, p6x, p6y, p8x, p8y, tolerance,
+					polyline, depth + 1);
+			flatten(p8x, p8y, p7x, p7y, p5x, p5y, p2x, p2y, tolerance,
+					polyline, depth + 1);
+		}
 	}
 
 	private static Rectangle getControlBounds(double[][] curve) {
@@ -204,6 +204,7 @@ public class Document extends NativeObject implements ChangeReceiver {
 	 * @jshide
 	 */
 	public static Document getActiveDocument() {
+		ScriptographerEngine.beginDocumentExecution();
 		return Document.wrapHandle(nativeGetActiveDocumentHandle());
 	}
 
@@ -211,6 +212,7 @@ public class Document extends NativeObject implements ChangeReceiver {
 	 * @jshide
 	 */
 	public static Document getWorkingDocument() {
+		ScriptographerEngine.beginDocumentExecution();
 		return Document.wrapHandle(nativeGetWorkingDocumentHandle());
 	}
 
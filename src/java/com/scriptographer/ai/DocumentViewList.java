@@ -41,6 +41,17 @@ public class DocumentViewList extends AbstractReadOnlyList<DocumentView> {
 		return DocumentView.wrapHandle(nativeGet(document.handle, index), document);
 	}
 
+	/**
+	 * Checks whether the view is still open, without wrapping all views.
+	 */
+	protected boolean containsHandle(int handle) {
+		for (int i = 0, l = size(); i < l; i++) {
+			if (nativeGet(document.handle, i) == handle)
+				return true;
+		}
+		return false;
+	}
+
 	public Class<?> getComponentType() {
 		return DocumentView.class;
 	}
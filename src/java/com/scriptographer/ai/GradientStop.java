@@ -61,18 +61,48 @@ public class GradientStop extends AbstractStructList.Entry<Gradient> {
 		super(gradient, index);
 	}
 	
-	/**
-	 * Called from the native side
-	 */
-	protected void set(double midPoint, double rampPoint, Color color) {
+	protected GradientStopList getList() {
+		return reference.getStops();
+	}
+
+	protected void setValues(double[] values, int offset) {
 		// Scale native values from 0 .. 100 to 0 .. 1
-		this.midPoint = midPoint / 100;
-		this.rampPoint = rampPoint / 100;
-		this.color = color;
+		midPoint = values[offset] / 100;
+		rampPoint = values[offset + 1] / 100;
+		// The amount of components determines the color type, as in
+		// Color#getComponents(). 0 means a color that cannot be represented
+		// by components.
+		int count = (int) values[offset + 2];
+		float[] components = new float[count];
+		for (int i = 0; i < count; i++)
+			components[i] = (float) values[offset + 3 + i];
+		switch (count) {
+		case 2:
+			color = new GrayColor(components);
+			break;
+		case 4:
+			color = new RGBColor(components);
+			break;
+		case 5:
+			color = new CMYKColor(components);
+			break;
+		default:
+			color = null;
+		}
 	}
-	
-	protected boolean nativeGet() {
-		return GradientStopList.nativeGet(reference.handle, index, this);
+
+	protected void getValues(double[] values, int offset) {
+		// Scale values back from 0 .. 1 to 0 .. 100
+		values[offset] = midPoint * 100;
+		values[offset + 1] = rampPoint * 100;
+		// Leave the native color unchanged if it cannot be represented by
+		// components.
+		float[] components = color != null ? color.getComponents() : null;
+		int count = components != null && components.length <= 5
+				? components.length : 0;
+		values[offset + 2] = count;
+		for (int i = 0; i < count; i++)
+			values[offset + 3 + i] = components[i];
 	}
 
 	protected boolean nativeInsert() {
@@ -80,13 +110,6 @@ public class GradientStop extends AbstractStructList.Entry<Gradient> {
 				reference.handle, reference.document.handle, index,
 				midPoint * 100, rampPoint * 100, color.getComponents());
 	}
-	
-	protected boolean nativeSet() {
-		// Scale values back from 0 .. 1 to 0 .. 100
-		return GradientStopList.nativeSet(
-				reference.handle, reference.document.handle, index,
-				midPoint * 100, rampPoint * 100, color.getComponents());
-	}
 
 	/**
 	 * The color of the gradient stop.
@@ -24,8 +24,13 @@ import com.scriptographer.list.AbstractStructList;
  */
 public class GradientStopList extends AbstractStructList<Gradient, GradientStop> {
 
+	// How many values are stored per stop: midPoint, rampPoint, the amount of
+	// color components and up to 5 color components, see
+	// Color#getComponents()
+	protected static final int VALUES_PER_STOP = 8;
+
 	protected GradientStopList(Gradient gradient) {
-		super(gradient);
+		super(gradient, VALUES_PER_STOP);
 	}
 	
 	public Gradient getGradient() {
@@ -45,6 +50,15 @@ public class GradientStopList extends AbstractStructList<Gradient, GradientStop>
 				fromIndex, toIndex);
 	}
 
+	protected boolean nativeGet(int index, int count, double[] values) {
+		return nativeGet(reference.handle, index, count, values);
+	}
+
+	protected boolean nativeSet(int index, int count, double[] values) {
+		return nativeSet(reference.handle, reference.document.handle, index,
+				count, values);
+	}
+
 	protected GradientStop createEntry(int index) {
 		return new GradientStop(reference, index);
 	}
@@ -62,11 +76,11 @@ public class GradientStopList extends AbstractStructList<Gradient, GradientStop>
 	private static native int nativeRemove(int handle, int docHandle,
 			int fromIndex, int toIndex);
 
-	protected static native boolean nativeGet(int handle, int index,
-			GradientStop stop);
+	private static native boolean nativeGet(int handle, int index, int count,
+			double[] values);
 
-	protected static native boolean nativeSet(int handle, int docHandle,
-			int index, double midPoint, double rampPoint, float[] color);
+	private static native boolean nativeSet(int handle, int docHandle,
+			int index, int count, double[] values);
 
 	protected static native boolean nativeInsert(int handle, int docHandle,
 			int index, double midPoint, double rampPoint, float[] color);
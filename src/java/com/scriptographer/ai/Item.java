@@ -84,6 +84,14 @@ public class Item extends DocumentObject implements Style, ChangeReceiver {
 	 */
 	protected long modificationVersion;
 
+	/**
+	 * Counts the modifications that were committed from the Java side through
+	 * {@link #setModified()}, which do not increase {@link #version}. Values
+	 * calculated on the Java side from the item's geometry, such as flattened
+	 * polylines, need to check against both.
+	 */
+	protected int modificationCount = 0;
+
 	/**
 	 * The handle for the dictionary that contains this item, if any
 	 */
@@ -444,6 +452,7 @@ public class Item extends DocumentObject implements Style, ChangeReceiver {
 	 */
 	protected void setModified() {
 		modificationVersion = document.historyVersion;
+		modificationCount++;
 		// This item's modification date needs updating after the cycle.
 		document.addModifiedItem(this);
 	}
@@ -502,6 +511,18 @@ public class Item extends DocumentObject implements Style, ChangeReceiver {
 				|| document.historyVersion < modificationVersion);
 	}
 
+	/**
+	 * Checks whether values calculated on the Java side from the item's
+	 * geometry, at the given version and modification count, need to be
+	 * recalculated. Pending changes are committed first, so that they are
+	 * reflected in {@link #modificationCount}.
+	 */
+	protected boolean needsUpdate(int version, int modificationCount) {
+		CommitManager.commit(this);
+		return needsUpdate(version)
+				|| modificationCount != this.modificationCount;
+	}
+
 	/**
 	 * Returns true if this item needs an update regardless of the cached
 	 * version, due to history changes.
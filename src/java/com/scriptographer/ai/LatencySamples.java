@@ -0,0 +1,60 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.Arrays;
+
+/**
+ * A ring buffer of the last latencies measured by {@link Tool} and
+ * {@link Timer}, for reporting percentiles of them.
+ *
+ * @author lehni
+ */
+class LatencySamples {
+	private long[] samples;
+	private int count = 0;
+
+	public LatencySamples(int size) {
+		samples = new long[size];
+	}
+
+	/**
+	 * Adds a latency in nanoseconds, replacing the oldest one once the buffer
+	 * is full.
+	 */
+	public void add(long latency) {
+		samples[count++ % samples.length] = latency;
+	}
+
+	/**
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency in milliseconds, or 0 if nothing was added yet
+	 */
+	public double getPercentile(double percentile) {
+		int size = Math.min(count, samples.length);
+		if (size == 0)
+			return 0;
+		long[] sorted = new long[size];
+		System.arraycopy(samples, 0, sorted, 0, size);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(Math.max(0, Math.min(100, percentile))
+				/ 100 * size) - 1;
+		return sorted[Math.max(0, index)] / 1000000.0;
+	}
+
+	public void clear() {
+		count = 0;
+	}
+}
@@ -167,6 +167,8 @@ public class LiveEffect extends NativeObject {
 	private int majorVersion;
 	private int minorVersion;
 	private MenuItem menuItem = null;
+	private LiveEffectCache cache = null;
+	private long cacheBudget = 4 * 1024 * 1024;
 
 	/**
 	 * effects maps effectHandles to their wrappers.
@@ -348,6 +350,67 @@ public class LiveEffect extends NativeObject {
 		return minorVersion;
 	}
 
+	/**
+	 * Specifies whether the results of {@link #getOnCalculate()} are cached.
+	 * When caching is on, the output produced for an input item is
+	 * remembered along with the geometry of the item and the effect's
+	 * parameters, and recalculations with the same input replay the output
+	 * instead of calling the script again.
+	 *
+	 * Only effects that receive and produce paths, compound paths and groups
+	 * are cached, and the output only keeps the geometry and style of the
+	 * paths. As other attributes of the input item are not compared, only
+	 * turn on caching for effects that depend on nothing else than the
+	 * geometry and the parameters.
+	 *
+	 * @return {@true if results are cached}
+	 */
+	public boolean getCaching() {
+		return cache != null;
+	}
+
+	public void setCaching(boolean caching) {
+		if (caching != (cache != null))
+			cache = caching ? new LiveEffectCache(cacheBudget) : null;
+	}
+
+	/**
+	 * The approximate amount of memory in bytes that cached results may use.
+	 * Once exceeded, the least recently used results are discarded.
+	 * Default: 4 MB
+	 */
+	public long getCacheBudget() {
+		return cacheBudget;
+	}
+
+	public void setCacheBudget(long budget) {
+		cacheBudget = Math.max(0, budget);
+		if (cache != null)
+			cache.setBudget(cacheBudget);
+	}
+
+	/**
+	 * The amount of recalculations that replayed a cached result.
+	 */
+	public int getCacheHits() {
+		return cache != null ? cache.getHits() : 0;
+	}
+
+	/**
+	 * The amount of cacheable recalculations that needed to call the script.
+	 */
+	public int getCacheMisses() {
+		return cache != null ? cache.getMisses() : 0;
+	}
+
+	/**
+	 * Discards all cached results and resets the hit and miss counters.
+	 */
+	public void clearCache() {
+		if (cache != null)
+			cache.clear();
+	}
+
 	// Callback functions:
 
 	private Callable onEditParameters = null;
@@ -440,51 +503,18 @@ public class LiveEffect extends NativeObject {
 	private static int onCalculate(int handle, Item item, int dataHandle) {
 		LiveEffect effect = getEffect(handle);
 		if (effect != null) {
-			LiveEffectParameters parameters =
-					LiveEffectParameters.wrapHandle(dataHandle, item.document);
-			Item parent = item.getParent();
-			// Scriptographer's new item recording feature makes
-			// processing effects extremely convenient. All new items
-			// are automatically collected, and the right thing is
-			// done with them at the end. Since doing the wrong
-			// thing leads to endless crashes, this is the best
-			// way to handle this anyway.
-			Item.collectCreatedItems();
-			ItemList newItems = null;
+			LiveEffectCache cache = effect.cache;
+			// Cached effects are calculated in one execution, so their output
+			// is captured and replayed in the coordinate system of the script
+			if (cache != null)
+				ScriptographerEngine.beginExecution(null,
+						effect.onCalculate != null
+								? effect.onCalculate.getScope() : null);
 			try {
-				effect.onCalculate(new LiveEffectEvent(item, parameters));
+				item = effect.calculate(item, dataHandle);
 			} finally {
-				newItems = Item.retreiveCreatedItems();
-			}
-			if (newItems.size() > 0) {
-				boolean changed = false;
-				Item newItem;
-				if (newItems.size() == 1) {
-					newItem = newItems.getFirst();
-				} else {
-					// More than one new item was produced. Group them, as
-					// LiveEffects require one item only.
-					newItem = new Group(newItems);
-					changed = true;
-				}
-				// "When creating output art for the go message, the output art
-				// must be a child of the same parent as the input art. It also
-				// must be the only child of this parent, so if you create a
-				// copy of the input art, work on it and attempt to return the
-				// copy as the output art, you must make sure to dispose the
-				// original input art first. It is not legal to create an item
-				// in an arbitrary place and return that as the output art."
-				if (newItem.getParent().equals(parent)
-						|| parent.appendTop(newItem)) {
-					item.remove();
-					item = newItem;
-					changed = true;
-				}
-				// Since we're outside of Scriptographer's script handling, we
-				// need to take care of committing changes ourselves here before
-				// returning.
-				if (changed)
-					CommitManager.commit();
+				if (cache != null)
+					ScriptographerEngine.endExecution();
 			}
 		}
 		// already return the handle to the native environment so it doesn't
@@ -492,6 +522,69 @@ public class LiveEffect extends NativeObject {
 		return item.handle;
 	}
 
+	private Item calculate(Item item, int dataHandle) {
+		LiveEffectParameters parameters =
+				LiveEffectParameters.wrapHandle(dataHandle, item.document);
+		Item parent = item.getParent();
+		LiveEffectCache.Key key = cache != null
+				? cache.getKey(item, parameters) : null;
+		int modificationCount = item.modificationCount;
+		// Scriptographer's new item recording feature makes
+		// processing effects extremely convenient. All new items
+		// are automatically collected, and the right thing is
+		// done with them at the end. Since doing the wrong
+		// thing leads to endless crashes, this is the best
+		// way to handle this anyway.
+		Item.collectCreatedItems();
+		ItemList newItems = null;
+		boolean replayed = false;
+		try {
+			replayed = key != null && cache.replay(key);
+			if (!replayed)
+				onCalculate(new LiveEffectEvent(item, parameters));
+		} finally {
+			newItems = Item.retreiveCreatedItems();
+		}
+		if (newItems.size() > 0) {
+			// Remember the output, unless the script modified the input item
+			// as well, which would not be replayed.
+			if (key != null && !replayed
+					&& item.modificationCount == modificationCount) {
+				CommitManager.commit(null);
+				cache.put(key, newItems);
+			}
+			boolean changed = false;
+			Item newItem;
+			if (newItems.size() == 1) {
+				newItem = newItems.getFirst();
+			} else {
+				// More than one new item was produced. Group them, as
+				// LiveEffects require one item only.
+				newItem = new Group(newItems);
+				changed = true;
+			}
+			// "When creating output art for the go message, the output art
+			// must be a child of the same parent as the input art. It also
+			// must be the only child of this parent, so if you create a
+			// copy of the input art, work on it and attempt to return the
+			// copy as the output art, you must make sure to dispose the
+			// original input art first. It is not legal to create an item
+			// in an arbitrary place and return that as the output art."
+			if (newItem.getParent().equals(parent)
+					|| parent.appendTop(newItem)) {
+				item.remove();
+				item = newItem;
+				changed = true;
+			}
+			// Since we're outside of Scriptographer's script handling, we
+			// need to take care of committing changes ourselves here before
+			// returning.
+			if (changed)
+				CommitManager.commit();
+		}
+		return item;
+	}
+
 	/**
 	 * To be called from the native environment:
 	 */
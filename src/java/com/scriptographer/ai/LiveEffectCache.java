@@ -0,0 +1,306 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the output of a {@link LiveEffect} for the inputs it was
+ * calculated for, so recalculations of unchanged effects, e.g. on redraws,
+ * can replay the output instead of executing the script again.
+ *
+ * The input item is identified by the geometry of its paths and the
+ * effect's parameters. Only paths, compound paths and groups are supported,
+ * both as input and output. Outputs are stored as the geometry and the style
+ * of their paths, and the least recently used ones are evicted once the
+ * estimated size exceeds the budget.
+ *
+ * @author lehni
+ */
+class LiveEffectCache {
+	// Rough estimates of the memory used by cached outputs
+	private static final int ITEM_SIZE = 256;
+	private static final int SEGMENT_SIZE = 6 * 8;
+
+	private LinkedHashMap<Key, Output[]> entries =
+			new LinkedHashMap<Key, Output[]>(16, 0.75f, true);
+	private HashMap<Key, Integer> sizes = new HashMap<Key, Integer>();
+	private long size = 0;
+	private long budget;
+	private int hits = 0;
+	private int misses = 0;
+
+	LiveEffectCache(long budget) {
+		this.budget = budget;
+	}
+
+	long getBudget() {
+		return budget;
+	}
+
+	void setBudget(long budget) {
+		this.budget = budget;
+		evict();
+	}
+
+	int getHits() {
+		return hits;
+	}
+
+	int getMisses() {
+		return misses;
+	}
+
+	void clear() {
+		entries.clear();
+		sizes.clear();
+		size = 0;
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Returns the key for the given input, or null if it cannot be cached.
+	 */
+	Key getKey(Item item, Map<String, Object> parameters) {
+		ArrayList<Double> values = new ArrayList<Double>();
+		if (!getGeometry(item, values))
+			return null;
+		double[] geometry = new double[values.size()];
+		for (int i = 0; i < geometry.length; i++)
+			geometry[i] = values.get(i);
+		return new Key(geometry, copy(parameters));
+	}
+
+	/**
+	 * Appends the item type, the structure and the segment values of the item
+	 * to values, returning false for items that are not supported.
+	 */
+	private static boolean getGeometry(Item item, List<Double> values) {
+		if (item instanceof Path) {
+			Path path = (Path) item;
+			SegmentList segments = path.getSegments();
+			int count = segments.size();
+			values.add((double) Item.TYPE_PATH);
+			values.add(path.isClosed() ? 1.0 : 0.0);
+			values.add((double) count);
+			for (int i = 0; i < count; i++) {
+				values.add(segments.getX(i));
+				values.add(segments.getY(i));
+				values.add(segments.getHandleInX(i));
+				values.add(segments.getHandleInY(i));
+				values.add(segments.getHandleOutX(i));
+				values.add(segments.getHandleOutY(i));
+			}
+			return true;
+		} else if (item instanceof CompoundPath || item instanceof Group) {
+			ItemList children = item.getChildren();
+			values.add((double) (item instanceof Group ? Item.TYPE_GROUP
+					: Item.TYPE_COMPOUNDPATH));
+			values.add((double) children.size());
+			for (Item child : children) {
+				if (!getGeometry(child, values))
+					return false;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Copies the parameters into plain Java maps, so they can be compared
+	 * after their dictionaries were released.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Object copy(Object value) {
+		if (value instanceof Map) {
+			HashMap<Object, Object> map = new HashMap<Object, Object>();
+			for (Map.Entry<Object, Object> entry
+					: ((Map<Object, Object>) value).entrySet())
+				map.put(entry.getKey(), copy(entry.getValue()));
+			return map;
+		} else if (value instanceof List) {
+			ArrayList<Object> list = new ArrayList<Object>();
+			for (Object element : (List<Object>) value)
+				list.add(copy(element));
+			return list;
+		}
+		return value;
+	}
+
+	/**
+	 * Creates the cached output for the key again, if there is one.
+	 */
+	boolean replay(Key key) {
+		Output[] outputs = entries.get(key);
+		if (outputs == null) {
+			misses++;
+			return false;
+		}
+		hits++;
+		for (Output output : outputs)
+			output.create();
+		return true;
+	}
+
+	/**
+	 * Stores the items created by the effect as the output for the key. The
+	 * items are only stored if all of them are supported.
+	 */
+	void put(Key key, ItemList items) {
+		// Only store the top level items, their children are part of them
+		HashSet<Item> created = new HashSet<Item>();
+		for (Item item : items)
+			created.add(item);
+		ArrayList<Output> outputs = new ArrayList<Output>();
+		int[] outputSize = new int[1];
+		for (Item item : items) {
+			if (!created.contains(item.getParent())) {
+				Output output = Output.get(item, outputSize);
+				if (output == null)
+					return;
+				outputs.add(output);
+			}
+		}
+		if (outputSize[0] > budget)
+			return;
+		Integer previous = sizes.put(key, outputSize[0]);
+		if (previous != null)
+			size -= previous;
+		entries.put(key, outputs.toArray(new Output[outputs.size()]));
+		size += outputSize[0];
+		evict();
+	}
+
+	private void evict() {
+		for (Iterator<Key> it = entries.keySet().iterator();
+				size > budget && it.hasNext();) {
+			size -= sizes.remove(it.next());
+			it.remove();
+		}
+	}
+
+	static class Key {
+		private double[] geometry;
+		private Object parameters;
+		private int hash;
+
+		Key(double[] geometry, Object parameters) {
+			this.geometry = geometry;
+			this.parameters = parameters;
+			hash = Arrays.hashCode(geometry) * 31
+					+ (parameters != null ? parameters.hashCode() : 0);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key key = (Key) obj;
+				return hash == key.hash && Arrays.equals(geometry, key.geometry)
+						&& (parameters == null ? key.parameters == null
+								: parameters.equals(key.parameters));
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * The geometry and style of a cached output item and its children.
+	 */
+	private static class Output {
+		int type;
+		PathStyle style;
+		boolean closed;
+		double[] segments;
+		Output[] children;
+
+		static Output get(Item item, int[] size) {
+			Output output = new Output();
+			size[0] += ITEM_SIZE;
+			if (item instanceof Path) {
+				Path path = (Path) item;
+				SegmentList segments = path.getSegments();
+				int count = segments.size();
+				output.type = Item.TYPE_PATH;
+				output.closed = path.isClosed();
+				output.segments = new double[count * 6];
+				for (int i = 0, j = 0; i < count; i++) {
+					output.segments[j++] = segments.getX(i);
+					output.segments[j++] = segments.getY(i);
+					output.segments[j++] = segments.getHandleInX(i);
+					output.segments[j++] = segments.getHandleInY(i);
+					output.segments[j++] = segments.getHandleOutX(i);
+					output.segments[j++] = segments.getHandleOutY(i);
+				}
+				size[0] += count * SEGMENT_SIZE;
+			} else if (item instanceof CompoundPath || item instanceof Group) {
+				output.type = item instanceof Group ? Item.TYPE_GROUP
+						: Item.TYPE_COMPOUNDPATH;
+				ItemList children = item.getChildren();
+				output.children = new Output[children.size()];
+				for (int i = 0; i < output.children.length; i++) {
+					output.children[i] = get(children.get(i), size);
+					if (output.children[i] == null)
+						return null;
+				}
+			} else {
+				return null;
+			}
+			PathStyle style = item.getStyle();
+			style.update();
+			output.style = (PathStyle) style.clone();
+			return output;
+		}
+
+		Item create() {
+			Item item;
+			switch (type) {
+			case Item.TYPE_PATH:
+				int count = segments.length / 6;
+				Segment[] list = new Segment[count];
+				for (int i = 0, j = 0; i < count; i++, j += 6) {
+					list[i] = new Segment(segments[j], segments[j + 1],
+							segments[j + 2], segments[j + 3], segments[j + 4],
+							segments[j + 5]);
+				}
+				Path path = new Path(list);
+				path.setClosed(closed);
+				item = path;
+				break;
+			case Item.TYPE_GROUP:
+				item = new Group();
+				break;
+			default:
+				item = new CompoundPath();
+			}
+			if (children != null) {
+				for (Output child : children)
+					item.appendTop(child.create());
+			}
+			item.setStyle(style);
+			return item;
+		}
+	}
+}
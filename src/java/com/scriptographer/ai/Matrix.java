@@ -246,6 +246,32 @@ public class Matrix {
 	public Point transform(Point point) {
 		return transform(point.x, point.y);
 	}
+
+	/**
+	 * Transforms an array of coordinates in one go, without the creation of
+	 * any Point objects. The coordinates are stored as subsequent pairs of x
+	 * and y values. {@code src} and {@code dst} may refer to the same array.
+	 * 
+	 * @param src the array containing the source coordinates
+	 * @param srcOff the offset to the first coordinate in {@code src}
+	 * @param dst the array into which the transformed coordinates are stored
+	 * @param dstOff the offset to the first coordinate in {@code dst}
+	 * @param count the number of coordinate pairs to transform
+	 * 
+	 * @jshide
+	 */
+	public void transform(double[] src, int srcOff, double[] dst, int dstOff,
+			int count) {
+		transform.transform(src, srcOff, dst, dstOff, count);
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void transform(float[] src, int srcOff, float[] dst, int dstOff,
+			int count) {
+		transform.transform(src, srcOff, dst, dstOff, count);
+	}
 	
 	/**
 	 * {@grouptitle Matrix Concatenation}
@@ -15,6 +15,7 @@
 package com.scriptographer.ai;
 
 import java.awt.geom.GeneralPath;
+import java.util.HashMap;
 
 import com.scratchdisk.list.ExtendedArrayList;
 import com.scratchdisk.list.ExtendedList;
@@ -44,6 +45,18 @@ public class Path extends PathItem {
 	private SegmentList segments = null;
 	private CurveList curves = null;
 
+	// Flattened polylines, cached per tolerance. See #getPolyline(double)
+	private HashMap<Double, Polyline> polylines = null;
+	private int polylinesVersion = -1;
+	private int polylinesModificationCount = -1;
+
+	// Cached bounds, see #updateBounds()
+	private Rectangle bounds = null;
+	private Rectangle strokeBounds = null;
+	private Rectangle controlBounds = null;
+	private int boundsVersion = -1;
+	private int boundsModificationCount = -1;
+
 	/**
 	 * Wraps an AIArtHandle in a Path object
 	 */
@@ -265,6 +278,7 @@ public class Path extends PathItem {
 		nativeSetClosed(closed);
 		if (curves != null)
 			curves.updateSize();
+		setModified();
 	}
 	
 	/**
@@ -342,6 +356,44 @@ public class Path extends PathItem {
 		pointsToCurves(2.5f, 1f, 1, 1f);
 	}
 
+	/**
+	 * Smoothes the path by fitting its points with as few curves as possible,
+	 * using {@link PathFitter}. Like {@link #pointsToCurves()}, it only uses
+	 * the points of the segments and ignores their handles, but the fitting
+	 * happens in Java and the path is only written to once.
+	 *
+	 * @param tolerance the maximum distance between the points and the fitted
+	 *        curves {@default 2.5}
+	 */
+	public void simplify(double tolerance) {
+		SegmentList segs = getSegments();
+		int size = segs.size();
+		if (size < 2)
+			return;
+		boolean closed = isClosed();
+		PathFitter fitter = new PathFitter(tolerance);
+		for (int i = 0; i < size; i++)
+			fitter.add(segs.getX(i), segs.getY(i));
+		if (closed)
+			fitter.add(segs.getX(0), segs.getY(0));
+		fitter.finish();
+		Segment[] fitted = fitter.getSegments();
+		if (closed && fitted.length > 2) {
+			// The last segment is a duplicate of the first, move its handle
+			// over and drop it.
+			Segment last = fitted[fitted.length - 1];
+			fitted[0].handleIn.set(last.handleIn.x, last.handleIn.y);
+			Segment[] newFitted = new Segment[fitted.length - 1];
+			System.arraycopy(fitted, 0, newFitted, 0, newFitted.length);
+			fitted = newFitted;
+		}
+		setSegments(fitted);
+	}
+
+	public void simplify() {
+		simplify(2.5);
+	}
+
 	private native int nativeCurvesToPoints(float maxPointDistance,
 			float flatness);
 
@@ -771,17 +823,14 @@ public class Path extends PathItem {
 	 */
 	public GeneralPath toShape() {
 		GeneralPath path = new GeneralPath();
+		// Use the primitive accessors to avoid the creation of Segment objects
 		SegmentList segments = getSegments();
-		Segment first = segments.getFirst();
-		path.moveTo((float) first.point.x, (float) first.point.y);
-		Segment seg = first;
-		for (int i = 1, l = segments.size(); i < l; i++) {
-			Segment next = segments.get(i);
-			addSegment(path, seg, next);
-			seg = next;
-		}
+		path.moveTo((float) segments.getX(0), (float) segments.getY(0));
+		int size = segments.size();
+		for (int i = 1; i < size; i++)
+			addSegment(path, segments, i - 1, i);
 		if (isClosed()) {
-			addSegment(path, seg, first);
+			addSegment(path, segments, size - 1, 0);
 			path.closePath();
 		}
 		path.setWindingRule(getStyle().getWindingRule() == WindingRule.NON_ZERO
@@ -790,26 +839,164 @@ public class Path extends PathItem {
 		return path;
 	}
 
-	private static void addSegment(GeneralPath path, Segment current,
-			Segment next) {
-		Point point1 = current.point;
-		Point handle1 = current.handleOut;
-		Point handle2 = next.handleIn;
-		Point point2 = next.point;
-		if (handle1.isZero() && handle2.isZero()) {
+	/**
+	 * Clears the cached bounds if the path was modified since they were
+	 * calculated, so repeated reads do not cost anything until then.
+	 */
+	private void updateBounds() {
+		if (needsUpdate(boundsVersion, boundsModificationCount)) {
+			bounds = strokeBounds = controlBounds = null;
+			boundsVersion = version;
+			boundsModificationCount = modificationCount;
+		}
+	}
+
+	/**
+	 * The bounding rectangle of the path excluding stroke width. This is
+	 * calculated on the Java side, by finding the extrema of all curves.
+	 */
+	public Rectangle getBounds() {
+		updateBounds();
+		if (bounds == null) {
+			// Use the primitive accessors to avoid the creation of Segment
+			// objects
+			SegmentList segments = getSegments();
+			int size = segments.size();
+			if (size == 0)
+				return new Rectangle();
+			double x = segments.getX(0), y = segments.getY(0);
+			double[] minMax = { x, y, x, y };
+			double[] roots = new double[2];
+			int count = isClosed() ? size : size - 1;
+			for (int i = 0; i < count; i++) {
+				int next = i + 1 < size ? i + 1 : 0;
+				double p1x = segments.getX(i);
+				double p1y = segments.getY(i);
+				double p2x = segments.getX(next);
+				double p2y = segments.getY(next);
+				Curve.addBounds(p1x, p1y,
+						p1x + segments.getHandleOutX(i),
+						p1y + segments.getHandleOutY(i),
+						p2x + segments.getHandleInX(next),
+						p2y + segments.getHandleInY(next),
+						p2x, p2y, minMax, roots);
+			}
+			bounds = new Rectangle(minMax[0], minMax[1],
+					minMax[2] - minMax[0], minMax[3] - minMax[1]);
+		}
+		return new Rectangle(bounds);
+	}
+
+	public Rectangle getStrokeBounds() {
+		updateBounds();
+		if (strokeBounds == null)
+			strokeBounds = super.getStrokeBounds();
+		return new Rectangle(strokeBounds);
+	}
+
+	public Rectangle getControlBounds() {
+		updateBounds();
+		if (controlBounds == null)
+			controlBounds = super.getControlBounds();
+		return new Rectangle(controlBounds);
+	}
+
+	/**
+	 * Converts to a flattened Java2D shape, built from the polyline returned
+	 * by {@link #getPolyline(double)}.
+	 * 
+	 * @jshide
+	 */
+	public GeneralPath toShape(double tolerance) {
+		GeneralPath path = new GeneralPath();
+		getPolyline(tolerance).appendTo(path);
+		path.setWindingRule(getStyle().getWindingRule() == WindingRule.NON_ZERO
+				? GeneralPath.WIND_NON_ZERO
+				: GeneralPath.WIND_EVEN_ODD);
+		return path;
+	}
+
+	/**
+	 * Flattens the path into a polyline that does not deviate from it by more
+	 * than the given tolerance. The result is cached per tolerance until the
+	 * path is modified, so that hit-testing, pixel sampling and exporting can
+	 * all share the same flattened representation.
+	 * 
+	 * @param tolerance the maximum allowed distance between the path and the
+	 *        polyline
+	 * @jshide
+	 */
+	public Polyline getPolyline(double tolerance) {
+		if (polylines == null) {
+			polylines = new HashMap<Double, Polyline>();
+		} else if (needsUpdate(polylinesVersion, polylinesModificationCount)) {
+			polylines.clear();
+		}
+		polylinesVersion = version;
+		polylinesModificationCount = modificationCount;
+		Polyline polyline = polylines.get(tolerance);
+		if (polyline == null) {
+			polyline = flatten(tolerance);
+			polylines.put(tolerance, polyline);
+		}
+		return polyline;
+	}
+
+	private Polyline flatten(double tolerance) {
+		// Use the primitive accessors to avoid the creation of Segment objects
+		SegmentList segments = getSegments();
+		int size = segments.size();
+		boolean closed = isClosed();
+		Polyline polyline = new Polyline(size * 4);
+		polyline.closed = closed;
+		if (size > 0) {
+			polyline.add(segments.getX(0), segments.getY(0));
+			int count = closed ? size : size - 1;
+			for (int i = 0; i < count; i++) {
+				int next = i + 1 < size ? i + 1 : 0;
+				double p1x = segments.getX(i);
+				double p1y = segments.getY(i);
+				double p2x = segments.getX(next);
+				double p2y = segments.getY(next);
+				Curve.flatten(p1x, p1y,
+						p1x + segments.getHandleOutX(i),
+						p1y + segments.getHandleOutY(i),
+						p2x + segments.getHandleInX(next),
+						p2y + segments.getHandleInY(next),
+						p2x, p2y, tolerance, polyline, 0);
+			}
+			// The closing curve ends in the first point again, which is
+			// implied by closed.
+			if (closed && polyline.size > 1)
+				polyline.size--;
+		}
+		return polyline;
+	}
+
+	private static void addSegment(GeneralPath path, SegmentList segments,
+			int current, int next) {
+		double handle1X = segments.getHandleOutX(current);
+		double handle1Y = segments.getHandleOutY(current);
+		double handle2X = segments.getHandleInX(next);
+		double handle2Y = segments.getHandleInY(next);
+		double point2X = segments.getX(next);
+		double point2Y = segments.getY(next);
+		if (handle1X == 0 && handle1Y == 0 && handle2X == 0 && handle2Y == 0) {
 			path.lineTo(
-					(float) point2.x,
-					(float) point2.y
+					(float) point2X,
+					(float) point2Y
 			);
 		} else {
+			double point1X = segments.getX(current);
+			double point1Y = segments.getY(current);
 			// TODO: Is there an easy way to detect quads?
 			path.curveTo(
-					(float) (point1.x + handle1.x),
-					(float) (point1.y + handle1.y),
-					(float) (point2.x + handle2.x),
-					(float) (point2.y + handle2.y),
-					(float) point2.x,
-					(float) point2.y
+					(float) (point1X + handle1X),
+					(float) (point1Y + handle1Y),
+					(float) (point2X + handle2X),
+					(float) (point2Y + handle2Y),
+					(float) point2X,
+					(float) point2Y
 			);
 		}
 	}
@@ -0,0 +1,493 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.ArrayList;
+
+import com.scratchdisk.list.Lists;
+
+/**
+ * PathFitter fits a series of points with a smooth path of cubic bezier
+ * curves, based on the algorithm by Philip J. Schneider: "An Algorithm for
+ * Automatically Fitting Digitized Curves", Graphics Gems, 1990.
+ *
+ * If a path is passed to the constructor, the fitter works incrementally: The
+ * segments are fitted while points are added, and written to the path right
+ * away. Only the curve at the end of the stroke is refitted for each new
+ * point, so the raw points never need to be added to the path and the costs
+ * for each point stay the same, no matter how long the stroke gets.
+ *
+ * Sample code:
+ * <code>
+ * var path, fitter;
+ *
+ * function onMouseDown(event) {
+ * 	path = new Path();
+ * 	fitter = new PathFitter(path, 2.5);
+ * 	fitter.add(event.point);
+ * }
+ *
+ * function onMouseDrag(event) {
+ * 	fitter.add(event.point);
+ * }
+ *
+ * function onMouseUp(event) {
+ * 	fitter.finish();
+ * }
+ * </code>
+ *
+ * @author lehni
+ */
+public class PathFitter {
+	/**
+	 * The maximum amount of points that are fitted at once in incremental
+	 * mode. Once reached, the fitted curves are fixed and fitting continues
+	 * from the last point.
+	 */
+	private static final int MAX_POINTS = 256;
+
+	private static final double EPSILON = 10e-12;
+
+	private Path path;
+	private int pathOffset;
+	// The squared tolerance, as errors are measured as squared distances
+	private double error;
+	private boolean incremental;
+
+	// The points that still need fitting, starting with the point of the last
+	// fixed segment.
+	private double[] points = new double[64];
+	private int count = 0;
+
+	// The tangent at the beginning of the points, as defined by the last fixed
+	// segment.
+	private boolean hasTangent = false;
+	private double tangentX;
+	private double tangentY;
+
+	// The fitted segments. The first fixedCount ones do not change anymore,
+	// apart from the out handle of the last one.
+	private ArrayList<Segment> segments = new ArrayList<Segment>();
+	private int fixedCount = 0;
+
+	// Temporary results of #fitCubic()
+	private ArrayList<double[]> curves = new ArrayList<double[]>();
+	private ArrayList<Integer> ends = new ArrayList<Integer>();
+
+	/**
+	 * Creates a fitter that adds the fitted segments to the given path while
+	 * points are added.
+	 *
+	 * @param path the path to add the fitted segments to
+	 * @param tolerance the maximum distance between the points and the fitted
+	 *        curves {@default 2.5}
+	 */
+	public PathFitter(Path path, double tolerance) {
+		this.path = path;
+		this.error = tolerance * tolerance;
+		this.incremental = path != null;
+		if (path != null)
+			pathOffset = path.getSegments().size();
+	}
+
+	public PathFitter(Path path) {
+		this(path, 2.5);
+	}
+
+	/**
+	 * Creates a fitter that fits all the points at once when
+	 * {@link #finish()} is called. The result can then be retrieved through
+	 * {@link #getSegments()}.
+	 *
+	 * @param tolerance the maximum distance between the points and the fitted
+	 *        curves {@default 2.5}
+	 */
+	public PathFitter(double tolerance) {
+		this(null, tolerance);
+	}
+
+	public PathFitter() {
+		this(null, 2.5);
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void add(double x, double y) {
+		// Ignore duplicate points, they cannot be parameterized
+		if (count > 0 && points[count * 2 - 2] == x
+				&& points[count * 2 - 1] == y)
+			return;
+		if (count * 2 + 2 > points.length) {
+			double[] newPoints = new double[points.length * 2];
+			System.arraycopy(points, 0, newPoints, 0, count * 2);
+			points = newPoints;
+		}
+		points[count * 2] = x;
+		points[count * 2 + 1] = y;
+		count++;
+		if (segments.isEmpty()) {
+			segments.add(new Segment(x, y));
+			fixedCount = 1;
+			updatePath(0);
+		} else if (incremental) {
+			fit(count >= MAX_POINTS);
+		}
+	}
+
+	/**
+	 * Adds a point to be fitted.
+	 */
+	public void add(Point point) {
+		add(point.x, point.y);
+	}
+
+	/**
+	 * Fits the remaining points, and fixes all the fitted segments.
+	 */
+	public void finish() {
+		if (count > 1)
+			fit(true);
+	}
+
+	/**
+	 * The segments fitted so far. In incremental mode, the last one is still
+	 * subject to change as more points are added.
+	 */
+	public Segment[] getSegments() {
+		Segment[] result = new Segment[segments.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = new Segment(segments.get(i));
+		return result;
+	}
+
+	/**
+	 * Fits the pending points, and replaces the segments that are not fixed
+	 * yet with the result. If fix is false, the last fitted curve stays open
+	 * for refitting, otherwise all of them are fixed.
+	 */
+	private void fit(boolean fix) {
+		if (count < 2)
+			return;
+		double tan1X, tan1Y;
+		if (hasTangent) {
+			tan1X = tangentX;
+			tan1Y = tangentY;
+		} else {
+			tan1X = points[2] - points[0];
+			tan1Y = points[3] - points[1];
+		}
+		int last = count - 1;
+		double tan2X = points[last * 2 - 2] - points[last * 2];
+		double tan2Y = points[last * 2 - 1] - points[last * 2 + 1];
+		curves.clear();
+		ends.clear();
+		fitCubic(0, last, tan1X, tan1Y, tan2X, tan2Y);
+
+		// Replace the segments that are not fixed with the new ones
+		while (segments.size() > fixedCount)
+			segments.remove(segments.size() - 1);
+		int changed = fixedCount - 1;
+		Segment start = segments.get(changed);
+		for (double[] curve : curves) {
+			start.handleOut.set(curve[2] - curve[0], curve[3] - curve[1]);
+			Segment end = new Segment(curve[6], curve[7],
+					curve[4] - curve[6], curve[5] - curve[7], 0, 0);
+			segments.add(end);
+			start = end;
+		}
+
+		int fixCurves = fix ? curves.size() : curves.size() - 1;
+		if (fixCurves > 0) {
+			// Continue with the end point of the last fixed curve, and keep the
+			// tangent there for smooth transitions.
+			Segment segment = segments.get(fixedCount + fixCurves - 1);
+			double length = segment.handleIn.getLength();
+			hasTangent = length > 0;
+			if (hasTangent) {
+				tangentX = -segment.handleIn.x / length;
+				tangentY = -segment.handleIn.y / length;
+			}
+			int index = ends.get(fixCurves - 1);
+			count -= index;
+			System.arraycopy(points, index * 2, points, 0, count * 2);
+			fixedCount += fixCurves;
+		}
+		updatePath(changed);
+	}
+
+	/**
+	 * Writes the segments from the given index on to the path, replacing the
+	 * ones that were written before.
+	 */
+	private void updatePath(int from) {
+		if (path == null)
+			return;
+		SegmentList list = path.getSegments();
+		int index = pathOffset + from;
+		Segment segment = segments.get(from);
+		if (index < list.size()) {
+			list.setHandleOut(index, segment.handleOut.x, segment.handleOut.y);
+			list.remove(index + 1, list.size());
+		} else {
+			list.add(new Segment(segment));
+		}
+		int size = segments.size();
+		if (from + 1 < size) {
+			Segment[] added = new Segment[size - from - 1];
+			for (int i = 0; i < added.length; i++)
+				added[i] = new Segment(segments.get(from + 1 + i));
+			list.addAll(Lists.asList(added));
+		}
+	}
+
+	private void fitCubic(int first, int last, double tan1X, double tan1Y,
+			double tan2X, double tan2Y) {
+		double length = Math.sqrt(tan1X * tan1X + tan1Y * tan1Y);
+		if (length > 0) {
+			tan1X /= length;
+			tan1Y /= length;
+		}
+		length = Math.sqrt(tan2X * tan2X + tan2Y * tan2Y);
+		if (length > 0) {
+			tan2X /= length;
+			tan2Y /= length;
+		}
+		// Use heuristic if region only has two points in it
+		if (last - first == 1) {
+			double x1 = points[first * 2], y1 = points[first * 2 + 1];
+			double x2 = points[last * 2], y2 = points[last * 2 + 1];
+			double dist = Math.sqrt((x2 - x1) * (x2 - x1)
+					+ (y2 - y1) * (y2 - y1)) / 3;
+			addCurve(new double[] {
+				x1, y1,
+				x1 + tan1X * dist, y1 + tan1Y * dist,
+				x2 + tan2X * dist, y2 + tan2Y * dist,
+				x2, y2
+			}, last);
+			return;
+		}
+		// Parameterize points, and attempt to fit curve
+		double[] uPrime = chordLengthParameterize(first, last);
+		double maxError = Math.max(error, error * error);
+		int split = (first + last + 1) / 2;
+		boolean parametersInOrder = true;
+		// Try 4 iterations
+		for (int i = 0; i <= 4; i++) {
+			double[] curve = generateBezier(first, last, uPrime, tan1X, tan1Y,
+					tan2X, tan2Y);
+			// Find max deviation of points to fitted curve
+			double[] max = findMaxError(first, last, curve, uPrime);
+			if (max[0] < error && parametersInOrder) {
+				addCurve(curve, last);
+				return;
+			}
+			split = (int) max[1];
+			// If error not too large, try reparameterization and iteration
+			if (max[0] >= maxError)
+				break;
+			parametersInOrder = reparameterize(first, last, uPrime, curve);
+			maxError = max[0];
+		}
+		// Fitting failed -- split at max error point and fit recursively
+		double tanCenterX = points[split * 2 - 2] - points[split * 2 + 2];
+		double tanCenterY = points[split * 2 - 1] - points[split * 2 + 3];
+		fitCubic(first, split, tan1X, tan1Y, tanCenterX, tanCenterY);
+		fitCubic(split, last, -tanCenterX, -tanCenterY, tan2X, tan2Y);
+	}
+
+	private void addCurve(double[] curve, int end) {
+		curves.add(curve);
+		ends.add(end);
+	}
+
+	/**
+	 * Uses least-squares method to find Bezier control points for region.
+	 */
+	private double[] generateBezier(int first, int last, double[] uPrime,
+			double tan1X, double tan1Y, double tan2X, double tan2Y) {
+		double pt1X = points[first * 2], pt1Y = points[first * 2 + 1];
+		double pt2X = points[last * 2], pt2Y = points[last * 2 + 1];
+		// Create the C and X matrices
+		double c00 = 0, c01 = 0, c11 = 0, x0 = 0, x1 = 0;
+		for (int i = 0, l = last - first + 1; i < l; i++) {
+			double u = uPrime[i],
+				t = 1 - u,
+				b = 3 * u * t,
+				b0 = t * t * t,
+				b1 = b * t,
+				b2 = b * u,
+				b3 = u * u * u,
+				a1X = tan1X * b1, a1Y = tan1Y * b1,
+				a2X = tan2X * b2, a2Y = tan2Y * b2,
+				tmpX = points[(first + i) * 2] - pt1X * (b0 + b1)
+						- pt2X * (b2 + b3),
+				tmpY = points[(first + i) * 2 + 1] - pt1Y * (b0 + b1)
+						- pt2Y * (b2 + b3);
+			c00 += a1X * a1X + a1Y * a1Y;
+			c01 += a1X * a2X + a1Y * a2Y;
+			c11 += a2X * a2X + a2Y * a2Y;
+			x0 += a1X * tmpX + a1Y * tmpY;
+			x1 += a2X * tmpX + a2Y * tmpY;
+		}
+		// Compute the determinants of C and X
+		double detC0C1 = c00 * c11 - c01 * c01;
+		double alpha1, alpha2;
+		if (Math.abs(detC0C1) > EPSILON) {
+			// Kramer's rule
+			alpha1 = (x0 * c11 - x1 * c01) / detC0C1;
+			alpha2 = (c00 * x1 - c01 * x0) / detC0C1;
+		} else {
+			// Matrix is under-determined, try assuming alpha1 == alpha2
+			double c0 = c00 + c01, c1 = c01 + c11;
+			if (Math.abs(c0) > EPSILON) {
+				alpha1 = alpha2 = x0 / c0;
+			} else if (Math.abs(c1) > EPSILON) {
+				alpha1 = alpha2 = x1 / c1;
+			} else {
+				// Handle below
+				alpha1 = alpha2 = 0;
+			}
+		}
+		// If alpha negative, use the Wu/Barsky heuristic (see text)
+		// (if alpha is 0, you get coincident control points that lead to
+		// divide by zero in any subsequent findRoot() call.
+		double lineX = pt2X - pt1X, lineY = pt2Y - pt1Y;
+		double segLength = Math.sqrt(lineX * lineX + lineY * lineY);
+		double eps = EPSILON * segLength;
+		if (alpha1 < eps || alpha2 < eps) {
+			// fall back on standard (probably inaccurate) formula,
+			// and subdivide further if needed.
+			alpha1 = alpha2 = segLength / 3;
+		} else {
+			// Check if the found control points are in the right order when
+			// projected onto the line through pt1 and pt2.
+			double dot1 = tan1X * alpha1 * lineX + tan1Y * alpha1 * lineY;
+			double dot2 = tan2X * alpha2 * lineX + tan2Y * alpha2 * lineY;
+			if (dot1 - dot2 > segLength * segLength)
+				alpha1 = alpha2 = segLength / 3;
+		}
+		// First and last control points of the Bezier curve are positioned
+		// exactly at the first and last data points. Control points 1 and 2
+		// are positioned an alpha distance out on the tangent vectors, left
+		// and right, respectively
+		return new double[] {
+			pt1X, pt1Y,
+			pt1X + tan1X * alpha1, pt1Y + tan1Y * alpha1,
+			pt2X + tan2X * alpha2, pt2Y + tan2Y * alpha2,
+			pt2X, pt2Y
+		};
+	}
+
+	/**
+	 * Given set of points and their parameterization, try to find a better
+	 * parameterization.
+	 */
+	private boolean reparameterize(int first, int last, double[] u,
+			double[] curve) {
+		for (int i = first; i <= last; i++)
+			u[i - first] = findRoot(curve, points[i * 2], points[i * 2 + 1],
+					u[i - first]);
+		// Detect if the new parameterization has reordered the points.
+		// In that case, we would fit the points of the path in the wrong
+		// order.
+		for (int i = 1, l = last - first + 1; i < l; i++) {
+			if (u[i] <= u[i - 1])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Use Newton-Raphson iteration to find better root.
+	 */
+	private static double findRoot(double[] curve, double x, double y,
+			double u) {
+		// Generate control vertices for Q' and Q''
+		double[] curve1 = new double[6];
+		double[] curve2 = new double[4];
+		for (int i = 0; i < 6; i++)
+			curve1[i] = (curve[i + 2] - curve[i]) * 3;
+		for (int i = 0; i < 4; i++)
+			curve2[i] = (curve1[i + 2] - curve1[i]) * 2;
+		// Compute Q(u), Q'(u) and Q''(u)
+		double[] pt = evaluate(3, curve, u);
+		double[] pt1 = evaluate(2, curve1, u);
+		double[] pt2 = evaluate(1, curve2, u);
+		double diffX = pt[0] - x, diffY = pt[1] - y;
+		double df = pt1[0] * pt1[0] + pt1[1] * pt1[1]
+				+ diffX * pt2[0] + diffY * pt2[1];
+		// Compute f(u) / f'(u)
+		if (Math.abs(df) < EPSILON)
+			return u;
+		// u = u - f(u) / f'(u)
+		return u - (diffX * pt1[0] + diffY * pt1[1]) / df;
+	}
+
+	/**
+	 * Evaluate a bezier curve at a particular parameter value.
+	 */
+	private static double[] evaluate(int degree, double[] curve, double t) {
+		// Copy array
+		double[] tmp = new double[(degree + 1) * 2];
+		System.arraycopy(curve, 0, tmp, 0, tmp.length);
+		// Triangle computation
+		for (int i = 1; i <= degree; i++) {
+			for (int j = 0; j <= degree - i; j++) {
+				tmp[j * 2] = tmp[j * 2] * (1 - t) + tmp[j * 2 + 2] * t;
+				tmp[j * 2 + 1] = tmp[j * 2 + 1] * (1 - t) + tmp[j * 2 + 3] * t;
+			}
+		}
+		return tmp;
+	}
+
+	/**
+	 * Assign parameter values to digitized points using relative distances
+	 * between points.
+	 */
+	private double[] chordLengthParameterize(int first, int last) {
+		int range = last - first;
+		double[] u = new double[range + 1];
+		for (int i = first + 1; i <= last; i++) {
+			double dx = points[i * 2] - points[i * 2 - 2];
+			double dy = points[i * 2 + 1] - points[i * 2 - 1];
+			u[i - first] = u[i - first - 1] + Math.sqrt(dx * dx + dy * dy);
+		}
+		for (int i = 1; i <= range; i++)
+			u[i] /= u[range];
+		return u;
+	}
+
+	/**
+	 * Find the maximum squared distance of digitized points to fitted curve.
+	 * Returns { error, index }.
+	 */
+	private double[] findMaxError(int first, int last, double[] curve,
+			double[] u) {
+		int index = (last - first + 1) / 2;
+		double maxDist = 0;
+		for (int i = first + 1; i < last; i++) {
+			double[] pt = evaluate(3, curve, u[i - first]);
+			double dx = pt[0] - points[i * 2];
+			double dy = pt[1] - points[i * 2 + 1];
+			double dist = dx * dx + dy * dy;
+			if (dist >= maxDist) {
+				maxDist = dist;
+				index = i;
+			}
+		}
+		return new double[] { maxDist, index };
+	}
+}
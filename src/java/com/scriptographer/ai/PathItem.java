@@ -48,6 +48,21 @@ public abstract class PathItem extends Item {
 	 */
 	public abstract GeneralPath toShape();
 
+	/**
+	 * Converts to a flattened Java2D shape, that does not deviate from the
+	 * path by more than the given tolerance. This is based on the cached
+	 * polylines of {@link Path#getPolyline(double)}, and therefore faster for
+	 * repeated tests such as {@link #contains(Point)}.
+	 * 
+	 * @jshide
+	 */
+	public abstract GeneralPath toShape(double tolerance);
+
+	/**
+	 * The tolerance used for flattening paths in geometric tests.
+	 */
+	protected static final double FLATNESS = 0.01;
+
 	/*
 	 *  PostScript-like interface: moveTo, lineTo, curveTo, arcTo
 	 */
@@ -305,7 +320,7 @@ public abstract class PathItem extends Item {
 	 * @return {@true if the point is contained within the path}
 	 */
 	public boolean contains(Point point) {
-		return this.toShape().contains(point.toPoint2D());
+		return this.toShape(FLATNESS).contains(point.toPoint2D());
 	}
 
 	/**
@@ -0,0 +1,128 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.geom.GeneralPath;
+
+/**
+ * Polyline is the flattened representation of a {@link Path} or a
+ * {@link Curve}, as returned by {@link Path#getPolyline(double)} and
+ * {@link Curve#getPolyline(double)}. The points are stored in a packed array
+ * of subsequent x and y coordinates, so that algorithms such as hit-testing or
+ * pixel sampling can walk through them without the creation of any objects.
+ *
+ * Polylines returned by {@link Path#getPolyline(double)} are cached and shared,
+ * and should not be modified.
+ *
+ * @author lehni
+ *
+ * @jshide
+ */
+public class Polyline {
+	protected double[] values;
+	protected int size = 0;
+	protected boolean closed = false;
+
+	protected Polyline(int capacity) {
+		values = new double[Math.max(capacity, 1) * 2];
+	}
+
+	protected Polyline() {
+		this(16);
+	}
+
+	protected void add(double x, double y) {
+		int index = size * 2;
+		if (index + 2 > values.length) {
+			double[] newValues = new double[values.length * 2];
+			System.arraycopy(values, 0, newValues, 0, index);
+			values = newValues;
+		}
+		values[index] = x;
+		values[index + 1] = y;
+		size++;
+	}
+
+	/**
+	 * The amount of points in the polyline.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public double getX(int index) {
+		return values[index * 2];
+	}
+
+	public double getY(int index) {
+		return values[index * 2 + 1];
+	}
+
+	public Point getPoint(int index) {
+		return new Point(values[index * 2], values[index * 2 + 1]);
+	}
+
+	/**
+	 * Specifies whether the polyline is closed, meaning its last point is
+	 * connected to its first point.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * The packed coordinates of the polyline, as subsequent x and y values.
+	 * The array is not copied and might be longer than {@code size() * 2}.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * The bounding rectangle of all the points of the polyline.
+	 */
+	public Rectangle getBounds() {
+		if (size == 0)
+			return new Rectangle();
+		double minX = values[0], maxX = minX, minY = values[1], maxY = minY;
+		for (int i = 2, l = size * 2; i < l; i += 2) {
+			double x = values[i], y = values[i + 1];
+			if (x < minX)
+				minX = x;
+			else if (x > maxX)
+				maxX = x;
+			if (y < minY)
+				minY = y;
+			else if (y > maxY)
+				maxY = y;
+		}
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Appends the polyline to a Java2D path as a new sub-path.
+	 *
+	 * @jshide
+	 */
+	public void appendTo(GeneralPath path) {
+		if (size > 0) {
+			path.moveTo((float) values[0], (float) values[1]);
+			for (int i = 2, l = size * 2; i < l; i += 2)
+				path.lineTo((float) values[i], (float) values[i + 1]);
+			if (closed)
+				path.closePath();
+		}
+	}
+}
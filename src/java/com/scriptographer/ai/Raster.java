@@ -19,8 +19,7 @@ import java.awt.Image;
 import java.awt.Shape;
 import java.awt.Transparency;
 import java.awt.color.ColorSpace;
-import java.awt.geom.GeneralPath;
-import java.awt.geom.PathIterator;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
@@ -35,6 +34,7 @@ import java.net.URL;
 
 import com.scratchdisk.util.IntegerEnumUtils;
 import com.scratchdisk.util.NetUtils;
+import com.scriptographer.ScriptographerException;
 
 /**
  * The Raster item represents an image in an Illustrator document.
@@ -87,9 +87,9 @@ public class Raster extends Item {
 	 * @param image the UI image to be converted to a raster item
 	 */
 	public Raster(com.scriptographer.adm.Image image) {
-		// TODO: handle this case directly, without converting back and from
-		// a java BufferedImage, through native code?
-		this(image.getImage());
+		this(image.hasAlpha() ? ColorType.ARGB : ColorType.RGB,
+				image.getWidth(), image.getHeight());
+		setImagePixels(image.getPixels(), image.getWidth(), image.getHeight());
 	}
 
 	/**
@@ -152,8 +152,10 @@ public class Raster extends Item {
 	 * @jshide
 	 */
 	public void setSize(int width, int height) {
+		commitPixels();
 		// changing the size creates a new art handle internally
 		handle = nativeConvert((short) -1, width, height);
+		setModified();
 	}
 
 	public void setSize(com.scriptographer.adm.Size size) {
@@ -198,8 +200,10 @@ public class Raster extends Item {
 	}
 
 	public void setType(ColorType type) {
+		commitPixels();
 		// changing the type creates a new art handle internally
 		handle = nativeConvert(type.value, -1, -1);
+		setModified();
 	}
 
 	/**
@@ -298,6 +302,7 @@ public class Raster extends Item {
 		g2d.dispose();
 		WritableRaster raster = img.getRaster();
 		byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+		commitPixels();
 		nativeGetPixels(data, raster.getNumBands(), x, y, width, height);
 		return img;
 	}
@@ -321,14 +326,40 @@ public class Raster extends Item {
 		}
 		WritableRaster raster = buf.getRaster();
 		byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+		commitPixels();
 		nativeSetPixels(data, raster.getNumBands(), x, y, buf.getWidth(),
 				buf.getHeight());
+		setModified();
 	}
 	
 	public void setImage(Image image) {
 		setSize(image.getWidth(null), image.getHeight(null));
 		drawImage(image, 0, 0);
 	}
+
+	/**
+	 * Returns the pixels of the raster as ARGB integers, scaled down to the
+	 * given size by averaging. This is used to transfer rasters to UI images
+	 * directly, without creating a BufferedImage.
+	 * 
+	 * @jshide
+	 */
+	public int[] getImagePixels(int width, int height) {
+		commitPixels();
+		return RasterTransfer.getPixels(this, width, height);
+	}
+
+	/**
+	 * Sets the pixels in the top left corner of the raster from ARGB
+	 * integers.
+	 * 
+	 * @jshide
+	 */
+	public void setImagePixels(int[] pixels, int width, int height) {
+		commitPixels();
+		RasterTransfer.setPixels(this, pixels, width, height);
+		setModified();
+	}
 	
 	/**
 	 * Traces the raster.
@@ -349,73 +380,204 @@ public class Raster extends Item {
 		return inverse;
 	}
 	
+	/**
+	 * The flatness in pixels used when sampling shapes.
+	 */
+	private static final double SAMPLE_FLATNESS = 0.25;
+
+	/**
+	 * Returns the pixels covered by the given bounds, cropped to the size of
+	 * the raster, or null if they lie completely outside.
+	 */
+	private java.awt.Rectangle getPixelBounds(Rectangle2D bounds, int width,
+			int height) {
+		// Crop to the maximum size.
+		Rectangle2D.intersect(bounds,
+				new Rectangle2D.Double(0, 0, width, height), bounds);
+		int w = (int) Math.ceil(bounds.getWidth());
+		int h = (int) Math.ceil(bounds.getHeight());
+		// Are we completely outside the raster? If so, return null
+		if (w <= 0 || h <= 0)
+			return null;
+		return new java.awt.Rectangle((int) Math.floor(bounds.getX()),
+				(int) Math.floor(bounds.getY()), w, h);
+	}
+
+	/**
+	 * Averages the pixels within the shape set on the averager. If the shape
+	 * does not contain any pixels, the first pixel of its bounds is returned,
+	 * or null if its bounds lie outside the raster.
+	 */
+	private Color getAverageColor(ScanlineAverager averager, int width,
+			int height) {
+		Rectangle bounds = averager.getBounds();
+		if (bounds == null)
+			return null;
+		java.awt.Rectangle pixels = getPixelBounds(bounds.toRectangle2D(),
+				width, height);
+		if (pixels == null)
+			return null;
+		float[] components = averager.average();
+		if (averager.getCount() == 0)
+			components = averager.averagePixel(pixels.x,
+					pixels.y + pixels.height - 1);
+		return createColor(components);
+	}
+
 	/**
 	 * @jshide
 	 */
 	public Color getAverageColor(Shape shape) {
-//		Rectangle2D rect = shape.getBounds2D();
-		GeneralPath path;
 		int width = getWidth();
 		int height = getHeight();
-		int startX = 0;
-		int startY = 0;
-		if (shape != null) {
-			Matrix inverse = getInverseMatrix();
-			if (inverse == null)
-				return null;
-			// Create a transformed path. This is faster than
-			// path.clone() / path.transform(at);
-			PathIterator pi = shape.getPathIterator(inverse.toAffineTransform());
-			path = new GeneralPath();
-			path.setWindingRule(pi.getWindingRule());
-			path.append(pi, false);
-			Rectangle2D bounds = path.getBounds2D();
-			// Fetch the sub image to iterate over and calculate average colors
-			// from
-			// Crop to the maximum size.
-			Rectangle2D.intersect(bounds,
-					new Rectangle2D.Double(startX, startY, width, height),
-					bounds);
-			width = (int) Math.ceil(bounds.getWidth());
-			height = (int) Math.ceil(bounds.getHeight());
-			// Are we completely outside the raster? If so, return null
-			if (width <= 0 || height <= 0)
-				return null;
-			startX = (int) Math.floor(bounds.getX());
-			startY = (int) Math.floor(bounds.getY());
-		} else {
-			path = null;
+		ScanlineAverager averager = new ScanlineAverager();
+		if (shape == null) {
+			averager.setImage(getSubImage(0, 0, width, height), 0, 0);
+			return createColor(averager.averageAll());
 		}
-		BufferedImage img = getSubImage(startX, startY, width, height);
-
-	//	Raster check = new Raster(img);
-	//	check.setPosition(rect.getCenterX(), rect.getCenterY());
+		Matrix inverse = getInverseMatrix();
+		if (inverse == null)
+			return null;
+		// Flatten the transformed shape into edges, and only fetch the pixels
+		// within its bounds.
+		averager.setShape(shape.getPathIterator(inverse.toAffineTransform(),
+				SAMPLE_FLATNESS));
+		Rectangle bounds = averager.getBounds();
+		if (bounds == null)
+			return null;
+		java.awt.Rectangle pixels = getPixelBounds(bounds.toRectangle2D(),
+				width, height);
+		if (pixels == null)
+			return null;
+		averager.setImage(getSubImage(pixels.x, pixels.y, pixels.width,
+				pixels.height), pixels.x, pixels.y);
+		return getAverageColor(averager, width, height);
+	}
 
-		WritableRaster raster = img.getRaster();
-		byte[] data = (byte[]) raster.getDataElements(0, 0, null);
-		float components[] = new float[data.length];
-		for (int i = 0; i < data.length; i++)
-			components[i] = data[i] & 0xff;
-		long total = 1;
-		for (int y = 0; y < height; y++) {
-			for (int x = (y == 0) ? 1 : 0; x < width; x++) {
-				if (path == null || path.contains(x + startX, y + startY)) {
-					data = (byte[]) raster.getDataElements(x, height - 1 - y, data);
-					for (int i = 0; i < data.length; i++)
-						components[i] += data[i] & 0xff;
-					total++;
-				}
+	/**
+	 * @jshide
+	 */
+	public Color[] getAverageColors(Shape[] shapes) {
+		Color[] colors = new Color[shapes.length];
+		Matrix inverse = getInverseMatrix();
+		if (inverse == null)
+			return colors;
+		AffineTransform at = inverse.toAffineTransform();
+		int width = getWidth();
+		int height = getHeight();
+		// Fetch the pixels within the union of all bounds at once, and average
+		// the shapes from there.
+		Rectangle2D union = null;
+		for (Shape shape : shapes) {
+			if (shape != null) {
+				Rectangle2D bounds = at.createTransformedShape(
+						shape.getBounds2D()).getBounds2D();
+				if (union == null)
+					union = bounds;
+				else
+					union.add(bounds);
 			}
 		}
-		total *= 255;
-		for (int i = 0; i < components.length; i++)
-			components[i] = components[i] / total;
-		// Return colors
+		java.awt.Rectangle pixels = union != null
+				? getPixelBounds(union, width, height) : null;
+		if (pixels == null)
+			return colors;
+		ScanlineAverager averager = new ScanlineAverager();
+		averager.setImage(getSubImage(pixels.x, pixels.y, pixels.width,
+				pixels.height), pixels.x, pixels.y);
+		for (int i = 0; i < shapes.length; i++) {
+			if (shapes[i] != null) {
+				averager.setShape(shapes[i].getPathIterator(at,
+						SAMPLE_FLATNESS));
+				colors[i] = getAverageColor(averager, width, height);
+			}
+		}
+		return colors;
+	}
+
+	/**
+	 * Calculates the average colors of the image within each of the given
+	 * paths. The pixels are only fetched once for all paths, which is much
+	 * faster than calling {@link #getAverageColor(PathItem)} for each of
+	 * them.
+	 *
+	 * @param paths
+	 * @return the average colors contained in the areas covered by the
+	 *         specified paths, or {@code null} for paths outside the raster.
+	 */
+	public Color[] getAverageColors(PathItem[] paths) {
+		Matrix inverse = getInverseMatrix();
+		if (inverse == null)
+			return new Color[paths.length];
+		double flatness = getFlatness(inverse);
+		Shape[] shapes = new Shape[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			if (paths[i] != null)
+				shapes[i] = flatness > 0 ? paths[i].toShape(flatness)
+						: paths[i].toShape();
+		}
+		return getAverageColors(shapes);
+	}
+
+	/**
+	 * Returns the flatness in points needed to flatten paths to a quarter of
+	 * a pixel. The determinant of the inverse matrix tells the amount of
+	 * pixels per point.
+	 */
+	private static double getFlatness(Matrix inverse) {
+		double scale = Math.sqrt(Math.abs(inverse.getScaleX()
+				* inverse.getScaleY() - inverse.getShearX()
+				* inverse.getShearY()));
+		return scale > 0 ? SAMPLE_FLATNESS / scale : 0;
+	}
+
+	private static Color createColor(float[] components) {
 		if (components.length == 4) return new CMYKColor(components);
 		else if (components.length == 3) return new RGBColor(components);
 		else return new GrayColor(components);
 	}
 
+	private boolean averageColorCached = false;
+	private SummedAreaTable averageColorTable;
+	private int averageColorVersion = -1;
+	private int averageColorModificationCount = -1;
+
+	/**
+	 * Specifies whether the raster keeps a summed-area table of its pixels,
+	 * so that {@link #getAverageColor(Rectangle)} and
+	 * {@link #getAverageColor(Point)} only need a few lookups instead of
+	 * fetching and iterating over the pixels on each call. The table is built
+	 * from all the pixels when it is first needed, and rebuilt after the
+	 * raster was changed. This is worth it for scripts that sample the raster
+	 * many times, such as halftone or mosaic effects, as long as the raster is
+	 * not rotated or sheared in the document.
+	 *
+	 * @return {@true if the average colors are cached}
+	 */
+	public boolean isAverageColorCached() {
+		return averageColorCached;
+	}
+
+	public void setAverageColorCached(boolean cached) {
+		averageColorCached = cached;
+		if (!cached) {
+			averageColorTable = null;
+			averageColorVersion = -1;
+		}
+	}
+
+	private SummedAreaTable getSummedAreaTable() {
+		// A null table for an unsupported image type is kept as well, so the
+		// image is not fetched again until the raster changes.
+		if (averageColorVersion == -1 || needsUpdate(averageColorVersion,
+				averageColorModificationCount)) {
+			averageColorTable = SummedAreaTable.create(getImage());
+			averageColorVersion = version;
+			averageColorModificationCount = modificationCount;
+		}
+		return averageColorTable;
+	}
+
 	/**
 	 * The average color of the raster.
 	 */
@@ -433,7 +595,15 @@ public class Raster extends Item {
 	 *         path.
 	 */
 	public Color getAverageColor(PathItem path) {
-		return getAverageColor(path.toShape());
+		Matrix inverse = getInverseMatrix();
+		if (inverse == null)
+			return null;
+		// Flatten the path to a quarter of a pixel, through the cached
+		// polylines.
+		double flatness = getFlatness(inverse);
+		return getAverageColor(flatness > 0
+				? path.toShape(flatness)
+				: path.toShape());
 	}
 
 	/**
@@ -457,9 +627,152 @@ public class Raster extends Item {
 	 *         rectangle.
 	 */
 	public Color getAverageColor(Rectangle rect) {
+		if (averageColorCached) {
+			Matrix inverse = getInverseMatrix();
+			if (inverse == null)
+				return null;
+			// The summed-area table can only be used if the rectangle stays
+			// axis-aligned in the raster.
+			if (inverse.getShearX() == 0 && inverse.getShearY() == 0) {
+				SummedAreaTable table = getSummedAreaTable();
+				if (table != null)
+					return getAverageColor(table, inverse, rect);
+			}
+		}
 		return getAverageColor(rect.toRectangle2D());
 	}
 
+	private Color getAverageColor(SummedAreaTable table, Matrix inverse,
+			Rectangle rect) {
+		double[] coords = {
+			rect.x, rect.y, rect.x + rect.width, rect.y + rect.height
+		};
+		inverse.transform(coords, 0, coords, 0, 2);
+		// Crop to the size of the raster.
+		int width = table.getWidth(), height = table.getHeight();
+		double minX = Math.max(Math.min(coords[0], coords[2]), 0);
+		double minY = Math.max(Math.min(coords[1], coords[3]), 0);
+		double maxX = Math.min(Math.max(coords[0], coords[2]), width);
+		double maxY = Math.min(Math.max(coords[1], coords[3]), height);
+		// Are we completely outside the raster? If so, return null
+		if (maxX <= minX || maxY <= minY)
+			return null;
+		// Determine the pixels whose corners are contained in the rectangle,
+		// just like getAverageColor(Shape) does.
+		int x1 = (int) Math.ceil(minX);
+		int y1 = (int) Math.ceil(minY);
+		int x2 = (int) Math.ceil(maxX);
+		int y2 = (int) Math.ceil(maxY);
+		if (x2 <= x1 || y2 <= y1) {
+			// The rectangle does not contain any pixel corners. Use the first
+			// pixel of its bounds, as getAverageColor(Shape) does.
+			x1 = (int) Math.floor(minX);
+			y1 = Math.min((int) Math.floor(minY)
+					+ (int) Math.ceil(maxY - minY) - 1, height - 1);
+			x2 = x1 + 1;
+			y2 = y1 + 1;
+		}
+		long area = (long) (x2 - x1) * (y2 - y1);
+		if (area > SummedAreaTable.MAX_AREA)
+			return getAverageColor(rect.toRectangle2D());
+		long[] sums = new long[table.getNumBands()];
+		table.getSums(x1, y1, x2, y2, sums);
+		float[] components = new float[sums.length];
+		double total = area * 255.0;
+		for (int i = 0; i < components.length; i++)
+			components[i] = (float) (sums[i] / total);
+		return createColor(components);
+	}
+
+	private RasterPyramid pyramid;
+	private int pyramidVersion = -1;
+	private int pyramidModificationCount = -1;
+
+	private RasterPyramid getPyramid() {
+		if (pyramid == null || needsUpdate(pyramidVersion,
+				pyramidModificationCount)) {
+			pyramid = RasterPyramid.create(getImage());
+			if (pyramid == null)
+				throw new ScriptographerException(
+						"Bitmap rasters cannot be sampled.");
+			pyramidVersion = version;
+			pyramidModificationCount = modificationCount;
+		}
+		return pyramid;
+	}
+
+	/**
+	 * {@grouptitle Sampling}
+	 *
+	 * Samples a channel of the raster at the given position in pixels,
+	 * interpolating bilinearly between the surrounding pixels. The center of
+	 * the pixel at {@code x, y} lies at {@code x + 0.5, y + 0.5}.
+	 *
+	 * @param x
+	 * @param y
+	 * @param channel the index of the channel
+	 * @return the value of the channel, between 0 and 1
+	 */
+	public double getSample(double x, double y, int channel) {
+		return getPyramid().sampleLevel(0, x, y, channel);
+	}
+
+	/**
+	 * Samples a channel of the raster at the given position in pixels,
+	 * averaged over an area of the given size. This uses a pyramid of
+	 * downscaled copies of the raster that is created when first needed, and
+	 * interpolates trilinearly between its levels, so the cost does not
+	 * depend on the size of the area.
+	 *
+	 * Sample code:
+	 * <code>
+	 * // Choose the dot size from the brightness of grid cells
+	 * var cell = 8;
+	 * for (var y = 0; y < raster.height; y += cell) {
+	 * 	for (var x = 0; x < raster.width; x += cell) {
+	 * 		var gray = raster.getSample(x + cell / 2, y + cell / 2, cell, 0);
+	 * 		// ...
+	 * 	}
+	 * }</code>
+	 *
+	 * @param x
+	 * @param y
+	 * @param size the width and height of the area in pixels
+	 * @param channel the index of the channel
+	 * @return the average value of the channel, between 0 and 1
+	 */
+	public double getSample(double x, double y, double size, int channel) {
+		return getPyramid().sample(x, y, size, channel);
+	}
+
+	/**
+	 * Samples all channels of the raster at the given position in pixels,
+	 * averaged over an area of the given size, as described in
+	 * {@link #getSample(double, double, double, int)}.
+	 *
+	 * @param x
+	 * @param y
+	 * @param size the width and height of the area in pixels
+	 * @return the average values of the channels, between 0 and 1
+	 */
+	public float[] getSamples(double x, double y, double size) {
+		RasterPyramid pyramid = getPyramid();
+		float[] values = new float[pyramid.getNumBands()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = (float) pyramid.sample(x, y, size, i);
+		return values;
+	}
+
+	/**
+	 * The amount of bytes currently used for sampling the raster through
+	 * {@link #getSample(double, double, double, int)}.
+	 *
+	 * @jshide
+	 */
+	public long getSampleMemorySize() {
+		return pyramid != null ? pyramid.getMemorySize() : 0;
+	}
+
 	/**
 	 * {@grouptitle Pixels}
 	 * 
@@ -467,7 +780,12 @@ public class Raster extends Item {
 	 * @param x
 	 * @param y
 	 */
-	public native Color getPixel(int x, int y);
+	public Color getPixel(int x, int y) {
+		commitPixels();
+		return nativeGetPixel(x, y);
+	}
+
+	private native Color nativeGetPixel(int x, int y);
 
 	/**
 	 * Sets the color of a pixel in the raster.
@@ -483,7 +801,13 @@ public class Raster extends Item {
 	 * @param x
 	 * @param y
 	 */
-	public native void setPixel(int x, int y, Color color);
+	public void setPixel(int x, int y, Color color) {
+		commitPixels();
+		nativeSetPixel(x, y, color);
+		setModified();
+	}
+
+	private native void nativeSetPixel(int x, int y, Color color);
 
 	/**
 	 * Gets the color of a pixel in the raster.
@@ -513,12 +837,240 @@ public class Raster extends Item {
 	public void setPixel(Point point, Color color) {
 		setPixel((int) point.x, (int) point.y, color);
 	}
+
+	/**
+	 * Reads the components of a rectangle of pixels at once, in rows from top
+	 * to bottom. Each pixel takes as many values as the raster has
+	 * components, in the order of its {@link #getType()}, with alpha last.
+	 * The values lie between 0 and 1. This avoids creating a color for each
+	 * pixel, as {@link #getPixel(int, int)} does.
+	 *
+	 * Sample code:
+	 * <code>
+	 * // Sums up the red channel of an RGB raster
+	 * var values = raster.getPixels(0, 0, raster.width, raster.height);
+	 * var red = 0;
+	 * for (var i = 0; i < values.length; i += 3)
+	 * 	red += values[i];</code>
+	 *
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 * @return the components of the pixels
+	 */
+	public float[] getPixels(int x, int y, int width, int height) {
+		float[] values = new float[width * height
+				* RasterTransfer.getNumComponents(this)];
+		getPixels(x, y, width, height, values);
+		return values;
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void getPixels(int x, int y, int width, int height, float[] values) {
+		commitPixels();
+		RasterTransfer.getPixels(this, x, y, width, height, values, null);
+	}
+
+	/**
+	 * Reads the components of a rectangle of pixels as integers between 0
+	 * and 255.
+	 *
+	 * @jshide
+	 */
+	public void getPixels(int x, int y, int width, int height, int[] values) {
+		commitPixels();
+		RasterTransfer.getPixels(this, x, y, width, height, null, values);
+	}
+
+	/**
+	 * Writes the components of a rectangle of pixels at once, in the layout
+	 * described in {@link #getPixels(int, int, int, int)}.
+	 *
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 * @param values the components of the pixels, between 0 and 1
+	 */
+	public void setPixels(int x, int y, int width, int height, float[] values) {
+		commitPixels();
+		RasterTransfer.setPixels(this, x, y, width, height, values, null);
+		setModified();
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void setPixels(int x, int y, int width, int height, int[] values) {
+		commitPixels();
+		RasterTransfer.setPixels(this, x, y, width, height, null, values);
+		setModified();
+	}
+
+	/**
+	 * Reads the components of the pixels at a list of coordinates, given as
+	 * pairs of x and y values, in the layout described in
+	 * {@link #getPixels(int, int, int, int)}. Pixels outside the raster read
+	 * as 0. The pixels are fetched from Illustrator in one go.
+	 *
+	 * @param coords the x and y coordinates of the pixels, one after the
+	 *        other
+	 * @return the components of the pixels
+	 */
+	public float[] getPixels(int[] coords) {
+		float[] values = new float[coords.length / 2
+				* RasterTransfer.getNumComponents(this)];
+		getPixels(coords, values);
+		return values;
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void getPixels(int[] coords, float[] values) {
+		commitPixels();
+		RasterTransfer.getPixels(this, getTileCache(), coords, values, null);
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void getPixels(int[] coords, int[] values) {
+		commitPixels();
+		RasterTransfer.getPixels(this, getTileCache(), coords, null, values);
+	}
+
+	/**
+	 * Reads the components of the pixels at the given points, e.g. the
+	 * positions of particles, in the layout described in
+	 * {@link #getPixels(int, int, int, int)}.
+	 *
+	 * @param points
+	 * @return the components of the pixels
+	 */
+	public float[] getPixels(Point[] points) {
+		int[] coords = new int[points.length * 2];
+		for (int i = 0; i < points.length; i++) {
+			coords[i * 2] = (int) points[i].x;
+			coords[i * 2 + 1] = (int) points[i].y;
+		}
+		return getPixels(coords);
+	}
+
+	/**
+	 * Writes the components of the pixels at a list of coordinates, given as
+	 * pairs of x and y values. Pixels outside the raster are ignored.
+	 *
+	 * @param coords the x and y coordinates of the pixels, one after the
+	 *        other
+	 * @param values the components of the pixels, between 0 and 1
+	 */
+	public void setPixels(int[] coords, float[] values) {
+		commitPixels();
+		if (RasterTransfer.setPixels(this, getTileCache(), coords, values,
+				null))
+			setModified();
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void setPixels(int[] coords, int[] values) {
+		commitPixels();
+		if (RasterTransfer.setPixels(this, getTileCache(), coords, null,
+				values))
+			setModified();
+	}
+
+	/**
+	 * The default amount of memory in bytes that the pixel cache of each
+	 * raster may use.
+	 */
+	private static final long PIXEL_CACHE_SIZE = 32 * 1024 * 1024;
+
+	private RasterTileCache tileCache;
+
+	private RasterTileCache getTileCache() {
+		if (tileCache == null)
+			tileCache = new RasterTileCache(this, PIXEL_CACHE_SIZE);
+		return tileCache;
+	}
+
+	/**
+	 * Writes back pixels changed through {@link #setPixelInt(int, int, int)}
+	 * before pixels are accessed natively.
+	 */
+	private void commitPixels() {
+		if (tileCache != null)
+			tileCache.commit(false);
+	}
+
+	/**
+	 * The maximum amount of memory in bytes used for caching pixels accessed
+	 * through {@link #getPixelInt(int, int)} and
+	 * {@link #setPixelInt(int, int, int)}.
+	 *
+	 * @jshide
+	 */
+	public long getPixelCacheSize() {
+		return tileCache != null ? tileCache.getMemoryLimit()
+				: PIXEL_CACHE_SIZE;
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void setPixelCacheSize(long size) {
+		getTileCache().setMemoryLimit(size);
+	}
+
+	/**
+	 * Gets the components of a pixel in the raster, packed into an integer
+	 * with one byte per component, the first component in the highest used
+	 * byte. For RGB rasters, this results in {@code 0xRRGGBB}. Pixels are
+	 * read in tiles and cached, so loops over many pixels do not need to
+	 * access Illustrator for each of them. Rasters with more than four
+	 * components are not supported.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the packed pixel, or 0 if the pixel lies outside the raster.
+	 */
+	public int getPixelInt(int x, int y) {
+		return getTileCache().getPixel(x, y);
+	}
+
+	/**
+	 * Sets the components of a pixel in the raster, packed into an integer
+	 * as described in {@link #getPixelInt(int, int)}. The changed pixels are
+	 * written back to the raster in tiles, once the script is done or
+	 * before the raster is accessed through other means.
+	 *
+	 * Sample code:
+	 * <code>
+	 * // Inverts all pixels of an RGB raster
+	 * for (var y = 0; y < raster.height; y++) {
+	 * 	for (var x = 0; x < raster.width; x++) {
+	 * 		raster.setPixelInt(x, y, ~raster.getPixelInt(x, y) & 0xffffff);
+	 * 	}
+	 * }</code>
+	 *
+	 * @param x
+	 * @param y
+	 * @param value
+	 */
+	public void setPixelInt(int x, int y, int value) {
+		getTileCache().setPixel(x, y, value);
+	}
 	
-	private native void nativeSetPixels(byte[] data, int numComponents, int x,
-			int y, int width, int height);
+	protected native void nativeSetPixels(byte[] data, int numComponents,
+			int x, int y, int width, int height);
 
-	private native void nativeGetPixels(byte[] data, int numComponents, int x,
-			int y, int width, int height);
+	protected native void nativeGetPixels(byte[] data, int numComponents,
+			int x, int y, int width, int height);
 
 	native protected void finalize();
 }
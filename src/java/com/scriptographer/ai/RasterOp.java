@@ -0,0 +1,551 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.scratchdisk.script.Callable;
+import com.scratchdisk.util.ConversionUtils;
+import com.scriptographer.ScriptographerException;
+import com.scriptographer.adm.Image;
+
+/**
+ * RasterOp describes an operation on the pixels of a {@link Raster} or a UI
+ * {@link Image}. The pixels are fetched at once, processed in Java and written
+ * back at once, spreading the work over all available processors where
+ * possible. Operations can be concatenated to a pipeline, in which case the
+ * pixels are only fetched and written back once for all of them.
+ *
+ * Channels are processed in the order in which the raster stores them, and
+ * values are described in the range of 0 to 1, like color components.
+ *
+ * Sample code:
+ * <code>
+ * var op = RasterOp.map(function(value, channel) {
+ * 	return 1 - value;
+ * }).concat(RasterOp.convolve([
+ * 	1, 2, 1,
+ * 	2, 4, 2,
+ * 	1, 2, 1
+ * ].map(function(value) { return value / 16; })));
+ * op.apply(raster);
+ * </code>
+ *
+ * @author lehni
+ */
+public abstract class RasterOp {
+
+	/**
+	 * Images smaller than this amount of pixels are processed in one thread.
+	 */
+	private static final int PARALLEL_THRESHOLD = 64 * 64;
+
+	private static ExecutorService executor;
+	private static int threadCount =
+			Runtime.getRuntime().availableProcessors();
+
+	protected RasterOp() {
+	}
+
+	/**
+	 * Processes the pixels, using spare as the destination if it is not null,
+	 * and returns the result.
+	 */
+	protected abstract Pixels process(Pixels src, Pixels spare);
+
+	/**
+	 * Returns a pipeline that performs this operation followed by the given
+	 * one.
+	 */
+	public RasterOp concat(RasterOp op) {
+		return new Chain(this, op);
+	}
+
+	/**
+	 * Applies the operation to all pixels of the raster.
+	 */
+	public void apply(Raster raster) {
+		BufferedImage image = raster.getImage();
+		WritableRaster wr = image.getRaster();
+		SampleModel model = wr.getSampleModel();
+		if (!(model instanceof ComponentSampleModel)
+				|| !(wr.getDataBuffer() instanceof DataBufferByte)
+				|| ((ComponentSampleModel) model).getPixelStride()
+						!= wr.getNumBands())
+			throw new ScriptographerException(
+					"Bitmap rasters cannot be processed by RasterOp.");
+		byte[] data = ((DataBufferByte) wr.getDataBuffer()).getData();
+		Pixels result = process(new Pixels(data, wr.getWidth(),
+				wr.getHeight(), wr.getNumBands()), null);
+		if (result.data != data)
+			System.arraycopy(result.data, 0, data, 0, data.length);
+		raster.drawImage(image, 0, 0);
+	}
+
+	/**
+	 * Applies the operation to all pixels of the image. The channels are
+	 * processed in the order alpha, red, green, blue.
+	 */
+	public void apply(Image image) {
+		BufferedImage buf = image.getImage();
+		int[] pixels = ((DataBufferInt) buf.getRaster().getDataBuffer())
+				.getData();
+		boolean alpha = buf.getColorModel().hasAlpha();
+		int numBands = alpha ? 4 : 3;
+		byte[] data = new byte[pixels.length * numBands];
+		for (int i = 0, j = 0; i < pixels.length; i++) {
+			int pixel = pixels[i];
+			if (alpha)
+				data[j++] = (byte) (pixel >>> 24);
+			data[j++] = (byte) (pixel >> 16);
+			data[j++] = (byte) (pixel >> 8);
+			data[j++] = (byte) pixel;
+		}
+		Pixels result = process(new Pixels(data, buf.getWidth(),
+				buf.getHeight(), numBands), null);
+		data = result.data;
+		for (int i = 0, j = 0; i < pixels.length; i++) {
+			int pixel = alpha ? (data[j++] & 0xff) << 24 : 0;
+			pixel |= (data[j++] & 0xff) << 16;
+			pixel |= (data[j++] & 0xff) << 8;
+			pixel |= data[j++] & 0xff;
+			pixels[i] = pixel;
+		}
+		image.setImage(buf);
+	}
+
+	/**
+	 * Sets the amount of threads that operations are spread over, which
+	 * defaults to the amount of available processors. With 1, operations
+	 * run on the calling thread.
+	 */
+	public static synchronized void setThreadCount(int count) {
+		if (count < 1)
+			throw new IllegalArgumentException(
+					"At least one thread is needed.");
+		if (count != threadCount) {
+			if (executor != null) {
+				executor.shutdown();
+				executor = null;
+			}
+			threadCount = count;
+		}
+	}
+
+	public static synchronized int getThreadCount() {
+		return threadCount;
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(threadCount,
+					new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"Scriptographer RasterOp");
+							// Do not keep the VM alive for these threads
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return executor;
+	}
+
+	/**
+	 * Runs the operation, split into bands of rows that are processed in
+	 * parallel.
+	 */
+	private static void run(final RowOp op, final Pixels src,
+			final Pixels dst) {
+		int height = src.height;
+		int threadCount = getThreadCount();
+		if (!op.isParallel() || threadCount < 2
+				|| src.width * height < PARALLEL_THRESHOLD) {
+			op.filter(src, dst, 0, height);
+			return;
+		}
+		ExecutorService executor = getExecutor();
+		// Use a few bands per thread, so threads that finish early can help
+		// out with the rest.
+		int band = Math.max(1, (height + threadCount * 4 - 1)
+				/ (threadCount * 4));
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int y = 0; y < height; y += band) {
+			final int fromRow = y;
+			final int toRow = Math.min(y + band, height);
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					op.filter(src, dst, fromRow, toRow);
+				}
+			}));
+		}
+		try {
+			for (Future<?> future : futures)
+				future.get();
+		} catch (InterruptedException e) {
+			throw new ScriptographerException(e);
+		} catch (ExecutionException e) {
+			throw new ScriptographerException(e.getCause());
+		}
+	}
+
+	/**
+	 * Returns an operation that maps each channel value through a function,
+	 * which receives the value and the index of the channel and returns the
+	 * new value. The function is only called once for each of the 256
+	 * possible values per channel, and the results are used as lookup
+	 * tables.
+	 */
+	public static RasterOp map(Callable function) {
+		return new MapOp(function);
+	}
+
+	/**
+	 * Returns an operation that convolves each channel with the given kernel,
+	 * described row by row. Pixels outside the edges are clamped.
+	 */
+	public static RasterOp convolve(float[] kernel, int width, int height) {
+		return new ConvolveOp(kernel, width, height);
+	}
+
+	/**
+	 * Returns an operation that convolves each channel with the given square
+	 * kernel, described row by row.
+	 */
+	public static RasterOp convolve(float[] kernel) {
+		int size = (int) Math.round(Math.sqrt(kernel.length));
+		return new ConvolveOp(kernel, size, size);
+	}
+
+	/**
+	 * Returns an operation that sets each channel value to 1 if it is larger
+	 * or equal to the given level, and to 0 otherwise.
+	 */
+	public static RasterOp threshold(double level) {
+		return new ThresholdOp(level);
+	}
+
+	/**
+	 * Returns an operation that reduces each channel to the given amount of
+	 * levels, using Floyd-Steinberg error diffusion.
+	 */
+	public static RasterOp dither(int levels) {
+		return new DitherOp(levels);
+	}
+
+	public static RasterOp dither() {
+		return new DitherOp(2);
+	}
+
+	/**
+	 * Returns an operation that multiplies the channels of each pixel with
+	 * the given matrix, described row by row. For n channels, the matrix has
+	 * n rows of n + 1 values, the last one in each row being an offset.
+	 */
+	public static RasterOp colorMatrix(float[] matrix) {
+		return new ColorMatrixOp(matrix);
+	}
+
+	/**
+	 * Interleaved pixels with one byte per channel.
+	 */
+	protected static class Pixels {
+		protected byte[] data;
+		protected int width;
+		protected int height;
+		protected int numBands;
+		protected int rowBytes;
+
+		// Rows are stored from top to bottom, for rasters see
+		// RasterTransfer#getOffset()
+		protected Pixels(byte[] data, int width, int height, int numBands) {
+			this.data = data;
+			this.width = width;
+			this.height = height;
+			this.numBands = numBands;
+			this.rowBytes = width * numBands;
+		}
+
+		protected Pixels createCompatible() {
+			return new Pixels(new byte[data.length], width, height, numBands);
+		}
+	}
+
+	/**
+	 * The base of the single operations, which process the pixels row by row.
+	 */
+	private abstract static class RowOp extends RasterOp {
+
+		/**
+		 * Processes the rows fromRow to toRow (exclusive) of src into dst.
+		 * This is called from multiple threads for different rows at the same
+		 * time, unless {@link #isParallel()} returns false.
+		 */
+		protected abstract void filter(Pixels src, Pixels dst, int fromRow,
+				int toRow);
+
+		/**
+		 * Specifies whether rows can be processed independently in parallel.
+		 */
+		protected boolean isParallel() {
+			return true;
+		}
+
+		/**
+		 * Called on the script's thread before the pixels are processed, to
+		 * let operations prepare for the amount of channels.
+		 */
+		protected void prepare(int numBands) {
+		}
+
+		protected Pixels process(Pixels src, Pixels spare) {
+			prepare(src.numBands);
+			Pixels dst = spare != null ? spare : src.createCompatible();
+			run(this, src, dst);
+			return dst;
+		}
+	}
+
+	private static class Chain extends RasterOp {
+		private RasterOp[] ops;
+
+		Chain(RasterOp first, RasterOp second) {
+			RasterOp[] firstOps = first instanceof Chain
+					? ((Chain) first).ops : new RasterOp[] { first };
+			ops = new RasterOp[firstOps.length + 1];
+			System.arraycopy(firstOps, 0, ops, 0, firstOps.length);
+			ops[firstOps.length] = second;
+		}
+
+		protected Pixels process(Pixels src, Pixels spare) {
+			// Alternate between two buffers
+			for (RasterOp op : ops) {
+				Pixels dst = op.process(src, spare);
+				spare = src;
+				src = dst;
+			}
+			return src;
+		}
+	}
+
+	private static class MapOp extends RowOp {
+		private Callable function;
+		private byte[][] tables;
+
+		MapOp(Callable function) {
+			this.function = function;
+		}
+
+		protected void prepare(int numBands) {
+			if (tables != null && tables.length == numBands)
+				return;
+			// Scripts can only be called from this thread, so build all
+			// tables here.
+			tables = new byte[numBands][256];
+			Object[] args = new Object[2];
+			for (int i = 0; i < numBands; i++) {
+				byte[] table = tables[i];
+				for (int j = 0; j < 256; j++) {
+					args[0] = j / 255.0;
+					args[1] = i;
+					table[j] = toByte(ConversionUtils.toDouble(
+							function.call(this, args)));
+				}
+			}
+		}
+
+		protected void filter(Pixels src, Pixels dst, int fromRow,
+				int toRow) {
+			byte[] in = src.data, out = dst.data;
+			int numBands = src.numBands;
+			for (int y = fromRow; y < toRow; y++) {
+				for (int i = y * src.rowBytes, l = i + src.rowBytes; i < l;) {
+					for (int j = 0; j < numBands; j++, i++)
+						out[i] = tables[j][in[i] & 0xff];
+				}
+			}
+		}
+	}
+
+	private static class ConvolveOp extends RowOp {
+		private float[] kernel;
+		private int width;
+		private int height;
+
+		ConvolveOp(float[] kernel, int width, int height) {
+			if (kernel.length != width * height)
+				throw new IllegalArgumentException(
+						"The kernel needs to contain width * height values.");
+			this.kernel = kernel;
+			this.width = width;
+			this.height = height;
+		}
+
+		protected void filter(Pixels src, Pixels dst, int fromRow,
+				int toRow) {
+			byte[] in = src.data, out = dst.data;
+			int numBands = src.numBands;
+			int centerX = width / 2, centerY = height / 2;
+			float[] sums = new float[numBands];
+			for (int y = fromRow; y < toRow; y++) {
+				for (int x = 0; x < src.width; x++) {
+					for (int i = 0; i < numBands; i++)
+						sums[i] = 0;
+					for (int ky = 0; ky < height; ky++) {
+						int sy = clamp(y + ky - centerY, src.height);
+						int row = sy * src.rowBytes;
+						for (int kx = 0; kx < width; kx++) {
+							float weight = kernel[ky * width + kx];
+							if (weight == 0)
+								continue;
+							int offset = row + clamp(x + kx - centerX,
+									src.width) * numBands;
+							for (int i = 0; i < numBands; i++)
+								sums[i] += weight * (in[offset + i] & 0xff);
+						}
+					}
+					int offset = y * src.rowBytes + x * numBands;
+					for (int i = 0; i < numBands; i++)
+						out[offset + i] = toByte(sums[i] / 255.0);
+				}
+			}
+		}
+
+		private static int clamp(int value, int size) {
+			return value < 0 ? 0 : value >= size ? size - 1 : value;
+		}
+	}
+
+	private static class ThresholdOp extends RowOp {
+		private int level;
+
+		ThresholdOp(double level) {
+			this.level = (int) Math.round(level * 255);
+		}
+
+		protected void filter(Pixels src, Pixels dst, int fromRow,
+				int toRow) {
+			byte[] in = src.data, out = dst.data;
+			for (int i = fromRow * src.rowBytes, l = toRow * src.rowBytes;
+					i < l; i++)
+				out[i] = (in[i] & 0xff) >= level ? (byte) 255 : 0;
+		}
+	}
+
+	private static class DitherOp extends RowOp {
+		private int levels;
+
+		DitherOp(int levels) {
+			if (levels < 2)
+				throw new IllegalArgumentException(
+						"Dithering needs at least 2 levels.");
+			this.levels = levels;
+		}
+
+		protected boolean isParallel() {
+			// The error is diffused from row to row
+			return false;
+		}
+
+		protected void filter(Pixels src, Pixels dst, int fromRow,
+				int toRow) {
+			byte[] in = src.data, out = dst.data;
+			int numBands = src.numBands;
+			// Errors for the current and next row, with one pixel of padding
+			// on each side, in 1/16 units.
+			int size = (src.width + 2) * numBands;
+			int[] current = new int[size], next = new int[size];
+			double step = 255.0 / (levels - 1);
+			for (int y = fromRow; y < toRow; y++) {
+				for (int i = 0; i < size; i++)
+					next[i] = 0;
+				int offset = y * src.rowBytes;
+				for (int x = 0; x < src.width; x++) {
+					for (int i = 0; i < numBands; i++, offset++) {
+						int e = (x + 1) * numBands + i;
+						int value = (in[offset] & 0xff) + current[e] / 16;
+						int quantized = (int) (Math.round(
+								Math.min(Math.max(value, 0), 255) / step)
+								* step);
+						out[offset] = (byte) quantized;
+						int error = value - quantized;
+						current[e + numBands] += error * 7;
+						next[e - numBands] += error * 3;
+						next[e] += error * 5;
+						next[e + numBands] += error;
+					}
+				}
+				int[] tmp = current;
+				current = next;
+				next = tmp;
+			}
+		}
+	}
+
+	private static class ColorMatrixOp extends RowOp {
+		private float[] matrix;
+
+		ColorMatrixOp(float[] matrix) {
+			this.matrix = matrix;
+		}
+
+		protected void prepare(int numBands) {
+			if (matrix.length != numBands * (numBands + 1))
+				throw new IllegalArgumentException("The matrix needs "
+						+ numBands + " rows of " + (numBands + 1)
+						+ " values for this image.");
+		}
+
+		protected void filter(Pixels src, Pixels dst, int fromRow,
+				int toRow) {
+			byte[] in = src.data, out = dst.data;
+			int numBands = src.numBands;
+			int columns = numBands + 1;
+			float[] values = new float[numBands];
+			for (int i = fromRow * src.rowBytes, l = toRow * src.rowBytes;
+					i < l; i += numBands) {
+				for (int j = 0; j < numBands; j++)
+					values[j] = (in[i + j] & 0xff) / 255f;
+				for (int j = 0; j < numBands; j++) {
+					int row = j * columns;
+					float value = matrix[row + numBands];
+					for (int k = 0; k < numBands; k++)
+						value += matrix[row + k] * values[k];
+					out[i + j] = toByte(value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Converts a value between 0 and 1 to a byte, clamping it to the range.
+	 */
+	private static byte toByte(double value) {
+		int b = (int) Math.round(value * 255);
+		return (byte) (b < 0 ? 0 : b > 255 ? 255 : b);
+	}
+}
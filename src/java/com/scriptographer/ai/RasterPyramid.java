@@ -0,0 +1,173 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * A mip-map pyramid of the pixels of a raster, used by
+ * {@link Raster#getSample(double, double, double, int)} to sample the raster
+ * at any scale without iterating over all the pixels covered by the sample.
+ * Each level halves the size of the previous one through a 2x2 box filter,
+ * and is only created once it is sampled for the first time.
+ *
+ * The rows of the levels are stored in the order of the image returned by
+ * {@link Raster#getSubImage(int, int, int, int)}, so y matches the y
+ * coordinate of {@link Raster#getPixel(int, int)}.
+ *
+ * @author lehni
+ */
+class RasterPyramid {
+	private byte[][] levels;
+	private int[] widths;
+	private int[] heights;
+	private int numBands;
+
+	private RasterPyramid(byte[] data, int width, int height, int numBands) {
+		this.numBands = numBands;
+		int count = 1;
+		for (int size = Math.max(width, height); size > 1; size = (size + 1) / 2)
+			count++;
+		levels = new byte[count][];
+		widths = new int[count];
+		heights = new int[count];
+		for (int i = 0, w = width, h = height; i < count; i++) {
+			widths[i] = w;
+			heights[i] = h;
+			w = (w + 1) / 2;
+			h = (h + 1) / 2;
+		}
+		levels[0] = data;
+	}
+
+	/**
+	 * Creates a pyramid from the given image, taking over its pixel buffer,
+	 * or returns null if the image does not store one byte per channel.
+	 */
+	protected static RasterPyramid create(BufferedImage image) {
+		WritableRaster raster = image.getRaster();
+		SampleModel model = raster.getSampleModel();
+		if (!(model instanceof ComponentSampleModel)
+				|| !(raster.getDataBuffer() instanceof DataBufferByte)
+				|| ((ComponentSampleModel) model).getPixelStride()
+						!= raster.getNumBands())
+			return null;
+		return new RasterPyramid(
+				((DataBufferByte) raster.getDataBuffer()).getData(),
+				raster.getWidth(), raster.getHeight(), raster.getNumBands());
+	}
+
+	public int getNumBands() {
+		return numBands;
+	}
+
+	public int getLevelCount() {
+		return levels.length;
+	}
+
+	private byte[] getLevel(int level) {
+		byte[] data = levels[level];
+		if (data == null) {
+			byte[] src = getLevel(level - 1);
+			int srcWidth = widths[level - 1], srcHeight = heights[level - 1];
+			int width = widths[level], height = heights[level];
+			data = new byte[width * height * numBands];
+			int dst = 0;
+			for (int y = 0; y < height; y++) {
+				// At odd edges, only one row or column is left
+				int y1 = y * 2, y2 = Math.min(y1 + 1, srcHeight - 1);
+				for (int x = 0; x < width; x++) {
+					int x1 = x * 2, x2 = Math.min(x1 + 1, srcWidth - 1);
+					int p1 = (y1 * srcWidth + x1) * numBands;
+					int p2 = (y1 * srcWidth + x2) * numBands;
+					int p3 = (y2 * srcWidth + x1) * numBands;
+					int p4 = (y2 * srcWidth + x2) * numBands;
+					int count = (x2 > x1 ? 2 : 1) * (y2 > y1 ? 2 : 1);
+					for (int i = 0; i < numBands; i++) {
+						int sum = src[p1 + i] & 0xff;
+						if (x2 > x1)
+							sum += src[p2 + i] & 0xff;
+						if (y2 > y1) {
+							sum += src[p3 + i] & 0xff;
+							if (x2 > x1)
+								sum += src[p4 + i] & 0xff;
+						}
+						data[dst++] = (byte) ((sum + count / 2) / count);
+					}
+				}
+			}
+			levels[level] = data;
+		}
+		return data;
+	}
+
+	/**
+	 * Samples a channel at the given level through bilinear interpolation.
+	 * x and y are in pixel coordinates of the full size raster.
+	 */
+	public double sampleLevel(int level, double x, double y, int channel) {
+		if (channel < 0 || channel >= numBands)
+			throw new IndexOutOfBoundsException("Channel: " + channel);
+		byte[] data = getLevel(level);
+		int width = widths[level], height = heights[level];
+		// Pixel centers lie at half pixels
+		double scale = 1 << level;
+		double lx = Math.min(Math.max(x / scale - 0.5, 0), width - 1);
+		double ly = Math.min(Math.max(y / scale - 0.5, 0), height - 1);
+		int x1 = (int) lx, y1 = (int) ly;
+		int x2 = Math.min(x1 + 1, width - 1), y2 = Math.min(y1 + 1, height - 1);
+		double fx = lx - x1, fy = ly - y1;
+		double top = (1 - fx) * (data[(y1 * width + x1) * numBands + channel]
+				& 0xff) + fx * (data[(y1 * width + x2) * numBands + channel]
+				& 0xff);
+		double bottom = (1 - fx)
+				* (data[(y2 * width + x1) * numBands + channel] & 0xff)
+				+ fx * (data[(y2 * width + x2) * numBands + channel] & 0xff);
+		return ((1 - fy) * top + fy * bottom) / 255.0;
+	}
+
+	/**
+	 * Samples a channel through trilinear interpolation, choosing the levels
+	 * from the size of the sample in pixels.
+	 */
+	public double sample(double x, double y, double size, int channel) {
+		double level = size > 1 ? Math.log(size) / Math.log(2) : 0;
+		int last = levels.length - 1;
+		if (level >= last)
+			return sampleLevel(last, x, y, channel);
+		int level1 = (int) level;
+		double t = level - level1;
+		double value = sampleLevel(level1, x, y, channel);
+		if (t > 0)
+			value = (1 - t) * value + t * sampleLevel(level1 + 1, x, y, channel);
+		return value;
+	}
+
+	/**
+	 * The amount of bytes used by the levels created so far.
+	 */
+	public long getMemorySize() {
+		long size = 0;
+		for (byte[] level : levels) {
+			if (level != null)
+				size += level.length;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.scriptographer.CommitManager;
+import com.scriptographer.Committable;
+import com.scriptographer.ScriptographerException;
+
+/**
+ * Caches the pixels of a {@link Raster} in tiles of {@link #TILE_SIZE} pixels
+ * squared, so that single pixels can be read and written without a native
+ * call for each of them. Tiles are fetched when first accessed, and evicted
+ * in least recently used order once the cache exceeds its memory limit.
+ * Changed tiles are written back when the cache is committed, or when they
+ * are evicted. All tiles are released at the end of the execution in which
+ * they were fetched.
+ *
+ * The rows of a tile are stored from top to bottom, as transferred by the
+ * natives, see {@link RasterTransfer#getOffset(int, int, int, int, int, int)}.
+ * Pixels are exchanged as integers, which limits the cache to rasters with up
+ * to four components.
+ *
+ * @author lehni
+ */
+class RasterTileCache implements Committable {
+	protected static final int TILE_SIZE = 256;
+
+	/**
+	 * The amount of evicted tile buffers kept around for reuse.
+	 */
+	private static final int POOL_SIZE = 4;
+
+	private Raster raster;
+	private int width;
+	private int height;
+	private int numBands;
+	private int tileBytes;
+	private int columns;
+	private long memoryLimit;
+	private long memorySize = 0;
+	private boolean dirty = false;
+
+	private LinkedHashMap<Integer, Tile> tiles =
+			new LinkedHashMap<Integer, Tile>(16, 0.75f, true);
+	private ArrayList<byte[]> pool = new ArrayList<byte[]>();
+	// The last accessed tile, to avoid the lookup for subsequent pixels
+	private Tile last;
+
+	private int version = -1;
+	private int modificationCount = -1;
+	private int commitVersion = -1;
+
+	protected RasterTileCache(Raster raster, long memoryLimit) {
+		this.raster = raster;
+		this.memoryLimit = memoryLimit;
+	}
+
+	protected long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	protected void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+		evict();
+	}
+
+	protected long getMemorySize() {
+		return memorySize;
+	}
+
+	/**
+	 * Drops all tiles if the raster was changed by other means than this
+	 * cache. The item version is only checked once per commit cycle.
+	 */
+	private void validate() {
+		if (raster.modificationCount != modificationCount
+				|| CommitManager.version != commitVersion
+						&& raster.needsUpdate(version)) {
+			// Write back changes before dropping everything
+			commit(false);
+			clear();
+			// Packed bitmaps use one band, see Raster#getSubImage()
+			numBands = raster.getColorModel().createCompatibleSampleModel(1, 1)
+					.getNumBands();
+			width = raster.getWidth();
+			height = raster.getHeight();
+			tileBytes = TILE_SIZE * TILE_SIZE * numBands;
+			columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+			version = raster.version;
+			modificationCount = raster.modificationCount;
+		}
+		commitVersion = CommitManager.version;
+	}
+
+	/**
+	 * Returns the tile containing the given pixel, or null if the pixel lies
+	 * outside the raster.
+	 */
+	private Tile getTile(int x, int y) {
+		validate();
+		if (numBands > 4)
+			throw new ScriptographerException(
+					"Rasters with more than 4 components cannot be accessed as integers.");
+		if (x < 0 || y < 0 || x >= width || y >= height)
+			return null;
+		if (last != null && x >= last.x && y >= last.y
+				&& x < last.x + last.width && y < last.y + last.height)
+			return last;
+		int column = x / TILE_SIZE, row = y / TILE_SIZE;
+		Integer key = row * columns + column;
+		Tile tile = tiles.get(key);
+		if (tile == null) {
+			tile = new Tile(column * TILE_SIZE, row * TILE_SIZE);
+			tile.data = pool.isEmpty() ? new byte[tileBytes]
+					: pool.remove(pool.size() - 1);
+			raster.nativeGetPixels(tile.data, numBands, tile.x, tile.y,
+					tile.width, tile.height);
+			tiles.put(key, tile);
+			memorySize += tile.data.length;
+			// Also register when only reading, so the tiles are released at
+			// the end of the execution, see commit().
+			CommitManager.markDirty(raster, this);
+			// Evict after adding, but never the tile that is about to be used
+			last = tile;
+			evict();
+		}
+		last = tile;
+		return tile;
+	}
+
+	private void evict() {
+		for (Iterator<Tile> it = tiles.values().iterator();
+				memorySize > memoryLimit && it.hasNext();) {
+			Tile tile = it.next();
+			if (tile == last)
+				continue;
+			if (tile.dirty)
+				tile.write();
+			it.remove();
+			release(tile);
+		}
+	}
+
+	private void release(Tile tile) {
+		memorySize -= tile.data.length;
+		if (pool.size() < POOL_SIZE && tile.data.length == tileBytes)
+			pool.add(tile.data);
+		tile.data = null;
+	}
+
+	/**
+	 * Returns the byte offset of the given pixel within its tile.
+	 */
+	private static int getOffset(Tile tile, int x, int y, int numBands) {
+		return RasterTransfer.getOffset(x, y, tile.x, tile.y, tile.width,
+				numBands);
+	}
+
+	/**
+	 * Returns the components of the pixel packed into an int, the first one
+	 * in the highest used byte, or 0 if the pixel lies outside the raster.
+	 */
+	protected int getPixel(int x, int y) {
+		Tile tile = getTile(x, y);
+		if (tile == null)
+			return 0;
+		byte[] data = tile.data;
+		int offset = getOffset(tile, x, y, numBands);
+		int value = 0;
+		for (int i = 0; i < numBands; i++)
+			value = (value << 8) | (data[offset + i] & 0xff);
+		return value;
+	}
+
+	protected void setPixel(int x, int y, int value) {
+		Tile tile = getTile(x, y);
+		if (tile == null)
+			return;
+		byte[] data = tile.data;
+		int offset = getOffset(tile, x, y, numBands);
+		for (int i = numBands - 1; i >= 0; i--) {
+			data[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+		tile.dirty = true;
+		if (!dirty) {
+			dirty = true;
+			CommitManager.markDirty(raster, this);
+			// Let other caches of this raster know about the change, but do
+			// not invalidate this one.
+			raster.setModified();
+			modificationCount = raster.modificationCount;
+		}
+	}
+
+	/**
+	 * Writes back all changed tiles. At the end of an execution, all tiles
+	 * are released, since the raster may be changed before the next one.
+	 */
+	public void commit(boolean endExecution) {
+		if (dirty) {
+			for (Tile tile : tiles.values()) {
+				if (tile.dirty)
+					tile.write();
+			}
+			dirty = false;
+		}
+		if (endExecution)
+			clear();
+	}
+
+	private void clear() {
+		for (Tile tile : tiles.values())
+			release(tile);
+		tiles.clear();
+		last = null;
+		// Force validation on the next access
+		modificationCount = -1;
+	}
+
+	private class Tile {
+		int x;
+		int y;
+		int width;
+		int height;
+		byte[] data;
+		boolean dirty = false;
+
+		Tile(int x, int y) {
+			this.x = x;
+			this.y = y;
+			this.width = Math.min(TILE_SIZE, RasterTileCache.this.width - x);
+			this.height = Math.min(TILE_SIZE, RasterTileCache.this.height - y);
+		}
+
+		void write() {
+			raster.nativeSetPixels(data, numBands, x, y, width, height);
+			dirty = false;
+		}
+	}
+}
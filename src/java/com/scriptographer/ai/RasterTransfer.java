@@ -0,0 +1,422 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Transfers pixels between a {@link Raster} and Java arrays without going
+ * through a BufferedImage: ARGB integers as used by
+ * {@link com.scriptographer.adm.Image}, and the raw components of rectangles
+ * or lists of pixels for {@link Raster#getPixels(int, int, int, int)}.
+ *
+ * For ARGB integers, the raster is read and written in strips of rows through
+ * one shared buffer, and each strip is converted in a single pass.
+ *
+ * Gray and CMYK pixels are converted through {@link ColorConverter}, so they
+ * match Illustrator's own conversion. Gray values in the raster describe
+ * brightness, as in {@link Raster#getImage()}. Packed bitmaps are still
+ * transferred through Java2D.
+ *
+ * @author lehni
+ */
+class RasterTransfer {
+	/**
+	 * The maximum size of the buffer used for strips, unless a single row
+	 * of the raster is already larger.
+	 */
+	private static final int STRIP_BYTES = 1024 * 1024;
+
+	/**
+	 * The maximum size of the bounding box fetched for a list of pixels in
+	 * one call. Pixels spread further apart are accessed through the tile
+	 * cache instead.
+	 */
+	private static final long BOUNDS_BYTES = 16 * 1024 * 1024;
+
+	private RasterTransfer() {
+		// Don't let anyone instantiate this class.
+	}
+
+	private static boolean isBitmap(ColorType type) {
+		return type == ColorType.BITMAP || type == ColorType.ABITMAP;
+	}
+
+	/**
+	 * Reads the pixels of the raster, scaled down to width and height by
+	 * averaging all the pixels that fall into each target pixel.
+	 */
+	protected static int[] getPixels(Raster raster, int width, int height) {
+		int srcWidth = raster.getWidth(), srcHeight = raster.getHeight();
+		if (width <= 0 || width > srcWidth)
+			width = srcWidth;
+		if (height <= 0 || height > srcHeight)
+			height = srcHeight;
+		int[] pixels = new int[width * height];
+		ColorType type = raster.getType();
+		if (isBitmap(type)) {
+			BufferedImage image = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g2d = image.createGraphics();
+			g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g2d.drawImage(raster.getImage(), 0, 0, width, height, null);
+			g2d.dispose();
+			image.getRGB(0, 0, width, height, pixels, 0, width);
+			return pixels;
+		}
+		ColorModel model = ColorConverter.getModel(type);
+		int size = ColorConverter.getSize(model);
+		int numBands = size + (type.alpha ? 1 : 0);
+		int rowBytes = srcWidth * numBands;
+		// The source columns covered by each target column
+		int[] columns = new int[width + 1];
+		for (int x = 0; x <= width; x++)
+			columns[x] = (int) ((long) x * srcWidth / width);
+		long[] sums = new long[width * numBands];
+		float[] values = new float[width * numBands];
+		ColorType rgbType = type.alpha ? ColorType.ARGB : ColorType.RGB;
+		float[] rgb = model != ColorModel.RGB
+				? new float[width * (type.alpha ? 4 : 3)] : values;
+		int rgbBands = type.alpha ? 4 : 3;
+		// Fetch as many target rows at once as fit into the strip buffer
+		int rowsPerTarget = (srcHeight + height - 1) / height;
+		int targetsPerStrip = Math.max(1, STRIP_BYTES
+				/ (rowsPerTarget * rowBytes));
+		byte[] buffer = new byte[Math.min(targetsPerStrip * rowsPerTarget + 1,
+				srcHeight) * rowBytes];
+		for (int ty = 0; ty < height; ty += targetsPerStrip) {
+			int tyEnd = Math.min(ty + targetsPerStrip, height);
+			int stripY = (int) ((long) ty * srcHeight / height);
+			int stripRows = (int) ((long) tyEnd * srcHeight / height) - stripY;
+			raster.nativeGetPixels(buffer, numBands, 0, stripY, srcWidth,
+					stripRows);
+			for (int t = ty; t < tyEnd; t++) {
+				int y1 = (int) ((long) t * srcHeight / height);
+				int y2 = (int) ((long) (t + 1) * srcHeight / height);
+				for (int i = 0; i < sums.length; i++)
+					sums[i] = 0;
+				for (int y = y1; y < y2; y++) {
+					int src = getOffset(0, y, 0, stripY, srcWidth, numBands);
+					for (int x = 0, dst = 0; x < width; x++) {
+						int end = src + (columns[x + 1] - columns[x]) * numBands;
+						for (; src < end; src += numBands) {
+							for (int i = 0; i < numBands; i++)
+								sums[dst + i] += buffer[src + i] & 0xff;
+						}
+						dst += numBands;
+					}
+				}
+				for (int x = 0, i = 0; x < width; x++) {
+					float count = (columns[x + 1] - columns[x]) * (y2 - y1)
+							* 255f;
+					for (int j = 0; j < numBands; j++, i++)
+						values[i] = sums[i] / count;
+					if (model == ColorModel.GRAY)
+						values[i - numBands] = 1 - values[i - numBands];
+				}
+				if (model != ColorModel.RGB)
+					ColorConverter.convert(values, 0, type, rgb, 0, rgbType,
+							width);
+				for (int x = 0, i = 0, dst = t * width; x < width; x++) {
+					int alpha = type.alpha ? toByte(rgb[i + 3]) : 0xff;
+					pixels[dst++] = (alpha << 24) | (toByte(rgb[i]) << 16)
+							| (toByte(rgb[i + 1]) << 8) | toByte(rgb[i + 2]);
+					i += rgbBands;
+				}
+			}
+		}
+		return pixels;
+	}
+
+	/**
+	 * Writes ARGB pixels of the given size into the top left corner of the
+	 * raster.
+	 */
+	protected static void setPixels(Raster raster, int[] pixels, int width,
+			int height) {
+		width = Math.min(width, raster.getWidth());
+		height = Math.min(height, raster.getHeight());
+		ColorType type = raster.getType();
+		if (isBitmap(type)) {
+			BufferedImage image = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+			int[] data = ((DataBufferInt) image.getRaster().getDataBuffer())
+					.getData();
+			System.arraycopy(pixels, 0, data, 0, width * height);
+			raster.drawImage(image, 0, 0);
+			return;
+		}
+		ColorModel model = ColorConverter.getModel(type);
+		int size = ColorConverter.getSize(model);
+		int numBands = size + (type.alpha ? 1 : 0);
+		int rowBytes = width * numBands;
+		ColorType rgbType = type.alpha ? ColorType.ARGB : ColorType.RGB;
+		int rgbBands = type.alpha ? 4 : 3;
+		float[] rgb = null, values = null;
+		if (model != ColorModel.RGB) {
+			rgb = new float[width * rgbBands];
+			values = new float[width * numBands];
+		}
+		int stripRows = Math.max(1, Math.min(STRIP_BYTES / rowBytes, height));
+		byte[] buffer = new byte[stripRows * rowBytes];
+		for (int stripY = 0; stripY < height; stripY += stripRows) {
+			int rows = Math.min(stripRows, height - stripY);
+			for (int y = stripY; y < stripY + rows; y++) {
+				int dst = getOffset(0, y, 0, stripY, width, numBands);
+				int src = y * width;
+				if (model == ColorModel.RGB) {
+					for (int x = 0; x < width; x++) {
+						int pixel = pixels[src++];
+						buffer[dst++] = (byte) (pixel >> 16);
+						buffer[dst++] = (byte) (pixel >> 8);
+						buffer[dst++] = (byte) pixel;
+						if (type.alpha)
+							buffer[dst++] = (byte) (pixel >>> 24);
+					}
+				} else {
+					for (int x = 0, i = 0; x < width; x++) {
+						int pixel = pixels[src++];
+						rgb[i++] = ((pixel >> 16) & 0xff) / 255f;
+						rgb[i++] = ((pixel >> 8) & 0xff) / 255f;
+						rgb[i++] = (pixel & 0xff) / 255f;
+						if (type.alpha)
+							rgb[i++] = (pixel >>> 24) / 255f;
+					}
+					ColorConverter.convert(rgb, 0, rgbType, values, 0, type,
+							width);
+					for (int i = 0; i < values.length; i++) {
+						float value = values[i];
+						// Gray is converted as ink, but stored as brightness
+						if (model == ColorModel.GRAY && i % numBands == 0)
+							value = 1 - value;
+						buffer[dst++] = (byte) toByte(value);
+					}
+				}
+			}
+			raster.nativeSetPixels(buffer, numBands, 0, stripY, width, rows);
+		}
+	}
+
+	/**
+	 * Returns the amount of bytes per pixel in native transfers. Packed
+	 * bitmaps use one band, see Raster#getSubImage().
+	 */
+	protected static int getNumComponents(Raster raster) {
+		return raster.getColorModel().createCompatibleSampleModel(1, 1)
+				.getNumBands();
+	}
+
+	private static void checkLength(float[] floats, int[] ints, int length) {
+		int actual = floats != null ? floats.length : ints.length;
+		if (actual < length)
+			throw new IllegalArgumentException("The array needs to hold at least "
+					+ length + " values.");
+	}
+
+	/**
+	 * Copies count components from the bytes into either floats or ints.
+	 */
+	private static void copy(byte[] src, int srcOffset, float[] floats,
+			int[] ints, int dstOffset, int count) {
+		if (floats != null) {
+			for (int i = 0; i < count; i++)
+				floats[dstOffset + i] = (src[srcOffset + i] & 0xff) / 255f;
+		} else {
+			for (int i = 0; i < count; i++)
+				ints[dstOffset + i] = src[srcOffset + i] & 0xff;
+		}
+	}
+
+	/**
+	 * Copies count components from either floats or ints into the bytes.
+	 */
+	private static void copy(float[] floats, int[] ints, int srcOffset,
+			byte[] dst, int dstOffset, int count) {
+		if (floats != null) {
+			for (int i = 0; i < count; i++)
+				dst[dstOffset + i] = (byte) toByte(floats[srcOffset + i]);
+		} else {
+			for (int i = 0; i < count; i++) {
+				int value = ints[srcOffset + i];
+				dst[dstOffset + i] = (byte) (value < 0 ? 0
+						: value > 255 ? 255 : value);
+			}
+		}
+	}
+
+	/**
+	 * Reads the components of a rectangle of pixels into either floats or
+	 * ints, in rows from top to bottom.
+	 */
+	protected static void getPixels(Raster raster, int x, int y, int width,
+			int height, float[] floats, int[] ints) {
+		int numBands = getNumComponents(raster);
+		int rowBytes = width * numBands;
+		checkLength(floats, ints, rowBytes * height);
+		byte[] buffer = new byte[rowBytes * height];
+		raster.nativeGetPixels(buffer, numBands, x, y, width, height);
+		// The rows are already in the right order, see getOffset()
+		copy(buffer, 0, floats, ints, 0, rowBytes * height);
+	}
+
+	protected static void setPixels(Raster raster, int x, int y, int width,
+			int height, float[] floats, int[] ints) {
+		int numBands = getNumComponents(raster);
+		int rowBytes = width * numBands;
+		checkLength(floats, ints, rowBytes * height);
+		byte[] buffer = new byte[rowBytes * height];
+		copy(floats, ints, 0, buffer, 0, rowBytes * height);
+		raster.nativeSetPixels(buffer, numBands, x, y, width, height);
+	}
+
+	/**
+	 * The bounds of the pixels in the coordinate list that lie within the
+	 * raster, as x, y, width, height, or null if there are none.
+	 */
+	private static int[] getBounds(Raster raster, int[] coords) {
+		int width = raster.getWidth(), height = raster.getHeight();
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		int maxX = -1, maxY = -1;
+		for (int i = 0; i + 1 < coords.length; i += 2) {
+			int x = coords[i], y = coords[i + 1];
+			if (x >= 0 && y >= 0 && x < width && y < height) {
+				if (x < minX) minX = x;
+				if (x > maxX) maxX = x;
+				if (y < minY) minY = y;
+				if (y > maxY) maxY = y;
+			}
+		}
+		return maxX >= 0 ? new int[] {
+			minX, minY, maxX - minX + 1, maxY - minY + 1
+		} : null;
+	}
+
+	/**
+	 * Reads the components of the pixels at the coordinates, given as pairs
+	 * of x and y. Pixels outside the raster read as 0. The bounding box of
+	 * all pixels is fetched at once, unless it is too large.
+	 */
+	protected static void getPixels(Raster raster, RasterTileCache cache,
+			int[] coords, float[] floats, int[] ints) {
+		int numBands = getNumComponents(raster);
+		int count = coords.length / 2;
+		checkLength(floats, ints, count * numBands);
+		int[] bounds = getBounds(raster, coords);
+		int rasterWidth = raster.getWidth(), rasterHeight = raster.getHeight();
+		byte[] buffer = null;
+		if (bounds != null && (long) bounds[2] * bounds[3] * numBands
+				<= BOUNDS_BYTES) {
+			buffer = new byte[bounds[2] * bounds[3] * numBands];
+			raster.nativeGetPixels(buffer, numBands, bounds[0], bounds[1],
+					bounds[2], bounds[3]);
+		}
+		byte[] pixel = new byte[numBands];
+		for (int i = 0; i < count; i++) {
+			int x = coords[i * 2], y = coords[i * 2 + 1];
+			int dst = i * numBands;
+			if (x < 0 || y < 0 || x >= rasterWidth || y >= rasterHeight) {
+				for (int j = 0; j < numBands; j++)
+					pixel[j] = 0;
+				copy(pixel, 0, floats, ints, dst, numBands);
+			} else if (buffer != null) {
+				copy(buffer, getOffset(bounds, x, y, numBands), floats, ints,
+						dst, numBands);
+			} else {
+				int value = cache.getPixel(x, y);
+				for (int j = numBands - 1; j >= 0; j--) {
+					pixel[j] = (byte) value;
+					value >>>= 8;
+				}
+				copy(pixel, 0, floats, ints, dst, numBands);
+			}
+		}
+	}
+
+	/**
+	 * Writes the components of the pixels at the coordinates, given as pairs
+	 * of x and y. Pixels outside the raster are ignored. Returns true if the
+	 * pixels were written directly, false if they were written to the tile
+	 * cache.
+	 */
+	protected static boolean setPixels(Raster raster, RasterTileCache cache,
+			int[] coords, float[] floats, int[] ints) {
+		int numBands = getNumComponents(raster);
+		int count = coords.length / 2;
+		checkLength(floats, ints, count * numBands);
+		int[] bounds = getBounds(raster, coords);
+		if (bounds == null)
+			return true;
+		int rasterWidth = raster.getWidth(), rasterHeight = raster.getHeight();
+		boolean direct = (long) bounds[2] * bounds[3] * numBands
+				<= BOUNDS_BYTES;
+		byte[] buffer;
+		if (direct) {
+			// Read the bounding box first, as not all of its pixels are set
+			buffer = new byte[bounds[2] * bounds[3] * numBands];
+			raster.nativeGetPixels(buffer, numBands, bounds[0], bounds[1],
+					bounds[2], bounds[3]);
+		} else {
+			buffer = new byte[numBands];
+		}
+		for (int i = 0; i < count; i++) {
+			int x = coords[i * 2], y = coords[i * 2 + 1];
+			if (x < 0 || y < 0 || x >= rasterWidth || y >= rasterHeight)
+				continue;
+			if (direct) {
+				copy(floats, ints, i * numBands, buffer,
+						getOffset(bounds, x, y, numBands), numBands);
+			} else {
+				copy(floats, ints, i * numBands, buffer, 0, numBands);
+				int value = 0;
+				for (int j = 0; j < numBands; j++)
+					value = (value << 8) | (buffer[j] & 0xff);
+				cache.setPixel(x, y, value);
+			}
+		}
+		if (direct)
+			raster.nativeSetPixels(buffer, numBands, bounds[0], bounds[1],
+					bounds[2], bounds[3]);
+		return direct;
+	}
+
+	private static int getOffset(int[] bounds, int x, int y, int numBands) {
+		return getOffset(x, y, bounds[0], bounds[1], bounds[2], numBands);
+	}
+
+	/**
+	 * Returns the byte offset of the pixel at x, y in a buffer transferred
+	 * through Raster#nativeGetPixels() or Raster#nativeSetPixels() for the
+	 * rectangle at left, top with the given width.
+	 *
+	 * The natives transfer rows from top to bottom: The first row in the
+	 * buffer is row top of the raster, just like the first row of the image
+	 * returned by {@link Raster#getSubImage(int, int, int, int)}, and like the
+	 * y coordinate of {@link Raster#getPixel(int, int)}. All the Java code
+	 * that addresses transferred pixels relies on this method.
+	 */
+	protected static int getOffset(int x, int y, int left, int top,
+			int width, int numBands) {
+		return ((y - top) * width + x - left) * numBands;
+	}
+
+	private static int toByte(float value) {
+		int i = Math.round(value * 255);
+		return i < 0 ? 0 : i > 255 ? 255 : i;
+	}
+}
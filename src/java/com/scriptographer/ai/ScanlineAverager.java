@@ -0,0 +1,315 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.awt.geom.PathIterator;
+
+/**
+ * Averages the pixels of an image window that lie within a shape, by filling
+ * the shape scanline per scanline from a list of its flattened edges and
+ * summing up the spans straight from the image's backing byte array.
+ *
+ * Pixels are sampled at their integer coordinates, matching the insideness
+ * rules of {@link java.awt.Shape#contains(double, double)}. The rows of the
+ * image window are stored bottom-up, just like in
+ * {@link Raster#getAverageColor(java.awt.Shape)}.
+ *
+ * Instances can be reused for many shapes over the same image, and do not
+ * allocate anything once their internal buffers are large enough.
+ *
+ * @author lehni
+ */
+class ScanlineAverager {
+	// Edges, as subsequent values of yMin, yMax, x at yMin, dx / dy and the
+	// winding direction.
+	private static final int EDGE_SIZE = 5;
+	private double[] edges = new double[64 * EDGE_SIZE];
+	private int edgeCount = 0;
+	private boolean nonZero;
+	private double minX, minY, maxX, maxY;
+
+	// Edges sorted by the first row they cross, and the current active edges
+	private int[] rows = new int[64];
+	private int[] order = new int[64];
+	private int[] active = new int[64];
+	private double[] crossings = new double[64];
+	private int[] directions = new int[64];
+
+	// The image window
+	private WritableRaster raster;
+	private byte[] data;
+	private int numBands;
+	private int pixelStride;
+	private int scanlineStride;
+	private int[] offsets;
+	private int startX, startY, width, height;
+
+	private long[] sums;
+	private int count;
+
+	/**
+	 * Sets the image window that pixels are read from. x and y describe the
+	 * position of the window in pixel coordinates.
+	 */
+	protected void setImage(BufferedImage image, int x, int y) {
+		raster = image.getRaster();
+		numBands = raster.getNumBands();
+		SampleModel model = raster.getSampleModel();
+		if (model instanceof ComponentSampleModel
+				&& raster.getDataBuffer() instanceof DataBufferByte) {
+			ComponentSampleModel components = (ComponentSampleModel) model;
+			data = ((DataBufferByte) raster.getDataBuffer()).getData();
+			pixelStride = components.getPixelStride();
+			scanlineStride = components.getScanlineStride();
+			offsets = components.getBandOffsets();
+		} else {
+			// Packed bitmaps are read through the raster instead
+			data = null;
+		}
+		startX = x;
+		startY = y;
+		width = raster.getWidth();
+		height = raster.getHeight();
+		sums = new long[numBands];
+	}
+
+	/**
+	 * Flattens the shape described by the path iterator into a list of
+	 * edges. The iterator is expected to return pixel coordinates.
+	 */
+	protected void setShape(PathIterator pi) {
+		edgeCount = 0;
+		nonZero = pi.getWindingRule() == PathIterator.WIND_NON_ZERO;
+		minX = minY = Double.POSITIVE_INFINITY;
+		maxX = maxY = Double.NEGATIVE_INFINITY;
+		double[] coords = new double[6];
+		double moveX = 0, moveY = 0, lastX = 0, lastY = 0;
+		for (; !pi.isDone(); pi.next()) {
+			switch (pi.currentSegment(coords)) {
+			case PathIterator.SEG_MOVETO:
+				addEdge(lastX, lastY, moveX, moveY);
+				moveX = lastX = coords[0];
+				moveY = lastY = coords[1];
+				addBounds(lastX, lastY);
+				break;
+			case PathIterator.SEG_LINETO:
+				addEdge(lastX, lastY, coords[0], coords[1]);
+				lastX = coords[0];
+				lastY = coords[1];
+				addBounds(lastX, lastY);
+				break;
+			case PathIterator.SEG_CLOSE:
+				addEdge(lastX, lastY, moveX, moveY);
+				lastX = moveX;
+				lastY = moveY;
+				break;
+			}
+		}
+		// Sub-paths are filled as if they were closed
+		addEdge(lastX, lastY, moveX, moveY);
+	}
+
+	private void addBounds(double x, double y) {
+		if (x < minX) minX = x;
+		if (x > maxX) maxX = x;
+		if (y < minY) minY = y;
+		if (y > maxY) maxY = y;
+	}
+
+	private void addEdge(double x1, double y1, double x2, double y2) {
+		// Horizontal edges never cross a scanline
+		if (y1 == y2)
+			return;
+		int index = edgeCount * EDGE_SIZE;
+		if (index + EDGE_SIZE > edges.length) {
+			double[] newEdges = new double[edges.length * 2];
+			System.arraycopy(edges, 0, newEdges, 0, index);
+			edges = newEdges;
+		}
+		int direction = 1;
+		if (y1 > y2) {
+			double tmp = x1;
+			x1 = x2;
+			x2 = tmp;
+			tmp = y1;
+			y1 = y2;
+			y2 = tmp;
+			direction = -1;
+		}
+		edges[index] = y1;
+		edges[index + 1] = y2;
+		edges[index + 2] = x1;
+		edges[index + 3] = (x2 - x1) / (y2 - y1);
+		edges[index + 4] = direction;
+		edgeCount++;
+	}
+
+	/**
+	 * Returns the bounds of the current shape, or null if it is empty.
+	 */
+	protected Rectangle getBounds() {
+		if (minX > maxX)
+			return null;
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Averages all pixels of the image window.
+	 */
+	protected float[] averageAll() {
+		clear();
+		for (int y = 0; y < height; y++)
+			addSpan(y, 0, width);
+		return getComponents();
+	}
+
+	/**
+	 * The amount of pixels summed up by the last call to {@link #average()}.
+	 */
+	protected int getCount() {
+		return count;
+	}
+
+	/**
+	 * Averages the pixels of the image window that lie within the current
+	 * shape. If the shape does not contain any pixel, {@link #getCount()}
+	 * returns 0 and the result is undefined.
+	 */
+	protected float[] average() {
+		clear();
+		if (edgeCount > active.length) {
+			active = new int[edgeCount];
+			crossings = new double[edgeCount];
+			directions = new int[edgeCount];
+		}
+		if (edgeCount > order.length)
+			order = new int[edgeCount];
+		if (height + 1 > rows.length)
+			rows = new int[height + 1];
+		// Sort the edges into buckets by the first row they cross
+		for (int i = 0; i <= height; i++)
+			rows[i] = 0;
+		int endY = startY + height;
+		for (int i = 0, index = 0; i < edgeCount; i++, index += EDGE_SIZE) {
+			int first = getFirstRow(index);
+			if (first < endY && edges[index + 1] > startY)
+				rows[first - startY + 1]++;
+		}
+		for (int i = 1; i <= height; i++)
+			rows[i] += rows[i - 1];
+		int total = rows[height];
+		for (int i = 0, index = 0; i < edgeCount; i++, index += EDGE_SIZE) {
+			int first = getFirstRow(index);
+			if (first < endY && edges[index + 1] > startY)
+				order[rows[first - startY]++] = index;
+		}
+		int next = 0, activeCount = 0;
+		for (int y = startY; y < endY && (next < total || activeCount > 0);
+				y++) {
+			// Remove the edges that end above this scanline, and add the ones
+			// starting here.
+			int j = 0;
+			for (int i = 0; i < activeCount; i++) {
+				if (edges[active[i] + 1] > y)
+					active[j++] = active[i];
+			}
+			activeCount = j;
+			while (next < total && getFirstRow(order[next]) <= y) {
+				// Skip edges that lie between two scanlines
+				int index = order[next++];
+				if (edges[index + 1] > y)
+					active[activeCount++] = index;
+			}
+			// Calculate and sort the crossings with the scanline
+			for (int i = 0; i < activeCount; i++) {
+				int index = active[i];
+				double x = edges[index + 2]
+						+ (y - edges[index]) * edges[index + 3];
+				int direction = (int) edges[index + 4];
+				int k = i;
+				while (k > 0 && crossings[k - 1] > x) {
+					crossings[k] = crossings[k - 1];
+					directions[k] = directions[k - 1];
+					k--;
+				}
+				crossings[k] = x;
+				directions[k] = direction;
+			}
+			// Walk through the crossings and add the spans inside the shape
+			int winding = 0;
+			for (int i = 0; i < activeCount - 1; i++) {
+				winding += directions[i];
+				if (nonZero ? winding != 0 : (winding & 1) != 0) {
+					int x1 = Math.max((int) Math.ceil(crossings[i]), startX);
+					int x2 = Math.min((int) Math.ceil(crossings[i + 1]),
+							startX + width);
+					if (x2 > x1)
+						addSpan(y - startY, x1 - startX, x2 - startX);
+				}
+			}
+		}
+		return getComponents();
+	}
+
+	/**
+	 * Returns the components of a single pixel of the image window.
+	 */
+	protected float[] averagePixel(int x, int y) {
+		clear();
+		addSpan(y - startY, x - startX, x - startX + 1);
+		return getComponents();
+	}
+
+	private int getFirstRow(int index) {
+		return Math.max((int) Math.ceil(edges[index]), startY);
+	}
+
+	private void clear() {
+		for (int i = 0; i < numBands; i++)
+			sums[i] = 0;
+		count = 0;
+	}
+
+	private void addSpan(int y, int x1, int x2) {
+		// Rows are stored bottom-up
+		int row = height - 1 - y;
+		if (data != null) {
+			int offset = row * scanlineStride + x1 * pixelStride;
+			for (int x = x1; x < x2; x++, offset += pixelStride) {
+				for (int i = 0; i < numBands; i++)
+					sums[i] += data[offset + offsets[i]] & 0xff;
+			}
+		} else {
+			for (int x = x1; x < x2; x++) {
+				for (int i = 0; i < numBands; i++)
+					sums[i] += raster.getSample(x, row, i);
+			}
+		}
+		count += x2 - x1;
+	}
+
+	private float[] getComponents() {
+		float[] components = new float[numBands];
+		double total = count * 255.0;
+		for (int i = 0; i < numBands; i++)
+			components[i] = (float) (sums[i] / total);
+		return components;
+	}
+}
@@ -277,6 +277,7 @@ public class Segment implements Committable, ChangeReceiver {
 			dirty = DIRTY_NONE;
 			// Update to current path version after commit.
 			version = segments.path.version;
+			segments.updateValues(this);
 			path.setModified();
 		}
 	}
@@ -300,6 +301,7 @@ public class Segment implements Committable, ChangeReceiver {
 			dirty = DIRTY_NONE;
 			// Update to current version after commit.
 			version = segments.path.version;
+			segments.updateValues(this);
 			path.setModified();
 		}
 	}
@@ -15,6 +15,8 @@
 package com.scriptographer.ai;
 
 import com.scratchdisk.list.ReadOnlyList;
+import com.scriptographer.CommitManager;
+import com.scriptographer.Committable;
 import com.scriptographer.ScriptographerException;
 import com.scriptographer.list.AbstractFetchList;
 
@@ -23,12 +25,27 @@ import com.scriptographer.list.AbstractFetchList;
  * 
  * @jshide
  */
-public class SegmentList extends AbstractFetchList<Segment> {
+public class SegmentList extends AbstractFetchList<Segment>
+		implements Committable {
 	protected Path path;
 	protected CurveList curves = null;
 
 	private int lengthVersion = -1;
 
+	// The segment values as fetched from Illustrator, packed in the same
+	// layout as filled by nativeGet(), VALUES_PER_SEGMENT floats per segment.
+	// Segment objects are only created as wrappers around these values when
+	// they are actually requested through get(). As long as a Segment object
+	// exists for an index, it holds the authoritative values for it.
+	protected float[] values = new float[0];
+	// The path version at which the values of each segment were fetched,
+	// -1 if they were never fetched.
+	protected int[] versions = new int[0];
+	// The range of values modified through the primitive setters that still
+	// need to be committed.
+	private int dirtyFrom = -1;
+	private int dirtyTo = -1;
+
 	// How many float values are stored in a segment:
 	// use this ugly but fast hack: the AIPathSegment represents roughly an
 	// array of 6 floats (for the 3 AIRealPoints p, in, out)
@@ -74,6 +91,7 @@ public class SegmentList extends AbstractFetchList<Segment> {
 					newSize = nativeGetSize(path.handle);
 				}
 				list.setSize(newSize);
+				ensureCapacity(newSize);
 				size = newSize;
 				if (curves != null)
 					curves.updateSize();
@@ -117,7 +135,73 @@ public class SegmentList extends AbstractFetchList<Segment> {
 			int docHandle, int index, short state);
 
 	/**
-	 * Fetches a series of segments from the underlying Adobe Illustrator Path.
+	 * Makes sure the packed value buffers can hold the given amount of
+	 * segments.
+	 */
+	private void ensureCapacity(int count) {
+		if (versions.length < count) {
+			int capacity = Math.max(count, versions.length * 3 / 2 + 1);
+			float[] newValues = new float[capacity * VALUES_PER_SEGMENT];
+			System.arraycopy(values, 0, newValues, 0, values.length);
+			int[] newVersions = new int[capacity];
+			System.arraycopy(versions, 0, newVersions, 0, versions.length);
+			for (int i = versions.length; i < capacity; i++)
+				newVersions[i] = -1;
+			values = newValues;
+			versions = newVersions;
+		}
+	}
+
+	/**
+	 * Opens a gap of count unfetched entries at index in the packed value
+	 * buffers. Needs to be called before size is increased.
+	 */
+	private void insertValues(int index, int count) {
+		ensureCapacity(size + count);
+		System.arraycopy(values, index * VALUES_PER_SEGMENT, values,
+				(index + count) * VALUES_PER_SEGMENT,
+				(size - index) * VALUES_PER_SEGMENT);
+		System.arraycopy(versions, index, versions, index + count,
+				size - index);
+		for (int i = index; i < index + count; i++)
+			versions[i] = -1;
+	}
+
+	/**
+	 * Removes the entries from fromIndex to toIndex from the packed value
+	 * buffers. Needs to be called before size is decreased.
+	 */
+	private void removeValues(int fromIndex, int toIndex) {
+		System.arraycopy(values, toIndex * VALUES_PER_SEGMENT, values,
+				fromIndex * VALUES_PER_SEGMENT,
+				(size - toIndex) * VALUES_PER_SEGMENT);
+		System.arraycopy(versions, toIndex, versions, fromIndex,
+				size - toIndex);
+		for (int i = size - (toIndex - fromIndex); i < size; i++)
+			versions[i] = -1;
+	}
+
+	/**
+	 * Writes the values of a segment back into the packed value buffer, after
+	 * they were committed to Illustrator.
+	 */
+	protected void updateValues(Segment segment) {
+		int index = segment.index;
+		if (path != null && index >= 0 && index < versions.length) {
+			segment.getValues(values, index * VALUES_PER_SEGMENT);
+			versions[index] = path.version;
+		}
+	}
+
+	private boolean isFetched(int index, boolean needsUpdate, int pathVersion) {
+		return index >= dirtyFrom && index < dirtyTo
+				|| !needsUpdate && versions[index] == pathVersion;
+	}
+
+	/**
+	 * Fetches a series of segments from the underlying Adobe Illustrator Path
+	 * into the packed value buffer, and updates the Segment objects that
+	 * already exist in that range.
 	 * 
 	 * @param fromIndex
 	 * @param toIndex
@@ -129,20 +213,13 @@ public class SegmentList extends AbstractFetchList<Segment> {
 			// regardless of the version, and then compare with that each time.
 			boolean needsUpdate = path.needsUpdate();
 			int pathVersion = path.version;
-			// if all are out of maxVersion or only one segment is fetched, no
-			// scanning for valid segments is needed:
-			int fetchCount = toIndex - fromIndex;
-
 			int start = fromIndex, end;
-
-			float[] values = null;
-			while (true) {
+			float[] buffer = null;
+			while (start < toIndex) {
 				// Skip the ones that are already fetched:
-				Segment segment;
-				while (start < toIndex && (segment = list.get(start)) != null
-						&& (!needsUpdate && segment.version == pathVersion)) {
+				while (start < toIndex
+						&& isFetched(start, needsUpdate, pathVersion))
 					start++;
-				}
 
 				if (start == toIndex) // all fetched, jump out
 					break;
@@ -150,62 +227,329 @@ public class SegmentList extends AbstractFetchList<Segment> {
 				// Now determine the length of the block that needs to be
 				// fetched:
 				end = start + 1;
-
-				while (end < toIndex && ((segment = list.get(start)) == null
-						|| needsUpdate || segment.version != pathVersion)) {
+				while (end < toIndex
+						&& !isFetched(end, needsUpdate, pathVersion))
 					end++;
-				}
 
-				// fetch these segmentValues and set the segments:
+				// Fetch these values directly into the buffer
 				int count = end - start;
-				if (count > 0) {
-					fetchCount -= count;
-					int length =  count * VALUES_PER_SEGMENT;
-					if (values == null || values.length < length)
-						values = new float[length];
-					nativeGet(path.handle, start, count, values);
-					int valueIndex = 0;
-					for (int i = start; i < end; i++) {
-						segment = list.get(i);
-						if (segment == null) {
-							segment = new Segment(this, i);
-							list.set(i, segment);
-						}
-						segment.setValues(values, valueIndex);
-						segment.version = pathVersion;
-						valueIndex += VALUES_PER_SEGMENT;
-					}
-				}
+				int length = count * VALUES_PER_SEGMENT;
+				if (buffer == null || buffer.length < length)
+					buffer = new float[length];
+				// The corner flag is only read correctly if it was set to 0
+				// before, see VALUES_PER_SEGMENT.
+				for (int i = VALUES_PER_SEGMENT - 1; i < length;
+						i += VALUES_PER_SEGMENT)
+					buffer[i] = 0;
+				nativeGet(path.handle, start, count, buffer);
+				System.arraycopy(buffer, 0, values,
+						start * VALUES_PER_SEGMENT, length);
+				for (int i = start; i < end; i++)
+					versions[i] = pathVersion;
 
-				// are we at the end? if so, jump out
-				if (end == toIndex)
-					break;
-
-				// otherwise set start to end and continue
 				start = end;
 			}
+			// Now update the Segment objects that were created already, but
+			// never touch the ones with uncommitted changes.
+			for (int i = fromIndex; i < toIndex; i++) {
+				Segment segment = list.get(i);
+				if (segment != null
+						&& (segment.dirty & Segment.DIRTY_POINTS) == 0
+						&& (needsUpdate || segment.version != pathVersion)) {
+					segment.setValues(values, i * VALUES_PER_SEGMENT);
+					segment.version = pathVersion;
+				}
+			}
 		}
 	}
 
 	public Segment get(int index) {
-		// as fetching doesn't cost so much but calling JNI functions does,
-		// fetch a few elements in the neighborhood at a time:
+		// As fetching into the value buffer doesn't cost so much but calling
+		// JNI functions does, fetch a block of elements in the neighborhood at
+		// a time. Segment objects are only created for the requested index.
 		int fromIndex = index - 2;
 		if (fromIndex < 0)
 			fromIndex = 0;
 
-		int toIndex = fromIndex + 4;
+		int toIndex = fromIndex + 32;
 		if (toIndex > size)
 			toIndex = size;
 		fetch(fromIndex, toIndex);
+		Segment segment = list.get(index);
+		if (segment == null && path != null) {
+			segment = new Segment(this, index);
+			segment.setValues(values, index * VALUES_PER_SEGMENT);
+			segment.version = versions[index];
+			list.set(index, segment);
+		}
+		return segment;
+	}
+
+	/**
+	 * Makes sure the values of the segment at the given index are fetched
+	 * and returns its Segment object, if one was created already. If it
+	 * returns null, the values are to be found in the packed value buffer.
+	 * 
+	 * As the primitive accessors are used by algorithms that walk through
+	 * all segments, all the segments are fetched at once if needed.
+	 */
+	private Segment fetchValues(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: " + index
+					+ ", Size: " + size);
+		if (path != null && !isFetched(index, path.needsUpdate(),
+				path.version))
+			fetch(0, size);
 		return list.get(index);
 	}
 
+	/*
+	 * Primitive accessors, for algorithms that need to process all segments
+	 * without the creation of Segment and SegmentPoint objects. Handles are
+	 * relative to their anchor points, just like in Segment.
+	 */
+
+	/**
+	 * @jshide
+	 */
+	public double getX(int index) {
+		Segment segment = fetchValues(index);
+		return segment != null ? segment.point.x
+				: values[index * VALUES_PER_SEGMENT];
+	}
+
+	/**
+	 * @jshide
+	 */
+	public double getY(int index) {
+		Segment segment = fetchValues(index);
+		return segment != null ? segment.point.y
+				: values[index * VALUES_PER_SEGMENT + 1];
+	}
+
+	/**
+	 * @jshide
+	 */
+	public double getHandleInX(int index) {
+		Segment segment = fetchValues(index);
+		if (segment != null)
+			return segment.handleIn.x;
+		int offset = index * VALUES_PER_SEGMENT;
+		return values[offset + 2] - values[offset];
+	}
+
+	/**
+	 * @jshide
+	 */
+	public double getHandleInY(int index) {
+		Segment segment = fetchValues(index);
+		if (segment != null)
+			return segment.handleIn.y;
+		int offset = index * VALUES_PER_SEGMENT;
+		return values[offset + 3] - values[offset + 1];
+	}
+
+	/**
+	 * @jshide
+	 */
+	public double getHandleOutX(int index) {
+		Segment segment = fetchValues(index);
+		if (segment != null)
+			return segment.handleOut.x;
+		int offset = index * VALUES_PER_SEGMENT;
+		return values[offset + 4] - values[offset];
+	}
+
+	/**
+	 * @jshide
+	 */
+	public double getHandleOutY(int index) {
+		Segment segment = fetchValues(index);
+		if (segment != null)
+			return segment.handleOut.y;
+		int offset = index * VALUES_PER_SEGMENT;
+		return values[offset + 5] - values[offset + 1];
+	}
+
+	/**
+	 * Moves the anchor point of the segment at the given index, along with its
+	 * handles.
+	 * 
+	 * @jshide
+	 */
+	public void setPoint(int index, double x, double y) {
+		Segment segment = fetchValues(index);
+		if (segment != null) {
+			segment.point.set(x, y);
+		} else {
+			int offset = index * VALUES_PER_SEGMENT;
+			float dx = (float) x - values[offset];
+			float dy = (float) y - values[offset + 1];
+			for (int i = 0; i < 6; i += 2) {
+				values[offset + i] += dx;
+				values[offset + i + 1] += dy;
+			}
+			markDirty(index);
+		}
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void setHandleIn(int index, double x, double y) {
+		Segment segment = fetchValues(index);
+		if (segment != null) {
+			segment.handleIn.set(x, y);
+		} else {
+			int offset = index * VALUES_PER_SEGMENT;
+			values[offset + 2] = (float) (values[offset] + x);
+			values[offset + 3] = (float) (values[offset + 1] + y);
+			markDirty(index);
+		}
+	}
+
+	/**
+	 * @jshide
+	 */
+	public void setHandleOut(int index, double x, double y) {
+		Segment segment = fetchValues(index);
+		if (segment != null) {
+			segment.handleOut.set(x, y);
+		} else {
+			int offset = index * VALUES_PER_SEGMENT;
+			values[offset + 4] = (float) (values[offset] + x);
+			values[offset + 5] = (float) (values[offset + 1] + y);
+			markDirty(index);
+		}
+	}
+
+	/**
+	 * Transforms all segments by the given matrix in one pass over the packed
+	 * value buffer, without the creation of Segment or Point objects, and
+	 * commits the result to Illustrator in one single call to nativeSet.
+	 * Segment objects that exist already are transformed in place.
+	 * 
+	 * @param matrix the matrix to transform the segments with
+	 */
+	public void transform(Matrix matrix) {
+		if (size == 0)
+			return;
+		ensureCapacity(size);
+		fetch(0, size);
+		double scaleX = matrix.getScaleX();
+		double shearX = matrix.getShearX();
+		double shearY = matrix.getShearY();
+		double scaleY = matrix.getScaleY();
+		double translateX = matrix.getTranslateX();
+		double translateY = matrix.getTranslateY();
+		for (int i = 0; i < size; i++) {
+			int offset = i * VALUES_PER_SEGMENT;
+			Segment segment = list.get(i);
+			if (segment != null) {
+				// Segment objects hold their own values, transform these in
+				// double precision. Handles are relative to the point and
+				// only need the linear part of the matrix.
+				SegmentPoint point = segment.point;
+				SegmentPoint handleIn = segment.handleIn;
+				SegmentPoint handleOut = segment.handleOut;
+				double x = point.x, y = point.y;
+				point.x = scaleX * x + shearX * y + translateX;
+				point.y = shearY * x + scaleY * y + translateY;
+				x = handleIn.x;
+				y = handleIn.y;
+				handleIn.x = scaleX * x + shearX * y;
+				handleIn.y = shearY * x + scaleY * y;
+				x = handleOut.x;
+				y = handleOut.y;
+				handleOut.x = scaleX * x + shearX * y;
+				handleOut.y = shearY * x + scaleY * y;
+				if (path != null) {
+					segment.getValues(values, offset);
+					// All the values are committed below, so the Segment
+					// does not need to commit its points anymore.
+					segment.dirty &= ~Segment.DIRTY_POINTS;
+				}
+			} else {
+				// Point, handleIn and handleOut are stored as absolute
+				// coordinates
+				for (int j = offset, end = offset + 6; j < end; j += 2) {
+					double x = values[j];
+					double y = values[j + 1];
+					values[j] = (float) (scaleX * x + shearX * y
+							+ translateX);
+					values[j + 1] = (float) (shearY * x + scaleY * y
+							+ translateY);
+				}
+			}
+		}
+		if (path != null) {
+			int length = size * VALUES_PER_SEGMENT;
+			path.checkValid();
+			// nativeSet converts the passed values in place, so pass a copy.
+			float[] buffer = new float[length];
+			System.arraycopy(values, 0, buffer, 0, length);
+			nativeSet(path.handle, path.document.handle, 0, size, buffer);
+			int pathVersion = path.version;
+			for (int i = 0; i < size; i++) {
+				versions[i] = pathVersion;
+				Segment segment = list.get(i);
+				if (segment != null)
+					segment.version = pathVersion;
+			}
+			dirtyFrom = dirtyTo = -1;
+			path.setModified();
+		}
+	}
+
+	private void markDirty(int index) {
+		if (dirtyFrom == -1) {
+			dirtyFrom = index;
+			dirtyTo = index + 1;
+		} else if (index < dirtyFrom) {
+			dirtyFrom = index;
+		} else if (index >= dirtyTo) {
+			dirtyTo = index + 1;
+		}
+		CommitManager.markDirty(path, this);
+	}
+
+	/**
+	 * Commits the values modified through the primitive setters in one
+	 * single call to nativeSet.
+	 * 
+	 * @jshide
+	 */
+	public void commit(boolean endExecution) {
+		if (dirtyFrom != -1 && path != null) {
+			path.checkValid();
+			int count = dirtyTo - dirtyFrom;
+			// Segment objects in the range hold their own values, get these
+			// first:
+			for (int i = dirtyFrom; i < dirtyTo; i++) {
+				Segment segment = list.get(i);
+				if (segment != null)
+					segment.getValues(values, i * VALUES_PER_SEGMENT);
+			}
+			float[] buffer = new float[count * VALUES_PER_SEGMENT];
+			System.arraycopy(values, dirtyFrom * VALUES_PER_SEGMENT, buffer,
+					0, buffer.length);
+			nativeSet(path.handle, path.document.handle, dirtyFrom, count,
+					buffer);
+			for (int i = dirtyFrom; i < dirtyTo; i++)
+				versions[i] = path.version;
+			dirtyFrom = dirtyTo = -1;
+			path.setModified();
+		}
+	}
+
 	public Segment add(int index, Segment segment) {
 		// Copy it if it comes from another list:
 		if (segment.segments != null)
 			segment = new Segment(segment);
+		// Commit pending primitive changes before indices shift
+		commit(false);
 		// Add to internal structure
+		insertValues(index, 1);
 		list.add(index, segment);
 		// Update version:
 		if (path != null)
@@ -248,6 +592,7 @@ public class SegmentList extends AbstractFetchList<Segment> {
 		int commitVersion;
 		if (path != null) {
 			path.checkValid();
+			commit(false);
 			values = new float[count * VALUES_PER_SEGMENT];
 			commitVersion = path.version;
 		} else {
@@ -283,8 +628,17 @@ public class SegmentList extends AbstractFetchList<Segment> {
 
 		// and add the segments to illustrator as well
 		if (values != null && addCount > 0) {
+			// Keep the packed values in sync. This needs to happen before
+			// nativeInsert, which converts the passed values in place.
+			insertValues(index, addCount);
+			System.arraycopy(values, 0, this.values,
+					index * VALUES_PER_SEGMENT, addCount * VALUES_PER_SEGMENT);
+			for (int i = index; i < addIndex; i++)
+				versions[i] = commitVersion;
+
 			SegmentList.nativeInsert(path.handle, path.document.handle, index,
 					addCount, values);
+			path.setModified();
 
 			// update size
 			size += addCount;
@@ -344,6 +698,8 @@ public class SegmentList extends AbstractFetchList<Segment> {
 
 	public void remove(int fromIndex, int toIndex) {
 		if (fromIndex < toIndex) {
+			// Commit pending primitive changes before indices shift
+			commit(false);
 			for (int i = fromIndex; i < toIndex; i++) {
 				Segment seg = list.get(i);
 				if (seg != null) {
@@ -351,10 +707,12 @@ public class SegmentList extends AbstractFetchList<Segment> {
 					seg.index = -1;
 				}
 			}
+			removeValues(fromIndex, toIndex);
 			if (path != null) {
 				path.checkValid();
 				size = nativeRemove(path.handle, path.document.handle,
 						fromIndex, toIndex - fromIndex);
+				path.setModified();
 			} else {
 				size -= toIndex - fromIndex;
 			}
@@ -700,15 +1058,16 @@ public class SegmentList extends AbstractFetchList<Segment> {
 		} else {
 			overlap = 0;
 		}
+		// Use the primitive accessors to avoid the creation of Segment objects
 		Point[] knots = new Point[n];
 		for (int i = 0; i < size; i++)
-			knots[i + overlap] = get(i).point;
+			knots[i + overlap] = new Point(getX(i), getY(i));
 		if (closed) {
 			// If we're averaging, add the 4 last points again at the beginning,
 			// and the 4 first ones at the end.
 			for (int i = 0; i < overlap; i++) {
-				knots[i] = get(i + size - overlap).point;
-				knots[i + size + overlap] = get(i).point;
+				knots[i] = knots[i + size];
+				knots[i + size + overlap] = knots[i + overlap];
 			}
 		} else {
 			n--;
@@ -752,13 +1111,12 @@ public class SegmentList extends AbstractFetchList<Segment> {
 		Point handleIn = null;
 		// Now set the calculated handles
 		for (int i = overlap; i <= n - overlap; i++) {
-			Segment segment = get(i - overlap);
+			int index = i - overlap;
+			Point point = knots[i];
 			if (handleIn != null)
-				segment.handleIn.set(
-						handleIn.subtract(segment.point));
+				setHandleIn(index, handleIn.x - point.x, handleIn.y - point.y);
 			if (i < n) {
-				segment.handleOut.set(
-						new Point(x[i], y[i]).subtract(segment.point));
+				setHandleOut(index, x[i] - point.x, y[i] - point.y);
 				if (i < n - 1)
 					handleIn = new Point(
 							2 * knots[i + 1].x - x[i + 1],
@@ -769,10 +1127,9 @@ public class SegmentList extends AbstractFetchList<Segment> {
 							(knots[n].y + y[n - 1]) / 2);
 			}
 		}
-		if (closed && handleIn != null) {
-			Segment segment = get(0);
-			segment.handleIn.set(handleIn.subtract(segment.point));
-		}
+		if (closed && handleIn != null)
+			setHandleIn(0, handleIn.x - knots[overlap].x,
+					handleIn.y - knots[overlap].y);
 	}
 
 	public void smooth() {
@@ -0,0 +1,129 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * A summed-area table (integral image) over all channels of a raster image,
+ * used by {@link Raster#getAverageColor(Rectangle)} to sum up any rectangle
+ * of pixels with four lookups.
+ *
+ * Rows are read bottom-up from the image, so that the rows of the table
+ * match the pixel coordinates used by
+ * {@link Raster#getAverageColor(java.awt.Shape)}.
+ *
+ * The sums are stored interleaved per channel in 32 bit integers and rely on
+ * wrap-around arithmetic: The sum of a rectangle is exact as long as it
+ * covers no more than {@link #MAX_AREA} pixels, even if the values in the
+ * table itself overflowed.
+ *
+ * @author lehni
+ */
+class SummedAreaTable {
+	/**
+	 * The maximum area that can be summed up without the result overflowing
+	 * 32 bits.
+	 */
+	protected static final long MAX_AREA = 0xffffffffL / 255;
+
+	private int[] sums;
+	private int width;
+	private int height;
+	private int numBands;
+	private int stride;
+
+	private SummedAreaTable(byte[] data, int width, int height, int numBands,
+			int pixelStride, int scanlineStride, int[] offsets) {
+		this.width = width;
+		this.height = height;
+		this.numBands = numBands;
+		// Leave an empty row and column at the beginning, so lookups do not
+		// need to handle the edges.
+		stride = (width + 1) * numBands;
+		sums = new int[stride * (height + 1)];
+		int[] rowSums = new int[numBands];
+		for (int y = 0; y < height; y++) {
+			for (int i = 0; i < numBands; i++)
+				rowSums[i] = 0;
+			int src = (height - 1 - y) * scanlineStride;
+			int above = y * stride + numBands;
+			int dst = above + stride;
+			for (int x = 0; x < width; x++) {
+				for (int i = 0; i < numBands; i++) {
+					rowSums[i] += data[src + offsets[i]] & 0xff;
+					sums[dst++] = sums[above++] + rowSums[i];
+				}
+				src += pixelStride;
+			}
+		}
+	}
+
+	/**
+	 * Creates a table for the given image, or returns null if its sample
+	 * model does not store one byte per channel.
+	 */
+	protected static SummedAreaTable create(BufferedImage image) {
+		WritableRaster raster = image.getRaster();
+		SampleModel model = raster.getSampleModel();
+		if (!(model instanceof ComponentSampleModel)
+				|| !(raster.getDataBuffer() instanceof DataBufferByte))
+			return null;
+		ComponentSampleModel components = (ComponentSampleModel) model;
+		byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+		return new SummedAreaTable(data, raster.getWidth(), raster.getHeight(),
+				raster.getNumBands(), components.getPixelStride(),
+				components.getScanlineStride(), components.getBandOffsets());
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getNumBands() {
+		return numBands;
+	}
+
+	/**
+	 * Sums up the channels of the pixels from x1 to x2 and y1 to y2, both
+	 * exclusive, into the given array. The rectangle needs to lie within the
+	 * table and cover no more than {@link #MAX_AREA} pixels.
+	 */
+	public void getSums(int x1, int y1, int x2, int y2, long[] result) {
+		int topLeft = y1 * stride + x1 * numBands;
+		int topRight = y1 * stride + x2 * numBands;
+		int bottomLeft = y2 * stride + x1 * numBands;
+		int bottomRight = y2 * stride + x2 * numBands;
+		for (int i = 0; i < numBands; i++) {
+			result[i] = (sums[bottomRight + i] - sums[topRight + i]
+					- sums[bottomLeft + i] + sums[topLeft + i]) & 0xffffffffL;
+		}
+	}
+
+	/**
+	 * The amount of bytes used by the table.
+	 */
+	public long getMemorySize() {
+		return sums.length * 4L;
+	}
+}
@@ -14,6 +14,10 @@
 
 package com.scriptographer.ai;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
 import com.scratchdisk.script.Callable;
 import com.scratchdisk.util.ConversionUtils;
 import com.scratchdisk.util.IntMap;
@@ -22,6 +26,15 @@ import com.scriptographer.ScriptographerException;
 import com.scriptographer.sg.Script;
 
 /**
+ * Timers are scheduled on the Java side: One native heartbeat timer drives a
+ * queue of all timers ordered by their deadlines, and is rescheduled to fire
+ * at the next deadline after each tick. All timers that are due in the same
+ * tick are executed together, in one execution and one undo cycle. The
+ * deadlines of periodic timers advance by their period rather than from the
+ * time they were executed, so they do not drift. If a tick comes too late
+ * for a timer to catch up, the missed periods are skipped and counted as
+ * overruns.
+ * 
  * @author lehni
  *
  */
@@ -29,10 +42,35 @@ public class Timer extends NativeObject {
 
 	private int period;
 	private boolean periodic;
+	// The time of the next execution, in nanoseconds
+	private long deadline;
 
 	private Script script = null;
 
 	private static IntMap<Timer> timers = new IntMap<Timer>();
+	private static PriorityQueue<Timer> queue = new PriorityQueue<Timer>(11,
+			new Comparator<Timer>() {
+				public int compare(Timer timer1, Timer timer2) {
+					long diff = timer1.deadline - timer2.deadline;
+					// Execute timers with the same deadline in the order
+					// they were created
+					return diff != 0 ? (diff < 0 ? -1 : 1)
+							: timer1.handle - timer2.handle;
+				}
+			});
+	// Timers are not native objects any longer, but they still receive
+	// unique handles as ids
+	private static int lastId = 0;
+	private static int heartbeat = 0;
+	// The time the heartbeat is going to fire next, in nanoseconds
+	private static long heartbeatDeadline;
+	// The time the heartbeat was asked to fire through wake(), or 0
+	private static long wakeDeadline = 0;
+	private static boolean dispatching = false;
+
+	// The latencies of the last 256 ticks
+	private static LatencySamples latencies = new LatencySamples(256);
+	private static int overruns = 0;
 
 	/**
 	 * Creates a timer object.
@@ -44,10 +82,16 @@ public class Timer extends NativeObject {
 		script = ScriptographerEngine.getCurrentScript();
 		this.period = period;
 		this.periodic = periodic;
-		handle = nativeCreate(period);
-		if (handle == 0)
-			throw new ScriptographerException("Unable to create Timer.");
+		handle = ++lastId;
+		deadline = System.nanoTime() + period * 1000000L;
 		timers.put(handle, this);
+		queue.add(this);
+		try {
+			updateHeartbeat();
+		} catch (ScriptographerException e) {
+			abort();
+			throw e;
+		}
 	}
 
 	public Timer(int period) {
@@ -57,13 +101,70 @@ public class Timer extends NativeObject {
 	public void abort() {
 		if (handle != 0) {
 			timers.remove(handle);
-			nativeAbort(handle);
+			queue.remove(this);
 			handle = 0;
+			updateHeartbeat();
 		}
 	}
 
-	private native int nativeCreate(int period);
-	private native void nativeAbort(int handle);
+	private static native int nativeCreate(int delay);
+	private static native int nativeSetDelay(int handle, int delay);
+	private static native void nativeAbort(int handle);
+
+	/**
+	 * Schedules the native heartbeat to fire at the next deadline, or stops
+	 * it if there are no timers left and it was not woken.
+	 */
+	private static void updateHeartbeat() {
+		// Adjusted once all due timers were executed
+		if (dispatching)
+			return;
+		if (queue.isEmpty() && wakeDeadline == 0) {
+			if (heartbeat != 0) {
+				nativeAbort(heartbeat);
+				heartbeat = 0;
+			}
+			return;
+		}
+		long now = System.nanoTime();
+		long deadline = queue.isEmpty() ? wakeDeadline
+				: wakeDeadline == 0 ? queue.peek().deadline
+				: Math.min(queue.peek().deadline, wakeDeadline);
+		// Nothing to do if the heartbeat fires in time already
+		if (heartbeat != 0 && heartbeatDeadline > now
+				&& heartbeatDeadline <= deadline)
+			return;
+		// Round up to whole milliseconds, so the timer is due when it fires
+		int delay = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+				(deadline - now + 999999) / 1000000));
+		heartbeat = heartbeat != 0
+				? nativeSetDelay(heartbeat, delay)
+				: nativeCreate(delay);
+		if (heartbeat == 0)
+			throw new ScriptographerException("Unable to create Timer.");
+		heartbeatDeadline = now + delay * 1000000L;
+	}
+
+	/**
+	 * Makes the heartbeat fire within the given delay even if no timer is
+	 * due, see {@link ScriptographerEngine#wakeHeartbeat(int)}. To be called
+	 * from the main thread.
+	 * 
+	 * @jshide
+	 */
+	public static void wake(int delay) {
+		long deadline = System.nanoTime() + delay * 1000000L;
+		if (wakeDeadline == 0 || deadline < wakeDeadline) {
+			long previous = wakeDeadline;
+			wakeDeadline = deadline;
+			try {
+				updateHeartbeat();
+			} catch (ScriptographerException e) {
+				wakeDeadline = previous;
+				throw e;
+			}
+		}
+	}
 
 	public double getPeriod() {
 		return period;
@@ -112,53 +213,147 @@ public class Timer extends NativeObject {
 	}
 
 	/**
-	 * To be called from the native environment:
+	 * Executes the timer with the settings of the script that created it, as
+	 * all timers of a tick share one execution.
+	 */
+	private boolean execute() {
+		if (script != null) {
+			ScriptographerEngine.setAngleUnits(script.getAngleUnits());
+			ScriptographerEngine.setCoordinateSystem(
+					script.getCoordinateSystem());
+		}
+		return onExecute();
+	}
+
+	/**
+	 * Moves the deadline of a periodic timer on by its period, skipping the
+	 * periods that were missed entirely.
+	 */
+	private void reschedule(long now) {
+		long step = Math.max(period, 1) * 1000000L;
+		deadline += step;
+		if (deadline <= now) {
+			long missed = (now - deadline) / step + 1;
+			overruns += missed;
+			deadline += missed * step;
+		}
+		queue.add(this);
+	}
+
+	/**
+	 * To be called from the native environment on each heartbeat.
 	 */
 	private static boolean onExecute(int handle) {
-		Timer timer = getTimer(handle);
-		if (timer != null) {
+		if (handle != heartbeat)
+			return false;
+		long now = System.nanoTime();
+		if (wakeDeadline != 0 && wakeDeadline <= now)
+			wakeDeadline = 0;
+		ScriptographerEngine.onHeartbeat();
+		ArrayList<Timer> due = new ArrayList<Timer>();
+		while (!queue.isEmpty() && queue.peek().deadline <= now)
+			due.add(queue.poll());
+		if (due.isEmpty()) {
+			// Fired early or only woken, schedule it for the next deadline
+			heartbeatDeadline = 0;
+			updateHeartbeat();
+			return false;
+		}
+		latencies.add(now - due.get(0).deadline);
+		boolean changed = false;
+		dispatching = true;
+		try {
+			Document document = Document.getActiveDocument();
+			// Produce a normal undo cycle if in the previous cycle we have
+			// created or removed items. Otherwise just merge the changes of
+			// this cycle with the previous one.
+			// It is important to create new cycles when such changes
+			// happen, as they affect the live span of items within the undo
+			// history, and if all cycles were merged, the history tracking
+			// code in Document would not be able to track their life span.
+			int undoType = document == null || document.hasCreatedState()
+					|| document.hasRemovedState() 
+							? Document.UNDO_STANDARD
+							: Document.UNDO_MERGE;
+			// Clear changed states now to track for new changes in
+			// onExecute()
+			if (document != null)
+				document.clearChangedStates();
+			// Execute all due timers in one execution, so their changes are
+			// committed together.
+			ScriptographerEngine.beginExecution();
 			try {
-				Document document = Document.getActiveDocument();
-				// Produce a normal undo cycle if in the previous cycle we have
-				// created or removed items. Otherwise just merge the changes of
-				// this cycle with the previous one.
-				// It is important to create new cycles when such changes
-				// happen, as they affect the live span of items within the undo
-				// history, and if all cycles were merged, the history tracking
-				// code in Document would not be able to track their life span.
-				int undoType = document == null || document.hasCreatedState()
-						|| document.hasRemovedState() 
-								? Document.UNDO_STANDARD
-								: Document.UNDO_MERGE;
-				// Clear changed states now to track for new changes in
-				// onExecute()
-				if (document != null)
-					document.clearChangedStates();
-				boolean changed = timer.onExecute()
-						|| document != null && document.hasChangedSates();
-				// Only change undo type if the document have actually changed,
-				// or if the type is MERGE, in which case we will not add new
-				// unto levels. This is actually needed to prevent a weird bug
-				// that occasionally happens where Ai keeps adding new levels.
-				// To not set STANDARD in all cases prevents issues with
-				// situations where Timers are used for ADM interface stuff,
-				// e.g. invokeLater().
-				if (document != null
-						&& (changed || undoType == Document.UNDO_MERGE)) {
-					document.setUndoType(undoType);
+				for (Timer timer : due) {
+					// Timers can be aborted by the ones executed before them
+					if (timer.handle == 0)
+						continue;
+					try {
+						if (timer.execute())
+							changed = true;
+					} finally {
+						if (!timer.periodic) {
+							// Simulate one shot timers by aborting:
+							timer.abort();
+						} else if (timer.handle != 0) {
+							timer.reschedule(now);
+						}
+					}
 				}
-				return changed;
 			} finally {
-				// Simulate one shot timers by aborting:
-				if (!timer.periodic)
-					timer.abort();
+				ScriptographerEngine.endExecution();
+			}
+			if (document != null && document.hasChangedSates())
+				changed = true;
+			// Only change undo type if the document have actually changed,
+			// or if the type is MERGE, in which case we will not add new
+			// unto levels. This is actually needed to prevent a weird bug
+			// that occasionally happens where Ai keeps adding new levels.
+			// To not set STANDARD in all cases prevents issues with
+			// situations where Timers are used for ADM interface stuff,
+			// e.g. invokeLater().
+			if (document != null
+					&& (changed || undoType == Document.UNDO_MERGE)) {
+				document.setUndoType(undoType);
+			}
+		} finally {
+			// Put back the timers that were not reached due to an exception
+			for (Timer timer : due) {
+				if (timer.handle != 0 && !queue.contains(timer))
+					timer.reschedule(now);
 			}
+			dispatching = false;
+			heartbeatDeadline = 0;
+			updateHeartbeat();
 		}
-		return false;
+		return changed;
+	}
+
+	/**
+	 * Returns how late timers were executed compared to their deadlines, as
+	 * a percentile of the last 256 ticks.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency in milliseconds, or 0 if no timers were executed
+	 *         yet
+	 */
+	public static double getLatency(double percentile) {
+		return latencies.getPercentile(percentile);
 	}
 
-	private static Timer getTimer(int handle) {
-		return timers.get(handle);
+	/**
+	 * The amount of periods that periodic timers skipped because they could
+	 * not be executed in time.
+	 */
+	public static int getOverruns() {
+		return overruns;
+	}
+
+	/**
+	 * Clears the latencies and overruns collected so far.
+	 */
+	public static void resetStatistics() {
+		latencies.clear();
+		overruns = 0;
 	}
 
 	protected void finalize() {
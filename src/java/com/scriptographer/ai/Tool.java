@@ -139,6 +139,7 @@ public class Tool extends ToolHandler {
 	public void initialize() {
 		super.initialize();
 		setEventInterval(-1);
+		resetLatency();
 	}
 
 	public void reset() {
@@ -276,6 +277,42 @@ public class Tool extends ToolHandler {
 		}
 	}
 
+	// The latencies of the last 256 mouse events
+	private LatencySamples latencies = new LatencySamples(256);
+
+	protected void onFrameEnd(long receivedTime) {
+		latencies.add(System.nanoTime() - receivedTime);
+	}
+
+	/**
+	 * Returns the time it took from receiving a mouse event until the
+	 * changes of its event handlers were committed, as a percentile of the
+	 * last 256 mouse events. This helps to find out whether a tool script is
+	 * fast enough, and whether {@link #getCoalesceEvents()} helps it.
+	 *
+	 * Sample code:
+	 * <code>
+	 * function onMouseUp(event) {
+	 * 	print('Median: ' + tool.getLatency(50) + 'ms, '
+	 * 			+ '95th percentile: ' + tool.getLatency(95) + 'ms');
+	 * }
+	 * </code>
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the latency in milliseconds, or 0 if no mouse events were
+	 *         received yet
+	 */
+	public double getLatency(double percentile) {
+		return latencies.getPercentile(percentile);
+	}
+
+	/**
+	 * Clears the latencies collected for {@link #getLatency(double)}.
+	 */
+	public void resetLatency() {
+		latencies.clear();
+	}
+
 	/**
 	 * To be called from the native environment. Returns the cursor
 	 * id to be set, if any.
@@ -44,11 +44,15 @@ public class ToolEvent extends Event {
 	private Point delta = null;
 	private double pressure = -1;
 	private Item item = null;
+	private Point[] points;
+	private double[] pressures;
 
 	protected ToolEvent(ToolHandler tool, ToolEventType type, int modifiers) {
 		super(modifiers);
 		this.tool = tool;
 		this.type = type;
+		points = tool.points;
+		pressures = tool.pressures;
 	}
 
 	public String toString() {
@@ -177,6 +181,35 @@ public class ToolEvent extends Event {
 		this.pressure = pressure;
 	}
 
+	/**
+	 * The positions of all mouse movements that led to this event, in the
+	 * order they happened. Unless {@link Tool#getCoalesceEvents()} is set,
+	 * this only contains the current position of the mouse. When events are
+	 * coalesced, it also contains the positions of the movements that were
+	 * merged into this event. Note that with {@link Tool#getMinDistance()}
+	 * or {@link Tool#getMaxDistance()}, the events produced by one movement
+	 * share the same points, and {@link #getPoint()} may lie in between.
+	 */
+	public Point[] getPoints() {
+		if (points == null)
+			return new Point[] { getPoint() };
+		Point[] result = new Point[points.length];
+		for (int i = 0; i < points.length; i++)
+			result[i] = new Point(points[i]);
+		return result;
+	}
+
+	/**
+	 * The pressures of the movements returned by {@link #getPoints()}.
+	 *
+	 * @return the pressures as values between 0 and 1
+	 */
+	public double[] getPressures() {
+		if (pressures == null)
+			return new double[] { getPressure() };
+		return pressures.clone();
+	}
+
 	/**
 	 * The number of times the mouse event was fired.
 	 * 
@@ -14,6 +14,8 @@
 
 package com.scriptographer.ai;
 
+import java.util.ArrayList;
+
 import com.scratchdisk.script.Callable;
 import com.scriptographer.ScriptographerEngine;
 import com.scriptographer.sg.Script;
@@ -35,6 +37,30 @@ public class ToolHandler extends NativeObject {
 	protected int downCount;
 	protected double pressure;
 
+	private boolean coalesceEvents;
+	private int frameBudget;
+	// The time the last frame ended and how long its work took, in
+	// nanoseconds
+	private long frameEnd;
+	private long frameDuration;
+	// The native events merged into the next event, with their pressures
+	private ArrayList<Point> pendingPoints = new ArrayList<Point>();
+	private ArrayList<Double> pendingPressures = new ArrayList<Double>();
+	// The time the first of the pending events was received
+	private long pendingTime;
+	// The type and modifiers of the last pending event
+	private ToolEventType pendingType;
+	private int pendingModifiers;
+	// Fires the pending events if no native event comes to do so
+	private Runnable pendingHandler = new Runnable() {
+		public void run() {
+			firePendingEvents();
+		}
+	};
+	// The native events merged into the events currently being fired
+	protected Point[] points;
+	protected double[] pressures;
+
 	protected ToolHandler(int handle) {
 		super(handle);
 	}
@@ -55,6 +81,14 @@ public class ToolHandler extends NativeObject {
 		lastPoint = null;
 		count = 0;
 		downCount = 0;
+		coalesceEvents = false;
+		frameBudget = 16;
+		frameEnd = 0;
+		frameDuration = 0;
+		pendingPoints.clear();
+		pendingPressures.clear();
+		points = null;
+		pressures = null;
 		onEditOptions = null;
 		onSelect = null;
 		onDeselect = null;
@@ -112,6 +146,64 @@ public class ToolHandler extends NativeObject {
 		maxDistance = distance;
 	}
 
+	/**
+	 * Specifies whether mouse drag and move events are coalesced. When set,
+	 * all the events produced by one mouse movement are fired within one
+	 * execution, so changes to the document are committed once per movement
+	 * instead of once per event. Once the events of a movement take longer
+	 * than the {@link #getFrameBudget() frame budget}, the remaining steps
+	 * towards the mouse position are merged into one event, and movements
+	 * that arrive while the script is still catching up with a slow frame are
+	 * merged into the next event. If no further movement comes, that event is
+	 * fired once the script caught up. The positions and pressures of all
+	 * merged movements remain available through {@link ToolEvent#getPoints()}
+	 * and {@link ToolEvent#getPressures()}.
+	 * 
+	 * Sample code:
+	 * <code>
+	 * tool.coalesceEvents = true;
+	 * 
+	 * function onMouseDrag(event) {
+	 * 	// Follow all positions the mouse went through
+	 * 	var points = event.points;
+	 * 	for (var i = 0; i < points.length; i++)
+	 * 		path.lineTo(points[i]);
+	 * }
+	 * </code>
+	 * 
+	 * @return {@true if mouse events are coalesced}
+	 */
+	public boolean getCoalesceEvents() {
+		return coalesceEvents;
+	}
+
+	public void setCoalesceEvents(boolean coalesce) {
+		coalesceEvents = coalesce;
+	}
+
+	/**
+	 * The time in milliseconds that the events of one mouse movement may
+	 * take when {@link #getCoalesceEvents()} is set, before the remaining
+	 * events are merged.
+	 * 
+	 * @return the frame budget in milliseconds
+	 */
+	public int getFrameBudget() {
+		return frameBudget;
+	}
+
+	public void setFrameBudget(int budget) {
+		frameBudget = Math.max(0, budget);
+	}
+
+	/**
+	 * Called after the events for a native mouse event are fired and
+	 * committed, with the time the native event was received, as returned by
+	 * {@link System#nanoTime()}.
+	 */
+	protected void onFrameEnd(long receivedTime) {
+	}
+
 	/**
 	 * @deprecated
 	 */
@@ -372,16 +464,154 @@ public class ToolHandler extends NativeObject {
 		return true;
 	}
 
+	/**
+	 * Sets the positions merged into the events about to be fired: the
+	 * pending ones, followed by pt.
+	 */
+	private void setPoints(Point pt, int pressure) {
+		int count = pendingPoints.size();
+		points = new Point[count + 1];
+		pressures = new double[count + 1];
+		for (int i = 0; i < count; i++) {
+			points[i] = pendingPoints.get(i);
+			pressures[i] = pendingPressures.get(i);
+		}
+		points[count] = pt;
+		pressures[count] = pressure / 255.0;
+		pendingPoints.clear();
+		pendingPressures.clear();
+	}
+
+	/**
+	 * Fires the drag or move events for one native event in coalescing mode,
+	 * see {@link #getCoalesceEvents()}.
+	 */
+	private void onCoalescedEvent(ToolEventType type, Point pt, int pressure,
+			int modifiers, long received) {
+		// While catching up with a frame that took longer than the budget,
+		// merge the movement into the next event.
+		if (frameDuration > frameBudget * 1000000L
+				&& received - frameEnd < frameDuration && !pt.equals(point)) {
+			if (pendingPoints.isEmpty())
+				pendingTime = received;
+			pendingPoints.add(pt);
+			pendingPressures.add(pressure / 255.0);
+			pendingType = type;
+			pendingModifiers = modifiers;
+			// Make sure the merged movements are fired even if the mouse
+			// stops moving.
+			ScriptographerEngine.addHeartbeatHandler(pendingHandler);
+			ScriptographerEngine.wakeHeartbeat(getCatchUpDelay(received));
+			return;
+		}
+		fireCoalescedEvent(type, pt, pressure, modifiers, received);
+	}
+
+	/**
+	 * Returns the milliseconds until the script caught up with the last
+	 * frame, rounded up.
+	 */
+	private int getCatchUpDelay(long time) {
+		return (int) Math.max(1,
+				(frameEnd + frameDuration - time + 999999) / 1000000);
+	}
+
+	/**
+	 * Fires the movements merged while catching up with a slow frame, once
+	 * the script caught up, in case no further native event did so. Called on
+	 * the heartbeat of the timers.
+	 */
+	private void firePendingEvents() {
+		if (!pendingPoints.isEmpty()) {
+			long now = System.nanoTime();
+			if (now - frameEnd < frameDuration) {
+				ScriptographerEngine.wakeHeartbeat(getCatchUpDelay(now));
+				return;
+			}
+		}
+		ScriptographerEngine.removeHeartbeatHandler(pendingHandler);
+		int last = pendingPoints.size() - 1;
+		if (last >= 0) {
+			Point pt = pendingPoints.remove(last);
+			int pressure = (int) Math.round(pendingPressures.remove(last)
+					* 255);
+			fireCoalescedEvent(pendingType, pt, pressure, pendingModifiers,
+					pendingTime);
+		}
+	}
+
+	private void fireCoalescedEvent(ToolEventType type, Point pt,
+			int pressure, int modifiers, long received) {
+		boolean drag = type == ToolEventType.MOUSEDRAG;
+		Callable callable = drag ? onMouseDrag : onMouseMove;
+		long budget = frameBudget * 1000000L;
+		if (!pendingPoints.isEmpty())
+			received = pendingTime;
+		setPoints(pt, pressure);
+		long frameStart = System.nanoTime();
+		// Fire all events in one execution, so changes are committed once.
+		if (callable != null)
+			ScriptographerEngine.beginExecution(null, callable.getScope());
+		try {
+			// See onHandleEvent() for an explanation of these flags
+			boolean needsChange = !drag, matchMaxDistance = false;
+			boolean start = !drag && firstMove;
+			while (updateEvent(type, pt, pressure, minDistance, maxDistance,
+					start, needsChange, matchMaxDistance)) {
+				fire(type, modifiers);
+				firstMove = start = false;
+				needsChange = true;
+				matchMaxDistance = drag;
+				if (System.nanoTime() - frameStart > budget
+						&& !pt.equals(point)) {
+					// Out of time: merge the remaining steps into one event
+					if (updateEvent(type, pt, pressure, null, null, false,
+							true, false))
+						fire(type, modifiers);
+					break;
+				}
+			}
+		} finally {
+			if (callable != null)
+				ScriptographerEngine.endExecution();
+		}
+		// Only the frame's own work determines how long to merge events, not
+		// the time the merged events were waiting. The latency is measured
+		// from the first merged event.
+		frameEnd = System.nanoTime();
+		frameDuration = frameEnd - frameStart;
+		onFrameEnd(received);
+	}
+
+	private void fire(ToolEventType type, int modifiers) {
+		try {
+			ToolEvent event = new ToolEvent(this, type, modifiers);
+			if (type == ToolEventType.MOUSEDRAG)
+				onMouseDrag(event);
+			else
+				onMouseMove(event);
+		} catch (Exception e) {
+			ScriptographerEngine.reportError(e);
+		}
+	}
+
 	public void onHandleEvent(ToolEventType type, Point pt, int pressure,
 			int modifiers) {
+		long received = System.nanoTime();
 		try {
 			switch (type) {
 			case MOUSEDOWN:
+				setPoints(pt, pressure);
 				updateEvent(type, pt, pressure, null, null, true, false, false);
 				onMouseDown(new ToolEvent(this, ToolEventType.MOUSEDOWN,
 						modifiers));
+				onFrameEnd(received);
 				break;
 			case MOUSEDRAG:
+				if (coalesceEvents) {
+					onCoalescedEvent(type, pt, pressure, modifiers, received);
+					break;
+				}
 				// In order for idleInterval drag events to work, we need to
 				// not check the first call for a change of position. 
 				// Subsequent calls required by min/maxDistance functionality
@@ -392,6 +622,7 @@ public class ToolHandler extends NativeObject {
 				// generated in case it is shorter than maxDistance, as this
 				// would produce weird results. matchMaxDistance controls this.
 				boolean matchMaxDistance = false;
+				setPoints(pt, pressure);
 				while (updateEvent(type, pt, pressure, minDistance,
 						maxDistance, false, needsChange, matchMaxDistance)) {
 					try {
@@ -403,8 +634,12 @@ public class ToolHandler extends NativeObject {
 					needsChange = true;
 					matchMaxDistance = true;
 				}
+				onFrameEnd(received);
 				break;
 			case MOUSEUP:
+				// Movements merged into a next event that never came are
+				// included in the final drag event.
+				setPoints(pt, pressure);
 				// If the last mouse drag happened in a different place, call
 				// mouse drag first, then mouse up.
 				if ((point.x != pt.x || point.y != pt.y) && updateEvent(
@@ -428,8 +663,15 @@ public class ToolHandler extends NativeObject {
 				// Start with new values for TRACK_CURSOR
 				updateEvent(type, pt, pressure, null, null, true, false, false);
 				firstMove = true;
+				frameEnd = frameDuration = 0;
+				onFrameEnd(received);
 				break;
 			case MOUSEMOVE:
+				if (coalesceEvents) {
+					onCoalescedEvent(type, pt, pressure, modifiers, received);
+					break;
+				}
+				setPoints(pt, pressure);
 				while (updateEvent(type, pt, pressure, minDistance,
 						maxDistance, firstMove, true, false)) {
 					try {
@@ -440,6 +682,7 @@ public class ToolHandler extends NativeObject {
 					}
 					firstMove = false;
 				}
+				onFrameEnd(received);
 				break;
 			case EDIT_OPTIONS:
 				onEditOptions();
@@ -0,0 +1,299 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The preprocessing stages of a {@link TracingSession}, performed on plain
+ * pixel arrays in Java: Conversion to gray, blurring, thresholding for
+ * {@link TracingMode#BITMAP} and posterizing for the other modes. None of
+ * them touch Illustrator, so they can be run and tested on images that were
+ * not read from a document.
+ *
+ * Pixels are stored as interleaved bytes in rows of width pixels, with one
+ * band for gray and three for RGB images. Gray values describe brightness.
+ *
+ * @author lehni
+ */
+class TracingPreprocessor {
+
+	private TracingPreprocessor() {
+		// Don't let anyone instantiate this class.
+	}
+
+	/**
+	 * Converts ARGB pixels to RGB or gray bytes, compositing transparent
+	 * pixels over white.
+	 */
+	protected static byte[] getBytes(int[] pixels, boolean gray) {
+		int numBands = gray ? 1 : 3;
+		byte[] data = new byte[pixels.length * numBands];
+		for (int i = 0, j = 0; i < pixels.length; i++) {
+			int pixel = pixels[i];
+			int alpha = pixel >>> 24, white = (255 - alpha) * 255;
+			int r = (((pixel >> 16) & 0xff) * alpha + white + 127) / 255;
+			int g = (((pixel >> 8) & 0xff) * alpha + white + 127) / 255;
+			int b = ((pixel & 0xff) * alpha + white + 127) / 255;
+			if (gray) {
+				data[j++] = (byte) ((r * 299 + g * 587 + b * 114 + 500) / 1000);
+			} else {
+				data[j++] = (byte) r;
+				data[j++] = (byte) g;
+				data[j++] = (byte) b;
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Blurs the pixels through three passes of horizontal and vertical box
+	 * blurs, which approximate a gaussian blur of the given radius.
+	 */
+	protected static byte[] blur(byte[] data, int width, int height,
+			int numBands, float radius) {
+		if (radius <= 0)
+			return data;
+		// The box sizes for three passes of a gaussian with sigma = radius,
+		// after "Fast Almost-Gaussian Filtering" by Kovesi.
+		double sigma = radius;
+		int lower = (int) Math.sqrt(4 * sigma * sigma + 1);
+		if (lower % 2 == 0)
+			lower--;
+		int upper = lower + 2;
+		int m = (int) Math.round((12 * sigma * sigma - 3 * lower * lower
+				- 12 * lower - 9) / (-4.0 * lower - 4));
+		byte[] result = data.clone();
+		byte[] tmp = new byte[data.length];
+		for (int pass = 0; pass < 3; pass++) {
+			int r = ((pass < m ? lower : upper) - 1) / 2;
+			if (r > 0) {
+				boxBlur(result, tmp, width, height, numBands, r, true);
+				boxBlur(tmp, result, width, height, numBands, r, false);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Blurs the rows (or columns) of src into dst with a box of 2 * r + 1
+	 * pixels, repeating the edge pixels.
+	 */
+	private static void boxBlur(byte[] src, byte[] dst, int width, int height,
+			int numBands, int r, boolean horizontal) {
+		int lines = horizontal ? height : width;
+		int length = horizontal ? width : height;
+		int step = (horizontal ? 1 : width) * numBands;
+		int lineStep = (horizontal ? width : 1) * numBands;
+		int size = 2 * r + 1;
+		for (int line = 0; line < lines; line++) {
+			for (int band = 0; band < numBands; band++) {
+				int start = line * lineStep + band;
+				int first = src[start] & 0xff;
+				int last = src[start + (length - 1) * step] & 0xff;
+				int sum = (r + 1) * first;
+				for (int i = 0; i < r; i++)
+					sum += src[start + Math.min(i, length - 1) * step] & 0xff;
+				for (int i = 0; i < length; i++) {
+					int in = i + r, out = i - r - 1;
+					sum += (in < length ? src[start + in * step] & 0xff : last)
+							- (out >= 0 ? src[start + out * step] & 0xff
+									: first);
+					dst[start + i * step] = (byte) ((sum + size / 2) / size);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Turns gray pixels black or white. Pixels darker than the threshold
+	 * become black.
+	 */
+	protected static byte[] threshold(byte[] data, int threshold) {
+		byte[] result = new byte[data.length];
+		for (int i = 0; i < data.length; i++)
+			result[i] = (data[i] & 0xff) < threshold ? 0 : (byte) 255;
+		return result;
+	}
+
+	/**
+	 * Reduces the pixels to at most maxColors colors through median cut
+	 * quantization. RGB colors are grouped with 5 bits per channel.
+	 */
+	protected static byte[] posterize(byte[] data, int numBands,
+			int maxColors) {
+		int bits = numBands == 1 ? 8 : 5, shift = 8 - bits;
+		int[] histogram = new int[1 << (bits * numBands)];
+		int count = data.length / numBands;
+		for (int i = 0; i < count; i++)
+			histogram[getBin(data, i * numBands, numBands, bits, shift)]++;
+		// Collect the used bins and split them into boxes
+		ArrayList<Integer> used = new ArrayList<Integer>();
+		for (int i = 0; i < histogram.length; i++) {
+			if (histogram[i] > 0)
+				used.add(i);
+		}
+		int[] bins = new int[used.size()];
+		for (int i = 0; i < bins.length; i++)
+			bins[i] = used.get(i);
+		ArrayList<Box> boxes = new ArrayList<Box>();
+		boxes.add(new Box(bins, 0, bins.length, histogram, numBands, bits));
+		while (boxes.size() < maxColors) {
+			// Split the box with the largest range weighted by pixel count
+			Box largest = null;
+			for (Box box : boxes) {
+				if (box.end - box.start > 1 && (largest == null
+						|| box.getPriority() > largest.getPriority()))
+					largest = box;
+			}
+			if (largest == null)
+				break;
+			boxes.add(largest.split(bins, histogram));
+		}
+		// Map each used bin to the average color of its box
+		int[][] palette = new int[histogram.length][];
+		for (Box box : boxes) {
+			int[] color = box.getAverage(bins, histogram);
+			for (int i = box.start; i < box.end; i++)
+				palette[bins[i]] = color;
+		}
+		byte[] result = new byte[data.length];
+		for (int i = 0, j = 0; i < count; i++) {
+			int[] color = palette[getBin(data, i * numBands, numBands, bits,
+					shift)];
+			for (int band = 0; band < numBands; band++)
+				result[j++] = (byte) color[band];
+		}
+		return result;
+	}
+
+	private static int getBin(byte[] data, int offset, int numBands, int bits,
+			int shift) {
+		int bin = 0;
+		for (int band = 0; band < numBands; band++)
+			bin = (bin << bits) | ((data[offset + band] & 0xff) >> shift);
+		return bin;
+	}
+
+	private static int getComponent(int bin, int band, int numBands,
+			int bits) {
+		return (bin >> ((numBands - 1 - band) * bits)) & ((1 << bits) - 1);
+	}
+
+	/**
+	 * A range of bins in the sorted bins array, covering one color of the
+	 * resulting palette.
+	 */
+	private static class Box {
+		int start;
+		int end;
+		int numBands;
+		int bits;
+		int[] min;
+		int[] max;
+		long count;
+
+		Box(int[] bins, int start, int end, int[] histogram, int numBands,
+				int bits) {
+			this.start = start;
+			this.end = end;
+			this.numBands = numBands;
+			this.bits = bits;
+			min = new int[numBands];
+			max = new int[numBands];
+			for (int band = 0; band < numBands; band++) {
+				min[band] = Integer.MAX_VALUE;
+				max[band] = -1;
+			}
+			for (int i = start; i < end; i++) {
+				count += histogram[bins[i]];
+				for (int band = 0; band < numBands; band++) {
+					int value = getComponent(bins[i], band, numBands, bits);
+					min[band] = Math.min(min[band], value);
+					max[band] = Math.max(max[band], value);
+				}
+			}
+		}
+
+		int getLongestBand() {
+			int longest = 0;
+			for (int band = 1; band < numBands; band++) {
+				if (max[band] - min[band] > max[longest] - min[longest])
+					longest = band;
+			}
+			return longest;
+		}
+
+		double getPriority() {
+			int band = getLongestBand();
+			return (double) (max[band] - min[band]) * count;
+		}
+
+		/**
+		 * Splits the box at the median of its longest band, and returns the
+		 * new upper half while keeping the lower half.
+		 */
+		Box split(int[] bins, int[] histogram) {
+			final int band = getLongestBand();
+			// Sort the bins of the box by the longest band
+			Integer[] sorted = new Integer[end - start];
+			for (int i = start; i < end; i++)
+				sorted[i - start] = bins[i];
+			Arrays.sort(sorted, new Comparator<Integer>() {
+				public int compare(Integer bin1, Integer bin2) {
+					return getComponent(bin1, band, numBands, bits)
+							- getComponent(bin2, band, numBands, bits);
+				}
+			});
+			for (int i = start; i < end; i++)
+				bins[i] = sorted[i - start];
+			long half = count / 2, sum = 0;
+			int median = start;
+			while (median < end - 1 && sum + histogram[bins[median]] <= half)
+				sum += histogram[bins[median++]];
+			// Keep at least one bin on each side
+			if (median == start)
+				median++;
+			Box upper = new Box(bins, median, end, histogram, numBands, bits);
+			Box lower = new Box(bins, start, median, histogram, numBands, bits);
+			end = median;
+			min = lower.min;
+			max = lower.max;
+			count = lower.count;
+			return upper;
+		}
+
+		int[] getAverage(int[] bins, int[] histogram) {
+			long[] sums = new long[numBands];
+			for (int i = start; i < end; i++) {
+				int weight = histogram[bins[i]];
+				for (int band = 0; band < numBands; band++)
+					sums[band] += (long) weight
+							* getComponent(bins[i], band, numBands, bits);
+			}
+			int[] color = new int[numBands];
+			int shift = 8 - bits;
+			for (int band = 0; band < numBands; band++) {
+				// Take the centers of the bins, scaled back to 8 bits
+				double value = (double) sums[band] / count;
+				color[band] = Math.min(255, (int) Math.round(
+						(value + (shift > 0 ? 0.5 : 0)) * (1 << shift)));
+			}
+			return color;
+		}
+	}
+}
@@ -0,0 +1,336 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import com.scriptographer.ScriptographerEngine;
+
+/**
+ * A tracing session traces a raster repeatedly with changing parameters,
+ * reusing as much of the previous work as possible. The raster is
+ * preprocessed in Java according to the {@link #getMode() mode}: converted to
+ * gray, blurred, and then thresholded or posterized. The result of each of
+ * these stages is kept until the raster or the parameters of that stage
+ * change, and the preprocessed raster is handed to Illustrator's tracing for
+ * vectorization. When only the vectorization parameters change, the
+ * existing {@link Tracing} item is updated without preprocessing again.
+ *
+ * Progress is reported through the progress bar while preprocessing.
+ *
+ * Sample code:
+ * <code>
+ * var session = new TracingSession(raster);
+ * session.mode = 'gray';
+ * session.maxColors = 4;
+ * session.trace();
+ * // Only vectorizes again:
+ * session.cornerAngle = 40;
+ * session.trace();
+ * </code>
+ *
+ * @author lehni
+ */
+public class TracingSession {
+	private Raster raster;
+	private Raster preprocessed;
+	private Tracing tracing;
+
+	private TracingMode mode = TracingMode.BITMAP;
+	private float blur = 0;
+	private int threshold = 128;
+	private int maxColors = 6;
+
+	private boolean fills = true;
+	private boolean strokes = false;
+	private float maxStrokeWeight = 10;
+	private float minStrokeLength = 20;
+	private float pathTightness = 2;
+	private float cornerAngle = 20;
+	private int minArea = 10;
+
+	// The cached stages, with the parameters they were produced with
+	private int[] pixels;
+	private int width;
+	private int height;
+	private int version = -1;
+	private int modificationCount = -1;
+
+	private byte[] blurred;
+	private boolean blurredGray;
+	private float blurredRadius;
+
+	private byte[] result;
+	private TracingMode resultMode;
+	private int resultLevel;
+
+	private boolean vectorized = false;
+
+	public TracingSession(Raster raster) {
+		this.raster = raster;
+	}
+
+	/**
+	 * The raster that is traced.
+	 */
+	public Raster getRaster() {
+		return raster;
+	}
+
+	/**
+	 * The tracing item produced by the last call of {@link #trace()}, or
+	 * {@code null} if the raster was not traced yet.
+	 */
+	public Tracing getTracing() {
+		return tracing != null && tracing.isValid() ? tracing : null;
+	}
+
+	/**
+	 * Default: "bitmap"
+	 */
+	public TracingMode getMode() {
+		return mode;
+	}
+
+	public void setMode(TracingMode mode) {
+		this.mode = mode != null ? mode : TracingMode.BITMAP;
+	}
+
+	/**
+	 * Default: 0.0
+	 */
+	public float getBlur() {
+		return blur;
+	}
+
+	/**
+	 * @param blur 0.0 < blur < 20.0
+	 */
+	public void setBlur(float blur) {
+		this.blur = Math.max(0, blur);
+	}
+
+	/**
+	 * The threshold used in "bitmap" mode.
+	 * Default: 128
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @param threshold 1 < threshold < 255
+	 */
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * The maximum amount of colors or grays used in "color" and "gray" mode.
+	 * Default: 6
+	 */
+	public int getMaxColors() {
+		return maxColors;
+	}
+
+	/**
+	 * @param maxColors 2 < maxColors < 256
+	 */
+	public void setMaxColors(int maxColors) {
+		this.maxColors = Math.max(2, Math.min(256, maxColors));
+	}
+
+	/**
+	 * Default: {@code true}
+	 */
+	public boolean getFills() {
+		return fills;
+	}
+
+	public void setFills(boolean fills) {
+		this.fills = fills;
+		vectorized = false;
+	}
+
+	/**
+	 * Default: {@code false}
+	 */
+	public boolean getStrokes() {
+		return strokes;
+	}
+
+	public void setStrokes(boolean strokes) {
+		this.strokes = strokes;
+		vectorized = false;
+	}
+
+	/**
+	 * Default: 10.0
+	 */
+	public float getMaxStrokeWeight() {
+		return maxStrokeWeight;
+	}
+
+	public void setMaxStrokeWeight(float maxWeight) {
+		this.maxStrokeWeight = maxWeight;
+		vectorized = false;
+	}
+
+	/**
+	 * Default: 20.0
+	 */
+	public float getMinStrokeLength() {
+		return minStrokeLength;
+	}
+
+	public void setMinStrokeLength(float minLength) {
+		this.minStrokeLength = minLength;
+		vectorized = false;
+	}
+
+	/**
+	 * Default: 2.0
+	 */
+	public float getPathTightness() {
+		return pathTightness;
+	}
+
+	public void setPathTightness(float tightness) {
+		this.pathTightness = tightness;
+		vectorized = false;
+	}
+
+	/**
+	 * Default: 20.0
+	 */
+	public float getCornerAngle() {
+		return cornerAngle;
+	}
+
+	public void setCornerAngle(float angle) {
+		this.cornerAngle = angle;
+		vectorized = false;
+	}
+
+	/**
+	 * Default: 10
+	 */
+	public int getMinArea() {
+		return minArea;
+	}
+
+	public void setMinArea(int area) {
+		this.minArea = area;
+		vectorized = false;
+	}
+
+	/**
+	 * Runs the preprocessing stages that are out of date, and returns the
+	 * preprocessed pixels, or {@code null} if they did not change since the
+	 * last call.
+	 */
+	private byte[] preprocess() {
+		boolean changed = false;
+		int stage = 0, stages = 3;
+		if (pixels == null || raster.needsUpdate(version, modificationCount)) {
+			ScriptographerEngine.updateProgress(stage, stages);
+			width = raster.getWidth();
+			height = raster.getHeight();
+			pixels = raster.getImagePixels(width, height);
+			version = raster.version;
+			modificationCount = raster.modificationCount;
+			blurred = null;
+		}
+		stage++;
+		boolean gray = mode != TracingMode.COLOR;
+		if (blurred == null || blurredGray != gray || blurredRadius != blur) {
+			ScriptographerEngine.updateProgress(stage, stages);
+			blurred = TracingPreprocessor.blur(
+					TracingPreprocessor.getBytes(pixels, gray), width, height,
+					gray ? 1 : 3, blur);
+			blurredGray = gray;
+			blurredRadius = blur;
+			result = null;
+		}
+		stage++;
+		int level = mode == TracingMode.BITMAP ? threshold : maxColors;
+		if (result == null || resultMode != mode || resultLevel != level) {
+			ScriptographerEngine.updateProgress(stage, stages);
+			result = mode == TracingMode.BITMAP
+					? TracingPreprocessor.threshold(blurred, threshold)
+					: TracingPreprocessor.posterize(blurred, gray ? 1 : 3,
+							maxColors);
+			resultMode = mode;
+			resultLevel = level;
+			changed = true;
+		}
+		ScriptographerEngine.updateProgress(stages, stages);
+		return changed ? result : null;
+	}
+
+	/**
+	 * Traces the raster with the current parameters, only running the stages
+	 * affected by changes since the last call.
+	 *
+	 * @return the tracing item
+	 */
+	public Tracing trace() {
+		byte[] data = preprocess();
+		if (data != null || getTracing() == null) {
+			data = result;
+			// Replace the previous result with a new preprocessed raster
+			if (tracing != null && tracing.isValid())
+				tracing.remove();
+			if (preprocessed != null && preprocessed.isValid())
+				preprocessed.remove();
+			boolean gray = mode != TracingMode.COLOR;
+			preprocessed = new Raster(gray ? ColorType.GRAY : ColorType.RGB,
+					width, height);
+			int[] image = new int[width * height];
+			for (int i = 0, j = 0; i < image.length; i++) {
+				int r, g, b;
+				if (gray) {
+					r = g = b = data[j++] & 0xff;
+				} else {
+					r = data[j++] & 0xff;
+					g = data[j++] & 0xff;
+					b = data[j++] & 0xff;
+				}
+				image[i] = 0xff000000 | (r << 16) | (g << 8) | b;
+			}
+			preprocessed.setImagePixels(image, width, height);
+			preprocessed.setMatrix(raster.getMatrix());
+			preprocessed.moveAbove(raster);
+			tracing = new Tracing(preprocessed);
+			// The preprocessing is already done, so switch it off
+			tracing.setResample(false);
+			tracing.setBlur(0);
+			tracing.setMode(mode);
+			tracing.setThreshold(128);
+			tracing.setMaxColors(maxColors);
+			vectorized = false;
+		}
+		if (!vectorized) {
+			tracing.setFills(fills);
+			tracing.setStrokes(strokes);
+			tracing.setMaxStrokeWeight(maxStrokeWeight);
+			tracing.setMinStrokeLength(minStrokeLength);
+			tracing.setPathTightness(pathTightness);
+			tracing.setCornerAngle(cornerAngle);
+			tracing.setMinArea(minArea);
+			tracing.markDirty();
+			vectorized = true;
+		}
+		return tracing;
+	}
+}
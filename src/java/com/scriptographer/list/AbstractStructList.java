@@ -21,16 +21,32 @@ import com.scriptographer.Committable;
  * An abstract list to reflect simple struct based native lists, as used by
  * GradientStop and Artboard.
  * 
+ * The values of all entries are read in one single call to nativeGet into a
+ * packed value buffer, and changed entries are written back in one single
+ * call to nativeSet on commit.
+ * 
  * @author lehni
  */
 public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R>>
-		extends AbstractNativeList<E> {
+		extends AbstractNativeList<E> implements Committable {
 
 	protected R reference;
 	protected int version = -1;
 
-	protected AbstractStructList(R reference) {
+	// The entry values as fetched from Illustrator, packed in the same layout
+	// as filled by nativeGet(), valuesPerEntry doubles per entry.
+	protected double[] values = new double[0];
+	protected int valuesPerEntry;
+	// The commit version at which the values were fetched, -1 if they need to
+	// be fetched again.
+	private int valuesVersion = -1;
+	// The range of entries with changes that still need to be committed.
+	private int dirtyFrom = -1;
+	private int dirtyTo = -1;
+
+	protected AbstractStructList(R reference, int valuesPerEntry) {
 		this.reference = reference;
+		this.valuesPerEntry = valuesPerEntry;
 		update();
 	}
 
@@ -38,6 +54,18 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 
 	protected abstract int nativeRemove(int fromIndex, int toIndex);
 
+	/**
+	 * Reads the values of count entries starting at index into the passed
+	 * array, valuesPerEntry values per entry.
+	 */
+	protected abstract boolean nativeGet(int index, int count, double[] values);
+
+	/**
+	 * Writes the values of count entries starting at index, as packed by
+	 * nativeGet.
+	 */
+	protected abstract boolean nativeSet(int index, int count, double[] values);
+
 	protected abstract E createEntry(int index);
 
 	/**
@@ -53,6 +81,116 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 		}
 	}
 
+	/**
+	 * Fetches the values of all entries into the packed value buffer in one
+	 * single call to nativeGet, if they are not up to date anymore, and
+	 * updates the entries that were created already, except for the ones with
+	 * uncommitted changes.
+	 */
+	protected boolean fetch() {
+		if (reference == null)
+			return false;
+		update();
+		int currentVersion = CommitManager.version;
+		if (valuesVersion != currentVersion) {
+			double[] buffer = new double[size * valuesPerEntry];
+			if (size > 0 && !nativeGet(0, size, buffer))
+				return false;
+			values = buffer;
+			valuesVersion = currentVersion;
+		}
+		for (int i = 0; i < size; i++) {
+			E entry = list.get(i);
+			if (entry != null && !entry.dirty && entry.index == i
+					&& entry.version != currentVersion) {
+				entry.setValues(values, i * valuesPerEntry);
+				entry.version = currentVersion;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Called by Entry#update(), to fetch the values of the entry along with
+	 * all the others.
+	 */
+	protected boolean fetch(Entry<R> entry) {
+		if (!fetch())
+			return false;
+		// Entries that are not held by this list at their index are not
+		// updated by fetch().
+		if (entry.version != CommitManager.version) {
+			if (entry.index >= size)
+				return false;
+			entry.setValues(values, entry.index * valuesPerEntry);
+			entry.version = CommitManager.version;
+		}
+		return true;
+	}
+
+	protected void markDirty(int index) {
+		if (dirtyFrom == -1) {
+			dirtyFrom = index;
+			dirtyTo = index + 1;
+		} else if (index < dirtyFrom) {
+			dirtyFrom = index;
+		} else if (index >= dirtyTo) {
+			dirtyTo = index + 1;
+		}
+		CommitManager.markDirty(reference, this);
+	}
+
+	/**
+	 * Commits the entries with changes in one single call to nativeSet. The
+	 * unchanged entries in between are written back too.
+	 * 
+	 * @jshide
+	 */
+	public void commit(boolean endExecution) {
+		if (dirtyFrom != -1 && reference != null) {
+			int currentVersion = CommitManager.version;
+			int toIndex = Math.min(dirtyTo, size);
+			// Only fetch if the values of some unchanged entries in the range
+			// are not known.
+			for (int i = dirtyFrom; i < toIndex; i++) {
+				E entry = list.get(i);
+				if (entry == null || entry.index != i
+						|| !entry.dirty && entry.version != currentVersion) {
+					fetch();
+					toIndex = Math.min(dirtyTo, size);
+					break;
+				}
+			}
+			if (dirtyFrom < toIndex) {
+				int count = toIndex - dirtyFrom;
+				double[] buffer = new double[count * valuesPerEntry];
+				for (int i = dirtyFrom; i < toIndex; i++) {
+					E entry = list.get(i);
+					int offset = (i - dirtyFrom) * valuesPerEntry;
+					if (entry != null && entry.index == i) {
+						entry.getValues(buffer, offset);
+					} else {
+						System.arraycopy(values, i * valuesPerEntry, buffer,
+								offset, valuesPerEntry);
+					}
+				}
+				if (nativeSet(dirtyFrom, count, buffer)) {
+					for (int i = dirtyFrom; i < toIndex; i++) {
+						E entry = list.get(i);
+						if (entry != null && entry.index == i) {
+							entry.version = currentVersion;
+							entry.dirty = false;
+						}
+					}
+					if (valuesVersion == currentVersion)
+						System.arraycopy(buffer, 0, values,
+								dirtyFrom * valuesPerEntry, buffer.length);
+				}
+			}
+			dirtyFrom = dirtyTo = -1;
+		}
+	}
+
 	public E get(int index) {
 		E element = list.get(index);
 		if (element == null) {
@@ -65,6 +203,8 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 	}
 
 	public E add(int index, E element) {
+		// Commit pending changes before indices shift
+		commit(false);
 		// Add to internal structure
 		list.add(index, element);
 		// Update version:
@@ -81,6 +221,7 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 				if (e != null)
 					e.index = i;
 			}
+			valuesVersion = -1;
 			return element;
 		}
 		return null;
@@ -104,6 +245,8 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 	
 	public void remove(int fromIndex, int toIndex) {
 		if (fromIndex < toIndex) {
+			// Commit pending changes before indices shift
+			commit(false);
 			int newSize = size + fromIndex - toIndex;
 			for (int i = fromIndex; i < toIndex; i++) {
 				E obj = list.get(i);
@@ -117,11 +260,17 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 				size = nativeRemove(fromIndex, toIndex);
 			list.remove(fromIndex, toIndex);
 			size = newSize;
+			// Update indices
+			for (int i = fromIndex; i < size; i++) {
+				E e = list.get(i);
+				if (e != null && e.index == i + toIndex - fromIndex)
+					e.index = i;
+			}
+			valuesVersion = -1;
 		}
-
 	}
 
-	public abstract static class Entry<R> implements Committable {
+	public abstract static class Entry<R> {
 		protected R reference;
 		protected int index;
 		protected boolean dirty;
@@ -150,16 +299,25 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 			// that were never fetched so far (= newly created entries) into
 			// the committable list.
 			if (reference != null && (!dirty && version != -1 || dirty && version == -1)) {
-				CommitManager.markDirty(reference, this);
+				getList().markDirty(index);
 				dirty = true;
 			}
 		}
-		
+
+		/**
+		 * Returns the list of the reference that this entry belongs to.
+		 */
+		protected abstract AbstractStructList<R, ?> getList();
+
 		protected abstract boolean nativeInsert();
 
-		protected abstract boolean nativeSet();
+		/**
+		 * Writes the values of the entry into the packed value buffer of the
+		 * list, in the layout used by nativeGet / nativeSet.
+		 */
+		protected abstract void getValues(double[] values, int offset);
 
-		protected abstract boolean nativeGet();
+		protected abstract void setValues(double[] values, int offset);
 
 		protected boolean insert() {
 			if (reference != null && index != -1) {
@@ -173,19 +331,11 @@ public abstract class AbstractStructList<R, E extends AbstractStructList.Entry<R
 			return false;
 		}
 
-		public void commit(boolean endExecution) {
-			if (dirty && reference != null && index != -1 && nativeSet()) {
-				version = CommitManager.version;
-				dirty = false;
-			}
-		}
-		
 		protected boolean update() {
 			if (!dirty && reference != null && index != -1
 					&& version != CommitManager.version) {
-				if (!nativeGet())
-					return false;
-				version = CommitManager.version;
+				// Fetch the values of all entries at once
+				return getList().fetch(this);
 			}
 			return true;
 		}
@@ -34,6 +34,7 @@ import com.scriptographer.adm.CheckBox;
 import com.scriptographer.adm.Dial;
 import com.scriptographer.adm.DialogColor;
 import com.scriptographer.adm.DialogGroupInfo;
+import com.scriptographer.adm.DisplayList;
 import com.scriptographer.adm.Drawer;
 import com.scriptographer.adm.FloatingDialog;
 import com.scriptographer.adm.FontInfo;
@@ -47,6 +48,7 @@ import com.scriptographer.adm.ImagePane;
 import com.scriptographer.adm.ImageRadioButton;
 import com.scriptographer.adm.ItemGroup;
 import com.scriptographer.adm.ListBox;
+import com.scriptographer.adm.ListDataSource;
 import com.scriptographer.adm.ListEntry;
 import com.scriptographer.adm.ListItem;
 import com.scriptographer.adm.ModalDialog;
@@ -96,6 +98,7 @@ import com.scriptographer.ai.ParagraphStyle;
 import com.scriptographer.ai.Path;
 import com.scriptographer.ai.PathItem;
 import com.scriptographer.ai.PathStyle;
+import com.scriptographer.ai.PathFitter;
 import com.scriptographer.ai.PathText;
 import com.scriptographer.ai.Pathfinder;
 import com.scriptographer.ai.Pattern;
@@ -105,6 +108,7 @@ import com.scriptographer.ai.PlacedSymbol;
 import com.scriptographer.ai.PointText;
 import com.scriptographer.ai.RGBColor;
 import com.scriptographer.ai.Raster;
+import com.scriptographer.ai.RasterOp;
 import com.scriptographer.ai.Segment;
 import com.scriptographer.ai.StrokeStyle;
 import com.scriptographer.ai.Swatch;
@@ -115,6 +119,7 @@ import com.scriptographer.ai.Timer;
 import com.scriptographer.ai.Tool;
 import com.scriptographer.ai.ToolHandler;
 import com.scriptographer.ai.Tracing;
+import com.scriptographer.ai.TracingSession;
 import com.scriptographer.sg.Illustrator;
 import com.scriptographer.sg.Scriptographer;
 import com.scriptographer.ui.Dialog;
@@ -159,6 +164,7 @@ public class TopLevel extends com.scratchdisk.script.rhino.TopLevel {
 		Matrix.class,
 		ParagraphStyle.class,
 		Path.class,
+		PathFitter.class,
 		Pathfinder.class,
 		PathItem.class,
 		PathStyle.class,
@@ -169,6 +175,7 @@ public class TopLevel extends com.scratchdisk.script.rhino.TopLevel {
 		com.scriptographer.ai.Point.class,
 		PointText.class,
 		Raster.class,
+		RasterOp.class,
 		com.scriptographer.ai.Rectangle.class,
 		RGBColor.class,
 		Segment.class,
@@ -183,6 +190,7 @@ public class TopLevel extends com.scratchdisk.script.rhino.TopLevel {
 		Tool.class,
 		ToolHandler.class,
 		Tracing.class,
+		TracingSession.class,
 	
 		// UI, alphabetically
 		Dialog.class,
@@ -198,6 +206,7 @@ public class TopLevel extends com.scratchdisk.script.rhino.TopLevel {
 		Dial.class,
 		CheckBox.class,
 		DialogGroupInfo.class,
+		DisplayList.class,
 		Drawer.class,
 		FloatingDialog.class,
 		FontInfo.class,
@@ -211,6 +220,7 @@ public class TopLevel extends com.scratchdisk.script.rhino.TopLevel {
 		ImagePane.class,
 		ItemGroup.class,
 		ListBox.class,
+		ListDataSource.class,
 		ListEntry.class,
 		ListItem.class,
 		ModalDialog.class,
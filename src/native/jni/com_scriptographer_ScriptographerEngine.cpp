@@ -40,6 +40,31 @@ JNIEXPORT void JNICALL Java_com_scriptographer_ScriptographerEngine_nativeSetTop
 	} EXCEPTION_CONVERT(env);
 }
 
+/*
+ * void nativeBeginDeferredExecution(boolean topDownCoordinates,
+ *		boolean updateCoordinates)
+ */
+JNIEXPORT void JNICALL Java_com_scriptographer_ScriptographerEngine_nativeBeginDeferredExecution(
+		JNIEnv *env, jclass cls, jboolean topDownCoordinates,
+		jboolean updateCoordinates) {
+	try {
+		gEngine->setTopDownCoordinates(topDownCoordinates);
+		if (updateCoordinates)
+			gEngine->updateCoordinateSystem();
+		gEngine->setExecutionDeferred(true);
+	} EXCEPTION_CONVERT(env);
+}
+
+/*
+ * void nativeEndDeferredExecution()
+ */
+JNIEXPORT void JNICALL Java_com_scriptographer_ScriptographerEngine_nativeEndDeferredExecution(
+		JNIEnv *env, jclass cls) {
+	try {
+		gEngine->setExecutionDeferred(false);
+	} EXCEPTION_CONVERT(env);
+}
+
 /*
  * boolean launch(java.lang.String filename)
  */
@@ -27,9 +27,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDestroy(JNIEnv *
 }
 
 /*
- * void clear()
+ * void nativeClear()
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_clear(JNIEnv *env, jobject obj) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeClear(JNIEnv *env, jobject obj) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		sADMDrawer->Clear(drawer);
@@ -50,9 +50,9 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getBoundsRect(JNIEn
 }
 
 /*
- * com.scriptographer.ai.Rectangle getClipRect()
+ * com.scriptographer.ai.Rectangle nativeGetClipRect()
  */
-JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getClipRect(JNIEnv *env, jobject obj) {
+JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_nativeGetClipRect(JNIEnv *env, jobject obj) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMRect rt;
@@ -63,9 +63,9 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getClipRect(JNIEnv
 }
 
 /*
- * void setClipRect(int x, int y, int width, int height)
+ * void nativeSetClipRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSetClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -74,9 +74,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setClipRect(JNIEnv *en
 }
 
 /*
- * void intersectClipRect(int x, int y, int width, int height)
+ * void nativeIntersectClipRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_intersectClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeIntersectClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -85,9 +85,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_intersectClipRect(JNIE
 }
 
 /*
- * void unionClipRect(int x, int y, int width, int height)
+ * void nativeUnionClipRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_unionClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeUnionClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -96,9 +96,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_unionClipRect(JNIEnv *
 }
 
 /*
- * void subtractClipRect(int x, int y, int width, int height)
+ * void nativeSubtractClipRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_subtractClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSubtractClipRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -117,9 +117,9 @@ inline ADMPoint *drawerGetPoints(JNIEnv *env, jobjectArray points, jint &length)
 }
 
 /*
- * void setClipPolygon(com.scriptographer.ai.Point[] points)
+ * void nativeSetClipPolygon(com.scriptographer.ai.Point[] points)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSetClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		jint length;
@@ -130,9 +130,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setClipPolygon(JNIEnv
 }
 
 /*
- * void intersectClipPolygon(com.scriptographer.ai.Point[] points)
+ * void nativeIntersectClipPolygon(com.scriptographer.ai.Point[] points)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_intersectClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeIntersectClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		jint length;
@@ -143,9 +143,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_intersectClipPolygon(J
 }
 
 /*
- * void unionClipPolygon(com.scriptographer.ai.Point[] points)
+ * void nativeUnionClipPolygon(com.scriptographer.ai.Point[] points)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_unionClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeUnionClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		jint length;
@@ -156,9 +156,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_unionClipPolygon(JNIEn
 }
 
 /*
- * void subtractClipPolygon(com.scriptographer.ai.Point[] points)
+ * void nativeSubtractClipPolygon(com.scriptographer.ai.Point[] points)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_subtractClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSubtractClipPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		jint length;
@@ -169,9 +169,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_subtractClipPolygon(JN
 }
 
 /*
- * com.scriptographer.ai.Point getOrigin()
+ * com.scriptographer.ai.Point nativeGetOrigin()
  */
-JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getOrigin(JNIEnv *env, jobject obj) {
+JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_nativeGetOrigin(JNIEnv *env, jobject obj) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMPoint pt;
@@ -182,9 +182,9 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getOrigin(JNIEnv *e
 }
 
 /*
- * void setOrigin(int x, int y)
+ * void nativeSetOrigin(int x, int y)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setOrigin(JNIEnv *env, jobject obj, jint x, jint y) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSetOrigin(JNIEnv *env, jobject obj, jint x, jint y) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_POINT(pt, x, y);
@@ -193,9 +193,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setOrigin(JNIEnv *env,
 }
 
 /*
- * java.awt.Color getColor()
+ * java.awt.Color nativeGetColor()
  */
-JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getColor(JNIEnv *env, jobject obj) {
+JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_nativeGetColor(JNIEnv *env, jobject obj) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMRGBColor col;
@@ -206,9 +206,9 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getColor(JNIEnv *en
 }
 
 /*
- * void setColor(java.awt.Color color)
+ * void nativeSetRGBColor(java.awt.Color color)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_setColor(JNIEnv *env, jobject obj, jobject color) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSetRGBColor(JNIEnv *env, jobject obj, jobject color) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMRGBColor col;
@@ -270,9 +270,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeSetFont(JNIEnv *
 }
 
 /*
- * void drawLine(int x1, int y1, int x2, int y2)
+ * void nativeDrawLine(int x1, int y1, int x2, int y2)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawLine(JNIEnv *env, jobject obj, jint x1, jint y1, jint x2, jint y2) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawLine(JNIEnv *env, jobject obj, jint x1, jint y1, jint x2, jint y2) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMPoint pt1, pt2;
@@ -285,9 +285,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawLine(JNIEnv *env,
 }
 
 /*
- * void drawPolygon(com.scriptographer.ai.Point[] points)
+ * void nativeDrawPolygon(com.scriptographer.ai.Point[] points)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		jint length;
@@ -298,9 +298,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawPolygon(JNIEnv *en
 }
 
 /*
- * void fillPolygon(com.scriptographer.ai.Point[] points)
+ * void nativeFillPolygon(com.scriptographer.ai.Point[] points)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_fillPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeFillPolygon(JNIEnv *env, jobject obj, jobjectArray points) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		jint length;
@@ -311,9 +311,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_fillPolygon(JNIEnv *en
 }
 
 /*
- * void drawRect(int x, int y, int width, int height)
+ * void nativeDrawRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -322,9 +322,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawRect(JNIEnv *env,
 }
 
 /*
- * void fillRect(int x, int y, int width, int height)
+ * void nativeFillRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_fillRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeFillRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -333,9 +333,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_fillRect(JNIEnv *env,
 }
 
 /*
- * void clearRect(int x, int y, int width, int height)
+ * void nativeClearRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_clearRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeClearRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -344,9 +344,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_clearRect(JNIEnv *env,
 }
 
 /*
- * void drawSunkenRect(int x, int y, int width, int height)
+ * void nativeDrawSunkenRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawSunkenRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawSunkenRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -355,9 +355,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawSunkenRect(JNIEnv
 }
 
 /*
- * void drawRaisedRect(int x, int y, int width, int height)
+ * void nativeDrawRaisedRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawRaisedRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawRaisedRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -366,9 +366,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawRaisedRect(JNIEnv
 }
 
 /*
- * void invertRect(int x, int y, int width, int height)
+ * void nativeInvertRect(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_invertRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeInvertRect(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -377,9 +377,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_invertRect(JNIEnv *env
 }
 
 /*
- * void drawOval(int x, int y, int width, int height)
+ * void nativeDrawOval(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawOval(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawOval(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -388,9 +388,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawOval(JNIEnv *env,
 }
 
 /*
- * void fillOval(int x, int y, int width, int height)
+ * void nativeFillOval(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_fillOval(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeFillOval(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -399,9 +399,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_fillOval(JNIEnv *env,
 }
 
 /*
- * void drawImage(com.scriptographer.adm.Image image, int x, int y)
+ * void nativeDrawImage(com.scriptographer.adm.Image image, int x, int y)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawImage__Lcom_scriptographer_adm_Image_2II(JNIEnv *env, jobject obj, jobject image, jint x, jint y) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawImage__Lcom_scriptographer_adm_Image_2II(JNIEnv *env, jobject obj, jobject image, jint x, jint y) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMImageRef img = gEngine->getImageHandle(env, image);
@@ -449,9 +449,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawImage__Lcom_
 }
 
 /*
- * void drawImage(com.scriptographer.adm.Image image, int x, int y, int width, int height)
+ * void nativeDrawImage(com.scriptographer.adm.Image image, int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawImage__Lcom_scriptographer_adm_Image_2IIII(JNIEnv *env, jobject obj, jobject image, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawImage__Lcom_scriptographer_adm_Image_2IIII(JNIEnv *env, jobject obj, jobject image, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ADMImageRef img = gEngine->getImageHandle(env, image);
@@ -476,9 +476,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawImage__Lcom_
 }
 
 /*
- * int getTextWidth(java.lang.String text)
+ * int nativeGetTextWidth(java.lang.String text)
  */
-JNIEXPORT jint JNICALL Java_com_scriptographer_adm_Drawer_getTextWidth(JNIEnv *env, jobject obj, jstring text) {
+JNIEXPORT jint JNICALL Java_com_scriptographer_adm_Drawer_nativeGetTextWidth(JNIEnv *env, jobject obj, jstring text) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ASUnicode *chars = gEngine->convertString_ASUnicode(env, text);
@@ -490,9 +490,9 @@ JNIEXPORT jint JNICALL Java_com_scriptographer_adm_Drawer_getTextWidth(JNIEnv *e
 }
 
 /*
- * int getTextHeight(java.lang.String text, int width)
+ * int nativeGetTextHeight(java.lang.String text, int width)
  */
-JNIEXPORT jint JNICALL Java_com_scriptographer_adm_Drawer_getTextHeight(JNIEnv *env, jobject obj, jstring text, jint width) {
+JNIEXPORT jint JNICALL Java_com_scriptographer_adm_Drawer_nativeGetTextHeight(JNIEnv *env, jobject obj, jstring text, jint width) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		ASUnicode *chars = gEngine->convertString_ASUnicode(env, text);
@@ -518,9 +518,9 @@ jobject drawerGetFontInfo(JNIEnv *env, jobject obj, int font = -1) {
 }
 
 /*
- * com.scriptographer.adm.Drawer$FontInfo getFontInfo()
+ * com.scriptographer.adm.Drawer$FontInfo nativeGetFontInfo()
  */
-JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getFontInfo__(JNIEnv *env, jobject obj) {
+JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_nativeGetFontInfo(JNIEnv *env, jobject obj) {
 	return drawerGetFontInfo(env, obj, 0);
 }
 
@@ -532,9 +532,9 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getFontInfo__I(JNIE
 }
 
 /*
- * void drawText(java.lang.String text, int x, int y)
+ * void nativeDrawText(java.lang.String text, int x, int y)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawText(JNIEnv *env, jobject obj, jstring text, jint x, jint y) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawText(JNIEnv *env, jobject obj, jstring text, jint x, jint y) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_POINT(pt, x, y);
@@ -545,9 +545,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawText(JNIEnv *env,
 }
 
 /*
- * void drawTextLeft(java.lang.String text, Lint x, int y, int width, int height)
+ * void nativeDrawTextLeft(java.lang.String text, Lint x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextLeft(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawTextLeft(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -558,9 +558,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextLeft(JNIEnv *e
 }
 
 /*
- * void drawTextCentered(java.lang.String text, Lint x, int y, int width, int height)
+ * void nativeDrawTextCentered(java.lang.String text, Lint x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextCentered(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawTextCentered(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -571,9 +571,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextCentered(JNIEn
 }
 
 /*
- * void drawTextRight(java.lang.String text, Lint x, int y, int width, int height)
+ * void nativeDrawTextRight(java.lang.String text, Lint x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextRight(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawTextRight(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -584,9 +584,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextRight(JNIEnv *
 }
 
 /*
- * void drawTextInABox(Ljava.lang.String text, int x, int y, int width, int height)
+ * void nativeDrawTextInABox(Ljava.lang.String text, int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextInABox(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawTextInABox(JNIEnv *env, jobject obj, jstring text, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -597,9 +597,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawTextInABox(JNIEnv
 }
 
 /*
- * void drawUpArrow(int x, int y, int width, int height)
+ * void nativeDrawUpArrow(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawUpArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawUpArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -608,9 +608,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawUpArrow(JNIEnv *en
 }
 
 /*
- * void drawDownArrow(int x, int y, int width, int height)
+ * void nativeDrawDownArrow(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawDownArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawDownArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -619,9 +619,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawDownArrow(JNIEnv *
 }
 
 /*
- * void drawLeftArrow(int x, int y, int width, int height)
+ * void nativeDrawLeftArrow(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawLeftArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawLeftArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -630,9 +630,9 @@ JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawLeftArrow(JNIEnv *
 }
 
 /*
- * void drawRightArrow(int x, int y, int width, int height)
+ * void nativeDrawRightArrow(int x, int y, int width, int height)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_drawRightArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawRightArrow(JNIEnv *env, jobject obj, jint x, jint y, jint width, jint height) {
 	try {
 		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
 		DEFINE_ADM_RECT(rt, x, y, width, height);
@@ -652,3 +652,274 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_adm_Drawer_getUpdateRect(JNIEn
 	} EXCEPTION_CONVERT(env);
 	return NULL;
 }
+
+/*
+ * Commands of com.scriptographer.adm.DisplayList
+ */
+enum {
+	DRAWER_SET_COLOR = 1,
+	DRAWER_SET_DIALOG_COLOR,
+	DRAWER_SET_DRAW_MODE,
+	DRAWER_SET_FONT,
+	DRAWER_SET_ORIGIN,
+	DRAWER_SET_CLIP_RECT,
+	DRAWER_INTERSECT_CLIP_RECT,
+	DRAWER_UNION_CLIP_RECT,
+	DRAWER_SUBTRACT_CLIP_RECT,
+	DRAWER_SET_CLIP_POLYGON,
+	DRAWER_INTERSECT_CLIP_POLYGON,
+	DRAWER_UNION_CLIP_POLYGON,
+	DRAWER_SUBTRACT_CLIP_POLYGON,
+	DRAWER_DRAW_LINE,
+	DRAWER_DRAW_POLYGON,
+	DRAWER_FILL_POLYGON,
+	DRAWER_DRAW_RECT,
+	DRAWER_FILL_RECT,
+	DRAWER_CLEAR_RECT,
+	DRAWER_DRAW_SUNKEN_RECT,
+	DRAWER_DRAW_RAISED_RECT,
+	DRAWER_INVERT_RECT,
+	DRAWER_DRAW_OVAL,
+	DRAWER_FILL_OVAL,
+	DRAWER_DRAW_IMAGE,
+	DRAWER_DRAW_IMAGE_CENTERED,
+	DRAWER_DRAW_TEXT,
+	DRAWER_DRAW_TEXT_LEFT,
+	DRAWER_DRAW_TEXT_CENTERED,
+	DRAWER_DRAW_TEXT_RIGHT,
+	DRAWER_DRAW_TEXT_IN_A_BOX,
+	DRAWER_DRAW_UP_ARROW,
+	DRAWER_DRAW_DOWN_ARROW,
+	DRAWER_DRAW_LEFT_ARROW,
+	DRAWER_DRAW_RIGHT_ARROW
+};
+
+/*
+ * void nativeDrawList(int[] commands, int length, java.lang.Object[] objects)
+ */
+JNIEXPORT void JNICALL Java_com_scriptographer_adm_Drawer_nativeDrawList(JNIEnv *env, jobject obj, jintArray commands, jint length, jobjectArray objects) {
+	try {
+		ADMDrawerRef drawer = gEngine->getDrawerHandle(env, obj);
+		jint *cmds = (jint *) env->GetPrimitiveArrayCritical(commands, NULL);
+		if (cmds == NULL)
+			EXCEPTION_CHECK(env);
+		// Strings and images need JNI calls, which are not allowed while the
+		// array is locked. Copy the commands first.
+		jint *values = new jint[length];
+		memcpy(values, cmds, length * sizeof(jint));
+		env->ReleasePrimitiveArrayCritical(commands, cmds, JNI_ABORT);
+		jint *pos = values, *end = values + length;
+		// Errors end the drawing, but are only thrown once the commands are
+		// released again.
+		const char *error = NULL;
+		while (pos < end && error == NULL) {
+			jint command = *pos++;
+			switch (command) {
+			case DRAWER_SET_COLOR: {
+				jint rgb = *pos++;
+				ADMRGBColor col;
+				col.red = (unsigned short) (((rgb >> 16) & 0xff) * 257);
+				col.green = (unsigned short) (((rgb >> 8) & 0xff) * 257);
+				col.blue = (unsigned short) ((rgb & 0xff) * 257);
+				sADMDrawer->SetRGBColor(drawer, &col);
+				break;
+			}
+			case DRAWER_SET_DIALOG_COLOR:
+				sADMDrawer->SetADMColor(drawer, (ADMColor) *pos++);
+				break;
+			case DRAWER_SET_DRAW_MODE:
+				sADMDrawer->SetDrawMode(drawer, (ADMDrawMode) *pos++);
+				break;
+			case DRAWER_SET_FONT:
+				sADMDrawer->SetFont(drawer, (ADMFont) *pos++);
+				break;
+			case DRAWER_SET_ORIGIN: {
+				DEFINE_ADM_POINT(pt, pos[0], pos[1]);
+				pos += 2;
+				sADMDrawer->SetOrigin(drawer, &pt);
+				break;
+			}
+			case DRAWER_DRAW_LINE: {
+				DEFINE_ADM_POINT(pt1, pos[0], pos[1]);
+				DEFINE_ADM_POINT(pt2, pos[2], pos[3]);
+				pos += 4;
+				sADMDrawer->DrawLine(drawer, &pt1, &pt2);
+				break;
+			}
+			case DRAWER_SET_CLIP_POLYGON:
+			case DRAWER_INTERSECT_CLIP_POLYGON:
+			case DRAWER_UNION_CLIP_POLYGON:
+			case DRAWER_SUBTRACT_CLIP_POLYGON:
+			case DRAWER_DRAW_POLYGON:
+			case DRAWER_FILL_POLYGON: {
+				jint count = *pos++;
+				ADMPoint *pts = new ADMPoint[count];
+				for (int i = 0; i < count; i++) {
+					pts[i].h = (short) *pos++;
+					pts[i].v = (short) *pos++;
+				}
+				switch (command) {
+				case DRAWER_SET_CLIP_POLYGON:
+					sADMDrawer->SetClipPolygon(drawer, pts, count);
+					break;
+				case DRAWER_INTERSECT_CLIP_POLYGON:
+					sADMDrawer->IntersectClipPolygon(drawer, pts, count);
+					break;
+				case DRAWER_UNION_CLIP_POLYGON:
+					sADMDrawer->UnionClipPolygon(drawer, pts, count);
+					break;
+				case DRAWER_SUBTRACT_CLIP_POLYGON:
+					sADMDrawer->SubtractClipPolygon(drawer, pts, count);
+					break;
+				case DRAWER_DRAW_POLYGON:
+					sADMDrawer->DrawPolygon(drawer, pts, count);
+					break;
+				case DRAWER_FILL_POLYGON:
+					sADMDrawer->FillPolygon(drawer, pts, count);
+					break;
+				}
+				delete pts;
+				break;
+			}
+			case DRAWER_DRAW_IMAGE: {
+				jobject image = env->GetObjectArrayElement(objects, pos[0]);
+				DEFINE_ADM_POINT(pt, pos[1], pos[2]);
+				jint style = pos[3];
+				pos += 4;
+				if (style == -1) {
+					sADMDrawer->DrawADMImage(drawer,
+							gEngine->getImageHandle(env, image), &pt);
+				} else {
+					ADMIconRef icn = (ADMIconRef) gEngine->callIntMethod(env,
+							image, gEngine->mid_adm_Image_getIconHandle);
+					if (icn == NULL)
+						error = "Unable to create icon from image.";
+					else
+						sADMDrawer->DrawRecoloredIcon(drawer, icn, &pt,
+							(ADMRecolorStyle) style);
+				}
+				env->DeleteLocalRef(image);
+				break;
+			}
+			case DRAWER_DRAW_IMAGE_CENTERED: {
+				jobject image = env->GetObjectArrayElement(objects, pos[0]);
+				DEFINE_ADM_RECT(rt, pos[1], pos[2], pos[3], pos[4]);
+				jint style = pos[5];
+				pos += 6;
+				if (style == -1) {
+					sADMDrawer->DrawADMImageCentered(drawer,
+							gEngine->getImageHandle(env, image), &rt);
+				} else {
+					ADMIconRef icn = (ADMIconRef) gEngine->callIntMethod(env,
+							image, gEngine->mid_adm_Image_getIconHandle);
+					if (icn == NULL)
+						error = "Unable to create icon from image.";
+					else
+						sADMDrawer->DrawRecoloredIconCentered(drawer, icn, &rt,
+							(ADMRecolorStyle) style);
+				}
+				env->DeleteLocalRef(image);
+				break;
+			}
+			case DRAWER_DRAW_TEXT: {
+				jstring text = (jstring) env->GetObjectArrayElement(objects,
+						pos[0]);
+				DEFINE_ADM_POINT(pt, pos[1], pos[2]);
+				pos += 3;
+				ASUnicode *chars = gEngine->convertString_ASUnicode(env, text);
+				sADMDrawer->DrawTextW(drawer, chars, &pt);
+				delete chars;
+				env->DeleteLocalRef(text);
+				break;
+			}
+			case DRAWER_DRAW_TEXT_LEFT:
+			case DRAWER_DRAW_TEXT_CENTERED:
+			case DRAWER_DRAW_TEXT_RIGHT:
+			case DRAWER_DRAW_TEXT_IN_A_BOX: {
+				jstring text = (jstring) env->GetObjectArrayElement(objects,
+						pos[0]);
+				DEFINE_ADM_RECT(rt, pos[1], pos[2], pos[3], pos[4]);
+				pos += 5;
+				ASUnicode *chars = gEngine->convertString_ASUnicode(env, text);
+				switch (command) {
+				case DRAWER_DRAW_TEXT_LEFT:
+					sADMDrawer->DrawTextLeftW(drawer, chars, &rt);
+					break;
+				case DRAWER_DRAW_TEXT_CENTERED:
+					sADMDrawer->DrawTextCenteredW(drawer, chars, &rt);
+					break;
+				case DRAWER_DRAW_TEXT_RIGHT:
+					sADMDrawer->DrawTextRightW(drawer, chars, &rt);
+					break;
+				case DRAWER_DRAW_TEXT_IN_A_BOX:
+					sADMDrawer->DrawTextInABoxW(drawer, &rt, chars);
+					break;
+				}
+				delete chars;
+				env->DeleteLocalRef(text);
+				break;
+			}
+			default: {
+				// All remaining commands take a rectangle
+				DEFINE_ADM_RECT(rt, pos[0], pos[1], pos[2], pos[3]);
+				pos += 4;
+				switch (command) {
+				case DRAWER_SET_CLIP_RECT:
+					sADMDrawer->SetClipRect(drawer, &rt);
+					break;
+				case DRAWER_INTERSECT_CLIP_RECT:
+					sADMDrawer->IntersectClipRect(drawer, &rt);
+					break;
+				case DRAWER_UNION_CLIP_RECT:
+					sADMDrawer->UnionClipRect(drawer, &rt);
+					break;
+				case DRAWER_SUBTRACT_CLIP_RECT:
+					sADMDrawer->SubtractClipRect(drawer, &rt);
+					break;
+				case DRAWER_DRAW_RECT:
+					sADMDrawer->DrawRect(drawer, &rt);
+					break;
+				case DRAWER_FILL_RECT:
+					sADMDrawer->FillRect(drawer, &rt);
+					break;
+				case DRAWER_CLEAR_RECT:
+					sADMDrawer->ClearRect(drawer, &rt);
+					break;
+				case DRAWER_DRAW_SUNKEN_RECT:
+					sADMDrawer->DrawSunkenRect(drawer, &rt);
+					break;
+				case DRAWER_DRAW_RAISED_RECT:
+					sADMDrawer->DrawRaisedRect(drawer, &rt);
+					break;
+				case DRAWER_INVERT_RECT:
+					sADMDrawer->InvertRect(drawer, &rt);
+					break;
+				case DRAWER_DRAW_OVAL:
+					sADMDrawer->DrawOval(drawer, &rt);
+					break;
+				case DRAWER_FILL_OVAL:
+					sADMDrawer->FillOval(drawer, &rt);
+					break;
+				case DRAWER_DRAW_UP_ARROW:
+					sADMDrawer->DrawUpArrow(drawer, &rt);
+					break;
+				case DRAWER_DRAW_DOWN_ARROW:
+					sADMDrawer->DrawDownArrow(drawer, &rt);
+					break;
+				case DRAWER_DRAW_LEFT_ARROW:
+					sADMDrawer->DrawLeftArrow(drawer, &rt);
+					break;
+				case DRAWER_DRAW_RIGHT_ARROW:
+					sADMDrawer->DrawRightArrow(drawer, &rt);
+					break;
+				default:
+					error = "Unknown drawing command.";
+				}
+			}
+			}
+		}
+		delete values;
+		if (error != NULL)
+			throw new StringException(error);
+	} EXCEPTION_CONVERT(env);
+}
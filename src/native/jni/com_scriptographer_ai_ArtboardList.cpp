@@ -59,25 +59,36 @@ JNIEXPORT jint JNICALL Java_com_scriptographer_ai_ArtboardList_nativeRemove(
 	return 0;
 }
 
+#define VALUES_PER_ARTBOARD com_scriptographer_ai_ArtboardList_VALUES_PER_ARTBOARD
+
 /*
- * boolean nativeGet(int handle, int index, com.scriptographer.ai.Artboard 
- *     artboard)
+ * boolean nativeGet(int handle, int index, int count, double[] values)
  */
 JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_ArtboardList_nativeGet(
-		JNIEnv *env, jclass cls, jint handle, jint index, jobject artboard) {
+		JNIEnv *env, jclass cls, jint handle, jint index, jint count,
+		jdoubleArray values) {
 	try {
 		Document_activate((AIDocumentHandle) handle);
+		jdouble *data = new jdouble[count * VALUES_PER_ARTBOARD];
 #if kPluginInterfaceVersion >= kAI14
-		AICropAreaPtr area = NULL;
-		if (sAICropArea->Get(index, &area))
-			throw new StringException("Cannot get artboard");
-		gEngine->callVoidMethod(env, artboard, gEngine->mid_ai_Artboard_set,
+		bool ok = true;
+		for (int i = 0; i < count && ok; i++) {
+			AICropAreaPtr area = NULL;
+			ok = !sAICropArea->Get(index + i, &area);
+			if (ok) {
+				jdouble *artboard = data + i * VALUES_PER_ARTBOARD;
 				gEngine->convertRectangle(env, kCurrentCoordinates,
-				&area->m_CropAreaRect),
-				area->m_bShowCenter, area->m_bShowCrossHairs,
-				area->m_bShowSafeAreas, area->m_fPAR
-		);
-		return true;
+						&area->m_CropAreaRect, artboard);
+				artboard[4] = area->m_bShowCenter;
+				artboard[5] = area->m_bShowCrossHairs;
+				artboard[6] = area->m_bShowSafeAreas;
+				artboard[7] = area->m_fPAR;
+			}
+		}
+		if (!ok) {
+			delete[] data;
+			throw new StringException("Cannot get artboard");
+		}
 #else // kPluginInterfaceVersion < kAI14
 		AIRealPoint origin;
 		sAIDocument->GetDocumentRulerOrigin(&origin);
@@ -88,13 +99,17 @@ JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_ArtboardList_nativeGet(
 		rect.bottom  = -origin.v;
 		rect.right =  rect.left + setup.width;
 		rect.top = rect.bottom + setup.height;
-		gEngine->callVoidMethod(env, artboard, gEngine->mid_ai_Artboard_set,
-			gEngine->convertRectangle(env, kCurrentCoordinates, &rect),
-			// TODO: Find out if these can be simulated somehow too?
-			false, false, false, 1.0f
-		);
-		return true;
+		// There only is one artboard
+		gEngine->convertRectangle(env, kCurrentCoordinates, &rect, data);
+		// TODO: Find out if these can be simulated somehow too?
+		data[4] = false;
+		data[5] = false;
+		data[6] = false;
+		data[7] = 1.0;
 #endif // kPluginInterfaceVersion < kAI14 
+		env->SetDoubleArrayRegion(values, 0, count * VALUES_PER_ARTBOARD, data);
+		delete[] data;
+		return true;
 	} EXCEPTION_CONVERT(env);
 	return false;
 }
@@ -165,30 +180,43 @@ JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_ArtboardList_nativeInsert(
 }
 
 /*
- * boolean nativeSet(int handle, int index, com.scriptographer.ai.Rectangle
- *     bounds, boolean showCenter, boolean showCrossHairs,
- *     boolean showSafeAreas, double pixelAspectRatio)
+ * boolean nativeSet(int handle, int index, int count, double[] values)
  */
 JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_ArtboardList_nativeSet(
-		JNIEnv *env, jclass cls, jint handle, jint index, jobject bounds,
-		jboolean showCenter, jboolean showCrossHairs, jboolean showSafeAreas,
-		jdouble pixelAspectRatio) {
+		JNIEnv *env, jclass cls, jint handle, jint index, jint count,
+		jdoubleArray values) {
 	try {
 		Document_activate((AIDocumentHandle) handle);
 #if kPluginInterfaceVersion >= kAI14
-		DEFINE_CROPAREA();
+		jdouble *data = new jdouble[count * VALUES_PER_ARTBOARD];
+		env->GetDoubleArrayRegion(values, 0, count * VALUES_PER_ARTBOARD, data);
 		// If index is bigger than array size, add empty artboards until we
-		// reach the needed size, then update that field.
-		ASInt32 count = 0, pos = 0;
-		sAICropArea->GetCount(&count);
-		if (index >= count) {
+		// reach the needed size, then update the fields.
+		ASInt32 size = 0, pos = 0;
+		sAICropArea->GetCount(&size);
+		bool ok = true;
+		if (index >= size) {
 			AICropArea empty;
 			memset(&empty, 0, sizeof(AICropArea));
-			while (pos < index)
-				if (sAICropArea->AddNew(&empty, &pos))
-					throw new StringException("Cannot add artboard");
+			while (ok && pos < index)
+				ok = !sAICropArea->AddNew(&empty, &pos);
+		}
+		for (int i = 0; i < count && ok; i++) {
+			jdouble *artboard = data + i * VALUES_PER_ARTBOARD;
+			// memset to 0 since it might have more fields than we support
+			// here, see DEFINE_CROPAREA
+			AICropArea area;
+			memset(&area, 0, sizeof(AICropArea));
+			gEngine->convertRectangle(env, kCurrentCoordinates, artboard,
+					&area.m_CropAreaRect);
+			area.m_bShowCenter = artboard[4] != 0;
+			area.m_bShowCrossHairs = artboard[5] != 0;
+			area.m_bShowSafeAreas = artboard[6] != 0;
+			area.m_fPAR = artboard[7];
+			ok = !sAICropArea->Update(index + i, &area);
 		}
-		if (sAICropArea->Update(index, &area))
+		delete[] data;
+		if (!ok)
 			throw new StringException("Cannot update artboard");
 		return true;
 #else // kPluginInterfaceVersion < kAI14
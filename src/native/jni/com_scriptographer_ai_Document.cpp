@@ -66,6 +66,8 @@ JNIEXPORT void JNICALL Java_com_scriptographer_ai_Document_nativeBeginExecution(
 		JNIEnv *env, jclass cls, jboolean topDownCoordinates,
 		jboolean updateCoordinates, jintArray returnValues) {
 	try {
+		// A deferred execution is now being performed
+		gEngine->setExecutionDeferred(false);
 		// Set the current coordinate system
 		gEngine->setTopDownCoordinates(topDownCoordinates);
 		// Fetch the current working document, so it can
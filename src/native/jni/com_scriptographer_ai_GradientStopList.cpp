@@ -48,44 +48,127 @@ JNIEXPORT jint JNICALL Java_com_scriptographer_ai_GradientStopList_nativeRemove(
 	return 0;
 }
 
+#define VALUES_PER_STOP com_scriptographer_ai_GradientStopList_VALUES_PER_STOP
+
 /*
- * boolean nativeGet(int handle, int index, com.scriptographer.ai.GradientStop stop)
+ * Packs the values of a stop in the layout of the value buffer in
+ * GradientStopList: midPoint, rampPoint, the amount of color components and
+ * the components as returned by Color#getComponents(). Colors that cannot be
+ * represented by components are stored with 0 components.
  */
-JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_GradientStopList_nativeGet(JNIEnv *env, jclass cls, jint handle, jint index, jobject stop) {
-	try {
-		AIGradientStop s;
-		if (sAIGradient->GetNthGradientStop((AIGradientHandle) handle, index, &s))
-			throw new StringException("Cannot get gradient stop");
+static void GradientStopList_getValues(AIGradientStop *stop, jdouble *values) {
 #if kPluginInterfaceVersion < kAI14
-		jobject color = gEngine->convertColor(env, &s.color);
+	AIReal alpha = -1;
 #else
-		jobject color = gEngine->convertColor(env, &s.color, s.opacity);
-		if (s.opacity == -1)
-			s.opacity = 1;
+	AIReal alpha = stop->opacity;
+#endif
+	values[0] = stop->midPoint;
+	values[1] = stop->rampPoint;
+	AIColor *color = &stop->color;
+	jdouble *components = values + 3;
+	int count = 0;
+	switch (color->kind) {
+	case kGrayColor:
+		components[count++] = color->c.g.gray;
+		break;
+	case kThreeColor:
+		components[count++] = color->c.rgb.red;
+		components[count++] = color->c.rgb.green;
+		components[count++] = color->c.rgb.blue;
+		break;
+	case kFourColor:
+		components[count++] = color->c.f.cyan;
+		components[count++] = color->c.f.magenta;
+		components[count++] = color->c.f.yellow;
+		components[count++] = color->c.f.black;
+		break;
+	}
+	if (count > 0)
+		components[count++] = alpha;
+	values[2] = count;
+}
+
+/*
+ * The reverse of GradientStopList_getValues. The color of the stop is only
+ * changed if the values contain components.
+ */
+static void GradientStopList_setValues(jdouble *values, AIGradientStop *stop) {
+	stop->midPoint = values[0];
+	stop->rampPoint = values[1];
+	AIColor *color = &stop->color;
+	jdouble *components = values + 3;
+	int count = (int) values[2];
+	switch (count) {
+	case 2:
+		color->kind = kGrayColor;
+		color->c.g.gray = components[0];
+		break;
+	case 4:
+		color->kind = kThreeColor;
+		color->c.rgb.red = components[0];
+		color->c.rgb.green = components[1];
+		color->c.rgb.blue = components[2];
+		break;
+	case 5:
+		color->kind = kFourColor;
+		color->c.f.cyan = components[0];
+		color->c.f.magenta = components[1];
+		color->c.f.yellow = components[2];
+		color->c.f.black = components[3];
+		break;
+	default:
+		return;
+	}
+#if kPluginInterfaceVersion >= kAI14
+	stop->opacity = components[count - 1];
+	if (stop->opacity == -1)
+		stop->opacity = 1;
 #endif
-		gEngine->callVoidMethod(env, stop, gEngine->mid_ai_GradientStop_set, s.midPoint, s.rampPoint, color);
+}
+
+/*
+ * boolean nativeGet(int handle, int index, int count, double[] values)
+ */
+JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_GradientStopList_nativeGet(JNIEnv *env, jclass cls, jint handle, jint index, jint count, jdoubleArray values) {
+	try {
+		jdouble *data = new jdouble[count * VALUES_PER_STOP];
+		bool ok = true;
+		for (int i = 0; i < count && ok; i++) {
+			AIGradientStop s;
+			ok = !sAIGradient->GetNthGradientStop((AIGradientHandle) handle, index + i, &s);
+			if (ok)
+				GradientStopList_getValues(&s, data + i * VALUES_PER_STOP);
+		}
+		if (ok)
+			env->SetDoubleArrayRegion(values, 0, count * VALUES_PER_STOP, data);
+		delete[] data;
+		if (!ok)
+			throw new StringException("Cannot get gradient stop");
 		return true;
 	} EXCEPTION_CONVERT(env);
 	return false;
 }
 
 /*
- * boolean nativeSet(int handle, int docHandle, int index, double midPoint, double rampPoint, float[] color)
+ * boolean nativeSet(int handle, int docHandle, int index, int count, double[] values)
  */
-JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_GradientStopList_nativeSet(JNIEnv *env, jclass cls, jint handle, jint docHandle, jint index, jdouble midPoint, jdouble rampPoint, jfloatArray color) {
+JNIEXPORT jboolean JNICALL Java_com_scriptographer_ai_GradientStopList_nativeSet(JNIEnv *env, jclass cls, jint handle, jint docHandle, jint index, jint count, jdoubleArray values) {
 	try {
-		AIGradientStop s;
-#if kPluginInterfaceVersion < kAI14
-		gEngine->convertColor(env, color, &s.color);
-#else
-		gEngine->convertColor(env, color, &s.color, &s.opacity);
-		if (s.opacity == -1)
-			s.opacity = 1;
-#endif
-		s.rampPoint = rampPoint;
-		s.midPoint = midPoint;
-		gEngine->convertColor(env, color, &s.color);
-		if (sAIGradient->SetNthGradientStop((AIGradientHandle) handle, index, &s))
+		jdouble *data = new jdouble[count * VALUES_PER_STOP];
+		env->GetDoubleArrayRegion(values, 0, count * VALUES_PER_STOP, data);
+		bool ok = true;
+		for (int i = 0; i < count && ok; i++) {
+			// Start from the current stop, so colors that cannot be
+			// represented by components are kept.
+			AIGradientStop s;
+			ok = !sAIGradient->GetNthGradientStop((AIGradientHandle) handle, index + i, &s);
+			if (ok) {
+				GradientStopList_setValues(data + i * VALUES_PER_STOP, &s);
+				ok = !sAIGradient->SetNthGradientStop((AIGradientHandle) handle, index + i, &s);
+			}
+		}
+		delete[] data;
+		if (!ok)
 			throw new StringException("Cannot set gradient stop");
 		return true;
 	} EXCEPTION_CONVERT(env);
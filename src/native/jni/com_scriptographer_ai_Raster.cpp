@@ -320,9 +320,9 @@ JNIEXPORT jint JNICALL Java_com_scriptographer_ai_Raster_nativeGetType(JNIEnv *e
 }
 
 /*
- * com.scriptographer.ai.Color getPixel(int x, int y)
+ * com.scriptographer.ai.Color nativeGetPixel(int x, int y)
  */
-JNIEXPORT jobject JNICALL Java_com_scriptographer_ai_Raster_getPixel(JNIEnv *env, jobject obj, jint x, jint y) {
+JNIEXPORT jobject JNICALL Java_com_scriptographer_ai_Raster_nativeGetPixel(JNIEnv *env, jobject obj, jint x, jint y) {
 	try {
 		AIArtHandle art = gEngine->getArtHandle(env, obj);
 		Raster_Data *data = Raster_getData(env, obj, art);
@@ -379,9 +379,9 @@ JNIEXPORT jobject JNICALL Java_com_scriptographer_ai_Raster_getPixel(JNIEnv *env
 }
 
 /*
- * void setPixel(int x, int y, com.scriptographer.ai.Color color)
+ * void nativeSetPixel(int x, int y, com.scriptographer.ai.Color color)
  */
-JNIEXPORT void JNICALL Java_com_scriptographer_ai_Raster_setPixel(JNIEnv *env, jobject obj, jint x, jint y, jobject color) {
+JNIEXPORT void JNICALL Java_com_scriptographer_ai_Raster_nativeSetPixel(JNIEnv *env, jobject obj, jint x, jint y, jobject color) {
 	try {
 		AIArtHandle art = gEngine->getArtHandle(env, obj, true);
 		Raster_Data *data = Raster_getData(env, obj, art);
@@ -68,32 +68,53 @@ void Dialog_onTimer(EventLoopTimerRef timerId, void* data) {
 }
 
 /*
- * int nativeCreate(int period)
+ * int nativeCreate(int delay)
  */
 JNIEXPORT jint JNICALL Java_com_scriptographer_ai_Timer_nativeCreate(
-		JNIEnv *env, jobject obj, jint period) {
+		JNIEnv *env, jclass cls, jint delay) {
 	try {
 #ifdef WIN_ENV
-		return (jint) SetTimer(NULL, NULL, period, Dialog_onTimer);
+		return (jint) SetTimer(NULL, NULL, delay, Dialog_onTimer);
 #endif // WIN_ENV
 #ifdef MAC_ENV
 		DEFINE_CALLBACK_PROC(Dialog_onTimer);
 		static EventLoopTimerUPP timerUPP = NewEventLoopTimerUPP(
 				(EventLoopTimerProcPtr) CALLBACK_PROC(Dialog_onTimer));
 		EventLoopTimerRef timer;
-		InstallEventLoopTimer(GetMainEventLoop(), 0,
-                kEventDurationMillisecond * period, timerUPP, NULL, &timer);
+		InstallEventLoopTimer(GetMainEventLoop(),
+				kEventDurationMillisecond * delay,
+				kEventDurationMillisecond * delay, timerUPP, NULL, &timer);
 		return (jint) timer;
 #endif // MAC_ENV
 	} EXCEPTION_CONVERT(env);
 	return 0;
 }
 
+/*
+ * int nativeSetDelay(int handle, int delay)
+ */
+JNIEXPORT jint JNICALL Java_com_scriptographer_ai_Timer_nativeSetDelay(
+		JNIEnv *env, jclass cls, jint handle, jint delay) {
+	try {
+#ifdef WIN_ENV
+		// Replaces the timer with the same id
+		return (jint) SetTimer(NULL, (UINT_PTR) handle, delay, Dialog_onTimer);
+#endif // WIN_ENV
+#ifdef MAC_ENV
+		EventLoopTimerRef timer = (EventLoopTimerRef) handle;
+		SetEventLoopTimerNextFireTime(timer,
+				kEventDurationMillisecond * delay);
+		return handle;
+#endif // MAC_ENV
+	} EXCEPTION_CONVERT(env);
+	return 0;
+}
+
 /*
  * void nativeAbort(int handle)
  */
 JNIEXPORT void JNICALL Java_com_scriptographer_ai_Timer_nativeAbort(
-		JNIEnv *env, jobject obj, jint handle) {
+		JNIEnv *env, jclass cls, jint handle) {
 	try {
 #ifdef WIN_ENV
 		KillTimer(NULL, (UINT_PTR) handle);
@@ -107,6 +107,7 @@ ScriptographerEngine::ScriptographerEngine(const char *pluginPath) {
 	m_rulerOrigin.h = m_rulerOrigin.v = 0;
 	m_artboardOrigin.h = m_artboardOrigin.v = 0;
 	m_topDownCoordinates = true;
+	m_executionDeferred = false;
 	gEngine = this;
 }
 
@@ -450,6 +451,7 @@ void ScriptographerEngine::initReflection(JNIEnv *env) {
 	mid_ScriptographerEngine_reportError = getStaticMethodID(env, cls_ScriptographerEngine, "reportError", "(Ljava/lang/Throwable;)V");
 	mid_ScriptographerEngine_onHandleEvent = getStaticMethodID(env, cls_ScriptographerEngine, "onHandleEvent", "(I)V");
 	mid_ScriptographerEngine_onHandleKeyEvent = getStaticMethodID(env, cls_ScriptographerEngine, "onHandleKeyEvent", "(IICI)Z");
+	mid_ScriptographerEngine_beginDocumentExecution = getStaticMethodID(env, cls_ScriptographerEngine, "beginDocumentExecution", "()V");
 
 	cls_ScriptographerException = loadClass(env, "com/scriptographer/ScriptographerException");
 
@@ -594,12 +596,6 @@ void ScriptographerEngine::initReflection(JNIEnv *env) {
 	cls_ai_Segment = loadClass(env, "com/scriptographer/ai/Segment");
 	cls_ai_Curve = loadClass(env, "com/scriptographer/ai/Curve");
 	
-	cls_ai_GradientStop = loadClass(env, "com/scriptographer/ai/GradientStop");
-	mid_ai_GradientStop_set = getMethodID(env, cls_ai_GradientStop, "set", "(DDLcom/scriptographer/ai/Color;)V");
-	
-	cls_ai_Artboard = loadClass(env, "com/scriptographer/ai/Artboard");
-	mid_ai_Artboard_set = getMethodID(env, cls_ai_Artboard, "set", "(Lcom/scriptographer/ai/Rectangle;ZZZD)V");
-
 	cls_ai_LiveEffect = loadClass(env, "com/scriptographer/ai/LiveEffect");
 	cid_ai_LiveEffect = getConstructorID(env, cls_ai_LiveEffect, "(ILjava/lang/String;Ljava/lang/String;IIIII)V");
 	mid_ai_LiveEffect_onEditParameters = getStaticMethodID(env, cls_ai_LiveEffect, "onEditParameters", "(II)V");
@@ -1147,6 +1143,51 @@ void ScriptographerEngine::convertRectangle(JNIEnv *env,
 	EXCEPTION_CHECK(env);
 }
 
+void ScriptographerEngine::convertRectangle(JNIEnv *env,
+		CoordinateSystem system, AIRealRect *rect, jdouble *res) {
+	// Same as above, but writes x, y, width, height to a packed value array
+	AIReal x = rect->left;
+	AIReal y = m_topDownCoordinates ? rect->top : rect->bottom;
+	if (system == kArtboardCoordinates) {
+		x -= m_artboardOrigin.h;
+		y -= m_artboardOrigin.v;
+	}
+	if (m_topDownCoordinates)
+		y = -y;
+	res[0] = x;
+	res[1] = y;
+	res[2] = rect->right - rect->left;
+	res[3] = rect->top - rect->bottom;
+}
+
+void ScriptographerEngine::convertRectangle(JNIEnv *env,
+		CoordinateSystem system, jdouble *rect, AIRealRect *res) {
+	// Same as above, but reads x, y, width, height from a packed value array
+	jdouble x = rect[0];
+	jdouble y = rect[1];
+	jdouble width = rect[2];
+	jdouble height = rect[3];
+	if (!VALID_COORDINATE(x) || !VALID_COORDINATE(y)
+			|| !VALID_COORDINATE(width) || !VALID_COORDINATE(height))
+		throw new StringException("Invalid coordinates: %f %f %f %f",
+				x, y, width, height);
+	if (m_topDownCoordinates)
+		y = -y;
+	if (system == kArtboardCoordinates) {
+		x += m_artboardOrigin.h;
+		y += m_artboardOrigin.v;
+	}
+	res->left = x;
+	res->right = x + width;
+	if (m_topDownCoordinates) {
+		res->top = y;
+		res->bottom = y - height;
+	} else {
+		res->bottom = y;
+		res->top = y + height;
+	}
+}
+
 // com.scriptographer.ai.Size <-> AIRealPoint
 jobject ScriptographerEngine::convertSize(JNIEnv *env, float width,
 		float height, jobject res) {
@@ -1762,11 +1803,24 @@ void ScriptographerEngine::resumeSuspendedDocuments() {
 	m_suspendedDocuments.reset();
 }
 
+/**
+ * Performs the Document.beginExecution deferred by a lightweight execution,
+ * as soon as any native object is accessed through its handle.
+ */
+void ScriptographerEngine::beginDeferredExecution(JNIEnv *env) {
+	// Clear first, as Document.beginExecution accesses handles itself.
+	m_executionDeferred = false;
+	callStaticVoidMethod(env, cls_ScriptographerEngine,
+			mid_ScriptographerEngine_beginDocumentExecution);
+}
+
 int ScriptographerEngine::getAIObjectHandle(JNIEnv *env,
 		jobject obj, const char *name) {
 	if (obj == NULL)
 		return NULL;
 	JNI_CHECK_ENV
+	if (m_executionDeferred)
+		beginDeferredExecution(env);
 	int handle = getIntField(env, obj, fid_ai_NativeObject_handle);
 	if (!handle)
 		throw new StringException("The %i is no longer valid. Use isValid()"
@@ -1787,6 +1841,8 @@ AIDictionaryRef ScriptographerEngine::getDictionaryHandle(JNIEnv *env,
 	if (obj == NULL)
 		return NULL;
 	JNI_CHECK_ENV
+	if (m_executionDeferred)
+		beginDeferredExecution(env);
 	int handle = getIntField(env, obj, fid_ai_Dictionary_handle);
 	if (!handle)
 		throw new StringException("The dictionary is no longer valid."
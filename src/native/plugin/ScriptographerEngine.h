@@ -47,6 +47,8 @@ private:
 	AIRealPoint m_rulerOrigin;
 	AIRealPoint m_artboardOrigin;
 	bool m_topDownCoordinates;
+	// Set while a lightweight execution has not accessed the document yet
+	bool m_executionDeferred;
 
 public:
 	AIDictKey m_artHandleKey;
@@ -132,6 +134,7 @@ public:
 	jmethodID mid_ScriptographerEngine_reportError;
 	jmethodID mid_ScriptographerEngine_onHandleEvent;
 	jmethodID mid_ScriptographerEngine_onHandleKeyEvent;
+	jmethodID mid_ScriptographerEngine_beginDocumentExecution;
 
 	jclass cls_ScriptographerException;
 
@@ -274,12 +277,6 @@ public:
 	jclass cls_ai_Segment;
 	jclass cls_ai_Curve;
 	
-	jclass cls_ai_GradientStop;
-	jmethodID mid_ai_GradientStop_set;
-
-	jclass cls_ai_Artboard;
-	jmethodID mid_ai_Artboard_set;
-	
 	jclass cls_ai_LiveEffect;
 	jmethodID cid_ai_LiveEffect;
 	jmethodID mid_ai_LiveEffect_onEditParameters;
@@ -429,6 +426,12 @@ public:
 		m_topDownCoordinates = topDownCoordinates;
 	}
 
+	void setExecutionDeferred(bool deferred) {
+		m_executionDeferred = deferred;
+	}
+
+	void beginDeferredExecution(JNIEnv *env);
+
 	// java.lang.Boolean <-> jboolean
 	jobject convertBoolean(JNIEnv *env, jboolean value);	
 	jboolean convertBoolean(JNIEnv *env, jobject value);
@@ -462,6 +465,9 @@ public:
 		return convertRectangle(env, system, rect->left, rect->top, rect->right, rect->bottom, res);
 	}
 	void convertRectangle(JNIEnv *env, CoordinateSystem system, jobject rect, AIRealRect *res);	
+	// Packed x, y, width, height values, as used by ArtboardList
+	void convertRectangle(JNIEnv *env, CoordinateSystem system, AIRealRect *rect, jdouble *res);
+	void convertRectangle(JNIEnv *env, CoordinateSystem system, jdouble *rect, AIRealRect *res);
 
 	// com.scriptographer.ai.Size <-> AIRealPoint
 	jobject convertSize(JNIEnv *env, float width, float height, jobject res = NULL);
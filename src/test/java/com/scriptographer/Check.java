@@ -0,0 +1,75 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer;
+
+/**
+ * The base of the headless checks, with simple assertions and timing.
+ * Failures are counted and reported by {@link RunChecks} instead of aborting
+ * the run, so one broken stage does not hide the results of the others.
+ *
+ * @author lehni
+ */
+public abstract class Check {
+	private static int checks = 0;
+	private static int failures = 0;
+
+	protected Check() {
+	}
+
+	protected static void check(boolean condition, String message) {
+		checks++;
+		if (!condition) {
+			failures++;
+			System.out.println("  FAILED: " + message);
+		}
+	}
+
+	protected static void checkEquals(double expected, double actual,
+			double tolerance, String message) {
+		check(Math.abs(expected - actual) <= tolerance, message
+				+ " (expected " + expected + ", was " + actual + ")");
+	}
+
+	/**
+	 * Runs the runnable count times after a warm-up run of the same length,
+	 * prints the average time per run and returns it in nanoseconds.
+	 */
+	protected static double time(String name, int count, Runnable runnable) {
+		for (int i = 0; i < count; i++)
+			runnable.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++)
+			runnable.run();
+		double time = (double) (System.nanoTime() - start) / count;
+		System.out.println("  " + name + ": " + formatTime(time));
+		return time;
+	}
+
+	protected static String formatTime(double nanos) {
+		if (nanos >= 1000000)
+			return Math.round(nanos / 10000) / 100.0 + " ms";
+		if (nanos >= 1000)
+			return Math.round(nanos / 10) / 100.0 + " us";
+		return Math.round(nanos) + " ns";
+	}
+
+	protected static int getChecks() {
+		return checks;
+	}
+
+	protected static int getFailures() {
+		return failures;
+	}
+}
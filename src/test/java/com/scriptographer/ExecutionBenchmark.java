@@ -0,0 +1,93 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer;
+
+import com.scratchdisk.script.Callable;
+import com.scratchdisk.script.Scope;
+import com.scriptographer.ai.Document;
+
+/**
+ * Measures the overhead per callback of {@link ScriptographerEngine#invoke}
+ * and {@link ScriptographerEngine#invokeLightweight}, with and without
+ * accessing the document.
+ *
+ * This needs the native layer and is not part of {@link RunChecks}. Copy the
+ * compiled checks into the plugin's java/classes folder and run it from the
+ * console:
+ *
+ * <code>Packages.com.scriptographer.ExecutionBenchmark.run(10000);</code>
+ *
+ * @author lehni
+ */
+public class ExecutionBenchmark extends Check {
+
+	public static void run(final int count) {
+		// The console script is executing, so leave its execution for the
+		// duration of the measurement. This way the callbacks begin and end
+		// the execution, as they do when called from Illustrator.
+		ScriptographerEngine.endExecution();
+		try {
+			final Callable empty = new BenchmarkCallable(false);
+			final Callable document = new BenchmarkCallable(true);
+			double regular = time("invoke", count, new Runnable() {
+				public void run() {
+					ScriptographerEngine.invoke(empty, null);
+				}
+			});
+			double lightweight = time("invokeLightweight", count,
+					new Runnable() {
+				public void run() {
+					ScriptographerEngine.invokeLightweight(empty, null);
+				}
+			});
+			time("invoke, accessing the document", count, new Runnable() {
+				public void run() {
+					ScriptographerEngine.invoke(document, null);
+				}
+			});
+			time("invokeLightweight, accessing the document", count,
+					new Runnable() {
+				public void run() {
+					ScriptographerEngine.invokeLightweight(document, null);
+				}
+			});
+			System.out.println("  lightweight callbacks take "
+					+ Math.round(lightweight / regular * 100)
+					+ "% of the time of regular ones");
+		} finally {
+			ScriptographerEngine.beginExecution();
+		}
+	}
+
+	private static class BenchmarkCallable extends Callable {
+		private boolean accessDocument;
+
+		BenchmarkCallable(boolean accessDocument) {
+			this.accessDocument = accessDocument;
+		}
+
+		public Object call(Object obj, Object[] args) {
+			return accessDocument ? Document.getActiveDocument() : null;
+		}
+
+		public Object getCallable() {
+			return this;
+		}
+
+		public Scope getScope() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer;
+
+import com.scriptographer.adm.layout.TableLayoutCheck;
+import com.scriptographer.ai.GeometryCheck;
+import com.scriptographer.ai.RasterPipelineCheck;
+import com.scriptographer.list.StructListCheck;
+
+/**
+ * Runs the checks of the parts of Scriptographer that work without
+ * Illustrator, through the check target of build.xml. Exits with status 1
+ * if any of them failed.
+ *
+ * @author lehni
+ */
+public class RunChecks extends Check {
+
+	public static void main(String[] args) {
+		System.out.println("Geometry:");
+		GeometryCheck.run();
+		System.out.println("Raster pipeline:");
+		RasterPipelineCheck.run();
+		System.out.println("Dialog layout:");
+		TableLayoutCheck.run();
+		System.out.println("Struct lists:");
+		StructListCheck.run();
+		System.out.println(getChecks() + " checks, " + getFailures()
+				+ " failed.");
+		if (getFailures() > 0)
+			System.exit(1);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.adm;
+
+import java.awt.Color;
+
+import com.scriptographer.Check;
+
+/**
+ * Measures drawing a frame of many small shapes, as a custom-drawn
+ * {@link ImagePane} does, in immediate and in buffered mode of the
+ * {@link Drawer}. The frame is drawn into the drawer of an offscreen
+ * {@link Image}, which is what image panes draw their content from.
+ *
+ * This needs the native layer and is not part of
+ * {@link com.scriptographer.RunChecks}. Copy the compiled checks into the
+ * plugin's java/classes folder and run it from the console:
+ *
+ * <code>Packages.com.scriptographer.adm.DrawerBenchmark.run(2000);</code>
+ *
+ * @author lehni
+ */
+public class DrawerBenchmark extends Check {
+
+	public static void run(final int shapes) {
+		final Image image = new Image(400, 400, ImageType.RGB);
+		final Drawer drawer = image.getDrawer();
+		final Color[] colors = { Color.RED, Color.BLUE };
+		final Point[] polygon = {
+			new Point(0, 0), new Point(8, 2), new Point(4, 8)
+		};
+		try {
+			double[] times = new double[2];
+			for (int i = 0; i < 2; i++) {
+				final boolean buffered = i == 1;
+				drawer.setBuffered(buffered);
+				times[i] = time((buffered ? "buffered" : "immediate")
+						+ " drawing of " + shapes + " shapes", 20,
+						new Runnable() {
+					public void run() {
+						for (int j = 0; j < shapes; j++) {
+							int x = j * 7 % 390, y = j * 13 % 390;
+							drawer.setColor(colors[j % 2]);
+							switch (j % 3) {
+							case 0:
+								drawer.fillRect(x, y, 10, 10);
+								break;
+							case 1:
+								drawer.drawLine(x, y, x + 10, y + 10);
+								break;
+							case 2:
+								drawer.setOrigin(x, y);
+								drawer.fillPolygon(polygon);
+								drawer.setOrigin(0, 0);
+								break;
+							}
+						}
+						// The end of an onDraw handler
+						drawer.flush();
+					}
+				});
+			}
+			System.out.println("  buffered drawing takes "
+					+ Math.round(times[1] / times[0] * 100)
+					+ "% of the time of immediate drawing");
+		} finally {
+			image.dispose();
+		}
+	}
+}
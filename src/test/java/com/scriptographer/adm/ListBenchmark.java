@@ -0,0 +1,88 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.adm;
+
+import com.scriptographer.Check;
+
+/**
+ * Measures building a {@link ListBox} from a synthetic model of many rows,
+ * once by adding an entry with its text per row, and once in virtual mode
+ * through a {@link ListDataSource}. Both create one native entry per row,
+ * virtual mode only leaves them empty until they are drawn, so the
+ * difference is the cost of setting the text of each entry.
+ *
+ * This needs the native layer and is not part of
+ * {@link com.scriptographer.RunChecks}. Copy the compiled checks into the
+ * plugin's java/classes folder and run it from the console:
+ *
+ * <code>Packages.com.scriptographer.adm.ListBenchmark.run(100000);</code>
+ *
+ * @author lehni
+ */
+public class ListBenchmark extends Check {
+
+	public static void run(final int rows) {
+		final ListDataSource source = new ListDataSource() {
+			public int getCount(Object row) {
+				return row == null ? rows : 0;
+			}
+
+			public Object getRow(Object parent, int index) {
+				return Integer.valueOf(index);
+			}
+
+			public String getText(Object row) {
+				return "Row " + row;
+			}
+
+			public Object getImage(Object row) {
+				return null;
+			}
+		};
+		FloatingDialog dialog = new FloatingDialog();
+		try {
+			final ListBox list = new ListBox(dialog);
+			double plain = time("adding " + rows + " entries", 1,
+					new Runnable() {
+				public void run() {
+					list.removeAll();
+					for (int i = 0; i < rows; i++)
+						list.add(source.getText(source.getRow(null, i)));
+				}
+			});
+			list.removeAll();
+			double virtual = time("virtual list of " + rows + " rows", 1,
+					new Runnable() {
+				public void run() {
+					list.setSource(null);
+					list.removeAll();
+					list.setSource(source);
+				}
+			});
+			check(list.size() == rows, "virtual list has all rows");
+			time("reloading virtual list of " + rows + " rows", 1,
+					new Runnable() {
+				public void run() {
+					list.reload();
+				}
+			});
+			System.out.println("  building the virtual list takes "
+					+ Math.round(virtual / plain * 100)
+					+ "% of the time of adding the entries");
+		} finally {
+			dialog.destroy();
+		}
+	}
+}
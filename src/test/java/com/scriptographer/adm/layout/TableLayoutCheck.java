@@ -0,0 +1,142 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.adm.layout;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.LayoutManager2;
+
+import com.scriptographer.Check;
+
+/**
+ * Checks the size caching of {@link TableLayout} against the plain
+ * clearthought layout, and measures the latency of resizing a palette with
+ * hundreds of controls. Plain AWT components stand in for the dialog items.
+ *
+ * @author lehni
+ */
+public class TableLayoutCheck extends Check {
+	private static final int ROWS = 100;
+
+	public static void run() {
+		Palette cached = new Palette(new TableLayout(getSizes(), 4, 2));
+		info.clearthought.layout.TableLayout layout =
+				new info.clearthought.layout.TableLayout(getSizes());
+		layout.setHGap(4);
+		layout.setVGap(2);
+		Palette plain = new Palette(layout);
+		boolean same = true;
+		for (int i = 0; i < 20; i++) {
+			int width = 200 + i * 17, height = 2000 + i * 31;
+			cached.layout(width, height);
+			plain.layout(width, height);
+			same &= cached.equals(plain);
+		}
+		check(same, "cached layout matches the plain layout when resizing");
+		check(cached.getPreferredSize().equals(plain.getPreferredSize()),
+				"cached preferred size matches the plain one");
+
+		// Content changes only show once the layout is invalidated
+		cached.items[10].size = new Dimension(120, 40);
+		plain.items[10].size = new Dimension(120, 40);
+		cached.invalidateLayout();
+		plain.invalidateLayout();
+		cached.layout(300, 2500);
+		plain.layout(300, 2500);
+		check(cached.equals(plain),
+				"cached layout picks up changed sizes when invalidated");
+		check(cached.getPreferredSize().equals(plain.getPreferredSize()),
+				"cached preferred size picks up changed sizes when invalidated");
+
+		final Palette[] palettes = { cached, plain };
+		String[] names = { "cached", "plain" };
+		for (int i = 0; i < palettes.length; i++) {
+			final Palette palette = palettes[i];
+			time("resizing " + ROWS * 3 + " controls, " + names[i], 2000,
+					new Runnable() {
+				int step = 0;
+				public void run() {
+					step = (step + 1) % 50;
+					palette.layout(200 + step * 3, 2000 + step * 7);
+				}
+			});
+		}
+	}
+
+	private static double[][] getSizes() {
+		double[] rows = new double[ROWS];
+		for (int i = 0; i < ROWS; i++)
+			rows[i] = i % 10 == 0 ? TableLayout.FILL : TableLayout.PREFERRED;
+		return new double[][] {
+			{ TableLayout.PREFERRED, TableLayout.FILL, TableLayout.MINIMUM },
+			rows
+		};
+	}
+
+	/**
+	 * A component with a fixed size, like an item with its best size.
+	 */
+	@SuppressWarnings("serial")
+	private static class Item extends Component {
+		Dimension size;
+
+		Item(int width, int height) {
+			size = new Dimension(width, height);
+		}
+
+		public Dimension getPreferredSize() {
+			return new Dimension(size);
+		}
+
+		public Dimension getMinimumSize() {
+			return new Dimension(size.width / 2, size.height);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class Palette extends Container {
+		Item[] items = new Item[ROWS * 3];
+
+		Palette(LayoutManager2 layout) {
+			setLayout(layout);
+			for (int row = 0; row < ROWS; row++) {
+				for (int column = 0; column < 3; column++) {
+					Item item = new Item(20 + (row * 7 + column * 13) % 80,
+							14 + row % 3 * 4);
+					items[row * 3 + column] = item;
+					add(item, column + ", " + row);
+				}
+			}
+		}
+
+		void layout(int width, int height) {
+			setSize(width, height);
+			doLayout();
+		}
+
+		void invalidateLayout() {
+			((LayoutManager2) getLayout()).invalidateLayout(this);
+		}
+
+		boolean equals(Palette palette) {
+			for (int i = 0; i < items.length; i++) {
+				if (!items[i].getBounds().equals(palette.items[i].getBounds()))
+					return false;
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.util.Random;
+
+import com.scriptographer.Check;
+
+/**
+ * Checks the bulk coordinate transforms of {@link Matrix} and
+ * {@link SegmentList} against transforming one point at a time, and measures
+ * the memory of the packed segment buffer. Segment lists without a path work
+ * without Illustrator.
+ *
+ * @author lehni
+ */
+public class GeometryCheck extends Check {
+
+	public static void run() {
+		checkMatrixTransform();
+		checkSegmentListTransform();
+		checkSegmentMemory();
+	}
+
+	private static Matrix getMatrix() {
+		return new Matrix().translate(12.5, -7).rotate(0.3).scale(1.5, 0.75);
+	}
+
+	private static void checkMatrixTransform() {
+		final Matrix matrix = getMatrix();
+		final int count = 1000000;
+		final double[] coords = new double[count * 2];
+		Random random = new Random(7);
+		for (int i = 0; i < coords.length; i++)
+			coords[i] = random.nextDouble() * 1000 - 500;
+		final double[] result = new double[coords.length];
+		matrix.transform(coords, 0, result, 0, count);
+		float[] floats = new float[coords.length];
+		for (int i = 0; i < coords.length; i++)
+			floats[i] = (float) coords[i];
+		matrix.transform(floats, 0, floats, 0, count);
+		boolean correct = true, floatCorrect = true;
+		for (int i = 0; i < coords.length; i += 2) {
+			Point point = matrix.transform(new Point(coords[i],
+					coords[i + 1]));
+			correct &= Math.abs(point.x - result[i]) < 1e-9
+					&& Math.abs(point.y - result[i + 1]) < 1e-9;
+			floatCorrect &= Math.abs(point.x - floats[i]) < 1e-3
+					&& Math.abs(point.y - floats[i + 1]) < 1e-3;
+		}
+		check(correct, "bulk transform of doubles matches per point "
+				+ "transforms");
+		check(floatCorrect, "bulk transform of floats matches per point "
+				+ "transforms");
+
+		double single = time("transforming " + count
+				+ " points one at a time", 10, new Runnable() {
+			public void run() {
+				for (int i = 0; i < coords.length; i += 2) {
+					Point point = matrix.transform(new Point(coords[i],
+							coords[i + 1]));
+					result[i] = point.x;
+					result[i + 1] = point.y;
+				}
+			}
+		});
+		double bulk = time("transforming " + count + " points in bulk", 10,
+				new Runnable() {
+			public void run() {
+				matrix.transform(coords, 0, result, 0, count);
+			}
+		});
+		System.out.println("  bulk transforms take "
+				+ Math.round(bulk / single * 100)
+				+ "% of the time of transforms one at a time");
+	}
+
+	private static void checkSegmentListTransform() {
+		// 1M points: anchor points and two handles per segment
+		int count = 1000000 / 3;
+		final SegmentList segments = new SegmentList();
+		Segment[] originals = new Segment[count];
+		Random random = new Random(8);
+		for (int i = 0; i < count; i++) {
+			Segment segment = new Segment(random.nextDouble() * 1000,
+					random.nextDouble() * 1000, random.nextDouble() * 10,
+					random.nextDouble() * 10, random.nextDouble() * -10,
+					random.nextDouble() * 10);
+			originals[i] = new Segment(segment);
+			segments.add(segment);
+		}
+		final Matrix matrix = getMatrix();
+		segments.transform(matrix);
+		// Handles are relative, transform their absolute positions
+		boolean correct = true;
+		for (int i = 0; i < count; i++) {
+			Segment original = originals[i], segment = segments.get(i);
+			Point point = original.point;
+			Point expected = matrix.transform(point);
+			Point handleIn = matrix.transform(point.add(original.handleIn))
+					.subtract(expected);
+			Point handleOut = matrix.transform(point.add(original.handleOut))
+					.subtract(expected);
+			correct &= expected.getDistance(segment.point) < 1e-9
+					&& handleIn.getDistance(segment.handleIn) < 1e-9
+					&& handleOut.getDistance(segment.handleOut) < 1e-9;
+		}
+		check(correct, "segment list transform matches per point "
+				+ "transforms");
+
+		double single = time("transforming " + count
+				+ " segments one at a time", 3,
+				new Runnable() {
+			public void run() {
+				for (int i = 0, l = segments.size(); i < l; i++) {
+					Segment segment = segments.get(i);
+					Point point = segment.point;
+					Point in = matrix.transform(point.add(segment.handleIn));
+					Point out = matrix.transform(point.add(segment.handleOut));
+					Point transformed = matrix.transform(point);
+					segment.setPoint(transformed);
+					segment.setHandleIn(in.subtract(transformed));
+					segment.setHandleOut(out.subtract(transformed));
+				}
+			}
+		});
+		double bulk = time("transforming " + count + " segments in bulk", 3,
+				new Runnable() {
+			public void run() {
+				segments.transform(matrix);
+			}
+		});
+		System.out.println("  bulk transforms take "
+				+ Math.round(bulk / single * 100)
+				+ "% of the time of transforms one at a time");
+	}
+
+	private static void checkSegmentMemory() {
+		int count = 100000;
+		// A list of paths holds its fetched values in the packed buffer and
+		// one empty list slot per segment, as long as no Segment objects are
+		// requested. Filling it needs a native path, so allocate the same
+		// buffers as SegmentList does.
+		long start = getUsedMemory();
+		Object[] packed = {
+			new float[count * SegmentList.VALUES_PER_SEGMENT],
+			new int[count],
+			new Object[count]
+		};
+		long packedSize = getUsedMemory() - start;
+		// Before, each segment was read into a Segment object with its three
+		// SegmentPoints, which lists without a path still do.
+		start = getUsedMemory();
+		SegmentList segments = new SegmentList();
+		for (int i = 0; i < count; i++)
+			segments.add(new Segment(i, i, 1, 1, -1, -1));
+		long objectSize = getUsedMemory() - start;
+		check(packed.length == 3 && segments.size() == count
+				&& packedSize < objectSize,
+				"packed segment buffer is smaller than Segment objects");
+		System.out.println("  " + count + " segments: packed "
+				+ packedSize / 1024 + " KB, Segment objects "
+				+ objectSize / 1024 + " KB, "
+				+ Math.round((double) (objectSize - packedSize) / count)
+				+ " bytes saved per segment");
+	}
+
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++)
+			System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
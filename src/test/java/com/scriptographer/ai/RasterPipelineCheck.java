@@ -0,0 +1,500 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.ai;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import com.scratchdisk.script.Callable;
+import com.scratchdisk.script.Scope;
+import com.scriptographer.Check;
+
+/**
+ * Checks the Java stages of tracing and raster sampling on synthetic images:
+ * the blur, threshold and posterize stages of {@link TracingPreprocessor},
+ * {@link SummedAreaTable}, {@link RasterPyramid}, {@link RasterOp} and
+ * {@link PathFitter}.
+ *
+ * @author lehni
+ */
+public class RasterPipelineCheck extends Check {
+
+	public static void run() {
+		checkBlur();
+		checkThreshold();
+		checkPosterize();
+		checkSummedAreaTable();
+		checkPyramid();
+		checkRasterOps();
+		checkPathFitter();
+	}
+
+	private static void checkBlur() {
+		int width = 31, height = 21;
+		byte[] flat = new byte[width * height];
+		Arrays.fill(flat, (byte) 100);
+		byte[] result = TracingPreprocessor.blur(flat, width, height, 1, 3);
+		boolean unchanged = true;
+		for (int i = 0; i < result.length; i++)
+			unchanged &= result[i] == 100;
+		check(unchanged, "blur keeps a flat image unchanged");
+		check(TracingPreprocessor.blur(flat, width, height, 1, 0) == flat,
+				"blur with radius 0 returns the data");
+
+		// A single bright pixel spreads out symmetrically, keeping its sum
+		byte[] dot = new byte[width * height];
+		int cx = width / 2, cy = height / 2;
+		dot[cy * width + cx] = (byte) 255;
+		result = TracingPreprocessor.blur(dot, width, height, 1, 1);
+		int sum = 0;
+		boolean symmetric = true;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int value = result[y * width + x] & 0xff;
+				sum += value;
+				symmetric &= value
+						== (result[y * width + width - 1 - x] & 0xff)
+						&& value == (result[(height - 1 - y) * width + x] & 0xff);
+			}
+		}
+		check(symmetric, "blur spreads a dot symmetrically");
+		check((result[cy * width + cx] & 0xff) < 255
+				&& (result[cy * width + cx + 1] & 0xff) > 0,
+				"blur spreads a dot to its neighbours");
+		checkEquals(255, sum, 64, "blur keeps the sum of a dot");
+
+		final byte[] large = getNoise(1000 * 1000, 1);
+		time("blur 1000 x 1000 gray, radius 4", 5, new Runnable() {
+			public void run() {
+				TracingPreprocessor.blur(large, 1000, 1000, 1, 4);
+			}
+		});
+	}
+
+	private static void checkThreshold() {
+		byte[] data = new byte[256];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) i;
+		byte[] result = TracingPreprocessor.threshold(data, 128);
+		boolean correct = true;
+		for (int i = 0; i < result.length; i++)
+			correct &= (result[i] & 0xff) == (i < 128 ? 0 : 255);
+		check(correct, "threshold turns pixels below 128 black, others white");
+	}
+
+	private static void checkPosterize() {
+		// A gray ramp reduced to four levels
+		byte[] ramp = new byte[256 * 4];
+		for (int i = 0; i < ramp.length; i++)
+			ramp[i] = (byte) (i / 4);
+		byte[] result = TracingPreprocessor.posterize(ramp, 1, 4);
+		HashSet<Integer> levels = new HashSet<Integer>();
+		boolean monotonic = true;
+		for (int i = 0; i < result.length; i++) {
+			levels.add(result[i] & 0xff);
+			if (i > 0)
+				monotonic &= (result[i] & 0xff) >= (result[i - 1] & 0xff);
+		}
+		check(levels.size() == 4, "posterize reduces a ramp to 4 levels, got "
+				+ levels.size());
+		check(monotonic, "posterize keeps the order of gray levels");
+
+		// Two RGB colors are kept apart when two colors are allowed
+		byte[] rgb = new byte[100 * 3];
+		for (int i = 0; i < 100; i++) {
+			rgb[i * 3] = (byte) (i < 50 ? 255 : 0);
+			rgb[i * 3 + 2] = (byte) (i < 50 ? 0 : 255);
+		}
+		result = TracingPreprocessor.posterize(rgb, 3, 2);
+		check((result[0] & 0xff) > 200 && (result[2] & 0xff) < 50
+				&& (result[99 * 3] & 0xff) < 50
+				&& (result[99 * 3 + 2] & 0xff) > 200,
+				"posterize keeps two RGB colors apart");
+
+		final byte[] large = getNoise(1000 * 1000 * 3, 2);
+		time("posterize 1000 x 1000 RGB to 16 colors", 3, new Runnable() {
+			public void run() {
+				TracingPreprocessor.posterize(large, 3, 16);
+			}
+		});
+	}
+
+	private static void checkSummedAreaTable() {
+		int width = 37, height = 23;
+		final BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_3BYTE_BGR);
+		Random random = new Random(3);
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				image.setRGB(x, y, random.nextInt(0x1000000));
+		SummedAreaTable table = SummedAreaTable.create(image);
+		check(table != null && table.getNumBands() == 3,
+				"summed-area table is created for 3 byte images");
+		check(SummedAreaTable.create(new BufferedImage(4, 4,
+				BufferedImage.TYPE_INT_RGB)) == null,
+				"summed-area table is not created for int images");
+
+		// The table rows run bottom-up, compare with brute force sums
+		long[] sums = new long[3];
+		boolean correct = true;
+		for (int i = 0; i < 200; i++) {
+			int x1 = random.nextInt(width), x2 = x1 + 1
+					+ random.nextInt(width - x1);
+			int y1 = random.nextInt(height), y2 = y1 + 1
+					+ random.nextInt(height - y1);
+			table.getSums(x1, y1, x2, y2, sums);
+			long r = 0, g = 0, b = 0;
+			for (int y = y1; y < y2; y++) {
+				for (int x = x1; x < x2; x++) {
+					int rgb = image.getRGB(x, height - 1 - y);
+					r += (rgb >> 16) & 0xff;
+					g += (rgb >> 8) & 0xff;
+					b += rgb & 0xff;
+				}
+			}
+			correct &= sums[0] == r && sums[1] == g && sums[2] == b;
+		}
+		check(correct, "summed-area table sums match brute force sums");
+
+		// Average 100k rectangles of up to 64 x 64 pixels in a 4000 x 4000
+		// image, through the table and by brute force.
+		final int size = 4000, count = 100000;
+		final BufferedImage large = new BufferedImage(size, size,
+				BufferedImage.TYPE_3BYTE_BGR);
+		final byte[] data = ((DataBufferByte) large.getRaster()
+				.getDataBuffer()).getData();
+		random.nextBytes(data);
+		time("summed-area table of " + size + " x " + size + " RGB", 2,
+				new Runnable() {
+			public void run() {
+				SummedAreaTable.create(large);
+			}
+		});
+		final SummedAreaTable largeTable = SummedAreaTable.create(large);
+		final int[] rects = new int[count * 4];
+		for (int i = 0; i < rects.length; i += 4) {
+			int x = random.nextInt(size - 64), y = random.nextInt(size - 64);
+			rects[i] = x;
+			rects[i + 1] = y;
+			rects[i + 2] = x + 1 + random.nextInt(64);
+			rects[i + 3] = y + 1 + random.nextInt(64);
+		}
+		final double[] averages = new double[count * 3];
+		final double[] expected = new double[count * 3];
+		double tableTime = time(count + " averages from the table", 1,
+				new Runnable() {
+			public void run() {
+				long[] sums = new long[3];
+				for (int i = 0, j = 0; i < rects.length; i += 4) {
+					largeTable.getSums(rects[i], rects[i + 1], rects[i + 2],
+							rects[i + 3], sums);
+					double area = (rects[i + 2] - rects[i])
+							* (rects[i + 3] - rects[i + 1]);
+					for (int k = 0; k < 3; k++)
+						averages[j++] = sums[k] / area;
+				}
+			}
+		});
+		double bruteTime = time(count + " averages by brute force", 1,
+				new Runnable() {
+			public void run() {
+				// Table rows run bottom-up, the bytes are in B, G, R order
+				for (int i = 0, j = 0; i < rects.length; i += 4) {
+					long r = 0, g = 0, b = 0;
+					for (int y = rects[i + 1]; y < rects[i + 3]; y++) {
+						int offset = ((size - 1 - y) * size + rects[i]) * 3;
+						for (int x = rects[i]; x < rects[i + 2]; x++) {
+							b += data[offset++] & 0xff;
+							g += data[offset++] & 0xff;
+							r += data[offset++] & 0xff;
+						}
+					}
+					double area = (rects[i + 2] - rects[i])
+							* (rects[i + 3] - rects[i + 1]);
+					expected[j++] = r / area;
+					expected[j++] = g / area;
+					expected[j++] = b / area;
+				}
+			}
+		});
+		check(Arrays.equals(averages, expected),
+				"summed-area table averages match brute force averages");
+		System.out.println("  table queries are "
+				+ Math.round(bruteTime / tableTime)
+				+ " times faster than brute force");
+	}
+
+	private static void checkPyramid() {
+		int width = 37, height = 23;
+		BufferedImage image = new BufferedImage(width, height,
+				BufferedImage.TYPE_3BYTE_BGR);
+		Random random = new Random(4);
+		int[] pixels = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int rgb = random.nextInt(0x1000000);
+				image.setRGB(x, y, rgb);
+				pixels[y * width + x] = rgb;
+			}
+		}
+		// The pyramid takes over the pixel buffer of the image
+		RasterPyramid pyramid = RasterPyramid.create(image);
+		check(pyramid != null && pyramid.getNumBands() == 3,
+				"pyramid is created for 3 byte images");
+
+		// Level 0 holds the pixels at their own coordinates, with the
+		// channels in the byte order of the image, B, G, R. Level 1 holds the
+		// averages of 2 x 2 pixels.
+		boolean correct = true, averaged = true;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int rgb = pixels[y * width + x];
+				for (int i = 0; i < 3; i++) {
+					correct &= Math.abs(pyramid.sampleLevel(0, x + 0.5,
+							y + 0.5, i) * 255 - ((rgb >> (i * 8)) & 0xff))
+							< 1e-6;
+				}
+				if (x % 2 == 0 && y % 2 == 0 && x + 1 < width
+						&& y + 1 < height) {
+					for (int i = 0; i < 3; i++) {
+						int shift = i * 8, sum = 0;
+						for (int j = 0; j < 4; j++)
+							sum += (pixels[(y + j / 2) * width + x + j % 2]
+									>> shift) & 0xff;
+						averaged &= Math.abs(pyramid.sampleLevel(1, x + 1,
+								y + 1, i) * 255 - (sum + 2) / 4) < 1e-6;
+					}
+				}
+			}
+		}
+		check(correct, "pyramid level 0 matches the image pixels");
+		check(averaged, "pyramid level 1 averages 2 x 2 pixels");
+	}
+
+	private static void checkRasterOps() {
+		int width = 41, height = 29;
+		RasterOp.Pixels src = new RasterOp.Pixels(getNoise(width * height * 3,
+				5), width, height, 3);
+		byte[] in = src.data;
+
+		byte[] out = RasterOp.map(new Callable() {
+			public Object call(Object obj, Object[] args) {
+				return 1 - ((Double) args[0]).doubleValue();
+			}
+
+			public Object getCallable() {
+				return null;
+			}
+
+			public Scope getScope() {
+				return null;
+			}
+		}).process(src, null).data;
+		boolean correct = true;
+		for (int i = 0; i < in.length; i++)
+			correct &= (out[i] & 0xff) == 255 - (in[i] & 0xff);
+		check(correct, "map inverts all channels");
+
+		out = RasterOp.convolve(new float[] {
+			0, 0, 0,
+			0, 1, 0,
+			0, 0, 0
+		}).process(src, null).data;
+		check(Arrays.equals(in, out), "convolve with identity kernel keeps "
+				+ "the pixels");
+
+		// An asymmetric kernel, compared with brute force convolution with
+		// clamped edges
+		float[] kernel = { 0.1f, 0.2f, 0f, 0.3f, 0.4f, 0f };
+		out = RasterOp.convolve(kernel, 3, 2).process(src, null).data;
+		correct = true;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				for (int i = 0; i < 3; i++) {
+					double sum = 0;
+					for (int ky = 0; ky < 2; ky++) {
+						int sy = Math.min(Math.max(y + ky - 1, 0), height - 1);
+						for (int kx = 0; kx < 3; kx++) {
+							int sx = Math.min(Math.max(x + kx - 1, 0),
+									width - 1);
+							sum += kernel[ky * 3 + kx]
+									* (in[(sy * width + sx) * 3 + i] & 0xff);
+						}
+					}
+					correct &= Math.abs(Math.round(sum)
+							- (out[(y * width + x) * 3 + i] & 0xff)) <= 1;
+				}
+			}
+		}
+		check(correct, "convolve matches brute force convolution");
+
+		out = RasterOp.threshold(0.5).process(src, null).data;
+		correct = true;
+		for (int i = 0; i < in.length; i++)
+			correct &= (out[i] & 0xff) == ((in[i] & 0xff) >= 128 ? 255 : 0);
+		check(correct, "threshold turns values from 0.5 up white");
+
+		// Dithering a flat gray to 2 levels keeps its average
+		byte[] gray = new byte[100 * 100];
+		Arrays.fill(gray, (byte) 64);
+		out = RasterOp.dither().process(new RasterOp.Pixels(gray, 100, 100, 1),
+				null).data;
+		long sum = 0;
+		correct = true;
+		for (int i = 0; i < out.length; i++) {
+			int value = out[i] & 0xff;
+			correct &= value == 0 || value == 255;
+			sum += value;
+		}
+		check(correct, "dither reduces to 2 levels");
+		checkEquals(64, (double) sum / out.length, 2,
+				"dither keeps the average gray");
+
+		// Swap the first and last channel and add an offset to the middle
+		out = RasterOp.colorMatrix(new float[] {
+			0, 0, 1, 0,
+			0, 1, 0, 0.1f,
+			1, 0, 0, 0
+		}).process(src, null).data;
+		correct = true;
+		for (int i = 0; i < in.length; i += 3) {
+			correct &= out[i] == in[i + 2] && out[i + 2] == in[i]
+					&& Math.abs((out[i + 1] & 0xff)
+							- Math.min((in[i + 1] & 0xff) + 25.5, 255)) <= 0.5;
+		}
+		check(correct, "color matrix swaps and offsets channels");
+
+		// Pipelines use the source as their spare buffer
+		out = RasterOp.threshold(0.5).concat(RasterOp.colorMatrix(new float[] {
+			-1, 0, 0, 1,
+			0, -1, 0, 1,
+			0, 0, -1, 1
+		})).process(new RasterOp.Pixels(in.clone(), width, height, 3), null)
+				.data;
+		correct = true;
+		for (int i = 0; i < in.length; i++)
+			correct &= (out[i] & 0xff) == ((in[i] & 0xff) >= 128 ? 0 : 255);
+		check(correct, "concatenated operations apply in order");
+
+		// The same result on one and on several threads
+		int processors = Runtime.getRuntime().availableProcessors();
+		int threads = Math.max(processors, 4);
+		final RasterOp blur = RasterOp.convolve(new float[] {
+			1 / 16f, 2 / 16f, 1 / 16f,
+			2 / 16f, 4 / 16f, 2 / 16f,
+			1 / 16f, 2 / 16f, 1 / 16f
+		});
+		final RasterOp.Pixels large = new RasterOp.Pixels(
+				getNoise(1000 * 1000 * 3, 6), 1000, 1000, 3);
+		int previous = RasterOp.getThreadCount();
+		try {
+			double[] times = new double[2];
+			byte[][] results = new byte[2][];
+			for (int i = 0; i < 2; i++) {
+				int count = i == 0 ? 1 : threads;
+				RasterOp.setThreadCount(count);
+				results[i] = blur.process(large, null).data;
+				times[i] = time("3 x 3 blur of 1000 x 1000 RGB on " + count
+						+ (count == 1 ? " thread" : " threads"), 5,
+						new Runnable() {
+					public void run() {
+						blur.process(large, null);
+					}
+				});
+			}
+			check(Arrays.equals(results[0], results[1]),
+					"operations on several threads match one thread");
+			System.out.println("  speedup on " + threads + " threads with "
+					+ processors + (processors == 1 ? " processor: "
+							: " processors: ")
+					+ Math.round(times[0] / times[1] * 100) / 100.0);
+		} finally {
+			RasterOp.setThreadCount(previous);
+		}
+	}
+
+	private static void checkPathFitter() {
+		// Points along a sine wave, fitted with the default tolerance
+		final double tolerance = 2.5;
+		final int count = 400;
+		final double[] xs = new double[count], ys = new double[count];
+		for (int i = 0; i < count; i++) {
+			xs[i] = i;
+			ys[i] = 50 * Math.sin(i / 40.0);
+		}
+		PathFitter fitter = new PathFitter(tolerance);
+		for (int i = 0; i < count; i++)
+			fitter.add(xs[i], ys[i]);
+		fitter.finish();
+		Segment[] segments = fitter.getSegments();
+		check(segments.length >= 2 && segments.length < count / 10,
+				"path fitter reduces " + count + " points to "
+				+ segments.length + " segments");
+		double maxDistance = 0;
+		for (int i = 0; i < count; i++)
+			maxDistance = Math.max(maxDistance,
+					getDistance(segments, xs[i], ys[i]));
+		// Allow for the sampling of the curves.
+		check(maxDistance <= tolerance * 1.5,
+				"path fitter stays within the tolerance, max distance "
+				+ maxDistance);
+		check(segments[0].point.x == xs[0] && segments[0].point.y == ys[0]
+				&& segments[segments.length - 1].point.x == xs[count - 1],
+				"path fitter keeps the end points");
+
+		time("path fitting of " + count + " points", 20, new Runnable() {
+			public void run() {
+				PathFitter fitter = new PathFitter(tolerance);
+				for (int i = 0; i < count; i++)
+					fitter.add(xs[i], ys[i]);
+				fitter.finish();
+			}
+		});
+	}
+
+	/**
+	 * Returns the distance of the point to the curves, sampled in 100 steps
+	 * per curve.
+	 */
+	private static double getDistance(Segment[] segments, double x,
+			double y) {
+		double min = Double.MAX_VALUE;
+		for (int i = 1; i < segments.length; i++) {
+			Segment seg1 = segments[i - 1], seg2 = segments[i];
+			double p1x = seg1.point.x, p1y = seg1.point.y;
+			double c1x = p1x + seg1.handleOut.x, c1y = p1y + seg1.handleOut.y;
+			double p2x = seg2.point.x, p2y = seg2.point.y;
+			double c2x = p2x + seg2.handleIn.x, c2y = p2y + seg2.handleIn.y;
+			for (int j = 0; j <= 100; j++) {
+				double t = j / 100.0, u = 1 - t;
+				double a = u * u * u, b = 3 * u * u * t, c = 3 * u * t * t,
+						d = t * t * t;
+				double dx = a * p1x + b * c1x + c * c2x + d * p2x - x;
+				double dy = a * p1y + b * c1y + c * c2y + d * p2y - y;
+				min = Math.min(min, Math.sqrt(dx * dx + dy * dy));
+			}
+		}
+		return min;
+	}
+
+	private static byte[] getNoise(int length, long seed) {
+		byte[] data = new byte[length];
+		new Random(seed).nextBytes(data);
+		return data;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Scriptographer
+ *
+ * This file is part of Scriptographer, a Scripting Plugin for Adobe Illustrator
+ * http://scriptographer.org/
+ *
+ * Copyright (c) 2002-2010, Juerg Lehni
+ * http://scratchdisk.com/
+ *
+ * All rights reserved. See LICENSE file for details.
+ *
+ * File created on Oct 19, 2026.
+ */
+
+package com.scriptographer.list;
+
+import com.scriptographer.Check;
+import com.scriptographer.CommitManager;
+
+/**
+ * Checks the bulk reads and writes of {@link AbstractStructList} on a list
+ * whose native layer is an array, and counts the native calls needed to
+ * read all entries once per execution.
+ *
+ * @author lehni
+ */
+public class StructListCheck extends Check {
+
+	public static void run() {
+		int size = 1000;
+		final TestList list = new TestList(size);
+		double sum = 0;
+		for (int i = 0; i < size; i++)
+			sum += list.get(i).getValue();
+		check(sum == (size - 1) * size / 2 * 10.0, "entries read their values");
+		check(list.gets == 1,
+				"reading all entries fetches them in one call, took "
+				+ list.gets);
+
+		// Changes are written back in one call, covering the range between
+		// the first and last changed entry
+		list.get(10).setValue(-1);
+		list.get(20).setValue(-2);
+		list.commit(false);
+		check(list.sets == 1 && list.setCount == 11,
+				"changed entries are written back in one call");
+		check(list.store[10] == -1 && list.store[20] == -2
+				&& list.store[15] == 150,
+				"changed entries are written back correctly");
+
+		// A new execution fetches the values again, once
+		CommitManager.version++;
+		list.gets = 0;
+		sum = 0;
+		for (int i = 0; i < size; i++)
+			sum += list.get(i).getValue();
+		check(list.gets == 1 && list.get(20).getValue() == -2,
+				"entries are fetched again once after a commit");
+
+		time("reading " + size + " entries per execution", 1000,
+				new Runnable() {
+			public void run() {
+				CommitManager.version++;
+				for (int i = 0; i < list.size(); i++)
+					list.get(i).getValue();
+			}
+		});
+		System.out.println("  native calls per execution: "
+				+ (list.calls / 2000) + ", instead of " + (size + 1)
+				+ " with one call per entry");
+	}
+
+	/**
+	 * A list with one value per entry, stored in an array in place of the
+	 * native object.
+	 */
+	private static class TestList extends AbstractStructList<Object, TestEntry> {
+		double[] store;
+		int calls = 0;
+		int gets = 0;
+		int sets = 0;
+		int setCount = 0;
+
+		TestList(int size) {
+			super(new Object(), 1);
+			store = new double[size];
+			for (int i = 0; i < size; i++)
+				store[i] = i * 10;
+			// The constructor's update() ran before the store existed
+			version = -1;
+			update();
+		}
+
+		public Class<TestEntry> getComponentType() {
+			return TestEntry.class;
+		}
+
+		protected int nativeGetSize() {
+			calls++;
+			return store != null ? store.length : 0;
+		}
+
+		protected int nativeRemove(int fromIndex, int toIndex) {
+			throw new UnsupportedOperationException();
+		}
+
+		protected boolean nativeGet(int index, int count, double[] values) {
+			calls++;
+			gets++;
+			System.arraycopy(store, index, values, 0, count);
+			return true;
+		}
+
+		protected boolean nativeSet(int index, int count, double[] values) {
+			calls++;
+			sets++;
+			setCount = count;
+			System.arraycopy(values, 0, store, index, count);
+			return true;
+		}
+
+		protected TestEntry createEntry(int index) {
+			return new TestEntry(this, index);
+		}
+	}
+
+	private static class TestEntry extends AbstractStructList.Entry<Object> {
+		private TestList list;
+		private double value;
+
+		TestEntry(TestList list, int index) {
+			super(list.reference, index);
+			this.list = list;
+		}
+
+		protected AbstractStructList<Object, ?> getList() {
+			return list;
+		}
+
+		protected boolean nativeInsert() {
+			return false;
+		}
+
+		protected void getValues(double[] values, int offset) {
+			values[offset] = value;
+		}
+
+		protected void setValues(double[] values, int offset) {
+			value = values[offset];
+		}
+
+		double getValue() {
+			update();
+			return value;
+		}
+
+		void setValue(double value) {
+			update();
+			this.value = value;
+			markDirty();
+		}
+	}
+}